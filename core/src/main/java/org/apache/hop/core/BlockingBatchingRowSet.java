@@ -159,6 +159,19 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<IRo
     return row;
   }
 
+  @Override
+  public int drainTo(Object[][] rows, int offset, int maxRows) {
+    int nrRows = 0;
+    while (nrRows < maxRows) {
+      Object[] row = getRowWait(0, TimeUnit.MILLISECONDS);
+      if (row == null) {
+        break;
+      }
+      rows[offset + nrRows++] = row;
+    }
+    return nrRows;
+  }
+
   @Override
   public int size() {
     // does BlockingQueue.size() grab a lock? If so, frequent call to this method
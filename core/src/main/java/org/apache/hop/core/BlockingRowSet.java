@@ -19,6 +19,9 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
 
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -118,6 +121,29 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     }
   }
 
+  /** Only waits when the queue is full, not for every row. */
+  @Override
+  public int putRows(IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    this.rowMeta = rowMeta;
+    try {
+      for (int i = 0; i < nrRows; i++) {
+        if (!queArray.offer(rows[i])
+            && !queArray.offer(rows[i], timeoutPut, TimeUnit.MILLISECONDS)) {
+          return i;
+        }
+      }
+    } catch (InterruptedException | NullPointerException e) {
+      return 0;
+    }
+    return nrRows;
+  }
+
+  /** Moves the available rows while taking the queue lock only once. */
+  @Override
+  public int drainTo(Object[][] rows, int offset, int maxRows) {
+    return queArray.drainTo(new ArrayCollector(rows, offset), maxRows);
+  }
+
   @Override
   public int size() {
     return queArray.size();
@@ -128,4 +154,32 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     queArray.clear();
     done.set(false);
   }
+
+  /** Adds the drained rows to an array instead of a collection. */
+  private static class ArrayCollector extends AbstractCollection<Object[]> {
+    private final Object[][] rows;
+    private final int offset;
+    private int size;
+
+    ArrayCollector(Object[][] rows, int offset) {
+      this.rows = rows;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean add(Object[] row) {
+      rows[offset + size++] = row;
+      return true;
+    }
+
+    @Override
+    public Iterator<Object[]> iterator() {
+      return Arrays.asList(rows).subList(offset, offset + size).iterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
 }
@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.util.Utils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A condition which is bound to the layout of the rows it evaluates. The field positions are
+ * looked up once, regular expressions and LIKE patterns against a constant are compiled once and a
+ * constant IN list is turned into a hash set. Evaluating a row then no longer needs any lookups by
+ * name.
+ *
+ * <p>A compiled condition doesn't change after it's created so, unlike {@link Condition}, it can be
+ * used by several transform copies at the same time. It needs to be compiled again when the
+ * condition or the row layout changes.
+ */
+public class CompiledCondition {
+
+  private final Condition condition;
+  private final IEvaluator evaluator;
+
+  private CompiledCondition(Condition condition, IEvaluator evaluator) {
+    this.condition = condition;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * Compile the condition against the given row layout.
+   *
+   * @param condition the condition to compile
+   * @param rowMeta the layout of the rows which will be evaluated
+   * @return the compiled condition
+   */
+  public static CompiledCondition compile(Condition condition, IRowMeta rowMeta) {
+    return new CompiledCondition(condition, compileCondition(condition, rowMeta));
+  }
+
+  /**
+   * Evaluate the condition for a row with the layout this condition was compiled for.
+   *
+   * @param r the row data
+   * @return true if the condition evaluates to true.
+   */
+  public boolean evaluate(Object[] r) {
+    try {
+      return evaluator.evaluate(r);
+    } catch (Exception e) {
+      throw new RuntimeException(
+          "Unexpected error evaluation condition [" + condition.toString() + "]", e);
+    }
+  }
+
+  /** @return the condition which was compiled */
+  public Condition getCondition() {
+    return condition;
+  }
+
+  private static IEvaluator compileCondition(Condition condition, IRowMeta rowMeta) {
+    if (condition.isAtomic()) {
+      return compileAtomic(condition, rowMeta);
+    }
+
+    List<Condition> children = condition.getChildren();
+    IEvaluator[] evaluators = new IEvaluator[children.size()];
+    int[] operators = new int[children.size()];
+    for (int i = 0; i < evaluators.length; i++) {
+      evaluators[i] = compileCondition(children.get(i), rowMeta);
+      operators[i] = children.get(i).getOperator();
+    }
+    return new CompositeEvaluator(evaluators, operators, condition.isNegated());
+  }
+
+  private static IEvaluator compileAtomic(Condition condition, IRowMeta rowMeta) {
+    boolean negate = condition.isNegated();
+    if (condition.getFunction() == Condition.FUNC_TRUE) {
+      return r -> !negate;
+    }
+
+    int leftFieldnr = indexOfValue(rowMeta, condition.getLeftValuename());
+    if (leftFieldnr < 0) {
+      return r -> false; // no fields to evaluate
+    }
+    int rightFieldnr = indexOfValue(rowMeta, condition.getRightValuename());
+
+    // A constant value on the right takes precedence over a field
+    //
+    ValueMetaAndData rightExact = condition.getRightExact();
+    IValueMeta rightMeta = rightExact != null ? rightExact.getValueMeta() : null;
+    Object rightValue = rightExact != null ? rightExact.getValueData() : null;
+    if (rightValue != null || rightFieldnr < 0) {
+      rightFieldnr = -1;
+    } else {
+      rightMeta = rowMeta.getValueMeta(rightFieldnr);
+    }
+
+    return new AtomicEvaluator(
+        condition.getFunction(),
+        negate,
+        leftFieldnr,
+        rowMeta.getValueMeta(leftFieldnr),
+        rightFieldnr,
+        rightMeta,
+        rightValue);
+  }
+
+  private static int indexOfValue(IRowMeta rowMeta, String valueName) {
+    if (Utils.isEmpty(valueName)) {
+      return -1;
+    }
+    return rowMeta.indexOfValue(valueName);
+  }
+
+  /** Converts a LIKE expression into a regular expression */
+  static String likeToRegex(String like) {
+    return like.replace("%", ".*").replace("?", ".");
+  }
+
+  /** Splits the IN list the same way as {@link Condition} does */
+  static String[] splitInList(IValueMeta valueMeta, Object value) throws HopValueException {
+    String[] inList = Const.splitString(valueMeta.getString(value), ';', true);
+    for (int i = 0; i < inList.length; i++) {
+      inList[i] = inList[i] == null ? null : inList[i].replace("\\", "");
+    }
+    Arrays.sort(inList);
+    return inList;
+  }
+
+  @FunctionalInterface
+  private interface IEvaluator {
+    boolean evaluate(Object[] r) throws HopValueException;
+  }
+
+  private static class CompositeEvaluator implements IEvaluator {
+    private final IEvaluator[] evaluators;
+    private final int[] operators;
+    private final boolean negate;
+
+    CompositeEvaluator(IEvaluator[] evaluators, int[] operators, boolean negate) {
+      this.evaluators = evaluators;
+      this.operators = operators;
+      this.negate = negate;
+    }
+
+    @Override
+    public boolean evaluate(Object[] r) throws HopValueException {
+      boolean retval = evaluators[0].evaluate(r);
+
+      // The right hand side is only evaluated when the left hand side doesn't decide
+      //
+      for (int i = 1; i < evaluators.length; i++) {
+        switch (operators[i]) {
+          case Condition.OPERATOR_OR:
+            retval = retval || evaluators[i].evaluate(r);
+            break;
+          case Condition.OPERATOR_AND:
+            retval = retval && evaluators[i].evaluate(r);
+            break;
+          case Condition.OPERATOR_OR_NOT:
+            retval = retval || !evaluators[i].evaluate(r);
+            break;
+          case Condition.OPERATOR_AND_NOT:
+            retval = retval && !evaluators[i].evaluate(r);
+            break;
+          case Condition.OPERATOR_XOR:
+            retval = retval ^ evaluators[i].evaluate(r);
+            break;
+          default:
+            break;
+        }
+      }
+      return negate != retval;
+    }
+  }
+
+  private static class AtomicEvaluator implements IEvaluator {
+    private final int function;
+    private final boolean negate;
+    private final int leftFieldnr;
+    private final IValueMeta leftMeta;
+
+    /** The position of the right hand field or -1 if we compare with a constant value */
+    private final int rightFieldnr;
+
+    private final IValueMeta rightMeta;
+    private final Object rightValue;
+
+    /** Prepared from a constant value on the right, null if it has to be done for every row */
+    private Pattern pattern;
+
+    private Set<String> inSet;
+    private String rightString;
+
+    AtomicEvaluator(
+        int function,
+        boolean negate,
+        int leftFieldnr,
+        IValueMeta leftMeta,
+        int rightFieldnr,
+        IValueMeta rightMeta,
+        Object rightValue) {
+      this.function = function;
+      this.negate = negate;
+      this.leftFieldnr = leftFieldnr;
+      this.leftMeta = leftMeta;
+      this.rightFieldnr = rightFieldnr;
+      this.rightMeta = rightMeta;
+      this.rightValue = rightValue;
+
+      if (rightFieldnr < 0 && rightMeta != null) {
+        prepareConstant();
+      }
+    }
+
+    /**
+     * Does the work which only depends on the constant value once. If that fails we leave it to
+     * the evaluation of every row so that errors surface the same way as they do in {@link
+     * Condition}.
+     */
+    private void prepareConstant() {
+      try {
+        switch (function) {
+          case Condition.FUNC_REGEXP:
+            if (rightValue != null) {
+              pattern = Pattern.compile(rightMeta.getCompatibleString(rightValue));
+            }
+            break;
+          case Condition.FUNC_LIKE:
+            if (rightValue != null) {
+              pattern = Pattern.compile(likeToRegex(rightMeta.getCompatibleString(rightValue)));
+            }
+            break;
+          case Condition.FUNC_IN_LIST:
+            inSet = new HashSet<>(Arrays.asList(splitInList(rightMeta, rightValue)));
+            break;
+          case Condition.FUNC_CONTAINS:
+          case Condition.FUNC_STARTS_WITH:
+          case Condition.FUNC_ENDS_WITH:
+            if (rightValue != null) {
+              rightString = rightMeta.getCompatibleString(rightValue);
+            }
+            break;
+          default:
+            break;
+        }
+      } catch (Exception e) {
+        pattern = null;
+        inSet = null;
+        rightString = null;
+      }
+    }
+
+    @Override
+    public boolean evaluate(Object[] r) throws HopValueException {
+      Object field = r[leftFieldnr];
+      Object field2 = rightFieldnr >= 0 ? r[rightFieldnr] : rightValue;
+
+      boolean retval;
+      switch (function) {
+        case Condition.FUNC_EQUAL:
+          retval = leftMeta.compare(field, rightMeta, field2) == 0;
+          break;
+        case Condition.FUNC_NOT_EQUAL:
+          retval = leftMeta.compare(field, rightMeta, field2) != 0;
+          break;
+        case Condition.FUNC_SMALLER:
+          retval = !leftMeta.isNull(field) && leftMeta.compare(field, rightMeta, field2) < 0;
+          break;
+        case Condition.FUNC_SMALLER_EQUAL:
+          retval = !leftMeta.isNull(field) && leftMeta.compare(field, rightMeta, field2) <= 0;
+          break;
+        case Condition.FUNC_LARGER:
+          retval = leftMeta.compare(field, rightMeta, field2) > 0;
+          break;
+        case Condition.FUNC_LARGER_EQUAL:
+          retval = leftMeta.compare(field, rightMeta, field2) >= 0;
+          break;
+        case Condition.FUNC_REGEXP:
+        case Condition.FUNC_LIKE:
+          if (leftMeta.isNull(field) || field2 == null) {
+            retval = false;
+          } else {
+            Pattern regex = pattern;
+            if (regex == null) {
+              String expression = rightMeta.getCompatibleString(field2);
+              if (function == Condition.FUNC_LIKE) {
+                expression = likeToRegex(expression);
+              }
+              regex = Pattern.compile(expression);
+            }
+            retval = regex.matcher(leftMeta.getCompatibleString(field)).matches();
+          }
+          break;
+        case Condition.FUNC_NULL:
+          retval = leftMeta.isNull(field);
+          break;
+        case Condition.FUNC_NOT_NULL:
+          retval = !leftMeta.isNull(field);
+          break;
+        case Condition.FUNC_IN_LIST:
+          {
+            String searchString = leftMeta.getCompatibleString(field);
+            if (inSet != null) {
+              retval = searchString != null && inSet.contains(searchString);
+            } else {
+              String[] inList = splitInList(rightMeta, field2);
+              retval = searchString != null && Arrays.binarySearch(inList, searchString) >= 0;
+            }
+          }
+          break;
+        case Condition.FUNC_CONTAINS:
+          {
+            String string = leftMeta.getCompatibleString(field);
+            retval = string != null && string.contains(getRightString(field2));
+          }
+          break;
+        case Condition.FUNC_STARTS_WITH:
+          {
+            String string = leftMeta.getCompatibleString(field);
+            retval = string != null && string.startsWith(getRightString(field2));
+          }
+          break;
+        case Condition.FUNC_ENDS_WITH:
+          {
+            String string = leftMeta.getCompatibleString(field);
+            if (Utils.isEmpty(string) || field2 == null) {
+              retval = false;
+            } else {
+              String end = getRightString(field2);
+              retval = end != null && string.endsWith(end);
+            }
+          }
+          break;
+        default:
+          retval = false;
+          break;
+      }
+
+      // Only NOT makes sense, the rest doesn't, so ignore
+      //
+      return negate != retval;
+    }
+
+    private String getRightString(Object field2) throws HopValueException {
+      if (rightString != null) {
+        return rightString;
+      }
+      return rightMeta.getCompatibleString(field2);
+    }
+  }
+}
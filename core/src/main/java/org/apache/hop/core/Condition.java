@@ -320,6 +320,17 @@ public class Condition implements Cloneable {
     rightFieldnr = -2;
   }
 
+  /**
+   * Bind this condition to a row layout so that it can be evaluated for a lot of rows without
+   * looking up fields by name or compiling patterns over and over again.
+   *
+   * @param rowMeta the layout of the rows which will be evaluated
+   * @return the compiled condition
+   */
+  public CompiledCondition compile(IRowMeta rowMeta) {
+    return CompiledCondition.compile(this, rowMeta);
+  }
+
   /**
    * Evaluate the condition...
    *
@@ -466,15 +477,13 @@ public class Condition implements Cloneable {
             }
             break;
           case FUNC_LIKE:
-            // Converts to a regular expression
-            // TODO: optimize the patterns and String replacements
+            // Converts to a regular expression, see compile() to do this only once
             //
             if (fieldMeta.isNull(field) || field2 == null) {
               retval = false;
             } else {
-              String regex = fieldMeta2.getCompatibleString(field2);
-              regex = regex.replace("%", ".*");
-              regex = regex.replace("?", ".");
+              String regex =
+                  CompiledCondition.likeToRegex(fieldMeta2.getCompatibleString(field2));
               retval = Pattern.matches(regex, fieldMeta.getCompatibleString(field));
             }
             break;
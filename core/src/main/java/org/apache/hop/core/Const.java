@@ -397,6 +397,20 @@ public class Const {
   public static final String HOP_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE =
       "HOP_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE";
 
+  /**
+   * The maximum amount of memory in MB a single copy of the Memory Group By transform can use to
+   * keep its groups in before it starts to spill part of them to disk. When not set a quarter of the
+   * maximum heap size is used.
+   */
+  public static final String HOP_MEMORY_GROUP_BY_MEMORY_LIMIT = "HOP_MEMORY_GROUP_BY_MEMORY_LIMIT";
+
+  /**
+   * The maximum amount of memory in MB a single copy of the Database Lookup or Dimension Lookup
+   * transform can use for its lookup cache. The least recently used rows are removed from the cache
+   * when it grows beyond this limit. When not set only the cache size in rows is taken into account.
+   */
+  public static final String HOP_LOOKUP_CACHE_MEMORY_LIMIT = "HOP_LOOKUP_CACHE_MEMORY_LIMIT";
+
   /**
    * You can use this variable to speed up hostname lookup. Hostname lookup is performed by Hop so
    * that it is capable of logging the server on which a workflow or pipeline is executed.
@@ -566,6 +580,38 @@ public class Const {
   /** Set this variable to Y if you want to test a more efficient batching row set. (default = N) */
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * Set this variable to N if you want to disable the lock-free row set which is used by default on
+   * hops between a single copy of a transform and a single copy of the next transform. (default =
+   * Y)
+   */
+  public static final String HOP_SPSC_ROWSET = "HOP_SPSC_ROWSET";
+
+  /**
+   * Set this variable to Y to keep track of the time transforms spend getting rows, putting rows
+   * and processing. (default = N)
+   */
+  public static final String HOP_TRANSFORM_TIMINGS = "HOP_TRANSFORM_TIMINGS";
+
+  /**
+   * A comma separated list of directories to write temporary (spill) files to. Transforms like Sort
+   * Rows, Group By and Join Rows will spread their files over these directories, so you can use
+   * several disks at once. When not set the directory configured in the transform is used.
+   */
+  public static final String HOP_SPILL_DIRECTORIES = "HOP_SPILL_DIRECTORIES";
+
+  /**
+   * The codec used to compress temporary (spill) files: NONE, LZ4 or ZSTD. When not set, LZ4 is
+   * used by transforms with the compression option enabled and NONE by all others.
+   */
+  public static final String HOP_SPILL_CODEC = "HOP_SPILL_CODEC";
+
+  /** The size in bytes of the I/O buffer used to read and write a temporary (spill) file */
+  public static final String HOP_SPILL_BUFFER_SIZE = "HOP_SPILL_BUFFER_SIZE";
+
+  /** The maximum number of resolved VFS file objects to cache, 0 to disable the cache */
+  public static final String HOP_VFS_FILE_OBJECT_CACHE_SIZE = "HOP_VFS_FILE_OBJECT_CACHE_SIZE";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at
    * one time.
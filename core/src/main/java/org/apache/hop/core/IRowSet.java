@@ -45,6 +45,26 @@ public interface IRowSet {
    */
   boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu);
 
+  /**
+   * Offer a number of rows of data to this rowset in one go. If the buffer is full, wait (block) for
+   * a small period of time. Row sets can override this method to amortize their synchronization
+   * overhead over the whole batch.
+   *
+   * @param rowMeta The description of the row data
+   * @param rows the rows of data
+   * @param nrRows the number of rows to take from the start of the array
+   * @return the number of rows that were added to the rowset. This is less than nrRows if the
+   *     buffer was full.
+   */
+  default int putRows(IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    for (int i = 0; i < nrRows; i++) {
+      if (!putRow(rowMeta, rows[i])) {
+        return i;
+      }
+    }
+    return nrRows;
+  }
+
   /**
    * Get a row from the input buffer, it blocks for a short period until a new row becomes
    * available. Otherwise, it returns null.
@@ -67,6 +87,26 @@ public interface IRowSet {
    */
   Object[] getRowWait(long timeout, TimeUnit tu);
 
+  /**
+   * Move the rows which are immediately available to the given array without waiting.
+   *
+   * @param rows the array to store the rows in
+   * @param offset the index in the array of the first row to store
+   * @param maxRows the maximum number of rows to move
+   * @return the number of rows moved to the array
+   */
+  default int drainTo(Object[][] rows, int offset, int maxRows) {
+    int nrRows = 0;
+    while (nrRows < maxRows) {
+      Object[] row = getRowImmediate();
+      if (row == null) {
+        break;
+      }
+      rows[offset + nrRows++] = row;
+    }
+    return nrRows;
+  }
+
   /** @return Set indication that there is no more input */
   void setDone();
 
@@ -111,6 +151,14 @@ public interface IRowSet {
   /** @return true if this row set is blocking. */
   boolean isBlocking();
 
+  /**
+   * @return true if reading from and writing to this row set doesn't take a lock. Transforms don't
+   *     need to throttle themselves on such a row set to reduce stress on the locking system.
+   */
+  default boolean isLockFree() {
+    return false;
+  }
+
   /** Clear this rowset: remove all rows and remove the "done" flag. */
   void clear();
 }
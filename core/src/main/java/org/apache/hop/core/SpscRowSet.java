@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A row set backed by a lock-free ring buffer. It is only safe to use when exactly one thread puts
+ * rows into it and exactly one (other) thread reads rows from it. That is the case for a hop
+ * between a single copy of a transform and a single copy of the next transform.
+ *
+ * <p>Instead of taking a lock for every row, the writer and the reader only publish their
+ * position in the buffer. When a reader finds the buffer empty (or a writer finds it full) it
+ * first spins for a little while, then yields the CPU and finally parks until the other side
+ * signals that there is something to do or the timeout expires.
+ */
+public class SpscRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of times we busy-spin before yielding */
+  private static final int SPIN_TRIES = 100;
+
+  /** The number of times we yield before parking the thread */
+  private static final int YIELD_TRIES = 10;
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The next position to write to, only updated by the writer */
+  private final AtomicLong tail = new AtomicLong(0L);
+
+  /** The next position to read from, only updated by the reader */
+  private final AtomicLong head = new AtomicLong(0L);
+
+  /** Local copies of the position of the other side, to avoid reading the shared one too often */
+  private long cachedHead;
+
+  private long cachedTail;
+
+  private final AtomicReference<Thread> parkedReader = new AtomicReference<>();
+  private final AtomicReference<Thread> parkedWriter = new AtomicReference<>();
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new single producer, single consumer row set with maxSize capacity.
+   *
+   * @param maxSize the maximum number of rows kept in this row set
+   */
+  public SpscRowSet(int maxSize) {
+    super();
+    capacity = Math.max(1, maxSize);
+    int bufferSize = Integer.highestOneBit(capacity);
+    if (bufferSize < capacity) {
+      bufferSize <<= 1;
+    }
+    buffer = new Object[bufferSize][];
+    mask = bufferSize - 1;
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.get();
+    if (position - cachedHead >= capacity) {
+      cachedHead = head.get();
+      if (position - cachedHead >= capacity && !waitForSpace(position, tu.toNanos(time))) {
+        return false;
+      }
+    }
+
+    buffer[(int) position & mask] = rowData;
+    tail.set(position + 1);
+
+    Thread reader = parkedReader.get();
+    if (reader != null) {
+      LockSupport.unpark(reader);
+    }
+    return true;
+  }
+
+  /** Publishes as many rows as there is room for with a single update of the write position. */
+  @Override
+  public int putRows(IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    if (nrRows <= 0) {
+      return 0;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.get();
+    if (position - cachedHead + nrRows > capacity) {
+      cachedHead = head.get();
+      if (position - cachedHead >= capacity && !waitForSpace(position, timeoutPut * 1000000L)) {
+        return 0;
+      }
+    }
+    int count = (int) Math.min(nrRows, capacity - (position - cachedHead));
+    for (int i = 0; i < count; i++) {
+      if (rows[i] == null) {
+        count = i;
+        break;
+      }
+      buffer[(int) (position + i) & mask] = rows[i];
+    }
+    tail.set(position + count);
+
+    Thread reader = parkedReader.get();
+    if (reader != null) {
+      LockSupport.unpark(reader);
+    }
+    return count;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = head.get();
+    if (position >= cachedTail) {
+      cachedTail = tail.get();
+      if (position >= cachedTail) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long position = head.get();
+    if (position >= cachedTail) {
+      cachedTail = tail.get();
+      if (position >= cachedTail && !waitForRows(position, tu.toNanos(timeout))) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  /** Takes all available rows with a single update of the read position. */
+  @Override
+  public int drainTo(Object[][] rows, int offset, int maxRows) {
+    long position = head.get();
+    if (position + maxRows > cachedTail) {
+      cachedTail = tail.get();
+    }
+    int count = (int) Math.min(maxRows, cachedTail - position);
+    if (count <= 0) {
+      return 0;
+    }
+    for (int i = 0; i < count; i++) {
+      int index = (int) (position + i) & mask;
+      rows[offset + i] = buffer[index];
+      buffer[index] = null; // prevent any hold-up to GC
+    }
+    head.set(position + count);
+
+    Thread writer = parkedWriter.get();
+    if (writer != null) {
+      LockSupport.unpark(writer);
+    }
+    return count;
+  }
+
+  private Object[] take(long position) {
+    int index = (int) position & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    head.set(position + 1);
+
+    Thread writer = parkedWriter.get();
+    if (writer != null) {
+      LockSupport.unpark(writer);
+    }
+    return row;
+  }
+
+  /**
+   * Wait until the writer has published a row beyond the given position.
+   *
+   * @return true if a row became available, false if we timed out, got interrupted or the row set
+   *     is done.
+   */
+  private boolean waitForRows(long position, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    while (true) {
+      cachedTail = tail.get();
+      if (position < cachedTail) {
+        return true;
+      }
+      if (done.get()) {
+        // Check one last time to avoid a race between the last put and setDone()
+        //
+        cachedTail = tail.get();
+        return position < cachedTail;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      if (tries < SPIN_TRIES) {
+        tries++;
+      } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+        tries++;
+        Thread.yield();
+      } else {
+        parkedReader.set(Thread.currentThread());
+        try {
+          // Re-check after registering to make sure we didn't miss a signal
+          //
+          if (tail.get() == position && !done.get()) {
+            LockSupport.parkNanos(this, remaining);
+          }
+        } finally {
+          parkedReader.set(null);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+      }
+    }
+  }
+
+  /**
+   * Wait until the reader has freed up room in the buffer for the given position.
+   *
+   * @return true if there is room, false if we timed out or got interrupted.
+   */
+  private boolean waitForSpace(long position, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    while (true) {
+      cachedHead = head.get();
+      if (position - cachedHead < capacity) {
+        return true;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      if (tries < SPIN_TRIES) {
+        tries++;
+      } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+        tries++;
+        Thread.yield();
+      } else {
+        parkedWriter.set(Thread.currentThread());
+        try {
+          if (position - head.get() >= capacity) {
+            LockSupport.parkNanos(this, remaining);
+          }
+        } finally {
+          parkedWriter.set(null);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    Thread reader = parkedReader.get();
+    if (reader != null) {
+      LockSupport.unpark(reader);
+    }
+  }
+
+  @Override
+  public int size() {
+    // Can be called from any thread, read head first so we never report a negative size
+    //
+    long h = head.get();
+    long t = tail.get();
+    return (int) Math.max(0L, t - h);
+  }
+
+  /**
+   * The reader doesn't need to throttle itself on this row set since there is no lock to stress.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isLockFree() {
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    long t = tail.get();
+    for (long i = head.get(); i < t; i++) {
+      buffer[(int) i & mask] = null;
+    }
+    head.set(t);
+    cachedHead = t;
+    cachedTail = t;
+    done.set(false);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A row set without a maximum size: putting a row into it never blocks. It is meant for engines
+ * which decide themselves when a transform can write more rows, based on the size of its output
+ * row sets, rather than having the writer wait for room.
+ *
+ * <p>A reader waiting for rows tells the fork/join pool it runs in (if any) that it's blocked so
+ * that the pool can keep the other transforms going in the meantime. A row set is read by a single
+ * transform copy.
+ */
+public class UnboundedRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  private final Queue<Object[]> queue;
+
+  /** The number of rows in the queue, asking the queue itself would mean walking over all rows */
+  private final AtomicInteger count;
+
+  private final AtomicReference<Thread> parkedReader;
+
+  private int timeoutGet;
+
+  public UnboundedRowSet() {
+    super();
+    queue = new ConcurrentLinkedQueue<>();
+    count = new AtomicInteger(0);
+    parkedReader = new AtomicReference<>();
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    if (rowData == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+    queue.offer(rowData);
+    count.incrementAndGet();
+
+    Thread reader = parkedReader.get();
+    if (reader != null) {
+      LockSupport.unpark(reader);
+    }
+    return true;
+  }
+
+  /** There is always room in this row set so we never wait. */
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    return putRow(rowMeta, rowData);
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    Object[] row = queue.poll();
+    if (row != null) {
+      count.decrementAndGet();
+    }
+    return row;
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    Object[] row = getRowImmediate();
+    if (row != null || done.get()) {
+      return row;
+    }
+
+    try {
+      ForkJoinPool.managedBlock(new RowWaiter(System.nanoTime() + tu.toNanos(timeout)));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    return getRowImmediate();
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    Thread reader = parkedReader.get();
+    if (reader != null) {
+      LockSupport.unpark(reader);
+    }
+  }
+
+  @Override
+  public int size() {
+    return Math.max(0, count.get());
+  }
+
+  /**
+   * The reader doesn't need to throttle itself on this row set since there is no lock to stress.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isLockFree() {
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    while (getRowImmediate() != null) {
+      // Keep removing rows until the queue is empty
+    }
+    done.set(false);
+  }
+
+  /** Waits until there are rows to read, the row set is done or the deadline passed. */
+  private class RowWaiter implements ForkJoinPool.ManagedBlocker {
+    private final long deadline;
+
+    private RowWaiter(long deadline) {
+      this.deadline = deadline;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      parkedReader.set(Thread.currentThread());
+      try {
+        // Re-check after registering to make sure we didn't miss a signal
+        //
+        if (!isReleasable()) {
+          LockSupport.parkNanos(this, deadline - System.nanoTime());
+        }
+      } finally {
+        parkedReader.set(null);
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      return isReleasable();
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return !queue.isEmpty() || done.get() || System.nanoTime() >= deadline;
+    }
+  }
+}
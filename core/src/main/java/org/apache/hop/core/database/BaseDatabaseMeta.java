@@ -90,6 +90,79 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
    */
   public static final String ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE = "PRESERVE_RESERVED_WORD_CASE";
 
+  /** A flag to determine if we should borrow connections from a connection pool */
+  public static final String ATTRIBUTE_USE_POOLING = "USE_POOLING";
+
+  /** The maximum number of connections in the connection pool */
+  public static final String ATTRIBUTE_MAX_POOL_SIZE = "MAX_POOLSIZE";
+
+  /** The number of connections opened when the connection pool is created */
+  public static final String ATTRIBUTE_INITIAL_POOL_SIZE = "INITIAL_POOLSIZE";
+
+  /** The prefix for all the connection pooling parameter attributes */
+  public static final String ATTRIBUTE_POOLING_PARAMETER_PREFIX = "POOLING_";
+
+  public static final int DEFAULT_INITIAL_POOL_SIZE = 0;
+  public static final int DEFAULT_MAX_POOL_SIZE = 10;
+
+  /** The connection pooling parameters we support, on top of the initial and maximum pool size */
+  public static final DatabaseConnectionPoolParameter[] poolingParameters =
+      new DatabaseConnectionPoolParameter[] {
+        new DatabaseConnectionPoolParameter(
+            "maxIdle",
+            "8",
+            "The maximum number of connections that can remain idle in the pool, without extra ones"
+                + " being released, or negative for no limit."),
+        new DatabaseConnectionPoolParameter(
+            "minIdle",
+            "0",
+            "The minimum number of connections that can remain idle in the pool, without extra ones"
+                + " being created, or zero to create none."),
+        new DatabaseConnectionPoolParameter(
+            "maxWait",
+            "-1",
+            "The maximum number of milliseconds that the pool will wait (when there are no"
+                + " available connections) for a connection to be returned before throwing an"
+                + " exception, or -1 to wait indefinitely."),
+        new DatabaseConnectionPoolParameter(
+            "validationQuery",
+            null,
+            "The SQL query that will be used to validate connections from this pool before"
+                + " returning them to the caller. When empty the JDBC driver is asked to validate"
+                + " the connection."),
+        new DatabaseConnectionPoolParameter(
+            "testOnBorrow",
+            "true",
+            "The indication of whether objects will be validated before being borrowed from the"
+                + " pool. If the object fails to validate, it will be dropped from the pool, and we"
+                + " will attempt to borrow another."),
+        new DatabaseConnectionPoolParameter(
+            "testOnReturn",
+            "false",
+            "The indication of whether objects will be validated before being returned to the"
+                + " pool."),
+        new DatabaseConnectionPoolParameter(
+            "testWhileIdle",
+            "false",
+            "The indication of whether objects will be validated by the idle object evictor (if"
+                + " any). If an object fails to validate, it will be dropped from the pool."),
+        new DatabaseConnectionPoolParameter(
+            "timeBetweenEvictionRunsMillis",
+            "60000",
+            "The number of milliseconds to sleep between runs of the idle object evictor thread."
+                + " When non-positive, no idle object evictor thread will be run."),
+        new DatabaseConnectionPoolParameter(
+            "numTestsPerEvictionRun",
+            "3",
+            "The number of objects to examine during each run of the idle object evictor thread"
+                + " (if any)."),
+        new DatabaseConnectionPoolParameter(
+            "minEvictableIdleTimeMillis",
+            "300000",
+            "The minimum amount of time an object may sit idle in the pool before it is eligable"
+                + " for eviction by the idle object evictor (if any)."),
+      };
+
   public static final String SEQUENCE_FOR_BATCH_ID = "SEQUENCE_FOR_BATCH_ID";
   public static final String AUTOINCREMENT_SQL_FOR_BATCH_ID = "AUTOINCREMENT_SQL_FOR_BATCH_ID";
 
@@ -1042,6 +1115,69 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     attributes.put(ATTRIBUTE_PREFERRED_SCHEMA_NAME, preferredSchemaName);
   }
 
+  /** @return true if connections should be borrowed from a connection pool */
+  @Override
+  public boolean isUsingConnectionPool() {
+    String usePool = getAttributeProperty(ATTRIBUTE_USE_POOLING, "N"); // DEFAULT TO NO!!
+    return "Y".equalsIgnoreCase(usePool);
+  }
+
+  /** @param usePool true if connections should be borrowed from a connection pool */
+  @Override
+  public void setUsingConnectionPool(boolean usePool) {
+    attributes.put(ATTRIBUTE_USE_POOLING, usePool ? "Y" : "N");
+  }
+
+  /** @return The number of connections to open when the pool is created, can contain variables */
+  @Override
+  public String getInitialPoolSizeString() {
+    return getAttributeProperty(
+        ATTRIBUTE_INITIAL_POOL_SIZE, Integer.toString(DEFAULT_INITIAL_POOL_SIZE));
+  }
+
+  /** @param initialPoolSize The number of connections to open when the pool is created */
+  @Override
+  public void setInitialPoolSizeString(String initialPoolSize) {
+    attributes.put(ATTRIBUTE_INITIAL_POOL_SIZE, initialPoolSize);
+  }
+
+  /** @return The maximum number of connections in the pool, can contain variables */
+  @Override
+  public String getMaximumPoolSizeString() {
+    return getAttributeProperty(ATTRIBUTE_MAX_POOL_SIZE, Integer.toString(DEFAULT_MAX_POOL_SIZE));
+  }
+
+  /** @param maximumPoolSize The maximum number of connections in the pool */
+  @Override
+  public void setMaximumPoolSizeString(String maximumPoolSize) {
+    attributes.put(ATTRIBUTE_MAX_POOL_SIZE, maximumPoolSize);
+  }
+
+  /** @return The connection pooling parameters which were set, the values can contain variables */
+  @Override
+  public Properties getConnectionPoolingProperties() {
+    Properties properties = new Properties();
+    for (String attribute : attributes.keySet()) {
+      if (attribute.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX)) {
+        String value = getAttributeProperty(attribute);
+        if (!Utils.isEmpty(value)) {
+          properties.put(attribute.substring(ATTRIBUTE_POOLING_PARAMETER_PREFIX.length()), value);
+        }
+      }
+    }
+    return properties;
+  }
+
+  /** @param properties The connection pooling parameters to set, replacing the previous ones */
+  @Override
+  public void setConnectionPoolingProperties(Properties properties) {
+    attributes.keySet().removeIf(key -> key.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX));
+    for (String parameter : properties.stringPropertyNames()) {
+      attributes.put(
+          ATTRIBUTE_POOLING_PARAMETER_PREFIX + parameter, properties.getProperty(parameter));
+    }
+  }
+
   /**
    * Verifies on the specified database connection if an index exists on the fields with the
    * specified name.
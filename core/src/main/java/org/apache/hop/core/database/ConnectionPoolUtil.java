@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.commons.dbcp.ConnectionFactory;
+import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Keeps a pool of JDBC connections for every database connection which has connection pooling
+ * enabled. A pool is identified by the name of the connection, the partition and the resolved URL
+ * and credentials. That way connections with variables in their settings get a separate pool for
+ * every set of values they resolve to. When the pooling settings of a connection change, its pool
+ * is replaced by one with the new settings.
+ *
+ * <p>Connections handed out are returned to their pool when they are closed. For every pool we
+ * keep track of the number of borrowed and idle connections as well as the time it took to borrow
+ * a connection, see {@link #getPoolStatistics()}.
+ */
+public class ConnectionPoolUtil {
+
+  /** The number of seconds we give the driver to validate a connection without validation query */
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+  private static final String INITIAL_POOL_SIZE = "initialPoolSize";
+  private static final String MAXIMUM_POOL_SIZE = "maximumPoolSize";
+
+  private static final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
+  private ConnectionPoolUtil() {}
+
+  /**
+   * Borrow a connection from the pool of the given database connection and partition. The pool is
+   * created the first time a connection is requested, using the pooling settings of the database
+   * connection.
+   *
+   * @param log The log channel to report on
+   * @param variables The variables to resolve the pooling settings with
+   * @param databaseMeta The database connection
+   * @param partitionId The partition or null if the connection isn't partitioned
+   * @param url The resolved URL to connect to
+   * @param properties The resolved connection properties, including the user and password
+   * @return A connection which is returned to the pool when it's closed
+   * @throws HopDatabaseException In case the pool couldn't be created or no connection could be
+   *     obtained
+   */
+  public static Connection getConnection(
+      ILogChannel log,
+      IVariables variables,
+      DatabaseMeta databaseMeta,
+      String partitionId,
+      String url,
+      Properties properties)
+      throws HopDatabaseException {
+    return getConnection(
+        log,
+        variables,
+        databaseMeta,
+        partitionId,
+        url,
+        properties,
+        () -> DriverManager.getConnection(url, properties));
+  }
+
+  /**
+   * Borrow a connection from the pool of the given database connection and partition. New
+   * connections for the pool are created by the given connection factory.
+   *
+   * @see #getConnection(ILogChannel, IVariables, DatabaseMeta, String, String, Properties)
+   */
+  public static Connection getConnection(
+      ILogChannel log,
+      IVariables variables,
+      DatabaseMeta databaseMeta,
+      String partitionId,
+      String url,
+      Properties properties,
+      ConnectionFactory connectionFactory)
+      throws HopDatabaseException {
+    String connectionKey = getConnectionKey(databaseMeta, partitionId, url, properties);
+    Properties settings = getPoolSettings(variables, databaseMeta);
+    String key = connectionKey + "|" + new TreeMap<>(settings);
+    ConnectionPool pool = pools.get(key);
+    if (pool == null) {
+      synchronized (pools) {
+        pool = pools.get(key);
+        if (pool == null) {
+          // Close the pool with the previous settings of the connection, if there is one
+          //
+          closePools(existing -> existing.getConnectionKey().equals(connectionKey));
+          pool =
+              createPool(
+                  log, databaseMeta, partitionId, connectionKey, settings, connectionFactory);
+          pools.put(key, pool);
+        }
+      }
+    }
+    return pool.borrowConnection();
+  }
+
+  private static String getConnectionKey(
+      DatabaseMeta databaseMeta, String partitionId, String url, Properties properties) {
+    // Don't keep the password around, the hash is enough to tell the pools apart
+    //
+    return databaseMeta.getName()
+        + "|"
+        + Const.NVL(partitionId, "")
+        + "|"
+        + url
+        + "|"
+        + Const.NVL(properties.getProperty("user"), "")
+        + "|"
+        + Objects.hashCode(properties.getProperty("password"));
+  }
+
+  /**
+   * Resolve the pooling settings of a database connection: the initial and maximum size of the
+   * pool and the pooling parameters, starting from the defaults of the parameters we support.
+   * Unknown parameters are left out, they are reported when the pool is created.
+   */
+  private static Properties getPoolSettings(IVariables variables, DatabaseMeta databaseMeta) {
+    Properties parameters = new Properties();
+    for (DatabaseConnectionPoolParameter parameter : BaseDatabaseMeta.poolingParameters) {
+      if (parameter.getDefaultValue() != null) {
+        parameters.setProperty(parameter.getParameter(), parameter.getDefaultValue());
+      }
+    }
+    Properties poolingProperties = databaseMeta.getConnectionPoolingProperties();
+    for (String name : poolingProperties.stringPropertyNames()) {
+      DatabaseConnectionPoolParameter parameter =
+          DatabaseConnectionPoolParameter.findParameter(name, BaseDatabaseMeta.poolingParameters);
+      if (parameter != null) {
+        parameters.setProperty(
+            parameter.getParameter(),
+            Const.NVL(variables.resolve(poolingProperties.getProperty(name)), ""));
+      }
+    }
+
+    int initialSize =
+        Const.toInt(
+            variables.resolve(databaseMeta.getInitialPoolSizeString()),
+            BaseDatabaseMeta.DEFAULT_INITIAL_POOL_SIZE);
+    int maximumSize =
+        Const.toInt(
+            variables.resolve(databaseMeta.getMaximumPoolSizeString()),
+            BaseDatabaseMeta.DEFAULT_MAX_POOL_SIZE);
+    parameters.setProperty(INITIAL_POOL_SIZE, Integer.toString(initialSize));
+    parameters.setProperty(MAXIMUM_POOL_SIZE, Integer.toString(maximumSize));
+    return parameters;
+  }
+
+  private static ConnectionPool createPool(
+      ILogChannel log,
+      DatabaseMeta databaseMeta,
+      String partitionId,
+      String connectionKey,
+      Properties parameters,
+      ConnectionFactory connectionFactory)
+      throws HopDatabaseException {
+    if (log.isBasic()) {
+      log.logBasic(
+          "Creating connection pool for database connection '"
+              + databaseMeta.getName()
+              + "'"
+              + (Utils.isEmpty(partitionId) ? "" : " and partition " + partitionId));
+    }
+    for (String name : databaseMeta.getConnectionPoolingProperties().stringPropertyNames()) {
+      if (DatabaseConnectionPoolParameter.findParameter(name, BaseDatabaseMeta.poolingParameters)
+          == null) {
+        log.logError(
+            "Ignoring unknown connection pooling parameter '"
+                + name
+                + "' of database connection '"
+                + databaseMeta.getName()
+                + "'");
+      }
+    }
+
+    int initialSize = getInt(parameters, INITIAL_POOL_SIZE);
+    int maximumSize = getInt(parameters, MAXIMUM_POOL_SIZE);
+
+    GenericObjectPool objectPool = new GenericObjectPool();
+    objectPool.setMaxActive(maximumSize);
+    objectPool.setMaxIdle(getInt(parameters, "maxIdle"));
+    objectPool.setMinIdle(getInt(parameters, "minIdle"));
+    objectPool.setMaxWait(getLong(parameters, "maxWait"));
+    objectPool.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_BLOCK);
+    objectPool.setTestOnBorrow(getBoolean(parameters, "testOnBorrow"));
+    objectPool.setTestOnReturn(getBoolean(parameters, "testOnReturn"));
+    objectPool.setTestWhileIdle(getBoolean(parameters, "testWhileIdle"));
+    objectPool.setTimeBetweenEvictionRunsMillis(
+        getLong(parameters, "timeBetweenEvictionRunsMillis"));
+    objectPool.setNumTestsPerEvictionRun(getInt(parameters, "numTestsPerEvictionRun"));
+    objectPool.setMinEvictableIdleTimeMillis(getLong(parameters, "minEvictableIdleTimeMillis"));
+
+    String validationQuery = parameters.getProperty("validationQuery");
+
+    // This registers itself as the factory of the object pool
+    //
+    new ValidatingConnectionFactory(
+        connectionFactory,
+        objectPool,
+        Utils.isEmpty(validationQuery) ? null : validationQuery);
+
+    try {
+      for (int i = 0; i < initialSize; i++) {
+        objectPool.addObject();
+      }
+    } catch (Exception e) {
+      closeQuietly(objectPool);
+      throw new HopDatabaseException(
+          "Unable to open the initial "
+              + initialSize
+              + " connections of the pool for database connection '"
+              + databaseMeta.getName()
+              + "'",
+          e);
+    }
+
+    return new ConnectionPool(databaseMeta.getName(), partitionId, connectionKey, objectPool);
+  }
+
+  private static int getInt(Properties parameters, String name) {
+    return Const.toInt(parameters.getProperty(name), 0);
+  }
+
+  private static long getLong(Properties parameters, String name) {
+    return Const.toLong(parameters.getProperty(name), 0L);
+  }
+
+  private static boolean getBoolean(Properties parameters, String name) {
+    String value = parameters.getProperty(name);
+    return "true".equalsIgnoreCase(value) || "Y".equalsIgnoreCase(value);
+  }
+
+  private static void closeQuietly(GenericObjectPool objectPool) {
+    try {
+      objectPool.close();
+    } catch (Exception e) {
+      // Nothing more we can do
+    }
+  }
+
+  /** @return A snapshot of the statistics of all the connection pools */
+  public static List<PoolStatistics> getPoolStatistics() {
+    List<PoolStatistics> statistics = new ArrayList<>();
+    for (ConnectionPool pool : pools.values()) {
+      statistics.add(pool.getStatistics());
+    }
+    return statistics;
+  }
+
+  /**
+   * Close all the connection pools of the given database connection. Borrowed connections are
+   * closed when they are returned.
+   *
+   * @param databaseName The name of the database connection
+   */
+  public static void closePools(String databaseName) {
+    closePools(pool -> pool.getDatabaseName().equals(databaseName));
+  }
+
+  private static void closePools(Predicate<ConnectionPool> filter) {
+    synchronized (pools) {
+      pools
+          .values()
+          .removeIf(
+              pool -> {
+                if (filter.test(pool)) {
+                  closeQuietly(pool.getObjectPool());
+                  return true;
+                }
+                return false;
+              });
+    }
+  }
+
+  /** Close all connection pools. Borrowed connections are closed when they are returned. */
+  public static void closePools() {
+    synchronized (pools) {
+      for (ConnectionPool pool : pools.values()) {
+        closeQuietly(pool.getObjectPool());
+      }
+      pools.clear();
+    }
+  }
+
+  /**
+   * Validates connections with the validation query if there is one. Otherwise the JDBC driver is
+   * asked if the connection is still valid, rather than only checking if it was closed.
+   */
+  private static class ValidatingConnectionFactory extends PoolableConnectionFactory {
+    ValidatingConnectionFactory(
+        ConnectionFactory connectionFactory,
+        GenericObjectPool objectPool,
+        String validationQuery) {
+      super(connectionFactory, objectPool, null, validationQuery, false, true);
+    }
+
+    @Override
+    public void validateConnection(Connection connection) throws SQLException {
+      if (_validationQuery != null) {
+        super.validateConnection(connection);
+        return;
+      }
+      if (connection.isClosed()) {
+        throw new SQLException("validateConnection: connection closed");
+      }
+      if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+        throw new SQLException("validateConnection: connection is no longer valid");
+      }
+    }
+  }
+
+  /** A pool of connections with the counters to calculate the borrow wait time */
+  private static class ConnectionPool {
+    private final String databaseName;
+    private final String partitionId;
+    private final String connectionKey;
+    private final GenericObjectPool objectPool;
+    private final PoolingDataSource dataSource;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    ConnectionPool(
+        String databaseName,
+        String partitionId,
+        String connectionKey,
+        GenericObjectPool objectPool) {
+      this.databaseName = databaseName;
+      this.partitionId = partitionId;
+      this.connectionKey = connectionKey;
+      this.objectPool = objectPool;
+      this.dataSource = new PoolingDataSource(objectPool);
+    }
+
+    Connection borrowConnection() throws HopDatabaseException {
+      long start = System.nanoTime();
+      try {
+        return dataSource.getConnection();
+      } catch (SQLException e) {
+        throw new HopDatabaseException(
+            "Unable to get a connection from the pool of database connection '"
+                + databaseName
+                + "'",
+            e);
+      } finally {
+        long waitNanos = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+      }
+    }
+
+    PoolStatistics getStatistics() {
+      return new PoolStatistics(
+          databaseName,
+          partitionId,
+          objectPool.getNumActive(),
+          objectPool.getNumIdle(),
+          objectPool.getMaxActive(),
+          borrowCount.get(),
+          totalWaitNanos.get(),
+          maxWaitNanos.get());
+    }
+
+    String getDatabaseName() {
+      return databaseName;
+    }
+
+    String getConnectionKey() {
+      return connectionKey;
+    }
+
+    GenericObjectPool getObjectPool() {
+      return objectPool;
+    }
+  }
+
+  /** The statistics of a connection pool at a given point in time */
+  public static class PoolStatistics {
+    private final String databaseName;
+    private final String partitionId;
+    private final int borrowed;
+    private final int idle;
+    private final int maximumSize;
+    private final long borrowCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public PoolStatistics(
+        String databaseName,
+        String partitionId,
+        int borrowed,
+        int idle,
+        int maximumSize,
+        long borrowCount,
+        long totalWaitNanos,
+        long maxWaitNanos) {
+      this.databaseName = databaseName;
+      this.partitionId = partitionId;
+      this.borrowed = borrowed;
+      this.idle = idle;
+      this.maximumSize = maximumSize;
+      this.borrowCount = borrowCount;
+      this.totalWaitNanos = totalWaitNanos;
+      this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /** @return The name of the database connection */
+    public String getDatabaseName() {
+      return databaseName;
+    }
+
+    /** @return The partition or null if the connection isn't partitioned */
+    public String getPartitionId() {
+      return partitionId;
+    }
+
+    /** @return The number of connections currently borrowed from the pool */
+    public int getBorrowed() {
+      return borrowed;
+    }
+
+    /** @return The number of idle connections in the pool */
+    public int getIdle() {
+      return idle;
+    }
+
+    /** @return The maximum number of connections in the pool */
+    public int getMaximumSize() {
+      return maximumSize;
+    }
+
+    /** @return The number of times a connection was borrowed from the pool */
+    public long getBorrowCount() {
+      return borrowCount;
+    }
+
+    /** @return The total time spent waiting for a connection, in milliseconds */
+    public long getTotalWaitMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos);
+    }
+
+    /** @return The average time spent waiting for a connection, in milliseconds */
+    public double getAverageWaitMillis() {
+      return borrowCount == 0 ? 0.0 : totalWaitNanos / 1000000.0 / borrowCount;
+    }
+
+    /** @return The longest time spent waiting for a connection, in milliseconds */
+    public long getMaxWaitMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+
+    @Override
+    public String toString() {
+      return databaseName
+          + (Utils.isEmpty(partitionId) ? "" : "/" + partitionId)
+          + ": borrowed="
+          + borrowed
+          + ", idle="
+          + idle
+          + ", max="
+          + maximumSize
+          + ", borrows="
+          + borrowCount
+          + ", avgWaitMs="
+          + String.format("%.3f", getAverageWaitMillis())
+          + ", maxWaitMs="
+          + getMaxWaitMillis();
+    }
+  }
+}
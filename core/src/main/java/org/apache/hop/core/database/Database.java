@@ -284,8 +284,8 @@ public class Database implements IVariables, ILoggingObject {
    * Open the database connection. The algorithm is:
    *
    * <ol>
-   *   <li>If <code>databaseMeta.isUsingConnectionPool()</code>, then the connection's datasource is
-   *       looked up in the pool
+   *   <li>If <code>databaseMeta.isUsingConnectionPool()</code>, then the connection is borrowed
+   *       from the pool of this database connection and partition, see {@link ConnectionPoolUtil}
    *   <li>otherwise, the connection is established via {@linkplain DriverManager}
    * </ol>
    *
@@ -393,10 +393,10 @@ public class Database implements IVariables, ILoggingObject {
               url += ";instanceName=" + instance;
             }
           }
-          connection = DriverManager.getConnection(url, properties);
+          connection = openConnection(url, properties, partitionId);
         } else {
           // Perhaps the username is in the URL or no username is required...
-          connection = DriverManager.getConnection(url, properties);
+          connection = openConnection(url, properties, partitionId);
         }
       } else {
         if (!Utils.isEmpty(username)) {
@@ -406,7 +406,7 @@ public class Database implements IVariables, ILoggingObject {
           properties.put("password", password);
         }
 
-        connection = DriverManager.getConnection(url, properties);
+        connection = openConnection(url, properties, partitionId);
       }
     } catch (SQLException e) {
       throw new HopDatabaseException(
@@ -417,6 +417,24 @@ public class Database implements IVariables, ILoggingObject {
     }
   }
 
+  /**
+   * Open a new connection or borrow one from the connection pool. A pooled connection is returned
+   * to the pool when it's closed.
+   */
+  private Connection openConnection(String url, Properties properties, String partitionId)
+      throws SQLException, HopDatabaseException {
+    if (!databaseMeta.isUsingConnectionPool()) {
+      return DriverManager.getConnection(url, properties);
+    }
+    try {
+      log.snap(Metrics.METRIC_DATABASE_POOL_BORROW_START, databaseMeta.getName());
+      return ConnectionPoolUtil.getConnection(
+          log, this, databaseMeta, partitionId, url, properties);
+    } finally {
+      log.snap(Metrics.METRIC_DATABASE_POOL_BORROW_STOP, databaseMeta.getName());
+    }
+  }
+
   /** Disconnect from the database and close all open prepared statements. */
   public synchronized void disconnect() {
     if (connection == null) {
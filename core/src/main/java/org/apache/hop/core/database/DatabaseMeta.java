@@ -2064,6 +2064,46 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     iDatabase.setPreferredSchemaName(preferredSchemaName);
   }
 
+  /** @return true if connections should be borrowed from a connection pool */
+  public boolean isUsingConnectionPool() {
+    return iDatabase.isUsingConnectionPool();
+  }
+
+  /** @param usePool true if connections should be borrowed from a connection pool */
+  public void setUsingConnectionPool(boolean usePool) {
+    iDatabase.setUsingConnectionPool(usePool);
+  }
+
+  /** @return The number of connections to open when the pool is created, can contain variables */
+  public String getInitialPoolSizeString() {
+    return iDatabase.getInitialPoolSizeString();
+  }
+
+  /** @param initialPoolSize The number of connections to open when the pool is created */
+  public void setInitialPoolSizeString(String initialPoolSize) {
+    iDatabase.setInitialPoolSizeString(initialPoolSize);
+  }
+
+  /** @return The maximum number of connections in the pool, can contain variables */
+  public String getMaximumPoolSizeString() {
+    return iDatabase.getMaximumPoolSizeString();
+  }
+
+  /** @param maximumPoolSize The maximum number of connections in the pool */
+  public void setMaximumPoolSizeString(String maximumPoolSize) {
+    iDatabase.setMaximumPoolSizeString(maximumPoolSize);
+  }
+
+  /** @return The connection pooling parameters which were set, the values can contain variables */
+  public Properties getConnectionPoolingProperties() {
+    return iDatabase.getConnectionPoolingProperties();
+  }
+
+  /** @param properties The connection pooling parameters to set, replacing the previous ones */
+  public void setConnectionPoolingProperties(Properties properties) {
+    iDatabase.setConnectionPoolingProperties(properties);
+  }
+
   public boolean supportsSequenceNoMaxValueOption() {
     return iDatabase.supportsSequenceNoMaxValueOption();
   }
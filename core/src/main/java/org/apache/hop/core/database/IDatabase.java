@@ -29,6 +29,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 /**
  * This interface describes the methods that a database connection needs to have in order to
@@ -619,6 +620,30 @@ public interface IDatabase extends Cloneable {
   /** @param preferredSchemaName The preferred schema name of this database connection. */
   public void setPreferredSchemaName(String preferredSchemaName);
 
+  /** @return true if connections should be borrowed from a connection pool */
+  public boolean isUsingConnectionPool();
+
+  /** @param usePool true if connections should be borrowed from a connection pool */
+  public void setUsingConnectionPool(boolean usePool);
+
+  /** @return The number of connections to open when the pool is created, can contain variables */
+  public String getInitialPoolSizeString();
+
+  /** @param initialPoolSize The number of connections to open when the pool is created */
+  public void setInitialPoolSizeString(String initialPoolSize);
+
+  /** @return The maximum number of connections in the pool, can contain variables */
+  public String getMaximumPoolSizeString();
+
+  /** @param maximumPoolSize The maximum number of connections in the pool */
+  public void setMaximumPoolSizeString(String maximumPoolSize);
+
+  /** @return The connection pooling parameters which were set, the values can contain variables */
+  public Properties getConnectionPoolingProperties();
+
+  /** @param properties The connection pooling parameters to set, replacing the previous ones */
+  public void setConnectionPoolingProperties(Properties properties);
+
   /**
    * Verifies on the specified database connection if an index exists on the fields with the
    * specified name.
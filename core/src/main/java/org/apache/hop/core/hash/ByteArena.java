@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import java.util.Arrays;
+
+/**
+ * Stores byte arrays back to back in large pages so that the arrays kept by a hash index don't each
+ * need an object of their own. An array is referenced by its address: the page number in the upper
+ * 32 bits and the offset in the page in the lower 32 bits. The length of an array is stored in the
+ * 4 bytes in front of it. Arrays can't be removed, only the whole arena can be cleared.
+ */
+public class ByteArena {
+
+  public static final int DEFAULT_PAGE_SIZE = 1 << 20;
+
+  /** The overhead of an array object in the heap, used for the memory accounting */
+  static final int ARRAY_OVERHEAD = 16;
+
+  private static final int LENGTH_SIZE = 4;
+
+  private final int pageSize;
+  private byte[][] pages;
+  private int nrPages;
+  private byte[] currentPage;
+  private int position;
+  private long usedBytes;
+  private long allocatedBytes;
+
+  public ByteArena() {
+    this(DEFAULT_PAGE_SIZE);
+  }
+
+  /** @param pageSize the size of a page, larger arrays get a page of their own */
+  public ByteArena(int pageSize) {
+    if (pageSize < LENGTH_SIZE) {
+      throw new IllegalArgumentException("The page size needs to be at least " + LENGTH_SIZE);
+    }
+    this.pageSize = pageSize;
+    this.pages = new byte[4][];
+  }
+
+  /**
+   * Copies the data into the arena
+   *
+   * @param data the data to store
+   * @return the address of the stored data
+   */
+  public long add(byte[] data) {
+    int needed = LENGTH_SIZE + data.length;
+    if (currentPage == null || needed > currentPage.length - position) {
+      addPage(Math.max(pageSize, needed));
+    }
+    long address = ((long) (nrPages - 1) << 32) | position;
+    byte[] page = currentPage;
+    page[position] = (byte) (data.length >>> 24);
+    page[position + 1] = (byte) (data.length >>> 16);
+    page[position + 2] = (byte) (data.length >>> 8);
+    page[position + 3] = (byte) data.length;
+    System.arraycopy(data, 0, page, position + LENGTH_SIZE, data.length);
+    position += needed;
+    usedBytes += needed;
+    return address;
+  }
+
+  private void addPage(int size) {
+    if (nrPages == pages.length) {
+      pages = Arrays.copyOf(pages, nrPages * 2);
+    }
+    currentPage = new byte[size];
+    pages[nrPages++] = currentPage;
+    position = 0;
+    allocatedBytes += ARRAY_OVERHEAD + size;
+  }
+
+  /**
+   * @param address the address returned by {@link #add(byte[])}
+   * @return the length of the data stored at the address
+   */
+  public int getLength(long address) {
+    byte[] page = pages[(int) (address >>> 32)];
+    int offset = (int) address;
+    return (page[offset] & 0xFF) << 24
+        | (page[offset + 1] & 0xFF) << 16
+        | (page[offset + 2] & 0xFF) << 8
+        | (page[offset + 3] & 0xFF);
+  }
+
+  /**
+   * @param address the address returned by {@link #add(byte[])}
+   * @return a copy of the data stored at the address
+   */
+  public byte[] get(long address) {
+    int length = getLength(address);
+    byte[] data = new byte[length];
+    System.arraycopy(
+        pages[(int) (address >>> 32)], (int) address + LENGTH_SIZE, data, 0, length);
+    return data;
+  }
+
+  /**
+   * Compares the data stored at an address with the given data without copying it
+   *
+   * @param address the address returned by {@link #add(byte[])}
+   * @param data the data to compare with
+   * @return true if the stored data is the same as the given data
+   */
+  public boolean equals(long address, byte[] data) {
+    if (getLength(address) != data.length) {
+      return false;
+    }
+    byte[] page = pages[(int) (address >>> 32)];
+    int offset = (int) address + LENGTH_SIZE;
+    for (int i = data.length - 1; i >= 0; i--) {
+      if (page[offset + i] != data[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Removes all the data from the arena and releases the pages */
+  public void clear() {
+    pages = new byte[4][];
+    nrPages = 0;
+    currentPage = null;
+    position = 0;
+    usedBytes = 0;
+    allocatedBytes = 0;
+  }
+
+  /** @return the number of bytes taken by the stored data, including the lengths */
+  public long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /** @return the estimated number of bytes of heap taken by the arena */
+  public long getMemoryUsage() {
+    return ARRAY_OVERHEAD + 8L * pages.length + allocatedBytes;
+  }
+}
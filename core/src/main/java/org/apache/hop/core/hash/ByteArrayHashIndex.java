@@ -21,20 +21,46 @@ import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowMeta;
 
+import java.util.Arrays;
+
+/**
+ * A hash index of serialized keys to serialized values. The slots of the index are kept in
+ * parallel int arrays using open addressing with linear probing. The keys and values themselves
+ * are copied into a shared {@link ByteArena} so that no objects are created per entry.
+ *
+ * <p>Keys are compared byte by byte so they are hashed on their bytes as well, without
+ * deserializing them.
+ */
 public class ByteArrayHashIndex {
 
   private static final int STANDARD_INDEX_SIZE = 512;
   private static final float STANDARD_LOAD_FACTOR = 0.78f;
 
+  private static final long NO_VALUE = -1L;
+
   private IRowMeta keyRowMeta;
-  private ByteArrayHashIndexEntry[] index;
+
+  /** The hash code of the key per slot */
+  private int[] hashCodes;
+
+  /** The entry number + 1 per slot, 0 for an empty slot */
+  private int[] entries;
+
+  /** The arena addresses of the keys and values per entry */
+  private long[] keyAddresses;
+
+  private long[] valueAddresses;
+
+  private final ByteArena arena;
+  private long replacedBytes;
   private int size;
   private int resizeThresHold;
 
   /**
    * Create a Byte array hash index to store row
    *
-   * @param rowMeta
+   * @param keyRowMeta the metadata of the keys
+   * @param size the initial capacity of the index
    */
   public ByteArrayHashIndex(IRowMeta keyRowMeta, int size) {
     this.keyRowMeta = keyRowMeta;
@@ -45,16 +71,24 @@ public class ByteArrayHashIndex {
       factor2Size <<= 1; // Multiply by 2
     }
 
-    this.size = factor2Size;
     this.resizeThresHold = (int) (factor2Size * STANDARD_LOAD_FACTOR);
 
-    index = new ByteArrayHashIndexEntry[factor2Size];
+    hashCodes = new int[factor2Size];
+    entries = new int[factor2Size];
+    keyAddresses = new long[Math.max(resizeThresHold, 1)];
+    valueAddresses = new long[keyAddresses.length];
+    arena = new ByteArena();
   }
 
   public ByteArrayHashIndex(IRowMeta keyRowMeta) {
     this(keyRowMeta, STANDARD_INDEX_SIZE);
   }
 
+  public IRowMeta getKeyRowMeta() {
+    return keyRowMeta;
+  }
+
+  /** @return the number of keys in the index */
   public int getSize() {
     return size;
   }
@@ -63,203 +97,132 @@ public class ByteArrayHashIndex {
     return size == 0;
   }
 
-  public byte[] get(byte[] key) throws HopValueException {
-    int hashCode = generateHashCode(key, keyRowMeta);
+  /** @return the number of slots in the index */
+  public int getCapacity() {
+    return entries.length;
+  }
 
-    int indexPointer = hashCode & (index.length - 1);
-    ByteArrayHashIndexEntry check = index[indexPointer];
+  /**
+   * @return the estimated number of bytes of heap taken by the index, the stored keys and values
+   *     included
+   */
+  public long getMemoryUsage() {
+    return 2 * (ByteArena.ARRAY_OVERHEAD + 4L * entries.length)
+        + 2 * (ByteArena.ARRAY_OVERHEAD + 8L * keyAddresses.length)
+        + arena.getMemoryUsage();
+  }
 
-    while (check != null) {
-      if (check.hashCode == hashCode && check.equalsKey(key)) {
-        return check.value;
-      }
-      check = check.nextEntry;
+  /**
+   * @return the number of bytes in the arena taken by values which were replaced by a later put of
+   *     the same key
+   */
+  public long getReplacedBytes() {
+    return replacedBytes;
+  }
+
+  public byte[] get(byte[] key) throws HopValueException {
+    int slot = findSlot(key, generateHashCode(key));
+    int entry = entries[slot] - 1;
+    if (entry < 0 || valueAddresses[entry] == NO_VALUE) {
+      return null;
     }
-    return null;
+    return arena.get(valueAddresses[entry]);
   }
 
   public void put(byte[] key, byte[] value) throws HopValueException {
-    int hashCode = generateHashCode(key, keyRowMeta);
-    int indexPointer = hashCode & (index.length - 1);
-
-    // First see if there is an entry on that pointer...
-    //
-    boolean searchEmptySpot = false;
-
-    ByteArrayHashIndexEntry check = index[indexPointer];
-    ByteArrayHashIndexEntry previousCheck = null;
-
-    while (check != null) {
-      searchEmptySpot = true;
-
-      // If there is an identical entry in there, we replace the value.
-      // And then we just return...
+    int hashCode = generateHashCode(key);
+    int slot = findSlot(key, hashCode);
+    int entry = entries[slot] - 1;
+    if (entry >= 0) {
+      // If there is an identical key in there, we replace the value.
       //
-      if (check.hashCode == hashCode && check.equalsKey(key)) {
-        check.value = value;
-        return;
+      long oldAddress = valueAddresses[entry];
+      if (oldAddress != NO_VALUE) {
+        replacedBytes += 4 + arena.getLength(oldAddress);
       }
-      previousCheck = check;
-      check = check.nextEntry;
+      valueAddresses[entry] = value == null ? NO_VALUE : arena.add(value);
+      return;
     }
 
-    // If we are still here, that means that we are ready to put the value down...
-    // Where do we need to search for an empty spot in the index?
-    //
-    while (searchEmptySpot) {
-      indexPointer++;
-      if (indexPointer >= size) {
-        indexPointer = 0;
-      }
-      if (index[indexPointer] == null) {
-        searchEmptySpot = false;
-      }
-    }
-
-    // OK, now that we know where to put the entry, insert it...
-    //
-    index[indexPointer] = new ByteArrayHashIndexEntry(hashCode, key, value, index[indexPointer]);
-
-    // Don't forget to link to the previous check entry if there was any...
-    //
-    if (previousCheck != null) {
-      previousCheck.nextEntry = index[indexPointer];
+    entry = size;
+    if (entry == keyAddresses.length) {
+      int newLength = keyAddresses.length + (keyAddresses.length >> 1) + 1;
+      keyAddresses = Arrays.copyOf(keyAddresses, newLength);
+      valueAddresses = Arrays.copyOf(valueAddresses, newLength);
     }
+    keyAddresses[entry] = arena.add(key);
+    valueAddresses[entry] = value == null ? NO_VALUE : arena.add(value);
+    hashCodes[slot] = hashCode;
+    entries[slot] = entry + 1;
 
     // If required, resize the table...
     //
-    resize();
-  }
-
-  private final void resize() {
-    // Increase the size of the index...
-    //
     size++;
-
-    // See if we've reached our resize threshold...
-    //
     if (size >= resizeThresHold) {
+      resize();
+    }
+  }
 
-      ByteArrayHashIndexEntry[] oldIndex = index;
-
-      // Double the size to keep the size of the index a factor of 2...
-      // Allocate the new array...
-      //
-      int newSize = 2 * index.length;
+  /** @return the slot holding the key or the empty slot where it would go */
+  private int findSlot(byte[] key, int hashCode) {
+    int mask = entries.length - 1;
+    int slot = hashCode & mask;
+    while (true) {
+      int entry = entries[slot];
+      if (entry == 0
+          || (hashCodes[slot] == hashCode && arena.equals(keyAddresses[entry - 1], key))) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
 
-      ByteArrayHashIndexEntry[] newIndex = new ByteArrayHashIndexEntry[newSize];
+  private void resize() {
+    int[] oldHashCodes = hashCodes;
+    int[] oldEntries = entries;
 
-      // Loop over the old index and re-distribute the entries
-      // We want to make sure that the calculation
-      // entry.hashCode & ( size - 1)
-      // ends up in the right location after re-sizing...
-      //
-      for (int i = 0; i < oldIndex.length; i++) {
-        ByteArrayHashIndexEntry entry = oldIndex[i];
-        if (entry != null) {
-          oldIndex[i] = null;
-          entry.nextEntry = null; // we assume there is plenty of room in the new index...
-
-          // Make sure we follow all the linked entries...
-          // TODO This is a lot of extra work, see how we can avoid it!
-          //
-          int newIndexPointer = entry.hashCode & (newSize - 1);
-
-          // Make sure on this new index pointer, we have room to put the entry
-          //
-          ByteArrayHashIndexEntry check = newIndex[newIndexPointer];
-          if (check == null) {
-            // Yes, plenty of room
-            //
-            newIndex[newIndexPointer] = check;
-          } else {
-            // No, we need to look for a nice spot to put the hash entry...
-            //
-            ByteArrayHashIndexEntry previousCheck = null;
-            while (check != null) {
-              previousCheck = check;
-              check = check.nextEntry;
-            }
-            while (newIndex[newIndexPointer] != null) {
-              newIndexPointer++;
-              if (newIndexPointer >= newSize) {
-                newIndexPointer = 0;
-              }
-            }
-            // OK, now that we have a nice spot to put the entry, link the previous check entry to
-            // this one...
-            //
-            previousCheck.nextEntry = entry;
-            newIndex[newIndexPointer] = entry;
-          }
-          newIndex[newIndexPointer] = entry;
+    // Double the size to keep the size of the index a factor of 2.
+    // The hash codes are kept so the keys don't need to be hashed again.
+    //
+    int newSize = 2 * oldEntries.length;
+    hashCodes = new int[newSize];
+    entries = new int[newSize];
+    int mask = newSize - 1;
+
+    for (int i = 0; i < oldEntries.length; i++) {
+      if (oldEntries[i] != 0) {
+        int slot = oldHashCodes[i] & mask;
+        while (entries[slot] != 0) {
+          slot = (slot + 1) & mask;
         }
+        hashCodes[slot] = oldHashCodes[i];
+        entries[slot] = oldEntries[i];
       }
+    }
 
-      // Replace the old index with the new one we just created...
-      //
-      index = newIndex;
+    resizeThresHold = (int) (newSize * STANDARD_LOAD_FACTOR);
+  }
 
-      // Also change the resize threshold...
-      //
-      resizeThresHold = (int) (newSize * STANDARD_LOAD_FACTOR);
+  /**
+   * Calculates the hash code of a serialized key on its bytes. Two keys with the same bytes get the
+   * same hash code.
+   *
+   * @param key the serialized key
+   * @return the hash code, with its bits spread so that the lower bits can be used as an index
+   */
+  public static int generateHashCode(byte[] key) {
+    int hash = 1;
+    for (byte b : key) {
+      hash = 31 * hash + b;
     }
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    return hash;
   }
 
   public static int generateHashCode(byte[] key, IRowMeta rowMeta) throws HopValueException {
     Object[] rowData = RowMeta.getRow(rowMeta, key);
     return rowMeta.hashCode(rowData);
   }
-
-  private static final class ByteArrayHashIndexEntry {
-    private int hashCode;
-    private byte[] key;
-    private byte[] value;
-    private ByteArrayHashIndexEntry nextEntry;
-
-    /**
-     * @param hashCode
-     * @param key
-     * @param value
-     * @param nextEntry
-     */
-    public ByteArrayHashIndexEntry(
-        int hashCode, byte[] key, byte[] value, ByteArrayHashIndexEntry nextEntry) {
-      this.hashCode = hashCode;
-      this.key = key;
-      this.value = value;
-      this.nextEntry = nextEntry;
-    }
-
-    public boolean equalsKey(byte[] cmpKey) {
-      return equalsByteArray(key, cmpKey);
-    }
-
-    /**
-     * The row is the same if the value is the same The data types are the same so no error is made
-     * here.
-     */
-    @Override
-    public boolean equals(Object obj) {
-      ByteArrayHashIndexEntry e = (ByteArrayHashIndexEntry) obj;
-
-      return equalsValue(e.value);
-    }
-
-    public boolean equalsValue(byte[] cmpValue) {
-      return equalsByteArray(value, cmpValue);
-    }
-
-    public static final boolean equalsByteArray(byte[] value, byte[] cmpValue) {
-      if (value.length != cmpValue.length) {
-        return false;
-      }
-      for (int i = value.length - 1; i >= 0; i--) {
-        if (value[i] != cmpValue[i]) {
-          return false;
-        }
-      }
-      return true;
-    }
-  }
 }
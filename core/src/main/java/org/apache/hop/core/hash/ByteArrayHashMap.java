@@ -20,7 +20,6 @@ package org.apache.hop.core.hash;
 import org.apache.commons.collections4.map.AbstractHashedMap;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
-import org.apache.hop.core.row.RowMeta;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -107,14 +106,10 @@ public class ByteArrayHashMap extends AbstractHashedMap {
     super.put(key, value);
   }
 
+  /** Keys are compared byte by byte so they are hashed on their bytes, without deserializing. */
   @Override
   protected int hash(Object key) {
-    byte[] rowKey = (byte[]) key;
-    try {
-      return keyMeta.hashCode(RowMeta.getRow(keyMeta, rowKey));
-    } catch (HopValueException ex) {
-      throw new IllegalArgumentException(ex);
-    }
+    return ByteArrayHashIndex.generateHashCode((byte[]) key);
   }
 
   @SuppressWarnings("unchecked")
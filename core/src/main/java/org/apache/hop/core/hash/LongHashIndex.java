@@ -19,12 +19,22 @@ package org.apache.hop.core.hash;
 
 import org.apache.hop.core.exception.HopValueException;
 
+/**
+ * A hash index of long keys to long values. The keys and values are kept in two parallel arrays
+ * using open addressing with linear probing so that no object is created per entry. Key 0 marks an
+ * empty slot so its value is kept in a separate field.
+ */
 public class LongHashIndex {
 
   private static final int STANDARD_INDEX_SIZE = 512;
   private static final float STANDARD_LOAD_FACTOR = 0.78f;
 
-  private LongHashIndexEntry[] index;
+  private static final long EMPTY_KEY = 0L;
+
+  private long[] keys;
+  private long[] values;
+  private boolean hasEmptyKey;
+  private long emptyKeyValue;
   private int size;
   private int resizeThresHold;
 
@@ -36,14 +46,15 @@ public class LongHashIndex {
   public LongHashIndex(int size) {
 
     // Find a suitable capacity being a factor of 2:
-    int factor2Size = 1;
+    int factor2Size = 2;
     while (factor2Size < size) {
       factor2Size <<= 1; // Multiply by 2
     }
 
     this.resizeThresHold = (int) (factor2Size * STANDARD_LOAD_FACTOR);
 
-    index = new LongHashIndexEntry[factor2Size];
+    keys = new long[factor2Size];
+    values = new long[factor2Size];
   }
 
   /** Create a new long/long hash index */
@@ -59,103 +70,104 @@ public class LongHashIndex {
     return size == 0;
   }
 
-  public Long get(long key) throws HopValueException {
-    int hashCode = generateHashCode(key);
+  /** @return the number of slots in the index */
+  public int getCapacity() {
+    return keys.length;
+  }
 
-    int indexPointer = indexFor(hashCode, index.length);
-    LongHashIndexEntry check = index[indexPointer];
+  /** @return the estimated number of bytes of heap taken by the index */
+  public long getMemoryUsage() {
+    return 2 * (ByteArena.ARRAY_OVERHEAD + 8L * keys.length);
+  }
 
-    while (check != null) {
-      if (check.hashCode == hashCode && check.equalsKey(key)) {
-        return check.value;
+  public Long get(long key) throws HopValueException {
+    if (key == EMPTY_KEY) {
+      return hasEmptyKey ? emptyKeyValue : null;
+    }
+    int mask = keys.length - 1;
+    int indexPointer = indexFor(spread(key), keys.length);
+    while (true) {
+      long check = keys[indexPointer];
+      if (check == key) {
+        return values[indexPointer];
+      }
+      if (check == EMPTY_KEY) {
+        return null;
       }
-      check = check.nextEntry;
+      indexPointer = (indexPointer + 1) & mask;
     }
-    return null;
   }
 
-  public void put(long key, Long value) throws HopValueException {
-    int hashCode = generateHashCode(key);
-    int indexPointer = indexFor(hashCode, index.length);
-
-    LongHashIndexEntry check = index[indexPointer];
-    LongHashIndexEntry previousCheck = null;
-
-    while (check != null) {
+  public void put(long key, long value) throws HopValueException {
+    if (key == EMPTY_KEY) {
+      if (!hasEmptyKey) {
+        hasEmptyKey = true;
+        size++;
+      }
+      emptyKeyValue = value;
+      return;
+    }
 
-      // If there is an identical entry in there, we replace the entry
-      // And then we just return...
-      //
-      if (check.hashCode == hashCode && check.equalsKey(key)) {
-        check.value = value;
+    int mask = keys.length - 1;
+    int indexPointer = indexFor(spread(key), keys.length);
+    while (true) {
+      long check = keys[indexPointer];
+      if (check == key) {
+        // If there is an identical entry in there, we replace the value
+        //
+        values[indexPointer] = value;
         return;
       }
-      previousCheck = check;
-      check = check.nextEntry;
+      if (check == EMPTY_KEY) {
+        break;
+      }
+      indexPointer = (indexPointer + 1) & mask;
     }
 
-    // Don't forget to link to the previous check entry if there was any...
-    //
-    if (previousCheck != null) {
-      previousCheck.nextEntry = new LongHashIndexEntry(hashCode, key, value, null);
-    } else {
-      index[indexPointer] = new LongHashIndexEntry(hashCode, key, value, null);
-    }
+    keys[indexPointer] = key;
+    values[indexPointer] = value;
 
     // If required, resize the table...
     //
-    resize();
+    size++;
+    if (size >= resizeThresHold) {
+      resize();
+    }
   }
 
-  private final void resize() {
-    // Increase the size of the index...
-    //
-    size++;
+  private void resize() {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
 
-    // See if we've reached our resize threshold...
+    // Double the size to keep the size of the index a factor of 2...
     //
-    if (size >= resizeThresHold) {
-
-      LongHashIndexEntry[] oldIndex = index;
-
-      // Double the size to keep the size of the index a factor of 2...
-      // Allocate the new array...
-      //
-      int newSize = 2 * index.length;
-
-      LongHashIndexEntry[] newIndex = new LongHashIndexEntry[newSize];
-
-      // Loop over the old index and re-distribute the entries
-      // We want to make sure that the calculation
-      // entry.hashCode & ( size - 1)
-      // ends up in the right location after re-sizing...
-      //
-      for (int i = 0; i < oldIndex.length; i++) {
-        LongHashIndexEntry entry = oldIndex[i];
-        if (entry != null) {
-          oldIndex[i] = null;
-
-          // Make sure we follow all the linked entries...
-          // This is a bit of extra work, TODO: see how we can avoid it!
-          //
-          do {
-            LongHashIndexEntry next = entry.nextEntry;
-            int indexPointer = indexFor(entry.hashCode, newSize);
-            entry.nextEntry = newIndex[indexPointer];
-            newIndex[indexPointer] = entry;
-            entry = next;
-          } while (entry != null);
+    int newSize = 2 * oldKeys.length;
+    keys = new long[newSize];
+    values = new long[newSize];
+    int mask = newSize - 1;
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      long key = oldKeys[i];
+      if (key != EMPTY_KEY) {
+        int indexPointer = indexFor(spread(key), newSize);
+        while (keys[indexPointer] != EMPTY_KEY) {
+          indexPointer = (indexPointer + 1) & mask;
         }
+        keys[indexPointer] = key;
+        values[indexPointer] = oldValues[i];
       }
+    }
 
-      // Replace the old index with the new one we just created...
-      //
-      index = newIndex;
+    resizeThresHold = (int) (newSize * STANDARD_LOAD_FACTOR);
+  }
 
-      // Also change the resize threshold...
-      //
-      resizeThresHold = (int) (newSize * STANDARD_LOAD_FACTOR);
-    }
+  /**
+   * Mixes the bits of a key so that sequential keys and keys sharing their lower bits don't end up
+   * in long runs of occupied slots.
+   */
+  private static int spread(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
   }
 
   public static int generateHashCode(Long key) throws HopValueException {
@@ -165,28 +177,4 @@ public class LongHashIndex {
   public static int indexFor(int hash, int length) {
     return hash & (length - 1);
   }
-
-  private static final class LongHashIndexEntry {
-    private int hashCode;
-    private long key;
-    private long value;
-    private LongHashIndexEntry nextEntry;
-
-    /**
-     * @param hashCode
-     * @param key
-     * @param value
-     * @param nextEntry
-     */
-    public LongHashIndexEntry(int hashCode, Long key, Long value, LongHashIndexEntry nextEntry) {
-      this.hashCode = hashCode;
-      this.key = key;
-      this.value = value;
-      this.nextEntry = nextEntry;
-    }
-
-    public boolean equalsKey(long cmpKey) {
-      return key == cmpKey;
-    }
-  }
 }
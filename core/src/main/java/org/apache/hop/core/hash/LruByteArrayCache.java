@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.hash;
+
+import org.apache.hop.core.exception.HopValueException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A lookup cache with serialized (byte array) keys which is bounded by a number of entries and/or
+ * an estimated amount of memory. When it is bounded, the least recently used entries are evicted
+ * first. When it is not bounded the entries are kept in the order they were added.
+ *
+ * <p>The cache keeps track of the number of hits, misses and evictions. The cache itself is meant
+ * to be used by a single thread but these counters and the size can be read from any thread, e.g.
+ * to report them as transform metrics.
+ *
+ * @param <V> the type of the cached values
+ */
+public class LruByteArrayCache<V> {
+
+  /** The estimated overhead of an entry: the map entry, the key wrapper and the key array header */
+  private static final long ENTRY_OVERHEAD = 96L;
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<LruByteArrayCache> HITS =
+      AtomicLongFieldUpdater.newUpdater(LruByteArrayCache.class, "hits");
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<LruByteArrayCache> MISSES =
+      AtomicLongFieldUpdater.newUpdater(LruByteArrayCache.class, "misses");
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<LruByteArrayCache> EVICTIONS =
+      AtomicLongFieldUpdater.newUpdater(LruByteArrayCache.class, "evictions");
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<LruByteArrayCache> MEMORY_USAGE =
+      AtomicLongFieldUpdater.newUpdater(LruByteArrayCache.class, "memoryUsage");
+
+  /** Estimates the amount of memory used by a cached value */
+  public interface ISizeEstimator<V> {
+    long estimateSize(V value);
+  }
+
+  /** Matches a serialized key, used to search the cache for something else than an equal key */
+  public interface IKeyMatcher {
+    boolean matches(byte[] key) throws HopValueException;
+  }
+
+  private final LinkedHashMap<Key, V> map;
+  private final int maxEntries;
+  private final long maxMemory;
+  private final ISizeEstimator<V> sizeEstimator;
+
+  private volatile long hits;
+  private volatile long misses;
+  private volatile long evictions;
+  private volatile long memoryUsage;
+  private volatile int size;
+
+  /**
+   * Create a new cache
+   *
+   * @param maxEntries the maximum number of entries to keep, 0 or less means no limit
+   * @param maxMemory the maximum estimated amount of memory in bytes to use, 0 or less means no
+   *     limit
+   * @param sizeEstimator estimates the memory used by a value
+   */
+  public LruByteArrayCache(int maxEntries, long maxMemory, ISizeEstimator<V> sizeEstimator) {
+    this.maxEntries = maxEntries;
+    this.maxMemory = maxMemory;
+    this.sizeEstimator = sizeEstimator;
+
+    boolean bounded = maxEntries > 0 || maxMemory > 0;
+    int capacity = maxEntries > 0 ? Math.min(maxEntries, 5000) : 16;
+    map = new LinkedHashMap<>((int) (capacity / 0.75f) + 1, 0.75f, bounded);
+  }
+
+  /**
+   * Looks up the value for a key and marks it as the most recently used entry.
+   *
+   * @param key the serialized key
+   * @return the value or null if the key is not in the cache
+   */
+  public V get(byte[] key) {
+    V value = map.get(new Key(key));
+    if (value == null) {
+      MISSES.lazySet(this, misses + 1);
+    } else {
+      HITS.lazySet(this, hits + 1);
+    }
+    return value;
+  }
+
+  /**
+   * Looks for the first value, in iteration order, with a key accepted by the matcher. This is a
+   * full scan of the cache.
+   *
+   * @param matcher decides which key matches
+   * @return the value or null if no key matched
+   * @throws HopValueException in case the matcher fails to decode or compare a key
+   */
+  public V findFirst(IKeyMatcher matcher) throws HopValueException {
+    Key found = null;
+    for (Key key : map.keySet()) {
+      if (matcher.matches(key.bytes)) {
+        found = key;
+        break;
+      }
+    }
+    if (found == null) {
+      MISSES.lazySet(this, misses + 1);
+      return null;
+    }
+    HITS.lazySet(this, hits + 1);
+    return map.get(found);
+  }
+
+  /**
+   * Adds or replaces the value of a key. If this makes the cache exceed its limits the least
+   * recently used entries are evicted.
+   *
+   * @param key the serialized key
+   * @param value the value to store
+   */
+  public void put(byte[] key, V value) {
+    Key wrapper = new Key(key);
+    V previous = map.put(wrapper, value);
+    long memory = memoryUsage;
+    if (previous != null) {
+      memory -= sizeEstimator.estimateSize(previous);
+    } else {
+      memory += ENTRY_OVERHEAD + key.length;
+    }
+    memory += sizeEstimator.estimateSize(value);
+    MEMORY_USAGE.lazySet(this, memory);
+
+    evict();
+    size = map.size();
+  }
+
+  /**
+   * Removes a key from the cache
+   *
+   * @param key the serialized key
+   * @return the removed value or null if the key was not in the cache
+   */
+  public V remove(byte[] key) {
+    V value = map.remove(new Key(key));
+    if (value != null) {
+      MEMORY_USAGE.lazySet(
+          this, memoryUsage - ENTRY_OVERHEAD - key.length - sizeEstimator.estimateSize(value));
+      size = map.size();
+    }
+    return value;
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<Key, V>> iterator = map.entrySet().iterator();
+    int entries = map.size();
+    long memory = memoryUsage;
+    long evicted = 0;
+    // Always keep the last added entry
+    while (entries > 1
+        && ((maxEntries > 0 && entries > maxEntries) || (maxMemory > 0 && memory > maxMemory))) {
+      Map.Entry<Key, V> eldest = iterator.next();
+      memory -= ENTRY_OVERHEAD + eldest.getKey().bytes.length;
+      memory -= sizeEstimator.estimateSize(eldest.getValue());
+      iterator.remove();
+      entries--;
+      evicted++;
+    }
+    if (evicted > 0) {
+      MEMORY_USAGE.lazySet(this, memory);
+      EVICTIONS.lazySet(this, evictions + evicted);
+    }
+  }
+
+  /** Removes all entries from the cache, the counters are kept. */
+  public void clear() {
+    map.clear();
+    MEMORY_USAGE.lazySet(this, 0L);
+    size = 0;
+  }
+
+  /** @return the number of entries in the cache */
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of lookups which found a value */
+  public long getHits() {
+    return hits;
+  }
+
+  /** @return the number of lookups which didn't find a value */
+  public long getMisses() {
+    return misses;
+  }
+
+  /** @return the number of entries evicted to stay within the limits */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /** @return the estimated amount of memory in bytes used by the entries in the cache */
+  public long getMemoryUsage() {
+    return memoryUsage;
+  }
+
+  /** @return the maximum number of entries, 0 or less if there is no limit */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /** @return the maximum estimated amount of memory in bytes, 0 or less if there is no limit */
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  /**
+   * Gives a rough estimate of the amount of memory used by a row of data.
+   *
+   * @param row the row
+   * @return the estimated size in bytes
+   */
+  public static long estimateRowSize(Object[] row) {
+    if (row == null) {
+      return 0L;
+    }
+    long size = 16L + 8L * row.length;
+    for (Object value : row) {
+      if (value == null) {
+        continue;
+      }
+      if (value instanceof String) {
+        size += 40L + 2L * ((String) value).length();
+      } else if (value instanceof byte[]) {
+        size += 16L + ((byte[]) value).length;
+      } else if (value instanceof BigDecimal) {
+        size += 64L;
+      } else {
+        // Long, Double, Boolean, Date, Timestamp, ...
+        size += 24L;
+      }
+    }
+    return size;
+  }
+
+  /** A byte array key with a cached hash code */
+  private static final class Key {
+    private final byte[] bytes;
+    private final int hashCode;
+
+    private Key(byte[] bytes) {
+      this.bytes = bytes;
+      this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hashCode == other.hashCode && Arrays.equals(bytes, other.bytes);
+    }
+  }
+}
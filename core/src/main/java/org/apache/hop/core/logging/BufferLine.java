@@ -24,12 +24,18 @@ public class BufferLine {
 
   private int nr;
   private HopLoggingEvent event;
+  private volatile boolean removed;
 
   public BufferLine(HopLoggingEvent event) {
     this.event = event;
     this.nr = sequence.incrementAndGet();
   }
 
+  BufferLine(HopLoggingEvent event, int nr) {
+    this.event = event;
+    this.nr = nr;
+  }
+
   public int getNr() {
     return nr;
   }
@@ -38,6 +44,15 @@ public class BufferLine {
     return event;
   }
 
+  /** @return true if the line was removed from the buffer it was added to */
+  public boolean isRemoved() {
+    return removed;
+  }
+
+  void setRemoved() {
+    removed = true;
+  }
+
   @Override
   public String toString() {
     return event.toString();
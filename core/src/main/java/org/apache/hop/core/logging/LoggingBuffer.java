@@ -22,21 +22,58 @@ import org.apache.hop.core.Const;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-/** This class keeps the last N lines in a buffer */
+/**
+ * This class keeps the last N lines in a buffer.
+ *
+ * <p>Every line gets a sequence number (1..N) and is stored in a block of {@link #BLOCK_SIZE}
+ * lines, at the position given by its number. Appending a line only claims a number and writes a
+ * slot, no lock is taken and nothing is moved around. The blocks form a ring: once all the lines
+ * of the oldest block fall out of the window of the last {@link #getMaxNrLines()} lines the block
+ * is dropped as a whole.
+ *
+ * <p>For every log channel the buffer keeps the numbers of the blocks the channel wrote to. Asking
+ * for the lines of a pipeline or workflow only looks at the blocks its channels wrote to, between
+ * the requested line numbers, instead of going over the whole buffer.
+ */
 public class LoggingBuffer {
+  static final int BLOCK_SHIFT = 10;
+  static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+  private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+  /** The index key for lines without a log channel id */
+  private static final String NO_CHANNEL = "";
+
   private String name;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** The blocks of lines, by block number (line number / BLOCK_SIZE) */
+  private final Map<Integer, AtomicReferenceArray<BufferLine>> blocks;
+
+  /** The number of the oldest block that wasn't dropped yet */
+  private final AtomicInteger oldestBlock;
+
+  /** The number of the last line that was claimed by an appender */
+  private final AtomicInteger lastClaimedNr;
+
+  /** The number of the last line for which this line and all lines before it are written */
+  private final AtomicInteger lastWrittenNr;
+
+  /** All lines up to and including this number were removed */
+  private final AtomicInteger removedUpToNr;
+
+  /** The numbers of the blocks every log channel wrote lines to */
+  private final Map<String, ChannelBlocks> channelBlocks;
 
-  private int bufferSize;
+  private volatile int bufferSize;
 
   private HopLogLayout layout;
 
@@ -46,10 +83,12 @@ public class LoggingBuffer {
 
   public LoggingBuffer(int bufferSize) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>((int) (bufferSize * 1.1));
+    blocks = new ConcurrentHashMap<>();
+    oldestBlock = new AtomicInteger(0);
+    lastClaimedNr = new AtomicInteger(0);
+    lastWrittenNr = new AtomicInteger(0);
+    removedUpToNr = new AtomicInteger(0);
+    channelBlocks = new ConcurrentHashMap<>();
     layout = new HopLogLayout(true);
     eventListeners = new CopyOnWriteArrayList<>();
   }
@@ -59,16 +98,8 @@ public class LoggingBuffer {
    *     buffer, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if (buffer.size() > 0) {
-        return buffer.get(buffer.size() - 1).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
-    }
+    int lastNr = lastWrittenNr.get();
+    return lastNr > getFirstRemovedNr(lastNr) ? lastNr : 0;
   }
 
   /**
@@ -80,24 +111,47 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       List<String> channelId, boolean includeGeneral, int from, int to) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream =
-          buffer.stream().filter(line -> line.getNr() > from && line.getNr() <= to);
-      if (channelId != null) {
-        bufferStream =
-            bufferStream.filter(
-                line -> {
-                  String logChannelId = getLogChId(line);
-                  return includeGeneral
-                      ? isGeneral(logChannelId) || channelId.contains(logChannelId)
-                      : channelId.contains(logChannelId);
-                });
+    List<HopLoggingEvent> events = new ArrayList<>();
+
+    int lastNr = lastWrittenNr.get();
+    int low = Math.max(from, getFirstRemovedNr(lastNr));
+    int high = Math.min(to, lastNr);
+    if (low >= high) {
+      return events;
+    }
+
+    if (channelId == null) {
+      for (int blockNr = (low + 1) >>> BLOCK_SHIFT; blockNr <= high >>> BLOCK_SHIFT; blockNr++) {
+        collectLines(blockNr, low, high, null, events);
+      }
+      return events;
+    }
+
+    Set<String> channels = new HashSet<>(channelId);
+    if (includeGeneral) {
+      for (String logChannelId : channelBlocks.keySet()) {
+        if (!NO_CHANNEL.equals(logChannelId)
+            && !channels.contains(logChannelId)
+            && isGeneral(logChannelId)) {
+          channels.add(logChannelId);
+        }
       }
-      return bufferStream.map(BufferLine::getEvent).collect(Collectors.toList());
-    } finally {
-      lock.readLock().unlock();
     }
+
+    // Only visit the blocks the channels wrote to, in the order of the line numbers
+    //
+    Set<Integer> blockNrs = new TreeSet<>();
+    for (String logChannelId : channels) {
+      ChannelBlocks written = channelBlocks.get(logChannelId);
+      if (written != null) {
+        blockNrs.addAll(
+            written.blockNrs.subSet((low + 1) >>> BLOCK_SHIFT, true, high >>> BLOCK_SHIFT, true));
+      }
+    }
+    for (int blockNr : blockNrs) {
+      collectLines(blockNr, low, high, channels, events);
+    }
+    return events;
   }
 
   /**
@@ -149,15 +203,34 @@ public class LoggingBuffer {
 
   public void doAppend(HopLoggingEvent event) {
     if (event.getMessage() instanceof LogMessage) {
-      lock.writeLock().lock();
-      try {
-        buffer.add(new BufferLine(event));
-        while (bufferSize > 0 && buffer.size() > bufferSize) {
-          buffer.remove(0);
-        }
-      } finally {
-        lock.writeLock().unlock();
+      int nr = lastClaimedNr.incrementAndGet();
+      BufferLine line = new BufferLine(event, nr);
+      int blockNr = nr >>> BLOCK_SHIFT;
+      AtomicReferenceArray<BufferLine> block = getBlock(blockNr);
+      if (block == null) {
+        // The block was dropped already: the line is out of the buffer before it got in
+        //
+        return;
+      }
+
+      // Register the block with the channel before the line becomes visible to readers
+      //
+      String channelKey = getChannelKey(line);
+      ChannelBlocks written = channelBlocks.get(channelKey);
+      if (written == null || written.lastBlockNr != blockNr) {
+        channelBlocks.compute(
+            channelKey,
+            (key, current) -> {
+              ChannelBlocks channel = current == null ? new ChannelBlocks() : current;
+              channel.blockNrs.add(blockNr);
+              channel.lastBlockNr = blockNr;
+              return channel;
+            });
       }
+      block.set(nr & BLOCK_MASK, line);
+
+      advanceLastWrittenNr();
+      dropOldBlocks();
     }
   }
 
@@ -182,12 +255,8 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
-    }
+    updateMax(removedUpToNr, lastWrittenNr.get());
+    dropOldBlocks();
   }
 
   /** @return the maximum number of lines that this buffer contains, 0 or lower means: no limit */
@@ -201,11 +270,21 @@ public class LoggingBuffer {
    */
   public void setMaxNrLines(int maxNrLines) {
     this.bufferSize = maxNrLines;
+    dropOldBlocks();
   }
 
   /** @return the nrLines */
   public int getNrLines() {
-    return buffer.size();
+    int lastNr = lastWrittenNr.get();
+    int firstRemovedNr = getFirstRemovedNr(lastNr);
+    int nrLines = 0;
+    for (int nr = firstRemovedNr + 1; nr <= lastNr; nr++) {
+      BufferLine line = getLine(nr);
+      if (line != null && !line.isRemoved()) {
+        nrLines++;
+      }
+    }
+    return nrLines;
   }
 
   /**
@@ -214,48 +293,61 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer(String id) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> id.equals(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    ChannelBlocks written = channelBlocks.remove(id);
+    if (written == null) {
+      return;
+    }
+    int lastNr = lastWrittenNr.get();
+    for (int blockNr : written.blockNrs) {
+      AtomicReferenceArray<BufferLine> block = blocks.get(blockNr);
+      if (block != null) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+          BufferLine line = block.get(i);
+          if (line != null && id.equals(getLogChId(line))) {
+            line.setRemoved();
+            // Free the slot, unless the line is still in front of the last written line
+            //
+            if (line.getNr() <= lastNr) {
+              block.compareAndSet(i, line, null);
+            }
+          }
+        }
+      }
     }
   }
 
   public int size() {
-    return buffer.size();
+    return getNrLines();
+  }
+
+  /** @return the number of log channels with lines in the buffer */
+  int getNrLogChannels() {
+    return channelBlocks.size();
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> isGeneral(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    for (String logChannelId : channelBlocks.keySet()) {
+      if (!NO_CHANNEL.equals(logChannelId) && isGeneral(logChannelId)) {
+        removeChannelFromBuffer(logChannelId);
+      }
     }
   }
 
   public void removeBufferLinesBefore(long minTimeBoundary) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for (BufferLine bufferLine : buffer) {
-        if (bufferLine.getEvent().timeStamp < minTimeBoundary) {
-          linesToRemove.add(bufferLine);
-        } else {
-          break;
-        }
+    // The lines are added in chronological order: remove the oldest ones up to the first line
+    // that is recent enough
+    //
+    int lastNr = lastWrittenNr.get();
+    int nr = getFirstRemovedNr(lastNr);
+    while (nr < lastNr) {
+      BufferLine line = getLine(nr + 1);
+      if (line != null && line.getEvent().timeStamp >= minTimeBoundary) {
+        break;
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the
-      // ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll(linesToRemove);
-    } finally {
-      lock.writeLock().unlock();
+      nr++;
     }
+    updateMax(removedUpToNr, nr);
+    dropOldBlocks();
   }
 
   public void addLogggingEvent(HopLoggingEvent loggingEvent) {
@@ -271,11 +363,123 @@ public class LoggingBuffer {
     eventListeners.remove(listener);
   }
 
+  /**
+   * Adds the lines of the given block with a number in (low, high] to the events, optionally only
+   * the lines of the given channels.
+   */
+  private void collectLines(
+      int blockNr, int low, int high, Set<String> channels, List<HopLoggingEvent> events) {
+    AtomicReferenceArray<BufferLine> block = blocks.get(blockNr);
+    if (block == null) {
+      return;
+    }
+    int first = Math.max(low + 1, blockNr << BLOCK_SHIFT);
+    int last = Math.min(high, ((blockNr + 1) << BLOCK_SHIFT) - 1);
+    for (int nr = first; nr <= last; nr++) {
+      BufferLine line = block.get(nr & BLOCK_MASK);
+      if (line != null
+          && !line.isRemoved()
+          && (channels == null || channels.contains(getChannelKey(line)))) {
+        events.add(line.getEvent());
+      }
+    }
+  }
+
+  /** @return the block with the given number, null if the block was dropped already */
+  private AtomicReferenceArray<BufferLine> getBlock(int blockNr) {
+    AtomicReferenceArray<BufferLine> block = blocks.get(blockNr);
+    if (block == null) {
+      if (blockNr < oldestBlock.get()) {
+        return null;
+      }
+      block = blocks.computeIfAbsent(blockNr, k -> new AtomicReferenceArray<>(BLOCK_SIZE));
+      // Don't bring back a block which got dropped while we created it
+      //
+      if (blockNr < oldestBlock.get()) {
+        blocks.remove(blockNr, block);
+        return null;
+      }
+    }
+    return block;
+  }
+
+  private BufferLine getLine(int nr) {
+    AtomicReferenceArray<BufferLine> block = blocks.get(nr >>> BLOCK_SHIFT);
+    return block == null ? null : block.get(nr & BLOCK_MASK);
+  }
+
+  /**
+   * Lines can be written in a different order than their numbers were claimed in. Only move the
+   * last written line number forward over lines that are actually written so readers never skip a
+   * line that is still being added.
+   */
+  private void advanceLastWrittenNr() {
+    while (true) {
+      int lastNr = lastWrittenNr.get();
+      if (getLine(lastNr + 1) == null) {
+        return;
+      }
+      lastWrittenNr.compareAndSet(lastNr, lastNr + 1);
+    }
+  }
+
+  /** @return the number of the last line that is no longer in the buffer, 0 if there's none */
+  private int getFirstRemovedNr(int lastNr) {
+    int firstRemovedNr = removedUpToNr.get();
+    int maxNrLines = bufferSize;
+    if (maxNrLines > 0) {
+      firstRemovedNr = Math.max(firstRemovedNr, lastNr - maxNrLines);
+    }
+    return firstRemovedNr;
+  }
+
+  /**
+   * Drops the oldest blocks of which all the lines are out of the buffer. Channels which only wrote
+   * to dropped blocks are forgotten.
+   */
+  private void dropOldBlocks() {
+    int firstKeptBlock = (getFirstRemovedNr(lastWrittenNr.get()) + 1) >>> BLOCK_SHIFT;
+    int blockNr = oldestBlock.get();
+    while (blockNr < firstKeptBlock) {
+      if (oldestBlock.compareAndSet(blockNr, blockNr + 1)) {
+        blocks.remove(blockNr);
+        int droppedNr = blockNr;
+        for (String channelKey : channelBlocks.keySet()) {
+          channelBlocks.computeIfPresent(
+              channelKey,
+              (key, channel) -> {
+                channel.blockNrs.headSet(droppedNr, true).clear();
+                return channel.blockNrs.isEmpty() ? null : channel;
+              });
+        }
+      }
+      blockNr = oldestBlock.get();
+    }
+  }
+
+  private static void updateMax(AtomicInteger value, int newValue) {
+    int current = value.get();
+    while (current < newValue && !value.compareAndSet(current, newValue)) {
+      current = value.get();
+    }
+  }
+
+  /** The numbers of the blocks a log channel wrote lines to */
+  private static class ChannelBlocks {
+    private final NavigableSet<Integer> blockNrs = new ConcurrentSkipListSet<>();
+    private volatile int lastBlockNr = -1;
+  }
+
   private boolean isGeneral(String logChannelId) {
     ILoggingObject loggingObject = loggingRegistry.getLoggingObject(logChannelId);
     return loggingObject != null && LoggingObjectType.GENERAL.equals(loggingObject.getObjectType());
   }
 
+  private static String getChannelKey(BufferLine bufferLine) {
+    String logChannelId = getLogChId(bufferLine);
+    return logChannelId == null ? NO_CHANNEL : logChannelId;
+  }
+
   private static String getLogChId(BufferLine bufferLine) {
     return ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
   }
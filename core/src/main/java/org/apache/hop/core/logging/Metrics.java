@@ -31,6 +31,14 @@ public class Metrics implements IMetrics {
       new Metrics(MetricsSnapshotType.START, "METRIC_DATABASE_CONNECT", "Connect to database");
   public static Metrics METRIC_DATABASE_CONNECT_STOP =
       new Metrics(MetricsSnapshotType.STOP, "METRIC_DATABASE_CONNECT", "Connect to database");
+  public static Metrics METRIC_DATABASE_POOL_BORROW_START =
+      new Metrics(
+          MetricsSnapshotType.START,
+          "METRIC_DATABASE_POOL_BORROW",
+          "Borrow connection from pool");
+  public static Metrics METRIC_DATABASE_POOL_BORROW_STOP =
+      new Metrics(
+          MetricsSnapshotType.STOP, "METRIC_DATABASE_POOL_BORROW", "Borrow connection from pool");
   public static Metrics METRIC_DATABASE_PREPARE_SQL_START =
       new Metrics(
           MetricsSnapshotType.START, "METRIC_DATABASE_PREPARE_SQL", "Prepare SQL statement");
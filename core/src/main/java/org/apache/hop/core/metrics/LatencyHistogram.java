@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A histogram of durations with fixed buckets, from 1 microsecond up to 10 seconds. The memory it
+ * uses doesn't depend on the number of recorded durations.
+ *
+ * <p>Durations are recorded by one thread at a time, the thread running a transform for example.
+ * Other threads can read the histogram at any time: they might see a duration in the bucket counts
+ * before it's added to the sum but they never see a partial update of a counter.
+ */
+public class LatencyHistogram {
+
+  /** The upper bounds (inclusive) of the buckets in nanoseconds. The last bucket has no bound. */
+  private static final long[] UPPER_BOUNDS_NANOS = {
+    1000L,
+    2500L,
+    5000L,
+    10000L,
+    25000L,
+    50000L,
+    100000L,
+    250000L,
+    500000L,
+    1000000L,
+    2500000L,
+    5000000L,
+    10000000L,
+    25000000L,
+    50000000L,
+    100000000L,
+    250000000L,
+    500000000L,
+    1000000000L,
+    2500000000L,
+    5000000000L,
+    10000000000L,
+  };
+
+  private static final AtomicLongFieldUpdater<LatencyHistogram> SUM_NANOS =
+      AtomicLongFieldUpdater.newUpdater(LatencyHistogram.class, "sumNanos");
+
+  private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_NANOS.length + 1);
+  private volatile long sumNanos;
+
+  /**
+   * Record a duration. Only call this from one thread at a time.
+   *
+   * @param nanos The duration in nanoseconds
+   */
+  public void record(long nanos) {
+    int bucket = 0;
+    while (bucket < UPPER_BOUNDS_NANOS.length && nanos > UPPER_BOUNDS_NANOS[bucket]) {
+      bucket++;
+    }
+    counts.lazySet(bucket, counts.get(bucket) + 1);
+    SUM_NANOS.lazySet(this, sumNanos + nanos);
+  }
+
+  /** @return The upper bounds of the buckets in nanoseconds, without the unbounded last bucket */
+  public static long[] getUpperBoundsNanos() {
+    return UPPER_BOUNDS_NANOS.clone();
+  }
+
+  /**
+   * @return The number of recorded durations per bucket, one more than the number of upper bounds.
+   *     The counts are not cumulative.
+   */
+  public long[] getCounts() {
+    long[] snapshot = new long[counts.length()];
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i] = counts.get(i);
+    }
+    return snapshot;
+  }
+
+  /** @return The number of recorded durations */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /** @return The sum of the recorded durations in nanoseconds */
+  public long getSumNanos() {
+    return sumNanos;
+  }
+}
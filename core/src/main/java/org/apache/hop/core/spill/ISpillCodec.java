@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import java.io.IOException;
+
+/**
+ * Compresses and decompresses the blocks of rows written to temporary (spill) files. Codecs work
+ * on complete blocks rather than on streams so they can reuse their buffers.
+ */
+public interface ISpillCodec {
+
+  /** @return the name of the codec, as used in the HOP_SPILL_CODEC variable */
+  String getName();
+
+  /**
+   * @param length the number of bytes to compress
+   * @return the maximum number of bytes the compressed data can take
+   */
+  int maxCompressedLength(int length);
+
+  /**
+   * Compress a block of data.
+   *
+   * @param source the data to compress
+   * @param length the number of bytes to compress
+   * @param target the buffer to compress into, at least maxCompressedLength() bytes long
+   * @return the number of bytes written to the target buffer
+   * @throws IOException in case the data can't be compressed
+   */
+  int compress(byte[] source, int length, byte[] target) throws IOException;
+
+  /**
+   * Decompress a block of data.
+   *
+   * @param source the compressed data
+   * @param length the number of compressed bytes
+   * @param target the buffer to decompress into
+   * @param originalLength the length of the data before compression
+   * @throws IOException in case the data can't be decompressed
+   */
+  void decompress(byte[] source, int length, byte[] target, int originalLength)
+      throws IOException;
+}
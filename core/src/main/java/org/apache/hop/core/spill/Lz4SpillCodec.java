@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+
+/**
+ * Compresses blocks with LZ4, which is a lot faster than GZip at the cost of a somewhat lower
+ * compression ratio. Falls back to the pure Java implementation if the native library can't be
+ * loaded.
+ */
+public class Lz4SpillCodec implements ISpillCodec {
+
+  public static final String NAME = "LZ4";
+
+  private final LZ4Compressor compressor;
+  private final LZ4FastDecompressor decompressor;
+
+  public Lz4SpillCodec() {
+    LZ4Factory factory = LZ4Factory.fastestInstance();
+    compressor = factory.fastCompressor();
+    decompressor = factory.fastDecompressor();
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    return compressor.maxCompressedLength(length);
+  }
+
+  @Override
+  public int compress(byte[] source, int length, byte[] target) throws IOException {
+    try {
+      return compressor.compress(source, 0, length, target, 0, target.length);
+    } catch (LZ4Exception e) {
+      throw new IOException("Unable to compress block", e);
+    }
+  }
+
+  @Override
+  public void decompress(byte[] source, int length, byte[] target, int originalLength)
+      throws IOException {
+    try {
+      decompressor.decompress(source, 0, target, 0, originalLength);
+    } catch (LZ4Exception e) {
+      throw new IOException("Unable to decompress block", e);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte array holding a block of encoded rows. Numbers are written as variable length
+ * integers so small values only take a byte or two.
+ */
+class SpillBuffer {
+
+  byte[] data;
+  int position;
+  int limit;
+
+  private DataOutputStream dataOutput;
+  private DataInputStream dataInput;
+
+  SpillBuffer(int capacity) {
+    data = new byte[capacity];
+  }
+
+  void clear() {
+    position = 0;
+    limit = 0;
+  }
+
+  /** Prepare to read back the given number of bytes from the start of the buffer */
+  void reset(int length) {
+    position = 0;
+    limit = length;
+  }
+
+  void ensureCapacity(int extra) {
+    int needed = position + extra;
+    if (needed > data.length) {
+      data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+    }
+  }
+
+  // Writing
+  //
+
+  void writeByte(int value) {
+    ensureCapacity(1);
+    data[position++] = (byte) value;
+  }
+
+  void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      data[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    data[position++] = (byte) value;
+  }
+
+  /** Zig-zag encode so small negative numbers are short too */
+  void writeSignedVarLong(long value) {
+    writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  void writeLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      data[position++] = (byte) (value >>> shift);
+    }
+  }
+
+  void writeBytes(byte[] bytes) {
+    writeVarLong(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, data, position, bytes.length);
+    position += bytes.length;
+  }
+
+  void writeString(String string) {
+    // Most strings are plain ASCII, copy those without creating an intermediate byte array
+    //
+    int length = string.length();
+    boolean ascii = true;
+    for (int i = 0; i < length && ascii; i++) {
+      ascii = string.charAt(i) < 0x80;
+    }
+    if (ascii) {
+      writeVarLong(length);
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+        data[position++] = (byte) string.charAt(i);
+      }
+    } else {
+      writeBytes(string.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /** @return a data output stream appending to this buffer, for values without a compact form */
+  DataOutputStream getDataOutput() {
+    if (dataOutput == null) {
+      dataOutput =
+          new DataOutputStream(
+              new OutputStream() {
+                @Override
+                public void write(int b) {
+                  writeByte(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                  ensureCapacity(len);
+                  System.arraycopy(b, off, data, position, len);
+                  position += len;
+                }
+              });
+    }
+    return dataOutput;
+  }
+
+  // Reading
+  //
+
+  int readByte() throws EOFException {
+    if (position >= limit) {
+      throw new EOFException();
+    }
+    return data[position++] & 0xFF;
+  }
+
+  long readVarLong() throws EOFException {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  long readSignedVarLong() throws EOFException {
+    long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  long readLong() throws EOFException {
+    if (position + 8 > limit) {
+      throw new EOFException();
+    }
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (data[position++] & 0xFF);
+    }
+    return value;
+  }
+
+  byte[] readBytes() throws EOFException {
+    int length = readLength();
+    byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+    position += length;
+    return bytes;
+  }
+
+  String readString() throws EOFException {
+    int length = readLength();
+    String string = new String(data, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return string;
+  }
+
+  private int readLength() throws EOFException {
+    int length = (int) readVarLong();
+    if (length < 0 || position + length > limit) {
+      throw new EOFException();
+    }
+    return length;
+  }
+
+  /** @return a data input stream reading from this buffer, for values without a compact form */
+  DataInputStream getDataInput() {
+    if (dataInput == null) {
+      dataInput =
+          new DataInputStream(
+              new InputStream() {
+                @Override
+                public int read() {
+                  return position < limit ? data[position++] & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                  if (position >= limit) {
+                    return -1;
+                  }
+                  int count = Math.min(len, limit - position);
+                  System.arraycopy(data, position, b, off, count);
+                  position += count;
+                  return count;
+                }
+              });
+    }
+    return dataInput;
+  }
+}
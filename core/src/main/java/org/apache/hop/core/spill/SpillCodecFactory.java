@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.hop.core.exception.HopException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the available spill codecs. Codecs are created the first time they're used so
+ * that native libraries are only loaded when needed. Additional codecs can be registered by
+ * plugins.
+ */
+public class SpillCodecFactory {
+
+  private static final Map<String, Supplier<ISpillCodec>> suppliers = new ConcurrentHashMap<>();
+  private static final Map<String, ISpillCodec> codecs = new ConcurrentHashMap<>();
+
+  static {
+    registerCodec(NoneSpillCodec.NAME, NoneSpillCodec::new);
+    registerCodec(Lz4SpillCodec.NAME, Lz4SpillCodec::new);
+    registerCodec(ZstdSpillCodec.NAME, ZstdSpillCodec::new);
+  }
+
+  private SpillCodecFactory() {}
+
+  /**
+   * Register a new codec. Codecs need to be thread-safe since a single instance is shared.
+   *
+   * @param name the name of the codec (case insensitive)
+   * @param supplier creates the codec the first time it's used
+   */
+  public static void registerCodec(String name, Supplier<ISpillCodec> supplier) {
+    String key = name.toUpperCase();
+    suppliers.put(key, supplier);
+    codecs.remove(key);
+  }
+
+  /**
+   * @param name the name of the codec (case insensitive)
+   * @return the codec with the given name
+   * @throws HopException if there is no such codec or if it can't be loaded
+   */
+  public static ISpillCodec getCodec(String name) throws HopException {
+    String key = name.trim().toUpperCase();
+    Supplier<ISpillCodec> supplier = suppliers.get(key);
+    if (supplier == null) {
+      throw new HopException(
+          "Unknown spill codec '" + name + "', available codecs are: " + suppliers.keySet());
+    }
+    try {
+      return codecs.computeIfAbsent(key, k -> supplier.get());
+    } catch (Throwable e) {
+      throw new HopException("Unable to load spill codec '" + name + "'", e);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A temporary file holding rows which didn't fit in memory. Create one with {@link
+ * SpillManager#createSpillFile()}, write the rows with a {@link SpillWriter} and read them back
+ * (as many times as needed) with a {@link SpillReader}.
+ */
+public class SpillFile {
+
+  private final FileObject fileObject;
+  private final ISpillCodec codec;
+  private final int bufferSize;
+  private long rowCount;
+
+  SpillFile(FileObject fileObject, ISpillCodec codec, int bufferSize) {
+    this.fileObject = fileObject;
+    this.codec = codec;
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Open the file for writing, any previous content is overwritten.
+   *
+   * @param rowMeta the layout of the rows to write
+   * @return a new writer
+   * @throws HopFileException in case the file can't be opened
+   */
+  public SpillWriter createWriter(IRowMeta rowMeta) throws HopFileException {
+    try {
+      return new SpillWriter(this, openWriteChannel(), rowMeta, codec, bufferSize);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to open spill file " + this + " for writing", e);
+    }
+  }
+
+  /**
+   * Open the file for reading.
+   *
+   * @param rowMeta the layout of the rows written to the file
+   * @return a new reader
+   * @throws HopFileException in case the file can't be opened
+   */
+  public SpillReader createReader(IRowMeta rowMeta) throws HopFileException {
+    return new SpillReader(this, rowMeta, codec, bufferSize);
+  }
+
+  /** Local files are accessed through a FileChannel, anything else through Apache VFS streams */
+  private Path getLocalPath() {
+    if (!"file".equals(fileObject.getName().getScheme())) {
+      return null;
+    }
+    String filename = HopVfs.getFilename(fileObject);
+    if (filename.startsWith("file:")) {
+      return null; // a network share
+    }
+    return Paths.get(filename);
+  }
+
+  WritableByteChannel openWriteChannel() throws IOException {
+    Path path = getLocalPath();
+    if (path != null) {
+      return FileChannel.open(
+          path,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    return Channels.newChannel(HopVfs.getOutputStream(fileObject, false));
+  }
+
+  ReadableByteChannel openReadChannel() throws IOException {
+    Path path = getLocalPath();
+    if (path != null) {
+      return FileChannel.open(path, StandardOpenOption.READ);
+    }
+    return Channels.newChannel(HopVfs.getInputStream(fileObject));
+  }
+
+  /**
+   * Delete the file.
+   *
+   * @return true if the file was deleted
+   */
+  public boolean delete() {
+    try {
+      Path path = getLocalPath();
+      if (path != null) {
+        return Files.deleteIfExists(path);
+      }
+      // The file was written behind the back of the VFS cache
+      //
+      fileObject.refresh();
+      return fileObject.delete();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /** @return the number of rows written to the file */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  void setRowCount(long rowCount) {
+    this.rowCount = rowCount;
+  }
+
+  /** @return the codec used to compress the file */
+  public ISpillCodec getCodec() {
+    return codec;
+  }
+
+  /** @return the underlying file */
+  public FileObject getFileObject() {
+    return fileObject;
+  }
+
+  @Override
+  public String toString() {
+    return HopVfs.getFilename(fileObject);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the temporary files used by transforms to spill rows to disk when they don't fit in
+ * memory. The directories and codec to use are configured with the HOP_SPILL_DIRECTORIES,
+ * HOP_SPILL_CODEC and HOP_SPILL_BUFFER_SIZE variables. When several directories are configured the
+ * files are spread over them round-robin.
+ */
+public class SpillManager {
+
+  public static final int DEFAULT_BUFFER_SIZE = 128 * 1024;
+
+  private final String[] directories;
+  private final String prefix;
+  private final ISpillCodec codec;
+  private final int bufferSize;
+  private final AtomicInteger nextDirectory = new AtomicInteger();
+
+  /**
+   * @param variables the variables to read the spill configuration from
+   * @param directory the directory configured in the transform, used if HOP_SPILL_DIRECTORIES is
+   *     not set
+   * @param prefix the prefix of the temporary file names
+   * @param compress true if the transform asks for compressed files, used if HOP_SPILL_CODEC is not
+   *     set
+   * @throws HopException in case the configured codec is not available
+   */
+  public SpillManager(IVariables variables, String directory, String prefix, boolean compress)
+      throws HopException {
+    List<String> list = new ArrayList<>();
+    String spillDirectories = variables.getVariable(Const.HOP_SPILL_DIRECTORIES);
+    if (!Utils.isEmpty(spillDirectories)) {
+      for (String spillDirectory : spillDirectories.split(",")) {
+        if (!Utils.isEmpty(spillDirectory.trim())) {
+          list.add(variables.resolve(spillDirectory.trim()));
+        }
+      }
+    }
+    if (list.isEmpty()) {
+      list.add(Utils.isEmpty(directory) ? System.getProperty("java.io.tmpdir") : directory);
+    }
+    directories = list.toArray(new String[0]);
+
+    this.prefix = Utils.isEmpty(prefix) ? "hop" : prefix;
+
+    String codecName = variables.getVariable(Const.HOP_SPILL_CODEC);
+    if (Utils.isEmpty(codecName)) {
+      codecName = compress ? Lz4SpillCodec.NAME : NoneSpillCodec.NAME;
+    }
+    codec = SpillCodecFactory.getCodec(codecName);
+
+    bufferSize =
+        Const.toInt(variables.getVariable(Const.HOP_SPILL_BUFFER_SIZE), DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Create a new, empty spill file in the next spill directory.
+   *
+   * @return the new spill file
+   * @throws HopFileException in case the file can't be created
+   */
+  public SpillFile createSpillFile() throws HopFileException {
+    int index = Math.floorMod(nextDirectory.getAndIncrement(), directories.length);
+    return new SpillFile(
+        HopVfs.createTempFile(prefix, ".tmp", directories[index]), codec, bufferSize);
+  }
+
+  /** @return the directories the spill files are spread over */
+  public String[] getDirectories() {
+    return directories;
+  }
+
+  /** @return the codec used to compress the spill files */
+  public ISpillCodec getCodec() {
+    return codec;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/** Reads the rows of a spill file back in the order they were written. */
+public class SpillReader implements AutoCloseable {
+
+  private final SpillFile spillFile;
+  private final SpillRowSerializer serializer;
+  private final ISpillCodec codec;
+  private final SpillBuffer block;
+  private final ByteBuffer ioBuffer;
+  private byte[] compressed;
+  private ReadableByteChannel channel;
+  private boolean endOfFile;
+  private int rowsInBlock;
+
+  SpillReader(SpillFile spillFile, IRowMeta rowMeta, ISpillCodec codec, int bufferSize)
+      throws HopFileException {
+    this.spillFile = spillFile;
+    this.serializer = new SpillRowSerializer(rowMeta);
+    this.codec = codec;
+    this.block = new SpillBuffer(SpillWriter.BLOCK_SIZE + 1024);
+    this.ioBuffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+    open();
+  }
+
+  private void open() throws HopFileException {
+    try {
+      channel = spillFile.openReadChannel();
+      ioBuffer.clear().limit(0);
+      endOfFile = false;
+      rowsInBlock = 0;
+      block.clear();
+      if (readInt() != SpillWriter.MAGIC) {
+        throw new IOException("Not a spill file");
+      }
+    } catch (IOException e) {
+      close();
+      throw new HopFileException("Unable to open spill file " + spillFile + " for reading", e);
+    }
+  }
+
+  /**
+   * Read the next row.
+   *
+   * @return the next row or null if all rows were read
+   * @throws HopFileException in case the row can't be read
+   */
+  public Object[] readRow() throws HopFileException {
+    if (rowsInBlock == 0) {
+      try {
+        if (!readBlock()) {
+          return null;
+        }
+      } catch (IOException e) {
+        throw new HopFileException("Unable to read from spill file " + spillFile, e);
+      }
+    }
+    rowsInBlock--;
+    return serializer.readRow(block);
+  }
+
+  /**
+   * Start reading from the first row again.
+   *
+   * @throws HopFileException in case the file can't be re-opened
+   */
+  public void rewind() throws HopFileException {
+    close();
+    open();
+  }
+
+  private boolean readBlock() throws IOException {
+    if (!fill(1)) {
+      return false;
+    }
+    int nrRows = readInt();
+    int rawLength = readInt();
+    int storedLength = readInt();
+
+    block.clear();
+    block.ensureCapacity(rawLength);
+    if (codec instanceof NoneSpillCodec) {
+      readFully(block.data, rawLength);
+    } else {
+      if (compressed == null || compressed.length < storedLength) {
+        compressed = new byte[storedLength];
+      }
+      readFully(compressed, storedLength);
+      codec.decompress(compressed, storedLength, block.data, rawLength);
+    }
+    block.reset(rawLength);
+    rowsInBlock = nrRows;
+    return true;
+  }
+
+  /** @return true if at least the given number of bytes is available in the I/O buffer */
+  private boolean fill(int length) throws IOException {
+    while (ioBuffer.remaining() < length && !endOfFile) {
+      ioBuffer.compact();
+      int read = channel.read(ioBuffer);
+      ioBuffer.flip();
+      if (read < 0) {
+        endOfFile = true;
+      }
+    }
+    return ioBuffer.remaining() >= length;
+  }
+
+  private int readInt() throws IOException {
+    if (!fill(4)) {
+      throw new EOFException("Unexpected end of spill file " + spillFile);
+    }
+    return ioBuffer.getInt();
+  }
+
+  private void readFully(byte[] target, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      if (!fill(1)) {
+        throw new EOFException("Unexpected end of spill file " + spillFile);
+      }
+      int count = Math.min(ioBuffer.remaining(), length - offset);
+      ioBuffer.get(target, offset, count);
+      offset += count;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Ignore, we only read from the file
+      }
+      channel = null;
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+
+import java.io.EOFException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Encodes rows in a compact binary form. Unlike IRowMeta.writeData() no metadata is written per
+ * value: the nulls of a row are kept in a bitmap and the values are written according to their
+ * type, which is determined once for the whole file. Types without a compact form are written with
+ * IValueMeta.writeData().
+ */
+class SpillRowSerializer {
+
+  private static final int KIND_OTHER = 0;
+  private static final int KIND_BINARY_STRING = 1;
+  private static final int KIND_INDEXED = 2;
+  private static final int KIND_STRING = 3;
+  private static final int KIND_INTEGER = 4;
+  private static final int KIND_NUMBER = 5;
+  private static final int KIND_BOOLEAN = 6;
+  private static final int KIND_DATE = 7;
+  private static final int KIND_TIMESTAMP = 8;
+  private static final int KIND_BIGNUMBER = 9;
+  private static final int KIND_BINARY = 10;
+
+  private final IRowMeta rowMeta;
+  private final IValueMeta[] valueMetas;
+  private final int[] kinds;
+  private final int bitmapSize;
+
+  SpillRowSerializer(IRowMeta rowMeta) {
+    this.rowMeta = rowMeta;
+    int nrValues = rowMeta.size();
+    valueMetas = new IValueMeta[nrValues];
+    kinds = new int[nrValues];
+    for (int i = 0; i < nrValues; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(i);
+      kinds[i] = getKind(valueMetas[i]);
+    }
+    bitmapSize = (nrValues + 7) >>> 3;
+  }
+
+  private static int getKind(IValueMeta valueMeta) {
+    switch (valueMeta.getStorageType()) {
+      case IValueMeta.STORAGE_TYPE_BINARY_STRING:
+        return KIND_BINARY_STRING;
+      case IValueMeta.STORAGE_TYPE_INDEXED:
+        return KIND_INDEXED;
+      default:
+        break;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+        return KIND_STRING;
+      case IValueMeta.TYPE_INTEGER:
+        return KIND_INTEGER;
+      case IValueMeta.TYPE_NUMBER:
+        return KIND_NUMBER;
+      case IValueMeta.TYPE_BOOLEAN:
+        return KIND_BOOLEAN;
+      case IValueMeta.TYPE_DATE:
+        return KIND_DATE;
+      case IValueMeta.TYPE_TIMESTAMP:
+        return KIND_TIMESTAMP;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return KIND_BIGNUMBER;
+      case IValueMeta.TYPE_BINARY:
+        return KIND_BINARY;
+      default:
+        return KIND_OTHER;
+    }
+  }
+
+  void writeRow(SpillBuffer buffer, Object[] row) throws HopFileException {
+    // Reserve room for the null bitmap
+    //
+    buffer.ensureCapacity(bitmapSize);
+    int bitmapPosition = buffer.position;
+    for (int i = 0; i < bitmapSize; i++) {
+      buffer.data[bitmapPosition + i] = 0;
+    }
+    buffer.position += bitmapSize;
+
+    for (int i = 0; i < kinds.length; i++) {
+      Object value = i < row.length ? row[i] : null;
+      if (value == null) {
+        buffer.data[bitmapPosition + (i >>> 3)] |= (byte) (1 << (i & 7));
+      } else {
+        writeValue(buffer, i, value);
+      }
+    }
+  }
+
+  private void writeValue(SpillBuffer buffer, int index, Object value) throws HopFileException {
+    switch (kinds[index]) {
+      case KIND_BINARY_STRING:
+      case KIND_BINARY:
+        buffer.writeBytes((byte[]) value);
+        break;
+      case KIND_INDEXED:
+        buffer.writeVarLong((Integer) value);
+        break;
+      case KIND_STRING:
+        buffer.writeString((String) value);
+        break;
+      case KIND_INTEGER:
+        buffer.writeSignedVarLong((Long) value);
+        break;
+      case KIND_NUMBER:
+        buffer.writeLong(Double.doubleToLongBits((Double) value));
+        break;
+      case KIND_BOOLEAN:
+        buffer.writeByte(((Boolean) value) ? 1 : 0);
+        break;
+      case KIND_DATE:
+        buffer.writeSignedVarLong(((Date) value).getTime());
+        break;
+      case KIND_TIMESTAMP:
+        Date date = (Date) value;
+        buffer.writeSignedVarLong(date.getTime());
+        buffer.writeVarLong(
+            date instanceof Timestamp
+                ? ((Timestamp) date).getNanos()
+                : (int) Math.floorMod(date.getTime(), 1000L) * 1000000);
+        break;
+      case KIND_BIGNUMBER:
+        BigDecimal bigDecimal = (BigDecimal) value;
+        buffer.writeSignedVarLong(bigDecimal.scale());
+        buffer.writeBytes(bigDecimal.unscaledValue().toByteArray());
+        break;
+      default:
+        valueMetas[index].writeData(buffer.getDataOutput(), value);
+        break;
+    }
+  }
+
+  Object[] readRow(SpillBuffer buffer) throws HopFileException {
+    try {
+      int bitmapPosition = buffer.position;
+      buffer.position += bitmapSize;
+      if (buffer.position > buffer.limit) {
+        throw new EOFException();
+      }
+
+      Object[] row = RowDataUtil.allocateRowData(rowMeta.size());
+      for (int i = 0; i < kinds.length; i++) {
+        if ((buffer.data[bitmapPosition + (i >>> 3)] & (1 << (i & 7))) == 0) {
+          row[i] = readValue(buffer, i);
+        }
+      }
+      return row;
+    } catch (HopFileException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopFileException("Unable to read row from spill file", e);
+    }
+  }
+
+  private Object readValue(SpillBuffer buffer, int index) throws Exception {
+    switch (kinds[index]) {
+      case KIND_BINARY_STRING:
+      case KIND_BINARY:
+        return buffer.readBytes();
+      case KIND_INDEXED:
+        return (int) buffer.readVarLong();
+      case KIND_STRING:
+        return buffer.readString();
+      case KIND_INTEGER:
+        return buffer.readSignedVarLong();
+      case KIND_NUMBER:
+        return Double.longBitsToDouble(buffer.readLong());
+      case KIND_BOOLEAN:
+        return buffer.readByte() != 0;
+      case KIND_DATE:
+        return new Date(buffer.readSignedVarLong());
+      case KIND_TIMESTAMP:
+        Timestamp timestamp = new Timestamp(buffer.readSignedVarLong());
+        timestamp.setNanos((int) buffer.readVarLong());
+        return timestamp;
+      case KIND_BIGNUMBER:
+        int scale = (int) buffer.readSignedVarLong();
+        return new BigDecimal(new BigInteger(buffer.readBytes()), scale);
+      default:
+        return valueMetas[index].readData(buffer.getDataInput());
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes rows to a spill file. Rows are encoded into blocks of about {@link #BLOCK_SIZE} bytes.
+ * Every block is compressed with the codec of the file and written through a direct buffer:
+ *
+ * <pre>
+ * file  : MAGIC block*
+ * block : nrRows(int) rawLength(int) storedLength(int) data(storedLength bytes)
+ * </pre>
+ */
+public class SpillWriter implements AutoCloseable {
+
+  /** "HSP1" : Hop spill file, version 1 */
+  static final int MAGIC = 0x48535031;
+
+  /** The uncompressed size of a block of rows */
+  static final int BLOCK_SIZE = 64 * 1024;
+
+  private final SpillFile spillFile;
+  private final WritableByteChannel channel;
+  private final SpillRowSerializer serializer;
+  private final ISpillCodec codec;
+  private final SpillBuffer block;
+  private final ByteBuffer ioBuffer;
+  private byte[] compressed;
+  private int rowsInBlock;
+  private long rowCount;
+  private boolean closed;
+
+  SpillWriter(
+      SpillFile spillFile,
+      WritableByteChannel channel,
+      IRowMeta rowMeta,
+      ISpillCodec codec,
+      int bufferSize) {
+    this.spillFile = spillFile;
+    this.channel = channel;
+    this.serializer = new SpillRowSerializer(rowMeta);
+    this.codec = codec;
+    this.block = new SpillBuffer(BLOCK_SIZE + 1024);
+    this.ioBuffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+    ioBuffer.putInt(MAGIC);
+  }
+
+  /**
+   * Write a row to the file.
+   *
+   * @param row the row to write
+   * @throws HopFileException in case the row can't be written
+   */
+  public void writeRow(Object[] row) throws HopFileException {
+    serializer.writeRow(block, row);
+    rowsInBlock++;
+    rowCount++;
+    if (block.position >= BLOCK_SIZE) {
+      try {
+        writeBlock();
+      } catch (IOException e) {
+        throw new HopFileException("Unable to write to spill file " + spillFile, e);
+      }
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    int rawLength = block.position;
+    byte[] stored;
+    int storedLength;
+    if (codec instanceof NoneSpillCodec) {
+      stored = block.data;
+      storedLength = rawLength;
+    } else {
+      int maxLength = codec.maxCompressedLength(rawLength);
+      if (compressed == null || compressed.length < maxLength) {
+        compressed = new byte[maxLength];
+      }
+      stored = compressed;
+      storedLength = codec.compress(block.data, rawLength, compressed);
+    }
+
+    putInt(rowsInBlock);
+    putInt(rawLength);
+    putInt(storedLength);
+    int offset = 0;
+    while (offset < storedLength) {
+      if (!ioBuffer.hasRemaining()) {
+        flushBuffer();
+      }
+      int length = Math.min(ioBuffer.remaining(), storedLength - offset);
+      ioBuffer.put(stored, offset, length);
+      offset += length;
+    }
+
+    block.clear();
+    rowsInBlock = 0;
+  }
+
+  private void putInt(int value) throws IOException {
+    if (ioBuffer.remaining() < 4) {
+      flushBuffer();
+    }
+    ioBuffer.putInt(value);
+  }
+
+  private void flushBuffer() throws IOException {
+    ioBuffer.flip();
+    while (ioBuffer.hasRemaining()) {
+      channel.write(ioBuffer);
+    }
+    ioBuffer.clear();
+  }
+
+  /** @return the number of rows written so far */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Write the remaining rows and close the file.
+   *
+   * @throws HopFileException in case the rows can't be written
+   */
+  @Override
+  public void close() throws HopFileException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      try {
+        if (rowsInBlock > 0) {
+          writeBlock();
+        }
+        flushBuffer();
+      } finally {
+        channel.close();
+      }
+      spillFile.setRowCount(rowCount);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write to spill file " + spillFile, e);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import org.apache.commons.vfs2.FileObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache of resolved file objects, keyed by the filename they were resolved from. Lookups
+ * don't lock so that many transform copies can resolve files at the same time. When the cache grows
+ * beyond its maximum size the least recently used entries are evicted.
+ */
+public class FileObjectCache {
+
+  private final int maximumSize;
+  private final Map<String, Entry> entries;
+
+  /** @param maximumSize The maximum number of file objects to keep, 0 to disable the cache */
+  public FileObjectCache(int maximumSize) {
+    this.maximumSize = Math.max(0, maximumSize);
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param filename The filename the file object was resolved from
+   * @return The cached file object or null if there is none
+   */
+  public FileObject get(String filename) {
+    if (maximumSize == 0 || filename == null) {
+      return null;
+    }
+    Entry entry = entries.get(filename);
+    if (entry == null) {
+      return null;
+    }
+    entry.lastUsed = System.nanoTime();
+    return entry.fileObject;
+  }
+
+  /**
+   * Add a resolved file object to the cache
+   *
+   * @param filename The filename the file object was resolved from
+   * @param fileObject The resolved file object
+   */
+  public void put(String filename, FileObject fileObject) {
+    if (maximumSize == 0 || filename == null || fileObject == null) {
+      return;
+    }
+    entries.put(filename, new Entry(fileObject, System.nanoTime()));
+    if (entries.size() > maximumSize) {
+      evict();
+    }
+  }
+
+  /**
+   * Remove the file object resolved from the given filename as well as the file objects of all the
+   * files and folders below it.
+   *
+   * @param filename The filename to invalidate
+   */
+  public void invalidate(String filename) {
+    if (filename == null) {
+      return;
+    }
+    entries.remove(filename);
+    String folder = filename.endsWith("/") ? filename : filename + "/";
+    entries.keySet().removeIf(key -> key.startsWith(folder));
+  }
+
+  /** Remove all file objects from the cache */
+  public void clear() {
+    entries.clear();
+  }
+
+  /** @return The number of cached file objects */
+  public int size() {
+    return entries.size();
+  }
+
+  /** @return The maximum number of cached file objects */
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Evict the least recently used tenth of the entries. Evicting in bulk keeps the cost of sorting
+   * the entries away from most of the calls to put().
+   */
+  private synchronized void evict() {
+    int excess = entries.size() - maximumSize;
+    if (excess <= 0) {
+      return;
+    }
+    int toEvict = Math.max(excess, maximumSize / 10);
+    // Take a snapshot of the usage times: they keep changing while we sort
+    //
+    List<Candidate> candidates = new ArrayList<>(entries.size());
+    for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+      candidates.add(new Candidate(mapEntry.getKey(), mapEntry.getValue()));
+    }
+    candidates.sort(Comparator.comparingLong(candidate -> candidate.lastUsed));
+    for (int i = 0; i < toEvict && i < candidates.size(); i++) {
+      Candidate candidate = candidates.get(i);
+      entries.remove(candidate.filename, candidate.entry);
+    }
+  }
+
+  private static class Candidate {
+    private final String filename;
+    private final Entry entry;
+    private final long lastUsed;
+
+    Candidate(String filename, Entry entry) {
+      this.filename = filename;
+      this.entry = entry;
+      this.lastUsed = entry.lastUsed;
+    }
+  }
+
+  private static class Entry {
+    private final FileObject fileObject;
+    private volatile long lastUsed;
+
+    Entry(FileObject fileObject, long lastUsed) {
+      this.fileObject = fileObject;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
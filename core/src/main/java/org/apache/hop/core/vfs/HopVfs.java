@@ -38,7 +38,10 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class HopVfs {
@@ -46,23 +49,48 @@ public class HopVfs {
 
   public static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
 
-  private static DefaultFileSystemManager fsm;
+  /** The default maximum number of resolved file objects to keep in the cache */
+  public static final int DEFAULT_FILE_OBJECT_CACHE_SIZE = 1000;
 
+  private static volatile DefaultFileSystemManager fsm;
+
+  /** The schemes of the file system manager, they don't change after it's created */
+  private static volatile String[] schemes;
+
+  private static volatile FileObjectCache fileObjectCache;
+
+  private static final Map<String, SchemeTimer> schemeTimers = new ConcurrentHashMap<>();
+
+  /**
+   * Taken for reading while files are resolved and for writing while the file system manager is
+   * created or closed.
+   */
   private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
   public static DefaultFileSystemManager getFileSystemManager() {
-    lock.readLock().lock();
+    DefaultFileSystemManager manager = fsm;
+    if (manager != null) {
+      return manager;
+    }
+    lock.writeLock().lock();
     try {
       if (fsm == null) {
         try {
-          fsm = createFileSystemManager();
+          DefaultFileSystemManager newManager = createFileSystemManager();
+          schemes = newManager.getSchemes();
+          fileObjectCache =
+              new FileObjectCache(
+                  Const.toInt(
+                      System.getProperty(Const.HOP_VFS_FILE_OBJECT_CACHE_SIZE),
+                      DEFAULT_FILE_OBJECT_CACHE_SIZE));
+          fsm = newManager;
         } catch (Exception e) {
           throw new RuntimeException("Error initializing file system manager : ", e);
         }
       }
       return fsm;
     } finally {
-      lock.readLock().unlock();
+      lock.writeLock().unlock();
     }
   }
 
@@ -141,11 +169,29 @@ public class HopVfs {
     }
   }
 
-  public static synchronized FileObject getFileObject(String vfsFilename) throws HopFileException {
+  public static FileObject getFileObject(String vfsFilename) throws HopFileException {
+    DefaultFileSystemManager fsManager = getFileSystemManager();
+
     lock.readLock().lock();
     try {
-      DefaultFileSystemManager fsManager = getFileSystemManager();
+      FileObjectCache cache = fileObjectCache;
+      if (cache != null) {
+        FileObject fileObject = cache.get(vfsFilename);
+        if (fileObject != null) {
+          try {
+            // The same thing the file system manager does with the ON_RESOLVE cache strategy
+            //
+            fileObject.refresh();
+            getSchemeTimer(fileObject.getName().getScheme()).cacheHits.incrementAndGet();
+            return fileObject;
+          } catch (FileSystemException e) {
+            cache.invalidate(vfsFilename);
+          }
+        }
+      }
 
+      long start = System.nanoTime();
+      String scheme = null;
       try {
         // We have one problem with VFS: if the file is in a subdirectory of the current one:
         // somedir/somefile
@@ -158,9 +204,10 @@ public class HopVfs {
         // If not, we are going to assume it's a file.
         //
         boolean relativeFilename = true;
-        String[] initialSchemes = fsManager.getSchemes();
+        String[] initialSchemes = schemes != null ? schemes : fsManager.getSchemes();
 
         relativeFilename = checkForScheme(initialSchemes, relativeFilename, vfsFilename);
+        scheme = relativeFilename ? "file" : getScheme(initialSchemes, vfsFilename);
 
         String filename;
         if (vfsFilename.startsWith("\\\\")) {
@@ -175,8 +222,14 @@ public class HopVfs {
           }
         }
 
-        return fsManager.resolveFile(filename);
+        FileObject fileObject = fsManager.resolveFile(filename);
+        getSchemeTimer(scheme).addResolution(System.nanoTime() - start);
+        if (cache != null) {
+          cache.put(vfsFilename, fileObject);
+        }
+        return fileObject;
       } catch (Exception e) {
+        getSchemeTimer(scheme).failures.incrementAndGet();
         throw new HopFileException(
             "Unable to get VFS File object for filename '"
                 + cleanseFilename(vfsFilename)
@@ -189,6 +242,55 @@ public class HopVfs {
     }
   }
 
+  private static String getScheme(String[] schemes, String vfsFilename) {
+    String scheme = null;
+    for (String candidate : schemes) {
+      // Take the longest matching scheme: s3 and s3a for example
+      //
+      if (vfsFilename.startsWith(candidate + ":")
+          && (scheme == null || candidate.length() > scheme.length())) {
+        scheme = candidate;
+      }
+    }
+    return scheme == null ? "file" : scheme;
+  }
+
+  private static SchemeTimer getSchemeTimer(String scheme) {
+    return schemeTimers.computeIfAbsent(scheme == null ? "file" : scheme, SchemeTimer::new);
+  }
+
+  /**
+   * Remove the file object resolved from the given filename, and those of the files below it, from
+   * the cache of resolved file objects. Use this when a file system changed in a way that makes the
+   * resolved file objects invalid.
+   *
+   * @param vfsFilename The filename or URL to invalidate
+   */
+  public static void invalidateFileObject(String vfsFilename) {
+    FileObjectCache cache = fileObjectCache;
+    if (cache != null) {
+      cache.invalidate(vfsFilename);
+    }
+  }
+
+  /** Remove all file objects from the cache of resolved file objects */
+  public static void clearFileObjectCache() {
+    FileObjectCache cache = fileObjectCache;
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+
+  /** @return The time spent resolving files for every scheme, sorted by scheme */
+  public static List<SchemeStatistics> getSchemeStatistics() {
+    List<SchemeStatistics> statistics = new ArrayList<>();
+    for (SchemeTimer timer : schemeTimers.values()) {
+      statistics.add(timer.getStatistics());
+    }
+    statistics.sort(Comparator.comparing(SchemeStatistics::getScheme));
+    return statistics;
+  }
+
   protected static boolean checkForScheme(
       String[] initialSchemes, boolean relativeFilename, String vfsFilename) {
     if (vfsFilename == null) {
@@ -425,24 +527,15 @@ public class HopVfs {
    * @return boolean
    */
   public static boolean startsWithScheme(String vfsFileName) {
-    lock.readLock().lock();
-    try {
-
-      DefaultFileSystemManager fsManager = getFileSystemManager();
+    DefaultFileSystemManager fsManager = getFileSystemManager();
+    String[] knownSchemes = schemes != null ? schemes : fsManager.getSchemes();
 
-      boolean found = false;
-      String[] schemes = fsManager.getSchemes();
-      for (int i = 0; i < schemes.length; i++) {
-        if (vfsFileName.startsWith(schemes[i] + ":")) {
-          found = true;
-          break;
-        }
+    for (int i = 0; i < knownSchemes.length; i++) {
+      if (vfsFileName.startsWith(knownSchemes[i] + ":")) {
+        return true;
       }
-
-      return found;
-    } finally {
-      lock.readLock().unlock();
     }
+    return false;
   }
 
   /**
@@ -474,16 +567,119 @@ public class HopVfs {
 
   /** @see StandardFileSystemManager#freeUnusedResources() */
   public static void freeUnusedResources() {
-    if (fsm != null) {
-      fsm.freeUnusedResources();
+    DefaultFileSystemManager manager = fsm;
+    if (manager != null) {
+      // Cached file objects keep their file systems in use
+      //
+      clearFileObjectCache();
+      manager.freeUnusedResources();
     }
   }
 
   public static void reset() {
-    if (fsm != null) {
-      fsm.freeUnusedResources();
-      fsm.close();
-      fsm = null;
+    lock.writeLock().lock();
+    try {
+      if (fsm != null) {
+        clearFileObjectCache();
+        fsm.freeUnusedResources();
+        fsm.close();
+        fsm = null;
+        schemes = null;
+        fileObjectCache = null;
+      }
+      schemeTimers.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** The counters of the time spent resolving the files of a scheme */
+  private static class SchemeTimer {
+    private final String scheme;
+    private final AtomicLong resolutions = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    SchemeTimer(String scheme) {
+      this.scheme = scheme;
+    }
+
+    void addResolution(long nanos) {
+      resolutions.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    SchemeStatistics getStatistics() {
+      return new SchemeStatistics(
+          scheme,
+          resolutions.get(),
+          cacheHits.get(),
+          failures.get(),
+          totalNanos.get(),
+          maxNanos.get());
+    }
+  }
+
+  /** A snapshot of the time spent resolving the files of a scheme */
+  public static class SchemeStatistics {
+    private final String scheme;
+    private final long resolveCount;
+    private final long cacheHitCount;
+    private final long failureCount;
+    private final long totalResolveNanos;
+    private final long maxResolveNanos;
+
+    public SchemeStatistics(
+        String scheme,
+        long resolveCount,
+        long cacheHitCount,
+        long failureCount,
+        long totalResolveNanos,
+        long maxResolveNanos) {
+      this.scheme = scheme;
+      this.resolveCount = resolveCount;
+      this.cacheHitCount = cacheHitCount;
+      this.failureCount = failureCount;
+      this.totalResolveNanos = totalResolveNanos;
+      this.maxResolveNanos = maxResolveNanos;
+    }
+
+    /** @return The scheme of the files, file for local files */
+    public String getScheme() {
+      return scheme;
+    }
+
+    /** @return The number of files resolved by the file system manager */
+    public long getResolveCount() {
+      return resolveCount;
+    }
+
+    /** @return The number of files found in the cache of resolved file objects */
+    public long getCacheHitCount() {
+      return cacheHitCount;
+    }
+
+    /** @return The number of files which couldn't be resolved */
+    public long getFailureCount() {
+      return failureCount;
+    }
+
+    /** @return The total time in milliseconds spent resolving files */
+    public double getTotalResolveMillis() {
+      return totalResolveNanos / 1000000.0;
+    }
+
+    /** @return The average time in milliseconds spent resolving a file */
+    public double getAverageResolveMillis() {
+      return resolveCount == 0 ? 0.0 : totalResolveNanos / 1000000.0 / resolveCount;
+    }
+
+    /** @return The longest time in milliseconds spent resolving a file */
+    public double getMaxResolveMillis() {
+      return maxResolveNanos / 1000000.0;
     }
   }
 
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.metadata.serializer.json;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the content of JSON metadata files and the names of the files in a metadata folder in
+ * memory. The content of local folders is invalidated when the folder is changed, which is picked
+ * up by a watch service. The content of other (VFS) folders is checked against the last modification
+ * time of the files at most once every check interval.
+ *
+ * <p>The content is kept rather than the parsed objects because every caller is handed its own copy
+ * of a metadata object and is free to modify it.
+ */
+public class JsonMetadataCache {
+
+  /** The default number of milliseconds during which a cached VFS file isn't checked */
+  public static final long DEFAULT_CHECK_INTERVAL_MS = 1000L;
+
+  private final long checkIntervalMs;
+  private final Map<String, Folder> folders = new ConcurrentHashMap<>();
+  private final Map<Path, Folder> watchedFolders = new ConcurrentHashMap<>();
+
+  private WatchService watchService;
+  private Thread watchThread;
+  private volatile boolean closed;
+
+  public JsonMetadataCache() {
+    this(DEFAULT_CHECK_INTERVAL_MS);
+  }
+
+  /** @param checkIntervalMs The number of milliseconds during which a VFS file isn't checked */
+  public JsonMetadataCache(long checkIntervalMs) {
+    this.checkIntervalMs = checkIntervalMs;
+  }
+
+  /**
+   * Get the names of the JSON files in a folder, without extension.
+   *
+   * @param folderName The name of the folder
+   * @return A new list with the names
+   * @throws HopException In case the folder can't be read
+   */
+  public List<String> getNames(String folderName) throws HopException {
+    Folder folder = getFolder(folderName);
+    List<String> names = folder.names;
+    if (names == null || (!folder.watched && isExpired(folder.namesChecked))) {
+      long version = folder.version.get();
+      names = Collections.unmodifiableList(readNames(folderName));
+      if (version == folder.version.get()) {
+        folder.names = names;
+        folder.namesChecked = System.currentTimeMillis();
+      }
+    }
+    return new ArrayList<>(names);
+  }
+
+  /**
+   * Get the content of a JSON file.
+   *
+   * @param folderName The name of the folder containing the file
+   * @param filename The full name of the file
+   * @return The content of the file or null if the file doesn't exist
+   * @throws HopException In case the file can't be read
+   */
+  public byte[] getContent(String folderName, String filename) throws HopException {
+    Folder folder = getFolder(folderName);
+    Content content = folder.files.get(filename);
+    if (content != null) {
+      if (folder.watched || !isExpired(content.checked)) {
+        return content.bytes;
+      }
+      // The timestamp fallback for files we can't watch
+      //
+      if (getLastModified(filename) == content.lastModified) {
+        content.checked = System.currentTimeMillis();
+        return content.bytes;
+      }
+    }
+
+    long version = folder.version.get();
+    Content newContent = readContent(filename);
+    if (newContent == null) {
+      folder.files.remove(filename);
+      return null;
+    }
+    if (version == folder.version.get()) {
+      folder.files.put(filename, newContent);
+    }
+    return newContent.bytes;
+  }
+
+  /** @return true if the folder was read before and is known to exist */
+  public boolean isKnownFolder(String folderName) {
+    return folders.containsKey(folderName);
+  }
+
+  /**
+   * Invalidate a file after it was saved or deleted, as well as the list of names of its folder.
+   *
+   * @param folderName The name of the folder containing the file
+   * @param filename The full name of the file
+   */
+  public void invalidate(String folderName, String filename) {
+    Folder folder = folders.get(folderName);
+    if (folder != null) {
+      folder.version.incrementAndGet();
+      folder.files.remove(filename);
+      folder.names = null;
+    }
+  }
+
+  /** Remove everything from the cache */
+  public void clear() {
+    for (Folder folder : folders.values()) {
+      folder.invalidate();
+    }
+  }
+
+  /** Stop watching the local folders and remove everything from the cache */
+  public synchronized void close() {
+    closed = true;
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        // Ignore: we're done with it
+      }
+      watchService = null;
+      watchThread = null;
+    }
+    watchedFolders.clear();
+    folders.clear();
+  }
+
+  private boolean isExpired(long checked) {
+    return System.currentTimeMillis() - checked >= checkIntervalMs;
+  }
+
+  private Folder getFolder(String folderName) throws HopException {
+    Folder folder = folders.get(folderName);
+    if (folder != null) {
+      return folder;
+    }
+    folder = new Folder();
+    Folder existing = folders.putIfAbsent(folderName, folder);
+    if (existing != null) {
+      return existing;
+    }
+    watch(folderName, folder);
+    return folder;
+  }
+
+  /** Register a local folder with the watch service. Other folders are checked on timestamps. */
+  private synchronized void watch(String folderName, Folder folder) throws HopException {
+    if (closed) {
+      return;
+    }
+    FileObject fileObject = HopVfs.getFileObject(folderName);
+    if (!(fileObject instanceof LocalFile)) {
+      return;
+    }
+    try {
+      if (watchService == null) {
+        watchService = FileSystems.getDefault().newWatchService();
+        watchThread = new Thread(this::processEvents, "Hop metadata cache watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+      }
+      Path path = new File(HopVfs.getFilename(fileObject)).toPath().toAbsolutePath();
+      watchedFolders.put(path, folder);
+      path.register(
+          watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_DELETE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+      // Anything read before the registration can't be trusted
+      //
+      folder.invalidate();
+      folder.watched = true;
+    } catch (IOException | UnsupportedOperationException e) {
+      // Fall back to checking the timestamps
+      //
+      folder.watched = false;
+    }
+  }
+
+  private void processEvents() {
+    WatchService service = watchService;
+    while (!closed && service != null) {
+      WatchKey key;
+      try {
+        key = service.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      // Metadata folders are small: simply forget about everything in the folder
+      //
+      key.pollEvents();
+      Folder folder = watchedFolders.get((Path) key.watchable());
+      if (folder != null) {
+        folder.invalidate();
+        if (!key.reset()) {
+          // The folder is gone, check the timestamps from now on
+          //
+          folder.watched = false;
+          watchedFolders.remove((Path) key.watchable());
+        }
+      }
+    }
+  }
+
+  private List<String> readNames(String folderName) throws HopException {
+    try {
+      List<String> names = new ArrayList<>();
+      for (FileObject jsonFile : HopVfs.findFiles(HopVfs.getFileObject(folderName), "json", false)) {
+        names.add(jsonFile.getName().getBaseName().replaceAll("\\.json$", ""));
+      }
+      return names;
+    } catch (Exception e) {
+      throw new HopException("Error searching for JSON files", e);
+    }
+  }
+
+  private long getLastModified(String filename) throws HopException {
+    try {
+      FileObject fileObject = HopVfs.getFileObject(filename);
+      return fileObject.exists() ? fileObject.getContent().getLastModifiedTime() : -1L;
+    } catch (IOException e) {
+      throw new HopException("Error checking the modification time of file '" + filename + "'", e);
+    }
+  }
+
+  private Content readContent(String filename) throws HopException {
+    try {
+      FileObject fileObject = HopVfs.getFileObject(filename);
+      if (!fileObject.exists()) {
+        return null;
+      }
+      long lastModified = fileObject.getContent().getLastModifiedTime();
+      try (InputStream inputStream = HopVfs.getInputStream(fileObject)) {
+        return new Content(IOUtils.toByteArray(inputStream), lastModified);
+      }
+    } catch (IOException e) {
+      throw new HopException("Error reading file '" + filename + "'", e);
+    }
+  }
+
+  private static class Folder {
+    /** Incremented on every invalidation so that content read in the mean time isn't cached */
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, Content> files = new ConcurrentHashMap<>();
+    private volatile List<String> names;
+    private volatile long namesChecked;
+    private volatile boolean watched;
+
+    void invalidate() {
+      version.incrementAndGet();
+      files.clear();
+      names = null;
+    }
+  }
+
+  private static class Content {
+    private final byte[] bytes;
+    private final long lastModified;
+    private volatile long checked;
+
+    Content(byte[] bytes, long lastModified) {
+      this.bytes = bytes;
+      this.lastModified = lastModified;
+      this.checked = System.currentTimeMillis();
+    }
+  }
+}
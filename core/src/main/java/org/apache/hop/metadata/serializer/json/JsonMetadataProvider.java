@@ -37,6 +37,7 @@ public class JsonMetadataProvider extends BaseMetadataProvider implements IHopMe
   public static final String DEFAULT_DESCRIPTION = "JSON metadata";
   private ITwoWayPasswordEncoder twoWayPasswordEncoder;
   private String baseFolder;
+  private JsonMetadataCache cache;
 
   public JsonMetadataProvider() {
     super(Variables.getADefaultVariableSpace(), DEFAULT_DESCRIPTION);
@@ -88,21 +89,46 @@ public class JsonMetadataProvider extends BaseMetadataProvider implements IHopMe
 
     // Check if the folder exists...
     //
-    FileObject serializerBaseFolder = HopVfs.getFileObject(serializerBaseFolderName);
-    try {
-      if (!serializerBaseFolder.exists()) {
-        serializerBaseFolder.createFolder();
+    if (cache == null || !cache.isKnownFolder(serializerBaseFolderName)) {
+      FileObject serializerBaseFolder = HopVfs.getFileObject(serializerBaseFolderName);
+      try {
+        if (!serializerBaseFolder.exists()) {
+          serializerBaseFolder.createFolder();
+        }
+      } catch (Exception e) {
+        throw new HopException(
+            "Error validating or creating folder  '"
+                + serializerBaseFolderName
+                + "'to store JSON serialized objects in from class "
+                + managedClass.getName());
       }
-    } catch (Exception e) {
-      throw new HopException(
-          "Error validating or creating folder  '"
-              + serializerBaseFolderName
-              + "'to store JSON serialized objects in from class "
-              + managedClass.getName());
     }
 
-    return new JsonMetadataSerializer<>(
-        this, serializerBaseFolderName, managedClass, variables, hopMetadata.name());
+    JsonMetadataSerializer<T> serializer =
+        new JsonMetadataSerializer<>(
+            this, serializerBaseFolderName, managedClass, variables, hopMetadata.name());
+    serializer.setCache(cache);
+    return serializer;
+  }
+
+  /**
+   * Keep the JSON files in memory until they're changed. This is useful for long running servers
+   * which look up the same metadata objects over and over again.
+   *
+   * @param cachingEnabled true to enable the cache, false to disable and clear it
+   */
+  public synchronized void setCachingEnabled(boolean cachingEnabled) {
+    if (cachingEnabled && cache == null) {
+      cache = new JsonMetadataCache();
+    } else if (!cachingEnabled && cache != null) {
+      cache.close();
+      cache = null;
+    }
+  }
+
+  /** @return true if the JSON files are kept in memory */
+  public boolean isCachingEnabled() {
+    return cache != null;
   }
 
   /**
@@ -133,5 +159,8 @@ public class JsonMetadataProvider extends BaseMetadataProvider implements IHopMe
   public void setBaseFolder(String baseFolder) {
     this.baseFolder = baseFolder;
     setDescription(calculateDescription());
+    if (cache != null) {
+      cache.clear();
+    }
   }
 }
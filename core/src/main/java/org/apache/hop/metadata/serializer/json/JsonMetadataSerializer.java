@@ -34,6 +34,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.metadata.api.IHopMetadataSerializer;
 import org.json.simple.JSONObject;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -51,6 +52,7 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
   protected JsonMetadataParser<T> parser;
   protected IVariables variables;
   protected String description;
+  protected JsonMetadataCache cache;
 
   public JsonMetadataSerializer(
       IHopMetadataProvider metadataProvider,
@@ -91,28 +93,32 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
     if (name == null) {
       throw new HopException("Error: you need to specify the name of the metadata object to load");
     }
+    String filename = calculateFilename(name);
+
+    if (cache != null) {
+      byte[] content = cache.getContent(baseFolder, filename);
+      if (content == null) {
+        return null;
+      }
+      try (InputStream inputStream = new ByteArrayInputStream(content)) {
+        return load(inputStream);
+      } catch (Exception e) {
+        throw new HopException(
+            "Error loading metadata object '" + name + "' from file '" + filename + "'", e);
+      }
+    }
+
     if (!exists(name)) {
       return null;
     }
 
-    String filename = calculateFilename(name);
-
     try {
       // Load the JSON in a streaming fashion so we can parse the properties one by one...
       //
       InputStream fileInputStream = null;
       try {
         fileInputStream = HopVfs.getInputStream(filename);
-        JsonFactory jsonFactory = new JsonFactory();
-        com.fasterxml.jackson.core.JsonParser jsonParser =
-            jsonFactory.createParser(fileInputStream);
-
-        jsonParser.nextToken(); // skip {
-
-        T t = parser.loadJsonObject(managedClass, jsonParser);
-        inheritVariables(t);
-        t.setMetadataProviderName(metadataProvider.getDescription());
-        return t;
+        return load(fileInputStream);
       } finally {
         fileInputStream.close();
       }
@@ -122,6 +128,18 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
     }
   }
 
+  private T load(InputStream inputStream) throws Exception {
+    JsonFactory jsonFactory = new JsonFactory();
+    com.fasterxml.jackson.core.JsonParser jsonParser = jsonFactory.createParser(inputStream);
+
+    jsonParser.nextToken(); // skip {
+
+    T t = parser.loadJsonObject(managedClass, jsonParser);
+    inheritVariables(t);
+    t.setMetadataProviderName(metadataProvider.getDescription());
+    return t;
+  }
+
   /**
    * If the loaded object implements variables we can inherit from it.
    *
@@ -159,6 +177,8 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
         t.setMetadataProviderName(getMetadataProvider().getDescription());
       } catch (IOException e) {
         throw new HopException("Error serializing JSON to file '" + filename + "'", e);
+      } finally {
+        invalidate(filename);
       }
     } catch (Exception e) {
       throw new HopException(
@@ -189,12 +209,24 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
       }
     } catch (FileSystemException e) {
       throw new HopException("Error deleting Object '" + name + "' with filename : " + filename);
+    } finally {
+      invalidate(filename);
     }
     return t;
   }
 
+  private void invalidate(String filename) {
+    if (cache != null) {
+      cache.invalidate(baseFolder, filename);
+    }
+  }
+
   @Override
   public List<String> listObjectNames() throws HopException {
+    if (cache != null) {
+      return cache.getNames(baseFolder);
+    }
+
     FileObject folder = HopVfs.getFileObject(baseFolder);
 
     try {
@@ -212,6 +244,9 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
 
   @Override
   public boolean exists(String name) throws HopException {
+    if (cache != null) {
+      return cache.getNames(baseFolder).contains(name);
+    }
     return HopVfs.fileExists(calculateFilename(name));
   }
 
@@ -263,4 +298,18 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
   public void setDescription(String description) {
     this.description = description;
   }
+
+  /**
+   * Gets cache
+   *
+   * @return value of cache, null if the JSON files are read every time
+   */
+  public JsonMetadataCache getCache() {
+    return cache;
+  }
+
+  /** @param cache The cache to keep the JSON files in, null to read them every time */
+  public void setCache(JsonMetadataCache cache) {
+    this.cache = cache;
+  }
 }
@@ -26,6 +26,7 @@ import org.apache.hop.metadata.api.IHopMetadata;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.metadata.api.IHopMetadataSerializer;
 import org.apache.hop.metadata.serializer.BaseMetadataProvider;
+import org.apache.hop.metadata.serializer.json.JsonMetadataProvider;
 
 import java.util.*;
 
@@ -144,6 +145,21 @@ public class MultiMetadataProvider implements IHopMetadataProvider {
     return null;
   }
 
+  /**
+   * Enable or disable caching in all the JSON metadata providers in the list
+   *
+   * @param cachingEnabled true to keep the JSON metadata in memory until it's changed
+   */
+  public void setCachingEnabled(boolean cachingEnabled) {
+    for (IHopMetadataProvider provider : providers) {
+      if (provider instanceof JsonMetadataProvider) {
+        ((JsonMetadataProvider) provider).setCachingEnabled(cachingEnabled);
+      } else if (provider instanceof MultiMetadataProvider) {
+        ((MultiMetadataProvider) provider).setCachingEnabled(cachingEnabled);
+      }
+    }
+  }
+
   /**
    * Gets description
    *
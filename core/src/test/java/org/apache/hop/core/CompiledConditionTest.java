@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledConditionTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private static final Object[][] ROWS = {
+    {"abc", 1L, "abc", "a%"},
+    {"abd", 5L, "abc", "%d"},
+    {"xyz", -3L, "y", "x?z"},
+    {null, null, "abc", "a.c"},
+    {"", 0L, null, null},
+    {"a;b", 10L, "a;b", "b"},
+  };
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaString("str2"));
+    rowMeta.addValueMeta(new ValueMetaString("pattern"));
+    return rowMeta;
+  }
+
+  private void assertSameResults(Condition condition) throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    CompiledCondition compiled = condition.compile(rowMeta);
+    for (Object[] row : ROWS) {
+      condition.clearFieldPositions();
+      assertEquals(
+          condition + " for " + rowMeta.getString(row),
+          condition.evaluate(rowMeta, row),
+          compiled.evaluate(row));
+    }
+  }
+
+  private ValueMetaAndData exact(String value) {
+    return new ValueMetaAndData(new ValueMetaString("constant"), value);
+  }
+
+  @Test
+  public void testAtomicConditionsAgainstConstant() throws Exception {
+    String[] constants = {"abc", "a.*", "a%", "abc;xyz;a\\;b", "b", "c"};
+    for (int function = 0; function < Condition.functions.length; function++) {
+      if (function == Condition.FUNC_NULL || function == Condition.FUNC_NOT_NULL) {
+        assertSameResults(new Condition("str", function, null, null));
+        continue;
+      }
+      for (String constant : constants) {
+        for (boolean negate : new boolean[] {false, true}) {
+          assertSameResults(new Condition(negate, "str", function, null, exact(constant)));
+        }
+      }
+    }
+
+    ValueMetaAndData number = new ValueMetaAndData(new ValueMetaInteger("constant"), 4L);
+    for (int function = Condition.FUNC_EQUAL; function <= Condition.FUNC_LARGER_EQUAL; function++) {
+      assertSameResults(new Condition("int", function, null, number));
+    }
+  }
+
+  @Test
+  public void testAtomicConditionsAgainstField() throws Exception {
+    int[] functions = {
+      Condition.FUNC_EQUAL,
+      Condition.FUNC_NOT_EQUAL,
+      Condition.FUNC_SMALLER,
+      Condition.FUNC_LARGER_EQUAL,
+      Condition.FUNC_IN_LIST,
+    };
+    for (int function : functions) {
+      assertSameResults(new Condition("str", function, "str2", null));
+    }
+    assertSameResults(new Condition("str", Condition.FUNC_LIKE, "pattern", null));
+    assertSameResults(new Condition("str", Condition.FUNC_REGEXP, "pattern", null));
+  }
+
+  @Test
+  public void testCompositeCondition() throws Exception {
+    Condition condition = new Condition();
+    condition.addCondition(new Condition("str", Condition.FUNC_STARTS_WITH, null, exact("a")));
+    Condition or = new Condition("int", Condition.FUNC_NULL, null, null);
+    or.setOperator(Condition.OPERATOR_OR);
+    condition.addCondition(or);
+    Condition andNot = new Condition("str", Condition.FUNC_ENDS_WITH, null, exact("c"));
+    andNot.setOperator(Condition.OPERATOR_AND_NOT);
+    condition.addCondition(andNot);
+    Condition xor = new Condition("str", Condition.FUNC_LIKE, null, exact("a%"));
+    xor.setOperator(Condition.OPERATOR_XOR);
+    condition.addCondition(xor);
+
+    assertSameResults(condition);
+    condition.negate();
+    assertSameResults(condition);
+  }
+
+  @Test
+  public void testMissingFieldAndTrueFunction() throws Exception {
+    CompiledCondition missing =
+        new Condition(true, "unknown", Condition.FUNC_NULL, null, null).compile(createRowMeta());
+    assertFalse(missing.evaluate(ROWS[0]));
+
+    CompiledCondition negatedTrue =
+        new Condition(true, "str", Condition.FUNC_TRUE, null, null).compile(createRowMeta());
+    assertFalse(negatedTrue.evaluate(ROWS[0]));
+    CompiledCondition alwaysTrue =
+        new Condition("str", Condition.FUNC_TRUE, null, null).compile(new RowMeta());
+    assertTrue(alwaysTrue.evaluate(ROWS[0]));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInvalidRegularExpression() throws Exception {
+    new Condition("str", Condition.FUNC_REGEXP, null, exact("[a"))
+        .compile(createRowMeta())
+        .evaluate(ROWS[0]);
+  }
+}
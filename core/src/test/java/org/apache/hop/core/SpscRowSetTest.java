@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpscRowSetTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    IRowSet set = new SpscRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertTrue(set.isLockFree());
+  }
+
+  @Test
+  public void testPutAndGet() {
+    IRowSet set = new SpscRowSet(3);
+    IRowMeta rowMeta = createRowMeta();
+
+    assertNull(set.getRowImmediate());
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+
+    assertTrue(set.putRow(rowMeta, new Object[] {1L}));
+    assertTrue(set.putRow(rowMeta, new Object[] {2L}));
+    assertTrue(set.putRow(rowMeta, new Object[] {3L}));
+    assertEquals(3, set.size());
+    assertEquals(rowMeta, set.getRowMeta());
+
+    // The buffer is full, we time out
+    //
+    assertFalse(set.putRowWait(rowMeta, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+
+    assertArrayEquals(new Object[] {1L}, set.getRow());
+    assertArrayEquals(new Object[] {2L}, set.getRowImmediate());
+    assertTrue(set.putRow(rowMeta, new Object[] {4L}));
+    assertArrayEquals(new Object[] {3L}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertArrayEquals(new Object[] {4L}, set.getRow());
+    assertEquals(0, set.size());
+
+    set.setDone();
+    assertTrue(set.isDone());
+    assertNull(set.getRow());
+  }
+
+  @Test
+  public void testClear() {
+    IRowSet set = new SpscRowSet(5);
+    IRowMeta rowMeta = createRowMeta();
+    set.putRow(rowMeta, new Object[] {1L});
+    set.putRow(rowMeta, new Object[] {2L});
+    set.setDone();
+
+    set.clear();
+    assertEquals(0, set.size());
+    assertFalse(set.isDone());
+    assertNull(set.getRowImmediate());
+
+    set.putRow(rowMeta, new Object[] {3L});
+    assertArrayEquals(new Object[] {3L}, set.getRowImmediate());
+  }
+
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 200000;
+    final IRowSet set = new SpscRowSet(100);
+    final IRowMeta rowMeta = createRowMeta();
+    final AtomicReference<String> error = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rowMeta, row)) {
+                  // Try again until there is room
+                }
+              }
+              set.setDone();
+            });
+
+    Thread consumer =
+        new Thread(
+            () -> {
+              long expected = 0;
+              while (true) {
+                Object[] row = set.getRowWait(1, TimeUnit.MILLISECONDS);
+                if (row == null) {
+                  if (set.isDone()) {
+                    row = set.getRowImmediate();
+                    if (row == null) {
+                      break;
+                    }
+                  } else {
+                    continue;
+                  }
+                }
+                if ((Long) row[0] != expected) {
+                  error.set("Expected row " + expected + " but got " + row[0]);
+                  return;
+                }
+                expected++;
+              }
+              if (expected != nrRows) {
+                error.set("Expected " + nrRows + " rows but got " + expected);
+              }
+            });
+
+    producer.start();
+    consumer.start();
+    producer.join(60000);
+    consumer.join(60000);
+
+    assertNull(error.get());
+    assertEquals(0, set.size());
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class UnboundedRowSetTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testPutAndGet() {
+    IRowSet set = new UnboundedRowSet();
+    IRowMeta rowMeta = createRowMeta();
+
+    assertTrue(set.isLockFree());
+    assertNull(set.getRowImmediate());
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+
+    // There is no maximum size, we never have to wait
+    //
+    for (long i = 0; i < 1000; i++) {
+      assertTrue(set.putRowWait(rowMeta, new Object[] {i}, 1, TimeUnit.MILLISECONDS));
+    }
+    assertEquals(1000, set.size());
+    assertEquals(rowMeta, set.getRowMeta());
+
+    assertArrayEquals(new Object[] {0L}, set.getRow());
+    assertArrayEquals(new Object[] {1L}, set.getRowImmediate());
+    assertArrayEquals(new Object[] {2L}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertEquals(997, set.size());
+
+    set.setDone();
+    set.clear();
+    assertEquals(0, set.size());
+    assertFalse(set.isDone());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testReaderAndWriterInSingleWorkerPool() throws Exception {
+    final int nrRows = 100000;
+    final IRowSet set = new UnboundedRowSet();
+    final IRowMeta rowMeta = createRowMeta();
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      // The reader occupies the only worker while it waits, the pool has to compensate
+      // for the writer to get a chance to run.
+      //
+      Future<Long> reader =
+          pool.submit(
+              () -> {
+                long expected = 0;
+                while (true) {
+                  Object[] row = set.getRowWait(50, TimeUnit.MILLISECONDS);
+                  if (row == null) {
+                    if (set.isDone() && set.size() == 0) {
+                      return expected;
+                    }
+                    continue;
+                  }
+                  assertEquals(expected++, row[0]);
+                }
+              });
+      pool.submit(
+          () -> {
+            for (long i = 0; i < nrRows; i++) {
+              set.putRow(rowMeta, new Object[] {i});
+            }
+            set.setDone();
+          });
+
+      assertEquals(nrRows, (long) reader.get(60, TimeUnit.SECONDS));
+      assertEquals(0, set.size());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.commons.dbcp.ConnectionFactory;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionPoolUtilTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+  private static final String URL = "jdbc:test://localhost/test";
+
+  private ILogChannel log;
+  private IVariables variables;
+  private DatabaseMeta databaseMeta;
+  private Properties properties;
+  private List<Connection> created;
+  private ConnectionFactory connectionFactory;
+
+  @BeforeClass
+  public static void setUpOnce() throws HopException {
+    // Register Natives to create a default DatabaseMeta
+    DatabasePluginType.getInstance().searchPlugins();
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    log = mock(ILogChannel.class);
+    variables = new Variables();
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase(new ConcreteBaseDatabaseMeta());
+    databaseMeta.setName("pooled");
+    databaseMeta.setUsingConnectionPool(true);
+    properties = new Properties();
+    properties.put("user", "hop");
+    properties.put("password", "secret");
+
+    created = new ArrayList<>();
+    connectionFactory =
+        () -> {
+          Connection connection = mock(Connection.class);
+          when(connection.isValid(anyInt())).thenReturn(true);
+          created.add(connection);
+          return connection;
+        };
+  }
+
+  @After
+  public void tearDown() {
+    ConnectionPoolUtil.closePools();
+  }
+
+  private Connection borrow(String partitionId) throws HopDatabaseException {
+    return ConnectionPoolUtil.getConnection(
+        log, variables, databaseMeta, partitionId, URL, properties, connectionFactory);
+  }
+
+  private ConnectionPoolUtil.PoolStatistics getStatistics() {
+    List<ConnectionPoolUtil.PoolStatistics> statistics = ConnectionPoolUtil.getPoolStatistics();
+    assertEquals(1, statistics.size());
+    return statistics.get(0);
+  }
+
+  @Test
+  public void testPoolingSettings() {
+    assertTrue(databaseMeta.isUsingConnectionPool());
+    assertEquals("0", databaseMeta.getInitialPoolSizeString());
+    assertEquals("10", databaseMeta.getMaximumPoolSizeString());
+    assertTrue(databaseMeta.getConnectionPoolingProperties().isEmpty());
+
+    Properties poolingProperties = new Properties();
+    poolingProperties.setProperty("maxIdle", "${MAX_IDLE}");
+    databaseMeta.setConnectionPoolingProperties(poolingProperties);
+    assertEquals(
+        "${MAX_IDLE}",
+        databaseMeta
+            .getAttributes()
+            .get(BaseDatabaseMeta.ATTRIBUTE_POOLING_PARAMETER_PREFIX + "maxIdle"));
+    assertEquals(poolingProperties, databaseMeta.getConnectionPoolingProperties());
+
+    databaseMeta.setConnectionPoolingProperties(new Properties());
+    assertTrue(databaseMeta.getConnectionPoolingProperties().isEmpty());
+  }
+
+  @Test
+  public void testConnectionsAreReused() throws Exception {
+    Connection first = borrow(null);
+    Connection second = borrow(null);
+    assertEquals(2, created.size());
+
+    ConnectionPoolUtil.PoolStatistics statistics = getStatistics();
+    assertEquals("pooled", statistics.getDatabaseName());
+    assertEquals(2, statistics.getBorrowed());
+    assertEquals(0, statistics.getIdle());
+    assertEquals(10, statistics.getMaximumSize());
+
+    first.close();
+    second.close();
+    assertTrue(first.isClosed());
+    verify(created.get(0), times(0)).close();
+
+    statistics = getStatistics();
+    assertEquals(0, statistics.getBorrowed());
+    assertEquals(2, statistics.getIdle());
+
+    Connection third = borrow(null);
+    assertEquals(2, created.size());
+    assertEquals(3, getStatistics().getBorrowCount());
+    third.close();
+  }
+
+  @Test
+  public void testInvalidConnectionsAreReplaced() throws Exception {
+    borrow(null).close();
+    assertEquals(1, created.size());
+
+    when(created.get(0).isValid(anyInt())).thenReturn(false);
+    borrow(null).close();
+    assertEquals(2, created.size());
+    verify(created.get(0)).close();
+  }
+
+  @Test
+  public void testPoolsPerPartitionAndInitialSize() throws Exception {
+    databaseMeta.setInitialPoolSizeString("${INITIAL_SIZE}");
+    variables.setVariable("INITIAL_SIZE", "3");
+
+    borrow("p1").close();
+    assertEquals(3, created.size());
+    borrow("p2").close();
+    assertEquals(6, created.size());
+    assertEquals(2, ConnectionPoolUtil.getPoolStatistics().size());
+
+    ConnectionPoolUtil.closePools("pooled");
+    assertTrue(ConnectionPoolUtil.getPoolStatistics().isEmpty());
+    for (Connection connection : created) {
+      verify(connection).close();
+    }
+  }
+
+  @Test
+  public void testChangedSettingsReplaceThePool() throws Exception {
+    borrow(null).close();
+    assertEquals(10, getStatistics().getMaximumSize());
+    assertEquals(1, getStatistics().getIdle());
+
+    databaseMeta.setMaximumPoolSizeString("${MAX_SIZE}");
+    variables.setVariable("MAX_SIZE", "5");
+    borrow(null).close();
+    assertEquals(5, getStatistics().getMaximumSize());
+    verify(created.get(0)).close();
+
+    Properties poolingProperties = new Properties();
+    poolingProperties.setProperty("maxIdle", "4");
+    databaseMeta.setConnectionPoolingProperties(poolingProperties);
+    borrow(null).close();
+    assertEquals(1, getStatistics().getBorrowCount());
+    verify(created.get(1)).close();
+  }
+
+  @Test
+  public void testMaximumPoolSize() throws Exception {
+    databaseMeta.setMaximumPoolSizeString("1");
+    Properties poolingProperties = new Properties();
+    poolingProperties.setProperty("maxWait", "10");
+    databaseMeta.setConnectionPoolingProperties(poolingProperties);
+
+    Connection connection = borrow(null);
+    try {
+      borrow(null);
+      throw new AssertionError("The pool should be exhausted");
+    } catch (HopDatabaseException e) {
+      assertFalse(connection.isClosed());
+    }
+    connection.close();
+    assertEquals(1, created.size());
+  }
+
+  @Test(expected = HopDatabaseException.class)
+  public void testConnectionErrors() throws Exception {
+    connectionFactory =
+        () -> {
+          throw new SQLException("Connection refused");
+        };
+    borrow(null);
+  }
+}
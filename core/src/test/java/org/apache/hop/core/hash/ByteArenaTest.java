@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ByteArenaTest {
+
+  @Test
+  public void testAddAndGet() {
+    ByteArena arena = new ByteArena(16);
+    long first = arena.add(new byte[] {1, 2, 3});
+    long empty = arena.add(new byte[0]);
+    long second = arena.add(new byte[] {4, 5, 6, 7, 8, 9, 10, 11});
+    long large = arena.add(new byte[40]);
+
+    assertArrayEquals(new byte[] {1, 2, 3}, arena.get(first));
+    assertArrayEquals(new byte[0], arena.get(empty));
+    assertArrayEquals(new byte[] {4, 5, 6, 7, 8, 9, 10, 11}, arena.get(second));
+    assertEquals(40, arena.getLength(large));
+    assertEquals(4 + 3 + 4 + 4 + 8 + 4 + 40, arena.getUsedBytes());
+
+    assertTrue(arena.equals(first, new byte[] {1, 2, 3}));
+    assertFalse(arena.equals(first, new byte[] {1, 2, 4}));
+    assertFalse(arena.equals(first, new byte[] {1, 2}));
+  }
+
+  @Test
+  public void testClear() {
+    ByteArena arena = new ByteArena(16);
+    long empty = arena.getMemoryUsage();
+    arena.add(new byte[] {1, 2, 3});
+    assertTrue(arena.getMemoryUsage() > empty);
+
+    arena.clear();
+    assertEquals(0, arena.getUsedBytes());
+    assertEquals(empty, arena.getMemoryUsage());
+    assertArrayEquals(new byte[] {4}, arena.get(arena.add(new byte[] {4})));
+  }
+}
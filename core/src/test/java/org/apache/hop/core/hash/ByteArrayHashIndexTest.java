@@ -28,19 +28,20 @@ public class ByteArrayHashIndexTest {
   @Test
   public void testArraySizeConstructor() {
     ByteArrayHashIndex obj = new ByteArrayHashIndex(new RowMeta(), 1);
-    assertEquals(1, obj.getSize());
+    assertEquals(1, obj.getCapacity());
+    assertEquals(0, obj.getSize());
 
     obj = new ByteArrayHashIndex(new RowMeta(), 2);
-    assertEquals(2, obj.getSize());
+    assertEquals(2, obj.getCapacity());
 
     obj = new ByteArrayHashIndex(new RowMeta(), 3);
-    assertEquals(4, obj.getSize());
+    assertEquals(4, obj.getCapacity());
 
     obj = new ByteArrayHashIndex(new RowMeta(), 12);
-    assertEquals(16, obj.getSize());
+    assertEquals(16, obj.getCapacity());
 
     obj = new ByteArrayHashIndex(new RowMeta(), 99);
-    assertEquals(128, obj.getSize());
+    assertEquals(128, obj.getCapacity());
   }
 
   @Test
@@ -52,4 +53,47 @@ public class ByteArrayHashIndexTest {
     assertNotNull(obj.get(new byte[] {10}));
     assertArrayEquals(new byte[] {53, 12}, obj.get(new byte[] {10}));
   }
+
+  @Test
+  public void testReplaceAndResize() throws HopValueException {
+    ByteArrayHashIndex obj = new ByteArrayHashIndex(new RowMeta(), 1);
+    for (int i = 0; i < 10000; i++) {
+      obj.put(key(i), new byte[] {(byte) i});
+    }
+    obj.put(key(42), new byte[] {1, 2, 3});
+    obj.put(key(43), null);
+
+    assertEquals(10000, obj.getSize());
+    assertEquals(16384, obj.getCapacity());
+    assertEquals(10, obj.getReplacedBytes());
+    for (int i = 0; i < 10000; i++) {
+      if (i == 42) {
+        assertArrayEquals(new byte[] {1, 2, 3}, obj.get(key(i)));
+      } else if (i == 43) {
+        assertNull(obj.get(key(i)));
+      } else {
+        assertArrayEquals(new byte[] {(byte) i}, obj.get(key(i)));
+      }
+    }
+    assertNull(obj.get(key(10000)));
+    assertNull(obj.get(new byte[0]));
+  }
+
+  @Test
+  public void testMemoryUsage() throws HopValueException {
+    ByteArrayHashIndex obj = new ByteArrayHashIndex(new RowMeta(), 16);
+    long empty = obj.getMemoryUsage();
+    assertTrue(empty > 0);
+
+    obj.put(key(1), new byte[100]);
+    long withPage = obj.getMemoryUsage();
+    assertTrue(withPage >= empty + ByteArena.DEFAULT_PAGE_SIZE);
+
+    obj.put(key(2), new byte[100]);
+    assertEquals(withPage, obj.getMemoryUsage());
+  }
+
+  private static byte[] key(int i) {
+    return new byte[] {(byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i};
+  }
 }
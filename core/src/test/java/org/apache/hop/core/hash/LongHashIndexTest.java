@@ -22,7 +22,9 @@ import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 /** Test class for the basic functionality of LongHashIndex. */
 public class LongHashIndexTest {
@@ -108,4 +110,35 @@ public class LongHashIndexTest {
     index.put(1L, 1L);
     assertThat("Not empty index should return false.", index.isEmpty(), is(false));
   }
+
+  @Test
+  public void testZeroAndNegativeKeys() throws HopValueException {
+    LongHashIndex index = new LongHashIndex();
+    assertThat("Zero key should not be found.", index.get(0L), nullValue());
+    index.put(0L, 5L);
+    index.put(-1L, 6L);
+    index.put(Long.MIN_VALUE, 7L);
+    index.put(0L, 8L);
+    assertThat("Incorrect size of index.", index.getSize(), equalTo(3));
+    assertThat("Element has uncorrect value.", index.get(0L), equalTo(8L));
+    assertThat("Element has uncorrect value.", index.get(-1L), equalTo(6L));
+    assertThat("Element has uncorrect value.", index.get(Long.MIN_VALUE), equalTo(7L));
+  }
+
+  @Test
+  public void testResize() throws HopValueException {
+    LongHashIndex index = new LongHashIndex(0);
+    long memoryUsage = index.getMemoryUsage();
+    for (long i = 1; i <= 100000; i++) {
+      index.put(i << 20, i);
+    }
+    index.put(42L << 20, 42000L);
+    assertThat("Incorrect size of index.", index.getSize(), equalTo(100000));
+    assertThat("Incorrect capacity of index.", index.getCapacity(), equalTo(131072));
+    assertTrue("Memory usage should grow.", index.getMemoryUsage() > memoryUsage);
+    for (long i = 1; i <= 100000; i++) {
+      assertThat("Element has uncorrect value.", index.get(i << 20), equalTo(i == 42 ? 42000L : i));
+    }
+    assertThat("Missing element should not be found.", index.get(100001L << 20), nullValue());
+  }
 }
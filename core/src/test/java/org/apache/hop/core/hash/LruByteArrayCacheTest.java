@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.hash;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LruByteArrayCacheTest {
+
+  private static byte[] key(int i) {
+    return new byte[] {(byte) i, (byte) (i >> 8)};
+  }
+
+  @Test
+  public void testGetAndPut() {
+    LruByteArrayCache<byte[]> cache = new LruByteArrayCache<>(0, 0, value -> value.length);
+    cache.put(key(1), new byte[] {10});
+    cache.put(key(2), new byte[] {20});
+
+    assertArrayEquals(new byte[] {10}, cache.get(key(1)));
+    assertArrayEquals(new byte[] {20}, cache.get(key(2)));
+    assertNull(cache.get(key(3)));
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(2, cache.size());
+
+    cache.put(key(1), new byte[] {11});
+    assertArrayEquals(new byte[] {11}, cache.get(key(1)));
+    assertEquals(2, cache.size());
+
+    assertArrayEquals(new byte[] {20}, cache.remove(key(2)));
+    assertEquals(1, cache.size());
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getMemoryUsage());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    LruByteArrayCache<byte[]> cache = new LruByteArrayCache<>(3, 0, value -> value.length);
+    cache.put(key(1), new byte[] {1});
+    cache.put(key(2), new byte[] {2});
+    cache.put(key(3), new byte[] {3});
+
+    // Touch the first one, the second becomes the least recently used
+    cache.get(key(1));
+    cache.put(key(4), new byte[] {4});
+
+    assertEquals(3, cache.size());
+    assertEquals(1, cache.getEvictions());
+    assertNull(cache.get(key(2)));
+    assertArrayEquals(new byte[] {1}, cache.get(key(1)));
+    assertArrayEquals(new byte[] {3}, cache.get(key(3)));
+    assertArrayEquals(new byte[] {4}, cache.get(key(4)));
+  }
+
+  @Test
+  public void testMemoryBound() {
+    LruByteArrayCache<byte[]> cache = new LruByteArrayCache<>(0, 10000, value -> value.length);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(key(i), new byte[100]);
+      assertTrue(cache.getMemoryUsage() <= 10000);
+    }
+    assertTrue(cache.size() > 10);
+    assertTrue(cache.size() < 100);
+    assertEquals(1000 - cache.size(), cache.getEvictions());
+
+    // The most recently added entries are kept
+    assertEquals(100, cache.get(key(999)).length);
+    assertNull(cache.get(key(0)));
+  }
+
+  @Test
+  public void testFindFirstInInsertionOrder() throws Exception {
+    LruByteArrayCache<Object[]> cache =
+        new LruByteArrayCache<>(0, 0, LruByteArrayCache::estimateRowSize);
+    cache.put(key(5), new Object[] {"five"});
+    cache.put(key(3), new Object[] {"three"});
+    cache.put(key(7), new Object[] {"seven"});
+
+    assertArrayEquals(new Object[] {"three"}, cache.findFirst(key -> key[0] < 6 && key[0] != 5));
+    assertArrayEquals(new Object[] {"five"}, cache.findFirst(key -> key[0] > 4));
+    assertNull(cache.findFirst(key -> key[0] > 10));
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+}
@@ -20,6 +20,9 @@ package org.apache.hop.core.logging;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -127,4 +130,91 @@ public class LoggingBufferTest {
     loggingBuffer.removeChannelFromBuffer(logChannelId);
     Assert.assertEquals(10, loggingBuffer.size());
   }
+
+  @Test
+  public void testOnlyLastLinesAreKept() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    for (int i = 1; i <= 2500; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "1", i));
+    }
+
+    Assert.assertEquals(100, loggingBuffer.size());
+    Assert.assertEquals(2500, loggingBuffer.getLastBufferLineNr());
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo((List<String>) null, true, 0, 2500);
+    Assert.assertEquals(100, events.size());
+    Assert.assertEquals("line 2401", getMessage(events.get(0)));
+    Assert.assertEquals("line 2500", getMessage(events.get(99)));
+
+    loggingBuffer.setMaxNrLines(10);
+    Assert.assertEquals(10, loggingBuffer.size());
+  }
+
+  @Test
+  public void testChannelsOfDroppedLinesAreForgotten() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    for (int i = 1; i <= 50; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "channel " + i, i));
+    }
+    Assert.assertEquals(50, loggingBuffer.getNrLogChannels());
+
+    for (int i = 51; i <= 2500; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "1", i));
+    }
+    Assert.assertEquals(1, loggingBuffer.getNrLogChannels());
+    Assert.assertEquals(100, loggingBuffer.size());
+    Assert.assertTrue(
+        loggingBuffer
+            .getLogBufferFromTo(Collections.singletonList("channel 1"), false, 0, 2500)
+            .isEmpty());
+  }
+
+  @Test
+  public void testUnlimitedBuffer() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    for (int i = 1; i <= 2500; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, "1", i));
+    }
+    Assert.assertEquals(2500, loggingBuffer.size());
+
+    loggingBuffer.clear();
+    Assert.assertEquals(0, loggingBuffer.size());
+    Assert.assertEquals(0, loggingBuffer.getLastBufferLineNr());
+  }
+
+  @Test
+  public void testGetLogBufferFromToForChannels() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(5000);
+    for (int i = 1; i <= 3000; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("line " + i, i % 3 == 0 ? "a" : "b", i));
+    }
+
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo(Collections.singletonList("a"), false, 0, 3000);
+    Assert.assertEquals(1000, events.size());
+    Assert.assertEquals("line 3", getMessage(events.get(0)));
+    Assert.assertEquals("line 3000", getMessage(events.get(999)));
+
+    // Incremental fetch
+    //
+    events = loggingBuffer.getLogBufferFromTo(Arrays.asList("a", "b"), false, 2990, 2995);
+    Assert.assertEquals(5, events.size());
+    Assert.assertEquals("line 2991", getMessage(events.get(0)));
+
+    loggingBuffer.removeChannelFromBuffer("b");
+    Assert.assertEquals(1000, loggingBuffer.size());
+    Assert.assertTrue(
+        loggingBuffer.getLogBufferFromTo(Collections.singletonList("b"), false, 0, 3000).isEmpty());
+  }
+
+  private static HopLoggingEvent createEvent(String message, String logChannelId, long timeStamp) {
+    HopLoggingEvent event = new HopLoggingEvent();
+    event.setMessage(new LogMessage(message, logChannelId, LogLevel.BASIC));
+    event.setTimeStamp(timeStamp);
+    return event;
+  }
+
+  private static String getMessage(HopLoggingEvent event) {
+    return ((LogMessage) event.getMessage()).getMessage();
+  }
 }
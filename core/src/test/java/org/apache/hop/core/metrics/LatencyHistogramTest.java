@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testRecord() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0L);
+    histogram.record(1000L);
+    histogram.record(1001L);
+    histogram.record(3000000L);
+    histogram.record(60000000000L);
+
+    long[] upperBounds = LatencyHistogram.getUpperBoundsNanos();
+    long[] counts = histogram.getCounts();
+    assertEquals(upperBounds.length + 1, counts.length);
+    assertEquals(2L, counts[0]); // <= 1us
+    assertEquals(1L, counts[1]); // <= 2.5us
+    assertEquals(1L, counts[11]); // <= 5ms
+    assertEquals(1L, counts[counts.length - 1]); // > 10s
+
+    assertEquals(5L, histogram.getCount());
+    assertEquals(60003002001L, histogram.getSumNanos());
+  }
+
+  @Test
+  public void testReadWhileRecording() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Thread writer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 100000; i++) {
+                histogram.record(i);
+              }
+            });
+    writer.start();
+    long previous = 0;
+    while (writer.isAlive()) {
+      long count = histogram.getCount();
+      assertTrue(count >= previous);
+      previous = count;
+    }
+    writer.join();
+    assertEquals(100000L, histogram.getCount());
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaInternetAddress;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpillFileTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber"));
+    rowMeta.addValueMeta(new ValueMetaBinary("binary"));
+    rowMeta.addValueMeta(new ValueMetaInternetAddress("inet"));
+    IValueMeta lazy = new ValueMetaString("lazy");
+    lazy.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    lazy.setStorageMetadata(new ValueMetaString("lazy"));
+    rowMeta.addValueMeta(lazy);
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows(int nrRows) throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    InetAddress address = InetAddress.getByName("127.0.0.1");
+    for (long i = 0; i < nrRows; i++) {
+      Timestamp timestamp = new Timestamp(1600000000000L + i);
+      timestamp.setNanos((int) (i % 1000) * 1000 + 1);
+      rows.add(
+          new Object[] {
+            i % 7 == 0 ? null : "row " + i + (i % 3 == 0 ? " é€" : ""),
+            i % 11 == 0 ? null : i - 500,
+            i * 1.5,
+            i % 2 == 0,
+            new Date(1600000000000L - i * 1000),
+            timestamp,
+            new BigDecimal("-12345.6789").add(BigDecimal.valueOf(i)),
+            new byte[] {(byte) i, 1, 2},
+            address,
+            ("lazy " + i).getBytes(),
+          });
+    }
+    return rows;
+  }
+
+  private void assertRowsEqual(Object[] expected, Object[] actual) {
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] instanceof byte[]) {
+        assertArrayEquals((byte[]) expected[i], (byte[]) actual[i]);
+      } else {
+        assertEquals(expected[i], actual[i]);
+      }
+    }
+  }
+
+  private void writeAndReadBack(String codec) throws Exception {
+    IVariables variables = new Variables();
+    variables.setVariable(Const.HOP_SPILL_CODEC, codec);
+    variables.setVariable(Const.HOP_SPILL_BUFFER_SIZE, "1000");
+    SpillManager manager =
+        new SpillManager(variables, tempFolder.getRoot().getAbsolutePath(), "test", false);
+    assertEquals(codec, manager.getCodec().getName());
+
+    IRowMeta rowMeta = createRowMeta();
+    List<Object[]> rows = createRows(5000); // several blocks
+    SpillFile spillFile = manager.createSpillFile();
+    try (SpillWriter writer = spillFile.createWriter(rowMeta)) {
+      for (Object[] row : rows) {
+        writer.writeRow(row);
+      }
+    }
+    assertEquals(rows.size(), spillFile.getRowCount());
+
+    try (SpillReader reader = spillFile.createReader(rowMeta)) {
+      // Read it twice to check rewind()
+      //
+      for (int pass = 0; pass < 2; pass++) {
+        for (Object[] row : rows) {
+          assertRowsEqual(row, reader.readRow());
+        }
+        assertNull(reader.readRow());
+        reader.rewind();
+      }
+    }
+    assertTrue(spillFile.delete());
+  }
+
+  @Test
+  public void testNoCodec() throws Exception {
+    writeAndReadBack(NoneSpillCodec.NAME);
+  }
+
+  @Test
+  public void testLz4Codec() throws Exception {
+    writeAndReadBack(Lz4SpillCodec.NAME);
+  }
+
+  @Test
+  public void testZstdCodec() throws Exception {
+    writeAndReadBack(ZstdSpillCodec.NAME);
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    SpillManager manager =
+        new SpillManager(new Variables(), tempFolder.getRoot().getAbsolutePath(), "test", true);
+    assertEquals(Lz4SpillCodec.NAME, manager.getCodec().getName());
+
+    SpillFile spillFile = manager.createSpillFile();
+    spillFile.createWriter(createRowMeta()).close();
+    assertEquals(0, spillFile.getRowCount());
+    try (SpillReader reader = spillFile.createReader(createRowMeta())) {
+      assertNull(reader.readRow());
+    }
+  }
+
+  @Test
+  public void testFilesAreSpreadOverDirectories() throws Exception {
+    File first = tempFolder.newFolder("first");
+    File second = tempFolder.newFolder("second");
+    IVariables variables = new Variables();
+    variables.setVariable(
+        Const.HOP_SPILL_DIRECTORIES, first.getAbsolutePath() + " , " + second.getAbsolutePath());
+    SpillManager manager = new SpillManager(variables, null, "test", false);
+    assertEquals(2, manager.getDirectories().length);
+
+    for (int i = 0; i < 4; i++) {
+      manager.createSpillFile().createWriter(createRowMeta()).close();
+    }
+    assertEquals(2, first.list().length);
+    assertEquals(2, second.list().length);
+  }
+
+  @Test(expected = HopException.class)
+  public void testUnknownCodec() throws Exception {
+    SpillCodecFactory.getCodec("DOES_NOT_EXIST");
+  }
+}
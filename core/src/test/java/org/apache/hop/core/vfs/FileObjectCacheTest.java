@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class FileObjectCacheTest {
+
+  @Test
+  public void testGetAndPut() {
+    FileObjectCache cache = new FileObjectCache(10);
+    FileObject fileObject = mock(FileObject.class);
+
+    assertNull(cache.get("file:///tmp/a.txt"));
+    cache.put("file:///tmp/a.txt", fileObject);
+    assertSame(fileObject, cache.get("file:///tmp/a.txt"));
+    assertNull(cache.get(null));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+    FileObjectCache cache = new FileObjectCache(10);
+    for (int i = 0; i < 10; i++) {
+      cache.put("file:///tmp/" + i, mock(FileObject.class));
+      Thread.sleep(1);
+    }
+    cache.get("file:///tmp/0");
+    cache.put("file:///tmp/10", mock(FileObject.class));
+
+    assertEquals(10, cache.size());
+    assertNull(cache.get("file:///tmp/1"));
+    assertNotNull(cache.get("file:///tmp/2"));
+    assertNotNull(cache.get("file:///tmp/0"));
+    assertNotNull(cache.get("file:///tmp/10"));
+  }
+
+  @Test
+  public void testInvalidateRemovesChildren() {
+    FileObjectCache cache = new FileObjectCache(10);
+    cache.put("s3://bucket/folder", mock(FileObject.class));
+    cache.put("s3://bucket/folder/file.csv", mock(FileObject.class));
+    cache.put("s3://bucket/folder2/file.csv", mock(FileObject.class));
+
+    cache.invalidate("s3://bucket/folder");
+
+    assertNull(cache.get("s3://bucket/folder"));
+    assertNull(cache.get("s3://bucket/folder/file.csv"));
+    assertEquals(1, cache.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testDisabledCache() {
+    FileObjectCache cache = new FileObjectCache(0);
+    cache.put("file:///tmp/a.txt", mock(FileObject.class));
+    assertNull(cache.get("file:///tmp/a.txt"));
+    assertEquals(0, cache.size());
+  }
+}
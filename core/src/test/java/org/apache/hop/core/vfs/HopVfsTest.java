@@ -19,13 +19,16 @@ package org.apache.hop.core.vfs;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.vfs.HopVfs.SchemeStatistics;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.io.OutputStream;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class HopVfsTest {
 
@@ -70,4 +73,52 @@ public class HopVfsTest {
       outputStream.write("Test-content".getBytes());
     }
   }
+
+  @Test
+  public void testResolvedFileObjectsAreCached() throws Exception {
+    String filename = "ram:///cached-file.txt";
+    FileObject fileObject = HopVfs.getFileObject(filename);
+    assertFalse(fileObject.exists());
+
+    // A cached file object is refreshed so it sees the changes made in the mean time
+    //
+    try (OutputStream outputStream = HopVfs.getOutputStream(filename, false)) {
+      outputStream.write("Test-content".getBytes());
+    }
+    FileObject cachedFileObject = HopVfs.getFileObject(filename);
+    assertSame(fileObject, cachedFileObject);
+    assertTrue(cachedFileObject.exists());
+
+    HopVfs.invalidateFileObject(filename);
+    assertTrue(HopVfs.getFileObject(filename).exists());
+    assertTrue(HopVfs.fileExists(filename));
+  }
+
+  @Test
+  public void testSchemeStatistics() throws Exception {
+    HopVfs.getFileObject("ram:///statistics-file.txt");
+    HopVfs.getFileObject("ram:///statistics-file.txt");
+    try {
+      HopVfs.getFileObject("zip:file:///does-not-exist.zip!/file.txt");
+      fail("The file shouldn't resolve");
+    } catch (HopFileException e) {
+      // Expected
+    }
+
+    SchemeStatistics ram = findStatistics("ram");
+    assertTrue(ram.getResolveCount() >= 1);
+    assertTrue(ram.getCacheHitCount() >= 1);
+    assertTrue(ram.getMaxResolveMillis() >= ram.getAverageResolveMillis());
+    assertTrue(findStatistics("zip").getFailureCount() >= 1);
+  }
+
+  private SchemeStatistics findStatistics(String scheme) {
+    for (SchemeStatistics statistics : HopVfs.getSchemeStatistics()) {
+      if (scheme.equals(statistics.getScheme())) {
+        return statistics;
+      }
+    }
+    fail("No statistics found for scheme " + scheme);
+    return null;
+  }
 }
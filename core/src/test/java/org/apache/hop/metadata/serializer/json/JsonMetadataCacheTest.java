@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.metadata.serializer.json;
+
+import org.apache.hop.core.encryption.HopTwoWayPasswordEncoder;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.metadata.serializer.json.occupation.Occupation;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonMetadataCacheTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private JsonMetadataProvider metadataProvider;
+
+  @After
+  public void tearDown() {
+    if (metadataProvider != null) {
+      metadataProvider.setCachingEnabled(false);
+    }
+  }
+
+  private JsonMetadataProvider createProvider(String baseFolder) {
+    metadataProvider =
+        new JsonMetadataProvider(
+            new HopTwoWayPasswordEncoder(), baseFolder, Variables.getADefaultVariableSpace());
+    metadataProvider.setCachingEnabled(true);
+    return metadataProvider;
+  }
+
+  private String occupationJson(String name, String description, int startYear) {
+    return "{\"name\":\""
+        + name
+        + "\",\"description\":\""
+        + description
+        + "\",\"startYear\":"
+        + startYear
+        + "}";
+  }
+
+  @Test
+  public void testCachedObjectsAreCopies() throws Exception {
+    JsonMetadataSerializer<Occupation> serializer =
+        (JsonMetadataSerializer<Occupation>)
+            createProvider(temporaryFolder.getRoot().getAbsolutePath())
+                .getSerializer(Occupation.class);
+    serializer.save(new Occupation("Baker", "Bakes bread", 2001));
+
+    Occupation baker = serializer.load("Baker");
+    baker.setDescription("Changed by the caller");
+    Occupation anotherBaker = serializer.load("Baker");
+
+    assertNotSame(baker, anotherBaker);
+    assertEquals("Bakes bread", anotherBaker.getDescription());
+    assertTrue(serializer.exists("Baker"));
+    assertFalse(serializer.exists("Butcher"));
+    assertNull(serializer.load("Butcher"));
+  }
+
+  @Test
+  public void testSaveAndDeleteInvalidateTheCache() throws Exception {
+    JsonMetadataSerializer<Occupation> serializer =
+        (JsonMetadataSerializer<Occupation>)
+            createProvider(temporaryFolder.getRoot().getAbsolutePath())
+                .getSerializer(Occupation.class);
+    serializer.save(new Occupation("Baker", "Bakes bread", 2001));
+    assertEquals(Collections.singletonList("Baker"), serializer.listObjectNames());
+
+    serializer.save(new Occupation("Baker", "Bakes cakes", 2002));
+    serializer.save(new Occupation("Butcher", "Cuts meat", 2003));
+    assertEquals("Bakes cakes", serializer.load("Baker").getDescription());
+    assertEquals(2, serializer.loadAll().size());
+
+    serializer.delete("Baker");
+    assertEquals(Collections.singletonList("Butcher"), serializer.listObjectNames());
+    assertNull(serializer.load("Baker"));
+  }
+
+  @Test
+  public void testLocalChangesAreWatched() throws Exception {
+    JsonMetadataSerializer<Occupation> serializer =
+        (JsonMetadataSerializer<Occupation>)
+            createProvider(temporaryFolder.getRoot().getAbsolutePath())
+                .getSerializer(Occupation.class);
+    serializer.save(new Occupation("Baker", "Bakes bread", 2001));
+    assertEquals("Bakes bread", serializer.load("Baker").getDescription());
+
+    // Change the file behind the back of the serializer
+    //
+    File file = new File(serializer.calculateFilename("Baker"));
+    Files.write(
+        file.toPath(), occupationJson("Baker", "Bakes cakes", 2002).getBytes(StandardCharsets.UTF_8));
+    Files.write(
+        new File(serializer.calculateFilename("Butcher")).toPath(),
+        occupationJson("Butcher", "Cuts meat", 2003).getBytes(StandardCharsets.UTF_8));
+
+    long timeout = System.currentTimeMillis() + 30000L;
+    while ((serializer.listObjectNames().size() < 2
+            || !"Bakes cakes".equals(serializer.load("Baker").getDescription()))
+        && System.currentTimeMillis() < timeout) {
+      Thread.sleep(50);
+    }
+    assertEquals("Bakes cakes", serializer.load("Baker").getDescription());
+    assertTrue(serializer.exists("Butcher"));
+  }
+
+  @Test
+  public void testVfsChangesAreCheckedOnTimestamp() throws Exception {
+    JsonMetadataSerializer<Occupation> serializer =
+        (JsonMetadataSerializer<Occupation>)
+            createProvider("ram:///json-metadata-cache").getSerializer(Occupation.class);
+    serializer.setCache(new JsonMetadataCache(0L));
+    serializer.save(new Occupation("Baker", "Bakes bread", 2001));
+    assertEquals("Bakes bread", serializer.load("Baker").getDescription());
+
+    // Make sure the modification time changes
+    //
+    Thread.sleep(10);
+    try (OutputStream outputStream =
+        HopVfs.getOutputStream(serializer.calculateFilename("Baker"), false)) {
+      outputStream.write(
+          occupationJson("Baker", "Bakes cakes", 2002).getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals("Bakes cakes", serializer.load("Baker").getDescription());
+
+    HopVfs.getFileObject(serializer.calculateFilename("Baker")).delete();
+    assertNull(serializer.load("Baker"));
+    assertTrue(serializer.listObjectNames().isEmpty());
+  }
+}
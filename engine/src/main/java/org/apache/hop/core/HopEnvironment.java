@@ -25,6 +25,7 @@ import org.apache.hop.core.compress.CompressionPluginType;
 import org.apache.hop.core.config.DescribedVariable;
 import org.apache.hop.core.config.HopConfig;
 import org.apache.hop.core.config.plugin.ConfigPluginType;
+import org.apache.hop.core.database.ConnectionPoolUtil;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.extension.ExtensionPointHandler;
@@ -181,7 +182,10 @@ public class HopEnvironment {
   }
 
   // Shutdown the Hop environment programmatically
-  public static void shutdown() {}
+  public static void shutdown() {
+    // Close the connections kept in the database connection pools
+    ConnectionPoolUtil.closePools();
+  }
 
   /**
    * Checks if the Hop environment has been initialized.
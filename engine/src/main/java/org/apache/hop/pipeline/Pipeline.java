@@ -54,6 +54,9 @@ import javax.servlet.http.HttpServletResponse;
 import java.util.*;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -89,6 +92,10 @@ public abstract class Pipeline
   public static final String METRIC_NAME_BUFFER_OUT = "buffer_out";
   public static final String METRIC_NAME_FLUSH_BUFFER = "flush_buffer";
   public static final String METRIC_NAME_INIT = "init";
+  public static final String METRIC_NAME_CACHE_HITS = "cache_hits";
+  public static final String METRIC_NAME_CACHE_MISSES = "cache_misses";
+  public static final String METRIC_NAME_CACHE_EVICTIONS = "cache_evictions";
+  public static final String METRIC_NAME_CACHE_SIZE = "cache_size";
 
   /** The package name, used for internationalization of messages. */
   private static final Class<?> PKG = Pipeline.class; // For Translator
@@ -310,6 +317,12 @@ public abstract class Pipeline
   /** The feedback size. */
   protected int feedbackSize;
 
+  /** The stack size in bytes of the transform threads, 0 means the default of the JVM */
+  protected long transformThreadStackSize;
+
+  /** The maximum number of threads initializing transforms, 0 means one per transform copy */
+  protected int maxInitThreads;
+
   /** Instantiates a new pipeline. */
   public Pipeline() {
 
@@ -633,32 +646,7 @@ public abstract class Pipeline
         //
         if (dispatchType != TYPE_DISP_N_M) {
           for (int c = 0; c < nrCopies; c++) {
-            IRowSet rowSet;
-            switch (pipelineMeta.getPipelineType()) {
-              case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                    ValueMetaString.convertStringToBoolean(
-                        System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet.booleanValue()) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
-                } else {
-                  rowSet = new BlockingRowSet(rowSetSize);
-                }
-                break;
-
-              case SingleThreaded:
-                rowSet = new QueueRowSet();
-                break;
-
-              default:
-                throw new HopException(
-                    "Unhandled pipeline type: " + pipelineMeta.getPipelineType());
-            }
+            IRowSet rowSet = createRowSet(dispatchType);
 
             switch (dispatchType) {
               case TYPE_DISP_1_1:
@@ -695,7 +683,7 @@ public abstract class Pipeline
           // distribution...
           for (int s = 0; s < thisCopies; s++) {
             for (int t = 0; t < nextCopies; t++) {
-              BlockingRowSet rowSet = new BlockingRowSet(rowSetSize);
+              IRowSet rowSet = createRowSet(dispatchType);
               rowSet.setThreadNameFromToCopy(
                   thisTransform.getName(), s, nextTransform.getName(), t);
               rowsets.add(rowSet);
@@ -923,6 +911,20 @@ public abstract class Pipeline
 
     TransformInitThread[] initThreads = new TransformInitThread[transforms.size()];
     Thread[] threads = new Thread[transforms.size()];
+    Future<?>[] initFutures = new Future<?>[transforms.size()];
+
+    // With a lot of transform copies we can limit the number of threads doing the init work.
+    //
+    ExecutorService initExecutor = null;
+    if (maxInitThreads > 0 && maxInitThreads < transforms.size()) {
+      AtomicInteger initThreadNr = new AtomicInteger(0);
+      initExecutor =
+          Executors.newFixedThreadPool(
+              maxInitThreads,
+              runnable ->
+                  createTransformThread(
+                      runnable, "init of " + getName() + " #" + initThreadNr.incrementAndGet()));
+    }
 
     // Initialize all the threads...
     //
@@ -935,26 +937,38 @@ public abstract class Pipeline
       //
       initThreads[i] = new TransformInitThread(sid, this, log);
 
-      // Put it in a separate thread!
-      //
-      threads[i] = new Thread(initThreads[i]);
-      threads[i].setName(
-          "init of " + sid.transformName + "." + sid.copy + " (" + threads[i].getName() + ")");
-
       ExtensionPointHandler.callExtensionPoint(
           log, this, HopExtensionPoint.TransformBeforeInitialize.id, initThreads[i]);
 
-      threads[i].start();
+      // Put it in a separate thread or hand it to the pool of init threads
+      //
+      if (initExecutor != null) {
+        initFutures[i] = initExecutor.submit(initThreads[i]);
+      } else {
+        threads[i] =
+            createTransformThread(initThreads[i], "init of " + sid.transformName + "." + sid.copy);
+        threads[i].start();
+      }
     }
 
-    for (int i = 0; i < threads.length; i++) {
-      try {
-        threads[i].join();
-        ExtensionPointHandler.callExtensionPoint(
-            log, this, HopExtensionPoint.TransformAfterInitialize.id, initThreads[i]);
-      } catch (Exception ex) {
-        log.logError("Error with init thread: " + ex.getMessage(), ex.getMessage());
-        log.logError(Const.getStackTracker(ex));
+    try {
+      for (int i = 0; i < threads.length; i++) {
+        try {
+          if (initExecutor != null) {
+            initFutures[i].get();
+          } else {
+            threads[i].join();
+          }
+          ExtensionPointHandler.callExtensionPoint(
+              log, this, HopExtensionPoint.TransformAfterInitialize.id, initThreads[i]);
+        } catch (Exception ex) {
+          log.logError("Error with init thread: " + ex.getMessage(), ex.getMessage());
+          log.logError(Const.getStackTracker(ex));
+        }
+      }
+    } finally {
+      if (initExecutor != null) {
+        initExecutor.shutdown();
       }
     }
 
@@ -1199,9 +1213,6 @@ public abstract class Pipeline
         // Now start all the threads...
         //
         for (final TransformMetaDataCombi combi : transforms) {
-          RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -1217,7 +1228,7 @@ public abstract class Pipeline
                 }
               });
 
-          thread.start();
+          startTransform(combi);
         }
         break;
 
@@ -1377,6 +1388,73 @@ public abstract class Pipeline
     }
   }
 
+  /**
+   * Create a thread to initialize or run a transform copy in, using the configured stack size.
+   *
+   * @param runnable The work to do in the thread
+   * @param name The name of the thread
+   * @return The new thread, not yet started
+   */
+  protected Thread createTransformThread(Runnable runnable, String name) {
+    return new Thread(null, runnable, name, transformThreadStackSize);
+  }
+
+  /**
+   * Start running a transform copy. By default every transform copy runs in its own thread.
+   *
+   * @param combi The transform copy to start
+   */
+  protected void startTransform(TransformMetaDataCombi combi) {
+    RunThread runThread = new RunThread(combi);
+    createTransformThread(runThread, getName() + " - " + combi.transformName).start();
+  }
+
+  /**
+   * Create a row set to pass rows from one transform copy to another.
+   *
+   * @param dispatchType The way rows are dispatched between the copies of the two transforms, one
+   *     of the TYPE_DISP_ constants
+   * @return The new row set
+   * @throws HopException in case the pipeline type isn't supported
+   */
+  protected IRowSet createRowSet(int dispatchType) throws HopException {
+    // For each N source transforms we have M target transforms
+    //
+    if (dispatchType == TYPE_DISP_N_M) {
+      return new BlockingRowSet(rowSetSize);
+    }
+
+    switch (pipelineMeta.getPipelineType()) {
+      case Normal:
+        // This is a temporary patch until the batching rowset has proven
+        // to be working in all situations.
+        // Currently there are stalling problems when dealing with small
+        // amounts of rows.
+        //
+        Boolean batchingRowSet =
+            ValueMetaString.convertStringToBoolean(System.getProperty(Const.HOP_BATCHING_ROWSET));
+        // A 1:1 hop has exactly one writer and one reader thread so we can use the
+        // lock-free row set there. Fan-in and fan-out keep using the blocking row set.
+        //
+        Boolean spscRowSet =
+            ValueMetaString.convertStringToBoolean(System.getProperty(Const.HOP_SPSC_ROWSET));
+        if (batchingRowSet != null && batchingRowSet.booleanValue()) {
+          return new BlockingBatchingRowSet(rowSetSize);
+        } else if (dispatchType == TYPE_DISP_1_1
+            && (spscRowSet == null || spscRowSet.booleanValue())) {
+          return new SpscRowSet(rowSetSize);
+        } else {
+          return new BlockingRowSet(rowSetSize);
+        }
+
+      case SingleThreaded:
+        return new QueueRowSet();
+
+      default:
+        throw new HopException("Unhandled pipeline type: " + pipelineMeta.getPipelineType());
+    }
+  }
+
   /** Waits until all RunThreads have finished. */
   @Override
   public void waitUntilFinished() {
@@ -3240,6 +3318,35 @@ public abstract class Pipeline
           "100",
           true);
 
+  public static final IEngineMetric METRIC_CACHE_HITS =
+      new EngineMetric(
+          METRIC_NAME_CACHE_HITS,
+          "Cache hits",
+          "The number of lookups found in the cache of the transform",
+          "110",
+          true);
+  public static final IEngineMetric METRIC_CACHE_MISSES =
+      new EngineMetric(
+          METRIC_NAME_CACHE_MISSES,
+          "Cache misses",
+          "The number of lookups not found in the cache of the transform",
+          "120",
+          true);
+  public static final IEngineMetric METRIC_CACHE_EVICTIONS =
+      new EngineMetric(
+          METRIC_NAME_CACHE_EVICTIONS,
+          "Cache evictions",
+          "The number of rows removed from the cache of the transform to stay within its limits",
+          "130",
+          true);
+  public static final IEngineMetric METRIC_CACHE_SIZE =
+      new EngineMetric(
+          METRIC_NAME_CACHE_SIZE,
+          "Cache size",
+          "The number of rows in the cache of the transform",
+          "140",
+          true);
+
   @Override
   public EngineMetrics getEngineMetrics() {
     return getEngineMetrics(null, -1);
@@ -3294,6 +3401,12 @@ public abstract class Pipeline
             }
             metrics.setComponentMetric(combi.transform, METRIC_BUFFER_OUT, outputBufferSize);
 
+            // Transform specific metrics like the hits and misses of a lookup cache
+            //
+            for (Map.Entry<IEngineMetric, Long> entry : transform.getCustomMetrics().entrySet()) {
+              metrics.setComponentMetric(combi.transform, entry.getKey(), entry.getValue());
+            }
+
             TransformStatus transformStatus = new TransformStatus(combi.transform);
             metrics.setComponentSpeed(combi.transform, transformStatus.getSpeed());
             metrics.setComponentStatus(
@@ -3464,6 +3577,34 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets transformThreadStackSize
+   *
+   * @return value of transformThreadStackSize in bytes
+   */
+  public long getTransformThreadStackSize() {
+    return transformThreadStackSize;
+  }
+
+  /** @param transformThreadStackSize The transformThreadStackSize in bytes to set */
+  public void setTransformThreadStackSize(long transformThreadStackSize) {
+    this.transformThreadStackSize = transformThreadStackSize;
+  }
+
+  /**
+   * Gets maxInitThreads
+   *
+   * @return value of maxInitThreads
+   */
+  public int getMaxInitThreads() {
+    return maxInitThreads;
+  }
+
+  /** @param maxInitThreads The maxInitThreads to set */
+  public void setMaxInitThreads(int maxInitThreads) {
+    this.maxInitThreads = maxInitThreads;
+  }
+
   /**
    * Gets feedbackShown
    *
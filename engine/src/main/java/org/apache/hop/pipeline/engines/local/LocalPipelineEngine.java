@@ -103,6 +103,9 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
     setGatheringMetrics(config.isGatheringMetrics());
     setFeedbackShown(config.isFeedbackShown());
     setFeedbackSize(Const.toInt(resolve(config.getFeedbackSize()), Const.ROWS_UPDATE));
+    setTransformThreadStackSize(
+        Math.max(0L, Const.toLong(resolve(config.getTransformThreadStackSize()), 0L)) * 1024L);
+    setMaxInitThreads(Math.max(0, Const.toInt(resolve(config.getMaxInitThreads()), 0)));
 
     // See if we need to enable transactions...
     //
@@ -132,6 +132,32 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  /** The stack size of the transform threads in KB, empty means the default of the JVM */
+  @GuiWidgetElement(
+      id = "transformThreadStackSize",
+      order = "100",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.TransformThreadStackSize.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.TransformThreadStackSize.ToolTip")
+  @HopMetadataProperty(key = "transform_thread_stack_size")
+  protected String transformThreadStackSize;
+
+  /** The maximum number of threads initializing transforms, empty means one per copy */
+  @GuiWidgetElement(
+      id = "maxInitThreads",
+      order = "110",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.MaxInitThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.MaxInitThreads.ToolTip")
+  @HopMetadataProperty(key = "max_init_threads")
+  protected String maxInitThreads;
+
   public enum SampleType {
     None,
     First,
@@ -160,6 +186,8 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
     this.transactional = config.transactional;
+    this.transformThreadStackSize = config.transformThreadStackSize;
+    this.maxInitThreads = config.maxInitThreads;
   }
 
   @Override
@@ -299,4 +327,32 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets transformThreadStackSize
+   *
+   * @return value of transformThreadStackSize in KB
+   */
+  public String getTransformThreadStackSize() {
+    return transformThreadStackSize;
+  }
+
+  /** @param transformThreadStackSize The transformThreadStackSize in KB to set */
+  public void setTransformThreadStackSize(String transformThreadStackSize) {
+    this.transformThreadStackSize = transformThreadStackSize;
+  }
+
+  /**
+   * Gets maxInitThreads
+   *
+   * @return value of maxInitThreads
+   */
+  public String getMaxInitThreads() {
+    return maxInitThreads;
+  }
+
+  /** @param maxInitThreads The maxInitThreads to set */
+  public void setMaxInitThreads(String maxInitThreads) {
+    this.maxInitThreads = maxInitThreads;
+  }
 }
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.UnboundedRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.parameters.INamedParameters;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.engine.PipelineEnginePlugin;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+
+/**
+ * Runs the transforms of a pipeline locally on a fixed number of worker threads rather than on a
+ * thread per transform copy. Transform copies are scheduled when they have input to read and room
+ * to write their output. This keeps the number of threads and context switches down on servers
+ * running lots of pipelines at the same time.
+ */
+@PipelineEnginePlugin(
+    id = "LocalScheduled",
+    name = "Hop local scheduled pipeline engine",
+    description = "Executes your pipeline locally on a fixed number of worker threads")
+public class LocalScheduledPipelineEngine extends LocalPipelineEngine {
+
+  private int workerThreads;
+  private TransformScheduler scheduler;
+
+  public LocalScheduledPipelineEngine() {
+    super();
+  }
+
+  public LocalScheduledPipelineEngine(PipelineMeta pipelineMeta) {
+    super(pipelineMeta);
+  }
+
+  public LocalScheduledPipelineEngine(
+      PipelineMeta pipelineMeta, IVariables variables, ILoggingObject parent) {
+    super(pipelineMeta, variables, parent);
+  }
+
+  public <Parent extends IVariables & INamedParameters> LocalScheduledPipelineEngine(
+      Parent parent, String name, String filename, IHopMetadataProvider metadataProvider)
+      throws HopException {
+    super(parent, name, filename, metadataProvider);
+  }
+
+  @Override
+  public IPipelineEngineRunConfiguration createDefaultPipelineEngineRunConfiguration() {
+    return new LocalScheduledPipelineRunConfiguration();
+  }
+
+  @Override
+  public void prepareExecution() throws HopException {
+    if (!(pipelineRunConfiguration.getEngineRunConfiguration()
+        instanceof LocalScheduledPipelineRunConfiguration)) {
+      throw new HopException(
+          "A local scheduled pipeline execution expects a local scheduled pipeline configuration, not an instance of class "
+              + pipelineRunConfiguration.getEngineRunConfiguration().getClass().getName());
+    }
+
+    LocalScheduledPipelineRunConfiguration config =
+        (LocalScheduledPipelineRunConfiguration)
+            pipelineRunConfiguration.getEngineRunConfiguration();
+
+    workerThreads =
+        Const.toInt(resolve(config.getWorkerThreads()), Runtime.getRuntime().availableProcessors());
+    if (workerThreads <= 0) {
+      workerThreads = Runtime.getRuntime().availableProcessors();
+    }
+
+    super.prepareExecution();
+  }
+
+  /**
+   * The scheduler decides when a transform can write more rows, writers never have to wait for
+   * room in the row set.
+   */
+  @Override
+  protected IRowSet createRowSet(int dispatchType) throws HopException {
+    return new UnboundedRowSet();
+  }
+
+  @Override
+  public void startThreads() throws HopException {
+    scheduler = new TransformScheduler(getName(), workerThreads);
+    try {
+      super.startThreads();
+    } catch (HopException e) {
+      scheduler.shutdown();
+      throw e;
+    }
+    scheduler.start();
+  }
+
+  /**
+   * The pipeline is finished as soon as the last transform copy finished running. We also wait for
+   * that copy to hand its worker back so the scheduler is stopped when we return.
+   */
+  @Override
+  public void waitUntilFinished() {
+    super.waitUntilFinished();
+    if (scheduler != null) {
+      try {
+        scheduler.awaitTermination();
+      } catch (InterruptedException e) {
+        throw new RuntimeException("Waiting for the transform scheduler to stop interrupted!", e);
+      }
+    }
+  }
+
+  /** Rather than starting a thread we hand the transform copy to the scheduler. */
+  @Override
+  protected void startTransform(TransformMetaDataCombi combi) {
+    scheduler.addTransform(new ScheduledTransform(combi, scheduler, getRowSetSize()));
+  }
+
+  /**
+   * Gets workerThreads
+   *
+   * @return value of workerThreads
+   */
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  /** @param workerThreads The workerThreads to set */
+  public void setWorkerThreads(int workerThreads) {
+    this.workerThreads = workerThreads;
+  }
+
+  /**
+   * Gets scheduler
+   *
+   * @return value of scheduler
+   */
+  public TransformScheduler getScheduler() {
+    return scheduler;
+  }
+}
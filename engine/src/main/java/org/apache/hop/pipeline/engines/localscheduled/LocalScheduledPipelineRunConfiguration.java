@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.gui.plugin.GuiElementType;
+import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+
+@GuiPlugin(description = "Local scheduled pipeline run configuration widgets")
+public class LocalScheduledPipelineRunConfiguration extends LocalPipelineRunConfiguration {
+
+  /** The number of worker threads running the transforms, empty means one per processor core */
+  @GuiWidgetElement(
+      id = "workerThreads",
+      order = "200",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.WorkerThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.WorkerThreads.ToolTip")
+  @HopMetadataProperty(key = "worker_threads")
+  protected String workerThreads;
+
+  public LocalScheduledPipelineRunConfiguration() {
+    super();
+  }
+
+  public LocalScheduledPipelineRunConfiguration(LocalScheduledPipelineRunConfiguration config) {
+    super(config);
+    this.workerThreads = config.workerThreads;
+  }
+
+  @Override
+  public LocalScheduledPipelineRunConfiguration clone() {
+    return new LocalScheduledPipelineRunConfiguration(this);
+  }
+
+  /**
+   * Gets workerThreads
+   *
+   * @return value of workerThreads
+   */
+  public String getWorkerThreads() {
+    return workerThreads;
+  }
+
+  /** @param workerThreads The workerThreads to set */
+  public void setWorkerThreads(String workerThreads) {
+    this.workerThreads = workerThreads;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RunThread;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.apache.hop.pipeline.transform.TransformTimings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A transform copy which runs as a task on the worker pool of a {@link TransformScheduler}. Every
+ * time it gets scheduled it processes rows for as long as it has input and room on its output, or
+ * until its time slice is used up. It then gives the worker back and asks the scheduler to look at
+ * the transforms it reads from and writes to.
+ */
+public class ScheduledTransform extends RunThread {
+
+  private final TransformScheduler scheduler;
+  private final int rowSetSize;
+
+  private final List<IRowSet> inputRowSets;
+  private final List<IRowSet> outputRowSets;
+
+  /** The transforms writing to our input row sets and reading from our output row sets */
+  private final List<ScheduledTransform> neighbours;
+
+  /** Set while the transform is waiting to be run or running on a worker */
+  private final AtomicBoolean scheduled;
+
+  private boolean started;
+  private volatile boolean finished;
+
+  public ScheduledTransform(
+      TransformMetaDataCombi combi, TransformScheduler scheduler, int rowSetSize) {
+    super(combi);
+    this.scheduler = scheduler;
+    this.rowSetSize = rowSetSize;
+
+    // The row sets are wired before the transforms start so we can keep our own copy of the lists.
+    // The transform itself removes the input row sets that are done from its list while the sweeper
+    // and the neighbours look at ours: a row set which is done doesn't make us wait.
+    //
+    ITransform transform = combi.transform;
+    this.inputRowSets = new ArrayList<>(transform.getInputRowSets());
+    this.outputRowSets = new ArrayList<>(transform.getOutputRowSets());
+    this.neighbours = new ArrayList<>();
+    this.scheduled = new AtomicBoolean(false);
+  }
+
+  @Override
+  public void run() {
+    if (finished) {
+      return;
+    }
+    ITransform transform = getTransform();
+    boolean done = false;
+    try {
+      if (!started) {
+        started = true;
+        startRunning();
+      }
+
+      TransformTimings timings = null;
+      if (transform instanceof BaseTransform) {
+        timings = ((BaseTransform) transform).getTransformTimings();
+      }
+
+      long deadline = System.nanoTime() + scheduler.getTimeSliceNanos();
+      while (isReady()) {
+        if (transform.isStopped()
+            || !(timings == null ? transform.processRow() : timings.processRow(transform))
+            || transform.isStopped()) {
+          done = true;
+          break;
+        }
+        if (System.nanoTime() - deadline > 0) {
+          break;
+        }
+      }
+    } catch (Throwable t) {
+      handleUnexpectedError(t);
+      done = true;
+    }
+
+    if (done) {
+      finished = true;
+      try {
+        finishRunning();
+      } finally {
+        scheduler.transformFinished(this);
+        scheduleNeighbours();
+      }
+      return;
+    }
+
+    // Give the worker back. A neighbour which made us ready while we were running couldn't
+    // schedule us again, so we check one more time ourselves.
+    //
+    scheduled.set(false);
+    scheduleNeighbours();
+    scheduler.schedule(this);
+  }
+
+  /**
+   * A transform is ready to run when it's stopped (to finish up), when none of its output row sets
+   * are full, and when it has no input row sets, rows to read or all of its input is done.
+   *
+   * @return true if the transform can process rows without having to wait for others
+   */
+  public boolean isReady() {
+    if (getTransform().isStopped()) {
+      return true;
+    }
+    for (IRowSet rowSet : outputRowSets) {
+      if (rowSet.size() >= rowSetSize) {
+        return false;
+      }
+    }
+    if (inputRowSets.isEmpty()) {
+      return true;
+    }
+    boolean allDone = true;
+    for (IRowSet rowSet : inputRowSets) {
+      if (rowSet.size() > 0) {
+        return true;
+      }
+      if (!rowSet.isDone()) {
+        allDone = false;
+      }
+    }
+    return allDone;
+  }
+
+  private void scheduleNeighbours() {
+    for (ScheduledTransform neighbour : neighbours) {
+      scheduler.schedule(neighbour);
+    }
+  }
+
+  /**
+   * Claims the transform to run it on a worker.
+   *
+   * @return true if it wasn't scheduled or running yet, false otherwise
+   */
+  boolean claim() {
+    return !finished && scheduled.compareAndSet(false, true);
+  }
+
+  void addNeighbour(ScheduledTransform neighbour) {
+    if (neighbour != this && !neighbours.contains(neighbour)) {
+      neighbours.add(neighbour);
+    }
+  }
+
+  /**
+   * Gets inputRowSets
+   *
+   * @return value of inputRowSets
+   */
+  public List<IRowSet> getInputRowSets() {
+    return inputRowSets;
+  }
+
+  /**
+   * Gets outputRowSets
+   *
+   * @return value of outputRowSets
+   */
+  public List<IRowSet> getOutputRowSets() {
+    return outputRowSets;
+  }
+
+  /**
+   * Gets finished
+   *
+   * @return true if the transform is done processing rows
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.IRowSet;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the transform copies of a pipeline as tasks on a fixed size work-stealing pool instead of
+ * giving each copy a thread of its own. A transform copy is only scheduled when it can make
+ * progress: when it has rows to read (or no input at all) and room to write rows to. When it's
+ * done with its time slice the transforms it reads from and writes to are considered for
+ * scheduling.
+ *
+ * <p>Rows can also be put into row sets by threads outside the pool, by a row producer for
+ * example. A sweeper checks all the transforms every few milliseconds to pick up those rows, and
+ * to finish transforms after the pipeline got stopped.
+ */
+public class TransformScheduler {
+
+  /** How long a transform copy processes rows before giving other copies a chance */
+  public static final long DEFAULT_TIME_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /** How often the sweeper checks all transforms */
+  public static final long SWEEP_INTERVAL_MILLIS = 5;
+
+  private final String name;
+  private final ForkJoinPool pool;
+  private final List<ScheduledTransform> transforms;
+  private final AtomicInteger nrActive;
+  private long timeSliceNanos;
+  private ScheduledExecutorService sweeper;
+
+  /**
+   * Create a new scheduler with its own pool of worker threads.
+   *
+   * @param name The name of the pipeline, used to name the worker threads
+   * @param nrWorkers The number of worker threads
+   */
+  public TransformScheduler(String name, int nrWorkers) {
+    this.name = name;
+    this.transforms = new ArrayList<>();
+    this.nrActive = new AtomicInteger(0);
+    this.timeSliceNanos = DEFAULT_TIME_SLICE_NANOS;
+    this.pool =
+        new ForkJoinPool(
+            Math.max(1, nrWorkers),
+            workerPool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(workerPool);
+              thread.setName(name + " - worker " + thread.getPoolIndex());
+              return thread;
+            },
+            null,
+            true);
+  }
+
+  /**
+   * Add a transform copy to run. All transform copies need to be added before the scheduler is
+   * started.
+   *
+   * @param transform The transform copy to run
+   */
+  public void addTransform(ScheduledTransform transform) {
+    transforms.add(transform);
+  }
+
+  /** Figure out which transforms exchange rows with each other, then start scheduling them. */
+  public void start() {
+    Map<IRowSet, ScheduledTransform> writers = new IdentityHashMap<>();
+    for (ScheduledTransform transform : transforms) {
+      for (IRowSet rowSet : transform.getOutputRowSets()) {
+        writers.put(rowSet, transform);
+      }
+    }
+    for (ScheduledTransform transform : transforms) {
+      for (IRowSet rowSet : transform.getInputRowSets()) {
+        ScheduledTransform writer = writers.get(rowSet);
+        if (writer != null) {
+          writer.addNeighbour(transform);
+          transform.addNeighbour(writer);
+        }
+      }
+    }
+
+    nrActive.set(transforms.size());
+    if (transforms.isEmpty()) {
+      pool.shutdown();
+      return;
+    }
+
+    sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, name + " - scheduler");
+              thread.setDaemon(true);
+              return thread;
+            });
+    sweeper.scheduleWithFixedDelay(
+        this::scheduleAll, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+    scheduleAll();
+  }
+
+  /** Schedule every transform copy which is ready to run and not scheduled yet. */
+  public void scheduleAll() {
+    for (ScheduledTransform transform : transforms) {
+      schedule(transform);
+    }
+  }
+
+  /**
+   * Schedule a transform copy to run on a worker if it's ready and not scheduled yet.
+   *
+   * @param transform The transform copy to schedule
+   */
+  public void schedule(ScheduledTransform transform) {
+    if (!transform.isFinished() && transform.isReady() && transform.claim()) {
+      pool.execute(transform);
+    }
+  }
+
+  /**
+   * Called by a transform copy when it's done. The workers are stopped after the last one.
+   *
+   * @param transform The transform copy which finished
+   */
+  void transformFinished(ScheduledTransform transform) {
+    if (nrActive.decrementAndGet() == 0) {
+      shutdown();
+    }
+  }
+
+  /** Stop the sweeper and the worker threads. Running transforms finish their time slice. */
+  public void shutdown() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+    pool.shutdown();
+  }
+
+  /**
+   * Wait until the last transform copy reported it's done and the worker threads are stopped.
+   *
+   * @throws InterruptedException when interrupted while waiting
+   */
+  public void awaitTermination() throws InterruptedException {
+    while (!pool.awaitTermination(50, TimeUnit.MILLISECONDS)) {
+      // The last transform copy shuts down the pool right after it finished running
+    }
+  }
+
+  /**
+   * Gets the number of transform copies which didn't finish yet
+   *
+   * @return value of nrActive
+   */
+  public int getNrActive() {
+    return nrActive.get();
+  }
+
+  /**
+   * Gets timeSliceNanos
+   *
+   * @return value of timeSliceNanos
+   */
+  public long getTimeSliceNanos() {
+    return timeSliceNanos;
+  }
+
+  /** @param timeSliceNanos The timeSliceNanos to set */
+  public void setTimeSliceNanos(long timeSliceNanos) {
+    this.timeSliceNanos = timeSliceNanos;
+  }
+
+  /**
+   * Gets pool
+   *
+   * @return value of pool
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+}
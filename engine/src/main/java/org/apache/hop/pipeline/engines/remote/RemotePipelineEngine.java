@@ -119,6 +119,12 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
   protected int lastLogLineNr;
   protected Timer refreshTimer;
 
+  /** The sequence number of the last status delta received from the server */
+  protected long statusSequence;
+
+  /** The complete status of the remote pipeline, kept up to date with the status deltas */
+  protected HopServerPipelineStatus remotePipelineStatus;
+
   /** The named parameters. */
   protected INamedParameters namedParams = new NamedParameters();
 
@@ -128,6 +134,9 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
   protected long serverPollDelay;
   protected long serverPollInterval;
 
+  /** The maximum time the server waits for a change when asked for a status delta */
+  private static final long STATUS_DELTA_WAIT_MILLIS = 10000L;
+
   public RemotePipelineEngine() {
     super();
     logChannel = LogChannel.GENERAL;
@@ -437,7 +446,7 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
             new TimerTask() {
               @Override
               public void run() {
-                getPipelineStatus();
+                getPipelineStatus(STATUS_DELTA_WAIT_MILLIS);
               }
             };
         refreshTimer = new Timer();
@@ -460,85 +469,45 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     }
   }
 
-  private synchronized void getPipelineStatus() throws RuntimeException {
+  private void getPipelineStatus() throws RuntimeException {
+    getPipelineStatus(0L);
+  }
+
+  /**
+   * Get the status of the pipeline from the server. The engine isn't locked while waiting for the
+   * server. When another status request got in first the answer is dropped, it's no newer than the
+   * status we already have.
+   *
+   * @param waitMillis How long the server can hold on to an incremental status request until
+   *     something changes. Only the refresh timer waits, calls from stop or pause return at once.
+   */
+  private void getPipelineStatus(long waitMillis) throws RuntimeException {
     try {
-      HopServerPipelineStatus pipelineStatus =
-          hopServer.getPipelineStatus(this, subject.getName(), containerId, lastLogLineNr);
-      synchronized (engineMetrics) {
-        hasHaltedComponents = false;
-        engineMetrics.setStartDate(pipelineStatus.getExecutionStartDate());
-        engineMetrics.setEndDate(pipelineStatus.getExecutionEndDate());
-        engineMetrics.getComponents().clear();
-        engineMetrics.getComponentRunningMap().clear();
-        engineMetrics.getComponentSpeedMap().clear();
-        engineMetrics.getComponentMetricsMap().clear();
-
-        for (TransformStatus transformStatus : pipelineStatus.getTransformStatusList()) {
-          EngineComponent component =
-              new EngineComponent(transformStatus.getTransformName(), transformStatus.getCopy());
-          component.setErrors(transformStatus.getErrors());
-          status =
-              ComponentExecutionStatus.getStatusFromDescription(
-                  transformStatus.getStatusDescription());
-          statusDescription = status.getDescription();
-          boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
-          component.setRunning(running);
-          boolean halted =
-              status == ComponentExecutionStatus.STATUS_HALTED
-                  || status == ComponentExecutionStatus.STATUS_HALTING;
-          if (halted) {
-            hasHaltedComponents = true;
-          }
-          engineMetrics.setComponentStatus(component, transformStatus.getStatusDescription());
-          engineMetrics.setComponentRunning(component, running);
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_READ, transformStatus.getLinesRead());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_ERROR, transformStatus.getErrors());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
-          engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
-          engineMetrics.getComponents().add(component);
+      long sequence;
+      int logLineNr;
+      synchronized (this) {
+        sequence = statusSequence;
+        logLineNr = lastLogLineNr;
+        if (finished) {
+          waitMillis = 0L;
         }
-
-        running = pipelineStatus.isRunning();
-        finished = pipelineStatus.isFinished();
-        stopped = pipelineStatus.isStopped();
-        paused = pipelineStatus.isPaused();
-        errors = (int) pipelineStatus.getNrTransformErrors();
-
-        lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
-
-        // Also pass the remote log to this log channel as BASIC logging...
-        // TODO: make this configurable and split up the log lines individually so we can do a
-        // better job of this.
-        // Now it's a bit garbled
-        //
-        if (StringUtils.isNotEmpty(pipelineStatus.getLoggingString())) {
-          logChannel.logBasic(pipelineStatus.getLoggingString());
+      }
+      if (remotePipelineRunConfiguration.isIncrementalStatus()) {
+        HopServerPipelineStatusDelta delta =
+            hopServer.getPipelineStatusDelta(
+                this, subject.getName(), containerId, sequence, logLineNr, waitMillis);
+        synchronized (this) {
+          if (sequence == statusSequence && logLineNr == lastLogLineNr) {
+            updatePipelineStatus(applyPipelineStatusDelta(delta));
+          }
         }
-
-        // If the pipeline is finished, cancel the timer task
-        //
-        if (finished) {
-          firePipelineExecutionFinishedListeners();
-          refreshTimer.cancel();
-          logChannel.logBasic(
-              "Execution finished on a remote pipeline engine with run configuration '"
-                  + pipelineRunConfiguration.getName()
-                  + "'");
+      } else {
+        HopServerPipelineStatus pipelineStatus =
+            hopServer.getPipelineStatus(this, subject.getName(), containerId, logLineNr);
+        synchronized (this) {
+          if (logLineNr == lastLogLineNr) {
+            updatePipelineStatus(pipelineStatus);
+          }
         }
       }
     } catch (Exception e) {
@@ -554,6 +523,100 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     }
   }
 
+  /** Copy the status received from the server into the engine metrics and state. */
+  private void updatePipelineStatus(HopServerPipelineStatus pipelineStatus) throws HopException {
+    synchronized (engineMetrics) {
+      hasHaltedComponents = false;
+      engineMetrics.setStartDate(pipelineStatus.getExecutionStartDate());
+      engineMetrics.setEndDate(pipelineStatus.getExecutionEndDate());
+      engineMetrics.getComponents().clear();
+      engineMetrics.getComponentRunningMap().clear();
+      engineMetrics.getComponentSpeedMap().clear();
+      engineMetrics.getComponentMetricsMap().clear();
+
+      for (TransformStatus transformStatus : pipelineStatus.getTransformStatusList()) {
+        EngineComponent component =
+            new EngineComponent(transformStatus.getTransformName(), transformStatus.getCopy());
+        component.setErrors(transformStatus.getErrors());
+        status =
+            ComponentExecutionStatus.getStatusFromDescription(
+                transformStatus.getStatusDescription());
+        statusDescription = status.getDescription();
+        boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
+        component.setRunning(running);
+        boolean halted =
+            status == ComponentExecutionStatus.STATUS_HALTED
+                || status == ComponentExecutionStatus.STATUS_HALTING;
+        if (halted) {
+          hasHaltedComponents = true;
+        }
+        engineMetrics.setComponentStatus(component, transformStatus.getStatusDescription());
+        engineMetrics.setComponentRunning(component, running);
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_READ, transformStatus.getLinesRead());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_ERROR, transformStatus.getErrors());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
+        engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
+        engineMetrics.getComponents().add(component);
+      }
+
+      running = pipelineStatus.isRunning();
+      finished = pipelineStatus.isFinished();
+      stopped = pipelineStatus.isStopped();
+      paused = pipelineStatus.isPaused();
+      errors = (int) pipelineStatus.getNrTransformErrors();
+
+      lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+
+      // Also pass the remote log to this log channel as BASIC logging...
+      // TODO: make this configurable and split up the log lines individually so we can do a
+      // better job of this.
+      // Now it's a bit garbled
+      //
+      if (StringUtils.isNotEmpty(pipelineStatus.getLoggingString())) {
+        logChannel.logBasic(pipelineStatus.getLoggingString());
+      }
+
+      // If the pipeline is finished, cancel the timer task
+      //
+      if (finished) {
+        firePipelineExecutionFinishedListeners();
+        refreshTimer.cancel();
+        logChannel.logBasic(
+            "Execution finished on a remote pipeline engine with run configuration '"
+                + pipelineRunConfiguration.getName()
+                + "'");
+      }
+    }
+  }
+
+  /**
+   * Apply the changes since the last status we received to the status we keep. While the
+   * pipeline runs the server holds on to the request until something changes.
+   */
+  private HopServerPipelineStatus applyPipelineStatusDelta(HopServerPipelineStatusDelta delta) {
+    if (remotePipelineStatus == null) {
+      remotePipelineStatus = new HopServerPipelineStatus();
+    }
+    delta.applyTo(remotePipelineStatus);
+    statusSequence = delta.getSequence();
+    return remotePipelineStatus;
+  }
+
   @Override
   public String getStatusDescription() {
     return statusDescription;
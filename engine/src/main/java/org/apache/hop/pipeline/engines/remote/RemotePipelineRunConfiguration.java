@@ -67,6 +67,17 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
   @HopMetadataProperty(key = "server_poll_interval")
   protected String serverPollInterval;
 
+  @GuiWidgetElement(
+      order = "45",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.IncrementalStatus.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.IncrementalStatus.ToolTip")
+  @HopMetadataProperty(key = "incremental_status")
+  protected boolean incrementalStatus;
+
   @GuiWidgetElement(
       order = "50",
       parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
@@ -110,6 +121,7 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
     this.runConfigurationName = config.runConfigurationName;
     this.serverPollDelay = config.serverPollDelay;
     this.serverPollInterval = config.serverPollInterval;
+    this.incrementalStatus = config.incrementalStatus;
     this.exportingResources = config.exportingResources;
     this.namedResourcesSourceFolder = config.namedResourcesSourceFolder;
     this.namedResourcesTargetFolder = config.namedResourcesTargetFolder;
@@ -176,6 +188,20 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
     this.serverPollInterval = serverPollInterval;
   }
 
+  /**
+   * Gets incrementalStatus
+   *
+   * @return value of incrementalStatus
+   */
+  public boolean isIncrementalStatus() {
+    return incrementalStatus;
+  }
+
+  /** @param incrementalStatus The incrementalStatus to set */
+  public void setIncrementalStatus(boolean incrementalStatus) {
+    this.incrementalStatus = incrementalStatus;
+  }
+
   /**
    * Gets exportingResources
    *
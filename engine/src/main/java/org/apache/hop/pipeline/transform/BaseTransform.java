@@ -26,6 +26,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.hash.LruByteArrayCache;
 import org.apache.hop.core.logging.*;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -41,6 +42,7 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 import java.io.Closeable;
@@ -50,6 +52,7 @@ import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -136,34 +139,59 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private IPipelineEngine<PipelineMeta> pipeline;
 
-  private final Object statusCountersLock = new Object();
-
   protected Date initStartDate;
   protected Date executionStartDate;
   protected Date firstRowReadDate;
   protected Date lastRowWrittenDate;
   protected Date executionEndDate;
 
+  /*
+   * The line counters are only updated by the thread running this transform. Other threads (status,
+   * metrics, performance snapshots) only read them. That means we don't need a lock: the running
+   * thread publishes a new value with an ordered (release) store and the readers pick it up with a
+   * volatile (acquire) read.
+   */
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_READ =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesRead");
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_WRITTEN =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesWritten");
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_INPUT =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesInput");
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_OUTPUT =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesOutput");
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_UPDATED =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesUpdated");
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_SKIPPED =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesSkipped");
+  private static final AtomicLongFieldUpdater<BaseTransform> LINES_REJECTED =
+      AtomicLongFieldUpdater.newUpdater(BaseTransform.class, "linesRejected");
+
   /** Number of lines read from previous transform(s) */
-  private long linesRead;
+  private volatile long linesRead;
 
   /** Number of lines written to next transform(s) */
-  private long linesWritten;
+  private volatile long linesWritten;
 
   /** Number of lines read from file or database */
-  private long linesInput;
+  private volatile long linesInput;
 
   /** Number of lines written to file or database */
-  private long linesOutput;
+  private volatile long linesOutput;
 
   /** Number of updates in a database table or file */
-  private long linesUpdated;
+  private volatile long linesUpdated;
 
   /** Number of lines skipped */
-  private long linesSkipped;
+  private volatile long linesSkipped;
 
   /** Number of lines rejected to an error handling transform */
-  private long linesRejected;
+  private volatile long linesRejected;
+
+  /** The time spent getting, putting and processing rows or null if it's not kept track of */
+  private TransformTimings transformTimings;
+
+  /** Set during a timed getRow() so that the nested getRowFrom() isn't counted twice */
+  private boolean timingGetRow;
 
   private boolean distributed;
 
@@ -270,6 +298,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private static final int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /** The default number of rows to pass between transforms with getRows() and putRows() */
+  public static final int ROW_BATCH_SIZE = 256;
+
   private int blockPointer;
 
   private List<ITransformFinishedListener> transformFinishedListeners;
@@ -368,15 +399,13 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     init = false;
 
-    synchronized (statusCountersLock) {
-      linesRead = 0L;
-      linesWritten = 0L;
-      linesUpdated = 0L;
-      linesSkipped = 0L;
-      linesRejected = 0L;
-      linesInput = 0L;
-      linesOutput = 0L;
-    }
+    linesRead = 0L;
+    linesWritten = 0L;
+    linesUpdated = 0L;
+    linesSkipped = 0L;
+    linesRejected = 0L;
+    linesInput = 0L;
+    linesOutput = 0L;
 
     inputRowSets = null;
     outputRowSets = null;
@@ -461,6 +490,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
             System.getProperties()
                 .getProperty(Const.HOP_ALLOW_EMPTY_FIELD_NAMES_AND_TYPES, "false"));
 
+    if (ValueMetaString.convertStringToBoolean(getVariable(Const.HOP_TRANSFORM_TIMINGS))
+        == Boolean.TRUE) {
+      transformTimings = new TransformTimings();
+    }
+
     // Getting ans setting the error handling values
     // first, get the transform meta
     TransformErrorMeta transformErrorMeta = transformMeta.getTransformErrorMeta();
@@ -607,9 +641,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRead() {
-    synchronized (statusCountersLock) {
-      return linesRead;
-    }
+    return linesRead;
   }
 
   /**
@@ -619,9 +651,21 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return ++linesRead;
-    }
+    long value = linesRead + 1;
+    LINES_READ.lazySet(this, value);
+    return value;
+  }
+
+  /**
+   * Increments the number of lines read from previous transforms by the given number
+   *
+   * @param count the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesRead(long count) {
+    long value = linesRead + count;
+    LINES_READ.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -630,9 +674,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return --linesRead;
-    }
+    long value = linesRead - 1;
+    LINES_READ.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -640,9 +684,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesRead()}, {@link #incrementLinesRead()}, {@link #decrementLinesRead()}
    */
   public void setLinesRead(long newLinesReadValue) {
-    synchronized (statusCountersLock) {
-      linesRead = newLinesReadValue;
-    }
+    linesRead = newLinesReadValue;
   }
 
   /**
@@ -651,9 +693,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesInput() {
-    synchronized (statusCountersLock) {
-      return linesInput;
-    }
+    return linesInput;
   }
 
   /**
@@ -663,9 +703,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized (statusCountersLock) {
-      return ++linesInput;
-    }
+    long value = linesInput + 1;
+    LINES_INPUT.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -674,9 +714,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesInput()} or {@link #incrementLinesInput()}
    */
   public void setLinesInput(long newLinesInputValue) {
-    synchronized (statusCountersLock) {
-      linesInput = newLinesInputValue;
-    }
+    linesInput = newLinesInputValue;
   }
 
   /**
@@ -685,9 +723,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesOutput() {
-    synchronized (statusCountersLock) {
-      return linesOutput;
-    }
+    return linesOutput;
   }
 
   /**
@@ -697,9 +733,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesOutput()}, {@link #setLinesOutput(long)}
    */
   public long incrementLinesOutput() {
-    synchronized (statusCountersLock) {
-      return ++linesOutput;
-    }
+    long value = linesOutput + 1;
+    LINES_OUTPUT.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -708,9 +744,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesOutput()} or {@link #incrementLinesOutput()}
    */
   public void setLinesOutput(long newLinesOutputValue) {
-    synchronized (statusCountersLock) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutput = newLinesOutputValue;
   }
 
   /**
@@ -721,9 +755,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesWritten() {
-    synchronized (statusCountersLock) {
-      return linesWritten;
-    }
+    return linesWritten;
   }
 
   /**
@@ -733,9 +765,21 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return ++linesWritten;
-    }
+    long value = linesWritten + 1;
+    LINES_WRITTEN.lazySet(this, value);
+    return value;
+  }
+
+  /**
+   * Increments the number of lines written to next transforms by the given number
+   *
+   * @param count the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesWritten(long count) {
+    long value = linesWritten + count;
+    LINES_WRITTEN.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -745,9 +789,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return --linesWritten;
-    }
+    long value = linesWritten - 1;
+    LINES_WRITTEN.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -758,9 +802,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    *     #decrementLinesWritten()}
    */
   public void setLinesWritten(long newLinesWrittenValue) {
-    synchronized (statusCountersLock) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWritten = newLinesWrittenValue;
   }
 
   /**
@@ -769,9 +811,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return linesUpdated;
-    }
+    return linesUpdated;
   }
 
   /**
@@ -781,9 +821,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesUpdated()}, {@link #setLinesUpdated(long)}
    */
   public long incrementLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return ++linesUpdated;
-    }
+    long value = linesUpdated + 1;
+    LINES_UPDATED.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -792,9 +832,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesUpdated()}, {@link #incrementLinesUpdated()}
    */
   public void setLinesUpdated(long newLinesUpdatedValue) {
-    synchronized (statusCountersLock) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdated = newLinesUpdatedValue;
   }
 
   /**
@@ -805,9 +843,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRejected() {
-    synchronized (statusCountersLock) {
-      return linesRejected;
-    }
+    return linesRejected;
   }
 
   /**
@@ -817,9 +853,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized (statusCountersLock) {
-      return ++linesRejected;
-    }
+    long value = linesRejected + 1;
+    LINES_REJECTED.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -828,9 +864,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void setLinesRejected(long newLinesRejectedValue) {
-    synchronized (statusCountersLock) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejected = newLinesRejectedValue;
   }
 
   /**
@@ -838,9 +872,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #setLinesSkipped(long)}, {@link #incrementLinesSkipped()}
    */
   public long getLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return linesSkipped;
-    }
+    return linesSkipped;
   }
 
   /**
@@ -850,9 +882,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesSkipped()}, {@link #setLinesSkipped(long)}
    */
   public long incrementLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return ++linesSkipped;
-    }
+    long value = linesSkipped + 1;
+    LINES_SKIPPED.lazySet(this, value);
+    return value;
   }
 
   /**
@@ -860,9 +892,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesSkipped()}, {@link #incrementLinesSkipped()}
    */
   public void setLinesSkipped(long newLinesSkippedValue) {
-    synchronized (statusCountersLock) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkipped = newLinesSkippedValue;
   }
 
   @Override
@@ -968,6 +998,57 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    verifyOutputRowMeta(rowMeta);
+    if (transformTimings == null) {
+      getRowHandler().putRow(rowMeta, row);
+    } else {
+      long start = System.nanoTime();
+      try {
+        getRowHandler().putRow(rowMeta, row);
+      } finally {
+        transformTimings.addPutRowNanos(System.nanoTime() - start);
+      }
+    }
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  /**
+   * putRows passes a batch of rows to the next transform(s). It behaves like calling {@link
+   * #putRow(IRowMeta, Object[])} for every row but the locking and bookkeeping is done once for
+   * the whole batch.
+   *
+   * @param rowMeta The row meta-data of the rows
+   * @param rows The rows to put to the destination rowset(s)
+   * @param nrRows The number of rows to take from the start of the array
+   * @throws HopTransformException
+   */
+  public void putRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws HopTransformException {
+    verifyOutputRowMeta(rowMeta);
+    if (transformTimings == null) {
+      getRowHandler().putRows(rowMeta, rows, nrRows);
+    } else {
+      long start = System.nanoTime();
+      try {
+        getRowHandler().putRows(rowMeta, rows, nrRows);
+      } finally {
+        transformTimings.addPutRowNanos(System.nanoTime() - start);
+      }
+    }
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  private void verifyOutputRowMeta(IRowMeta rowMeta) throws HopTransformException {
     if (rowMeta != null) {
       if (!allowEmptyFieldNamesAndTypes) {
         // check row meta for empty field name (BACKLOG-18004)
@@ -985,13 +1066,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
       }
     }
-    getRowHandler().putRow(rowMeta, row);
-
-    // This transform is not reading data, only writing
-    //
-    if (firstRowReadDate == null) {
-      firstRowReadDate = new Date();
-    }
   }
 
   private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
@@ -1084,6 +1158,119 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  private void handlePutRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws HopTransformException {
+    // Partitioning, plugin defined distribution and the terminator buffer work row by row.
+    //
+    if (repartitioning != TransformPartitioningMeta.PARTITIONING_METHOD_NONE
+        || (distributed && rowDistribution != null)
+        || terminator) {
+      for (int i = 0; i < nrRows; i++) {
+        handlePutRow(rowMeta, rows[i]);
+      }
+      return;
+    }
+
+    // Are we pausing the transform? If so, stall forever...
+    //
+    while (paused.get() && !stopped.get()) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        throw new HopTransformException(e);
+      }
+    }
+
+    if (stopped.get() && !safeStopped.get()) {
+      if (log.isDebug()) {
+        logDebug(BaseMessages.getString(PKG, "BaseTransform.Log.StopPuttingARow"));
+      }
+      stopAll();
+      return;
+    }
+
+    waitUntilPipelineIsStarted();
+
+    // call all row listeners...
+    //
+    if (!rowListeners.isEmpty()) {
+      for (int i = 0; i < nrRows; i++) {
+        for (IRowListener listener : rowListeners) {
+          listener.rowWrittenEvent(rowMeta, rows[i]);
+        }
+      }
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.isEmpty()) {
+        // No more output rowsets!
+        // Still update the nr of lines written.
+        //
+        incrementLinesWritten(nrRows);
+        return;
+      }
+
+      if (distributed) {
+        if (outputRowSets.size() > 1) {
+          // Round robin distribution is done row by row
+          //
+          for (int i = 0; i < nrRows; i++) {
+            noPartitioning(rowMeta, rows[i]);
+          }
+        } else {
+          putRowsToRowSet(outputRowSets.get(0), rowMeta, rows, nrRows);
+          incrementLinesWritten(nrRows);
+        }
+      } else {
+        // Copy the rows to the other output rowsets...
+        //
+        for (int r = 1; r < outputRowSets.size(); r++) { // start at 1
+          Object[][] copies = new Object[nrRows][];
+          try {
+            for (int i = 0; i < nrRows; i++) {
+              copies[i] = rowMeta.cloneRow(rows[i]);
+            }
+          } catch (HopValueException e) {
+            throw new HopTransformException(
+                "Unable to clone row while copying rows to multiple target transforms", e);
+          }
+          putRowsToRowSet(outputRowSets.get(r), rowMeta, copies, nrRows);
+        }
+
+        // set the rows in the first output rowset
+        //
+        putRowsToRowSet(outputRowSets.get(0), rowMeta, rows, nrRows);
+        incrementLinesWritten((long) nrRows * outputRowSets.size());
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  private void putRowsToRowSet(IRowSet rs, IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    IRowMeta toBeSent;
+    IRowMeta metaFromRs = rs.getRowMeta();
+    if (metaFromRs == null) {
+      // IRowSet is not initialised so far
+      toBeSent = rowMeta.clone();
+    } else {
+      // use the existing
+      toBeSent = metaFromRs;
+    }
+
+    // The rows that don't fit in one go are passed one by one, waiting for room in the rowset
+    //
+    int putRows = rs.putRows(toBeSent, rows, nrRows);
+    for (int i = putRows; i < nrRows; i++) {
+      while (!rs.putRow(toBeSent, rows[i])) {
+        if (isStopped() && !safeStopped.get()) {
+          return;
+        }
+      }
+    }
+  }
+
   /** Copy always to all target transforms/copies */
   private void mirrorPartitioning(IRowMeta rowMeta, Object[] row) {
     for (IRowSet rowSet : outputRowSets) {
@@ -1171,7 +1358,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (!rs.isLockFree() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1207,7 +1394,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (!rs.isLockFree() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1262,7 +1449,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   public void putRowTo(IRowMeta rowMeta, Object[] row, IRowSet rowSet)
       throws HopTransformException {
-    getRowHandler().putRowTo(rowMeta, row, rowSet);
+    if (transformTimings == null) {
+      getRowHandler().putRowTo(rowMeta, row, rowSet);
+    } else {
+      long start = System.nanoTime();
+      try {
+        getRowHandler().putRowTo(rowMeta, row, rowSet);
+      } finally {
+        transformTimings.addPutRowNanos(System.nanoTime() - start);
+      }
+    }
 
     // This transform is not reading data, only writing
     //
@@ -1337,7 +1533,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       String fieldNames,
       String errorCodes)
       throws HopTransformException {
-    getRowHandler().putError(rowMeta, row, nrErrors, errorDescriptions, fieldNames, errorCodes);
+    if (transformTimings == null) {
+      getRowHandler().putError(rowMeta, row, nrErrors, errorDescriptions, fieldNames, errorCodes);
+    } else {
+      long start = System.nanoTime();
+      try {
+        getRowHandler()
+            .putError(rowMeta, row, nrErrors, errorDescriptions, fieldNames, errorCodes);
+      } finally {
+        transformTimings.addPutRowNanos(System.nanoTime() - start);
+      }
+    }
   }
 
   private void handlePutError(
@@ -1494,7 +1700,19 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public Object[] getRow() throws HopException {
-    Object[] row = getRowHandler().getRow();
+    Object[] row;
+    if (transformTimings == null) {
+      row = getRowHandler().getRow();
+    } else {
+      long start = System.nanoTime();
+      timingGetRow = true;
+      try {
+        row = getRowHandler().getRow();
+      } finally {
+        timingGetRow = false;
+        transformTimings.addGetRowNanos(System.nanoTime() - start);
+      }
+    }
 
     if (firstRowReadDate == null) {
       firstRowReadDate = new Date();
@@ -1503,6 +1721,88 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * Get a batch of rows from the previous transform(s). This waits for the first row just like
+   * {@link #getRow()} and then adds the rows which are immediately available on the same input
+   * rowset, up to the given maximum. The locking and bookkeeping is done once for the whole batch.
+   *
+   * @param maxRows the maximum number of rows to return
+   * @return the rows or null if no more rows are to be expected
+   * @throws HopException
+   */
+  public Object[][] getRows(int maxRows) throws HopException {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    Object[][] rows = new Object[Math.max(1, maxRows)][];
+    rows[0] = row;
+    int nrRows = 1;
+    if (rows.length > 1) {
+      if (transformTimings == null) {
+        nrRows += getRowHandler().getRows(rows, 1, rows.length - 1);
+      } else {
+        long start = System.nanoTime();
+        try {
+          nrRows += getRowHandler().getRows(rows, 1, rows.length - 1);
+        } finally {
+          transformTimings.addGetRowNanos(System.nanoTime() - start);
+        }
+      }
+    }
+    return nrRows == rows.length ? rows : Arrays.copyOf(rows, nrRows);
+  }
+
+  private int handleGetRows(Object[][] rows, int offset, int maxRows) throws HopException {
+    if (paused.get() || stopped.get()) {
+      return 0;
+    }
+
+    int nrRows;
+    inputRowSetsLock.readLock().lock();
+    try {
+      if (inputRowSets.isEmpty()) {
+        return 0;
+      }
+
+      // Stay within the block so the other input rowsets still get their turn
+      //
+      int max = maxRows;
+      if (inputRowSets.size() > 1) {
+        max = Math.min(maxRows, NR_OF_ROWS_IN_BLOCK - blockPointer);
+      }
+      if (max <= 0) {
+        return 0;
+      }
+      nrRows = currentInputStream().drainTo(rows, offset, max);
+      blockPointer += nrRows;
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    if (nrRows == 0) {
+      return 0;
+    }
+    incrementLinesRead(nrRows);
+
+    if (pipeline.isSafeModeEnabled()) {
+      pipelineMeta.checkRowMixingStatically(this, transformMeta, null);
+    }
+
+    if (!rowListeners.isEmpty()) {
+      for (int i = offset; i < offset + nrRows; i++) {
+        for (IRowListener listener : rowListeners) {
+          listener.rowReadEvent(inputRowMeta, rows[i]);
+        }
+      }
+    }
+
+    // Check the rejection rates etc. as well.
+    verifyRejectionRates();
+
+    return nrRows;
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1563,7 +1863,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // The buffer to grow beyond "a few" entries.
       // We'll only do that if the previous transform has not ended...
 
-      if (!inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped()) {
+      if (!inputRowSet.isLockFree()
+          && !inputRowSet.isDone()
+          && inputRowSet.size() <= lowerBufferBoundary
+          && !isStopped()) {
         try {
           Thread.sleep(0, 1);
         } catch (InterruptedException e) {
@@ -1818,7 +2121,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @throws HopTransformException the hop transform exception
    */
   public Object[] getRowFrom(IRowSet rowSet) throws HopTransformException {
-    Object[] row = getRowHandler().getRowFrom(rowSet);
+    Object[] row;
+    if (transformTimings == null || timingGetRow) {
+      row = getRowHandler().getRowFrom(rowSet);
+    } else {
+      long start = System.nanoTime();
+      try {
+        row = getRowHandler().getRowFrom(rowSet);
+      } finally {
+        transformTimings.addGetRowNanos(System.nanoTime() - start);
+      }
+    }
     if (firstRowReadDate == null) {
       firstRowReadDate = new Date();
     }
@@ -1855,7 +2168,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     // The buffer to grow beyond "a few" entries.
     // We'll only do that if the previous transform has not ended...
 
-    if (!rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped()) {
+    if (!rowSet.isLockFree()
+        && !rowSet.isDone()
+        && rowSet.size() <= lowerBufferBoundary
+        && !isStopped()) {
       try {
         Thread.sleep(0, 1);
       } catch (InterruptedException e) {
@@ -2834,6 +3150,21 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return size;
   }
 
+  /**
+   * Gets transformTimings
+   *
+   * @return The time spent getting, putting and processing rows or null if it's not kept track of
+   *     (variable HOP_TRANSFORM_TIMINGS)
+   */
+  public TransformTimings getTransformTimings() {
+    return transformTimings;
+  }
+
+  /** @param transformTimings The transformTimings to set, null to stop keeping track of them */
+  public void setTransformTimings(TransformTimings transformTimings) {
+    this.transformTimings = transformTimings;
+  }
+
   /**
    * Perform actions to stop a running transform. This can be stopping running Sql queries (cancel),
    * etc. Default it doesn't do anything.
@@ -2847,36 +3178,34 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   /** Log summary. */
   public void logSummary() {
-    synchronized (statusCountersLock) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
-        logBasic(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      } else {
-        logDetailed(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
+    } else {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
     }
   }
 
@@ -3175,6 +3504,21 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         && (lines % getPipeline().getFeedbackSize()) == 0;
   }
 
+  /**
+   * Check if feedback needs to be given after a batch of rows moved a line counter forward.
+   *
+   * @param previousLines the value of the line counter before the batch was processed
+   * @param lines the value of the line counter after the batch was processed
+   * @return true if a feedback boundary was passed
+   */
+  protected boolean checkFeedback(long previousLines, long lines) {
+    return getPipeline().isFeedbackShown()
+        && (lines > 0)
+        && (getPipeline().getFeedbackSize() > 0)
+        && (lines / getPipeline().getFeedbackSize())
+            > (previousLines / getPipeline().getFeedbackSize());
+  }
+
   /** @return the rowMeta */
   public IRowMeta getInputRowMeta() {
     return inputRowMeta;
@@ -3619,6 +3963,36 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return null;
   }
 
+  /**
+   * Reports the size and the hit, miss and eviction counters of a lookup cache as transform
+   * metrics. Transforms with such a cache can use this to implement {@link #getCustomMetrics()}.
+   *
+   * @param cache the lookup cache, can be null if there is no cache (yet)
+   * @return the cache metrics
+   */
+  protected Map<IEngineMetric, Long> getCacheMetrics(LruByteArrayCache<?> cache) {
+    if (cache == null) {
+      return Collections.emptyMap();
+    }
+    Map<IEngineMetric, Long> metrics = new HashMap<>();
+    metrics.put(Pipeline.METRIC_CACHE_HITS, cache.getHits());
+    metrics.put(Pipeline.METRIC_CACHE_MISSES, cache.getMisses());
+    metrics.put(Pipeline.METRIC_CACHE_EVICTIONS, cache.getEvictions());
+    metrics.put(Pipeline.METRIC_CACHE_SIZE, (long) cache.size());
+    return metrics;
+  }
+
+  /**
+   * Gets the memory limit of a lookup cache from the {@link Const#HOP_LOOKUP_CACHE_MEMORY_LIMIT}
+   * variable.
+   *
+   * @return the memory limit in bytes, 0 if there is no limit
+   */
+  protected long getCacheMemoryLimit() {
+    long limitMb = Const.toLong(getVariable(Const.HOP_LOOKUP_CACHE_MEMORY_LIMIT), 0L);
+    return Math.max(0L, limitMb) * 1024L * 1024L;
+  }
+
   @Override
   public boolean isGatheringMetrics() {
     return log != null && log.isGatheringMetrics();
@@ -3689,6 +4063,17 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       handlePutRow(rowMeta, row);
     }
 
+    @Override
+    public int getRows(Object[][] rows, int offset, int maxRows) throws HopException {
+      return handleGetRows(rows, offset, maxRows);
+    }
+
+    @Override
+    public void putRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+        throws HopTransformException {
+      handlePutRows(rowMeta, rows, nrRows);
+    }
+
     @Override
     public void putError(
         IRowMeta rowMeta,
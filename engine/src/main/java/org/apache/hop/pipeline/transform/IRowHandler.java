@@ -47,6 +47,34 @@ public interface IRowHandler {
       String errorCodes)
       throws HopTransformException;
 
+  /**
+   * Get the rows which are immediately available without waiting. This is used to hand over rows
+   * in batches after a first row was read with {@link #getRow()}. By default no rows are handed
+   * over in batch.
+   *
+   * @param rows the array to store the rows in
+   * @param offset the index in the array of the first row to store
+   * @param maxRows the maximum number of rows to get
+   * @return the number of rows stored in the array
+   */
+  default int getRows(Object[][] rows, int offset, int maxRows) throws HopException {
+    return 0;
+  }
+
+  /**
+   * Pass a batch of rows to the next transforms. By default every row is passed on its own.
+   *
+   * @param rowMeta the description of the rows
+   * @param rows the rows
+   * @param nrRows the number of rows to take from the start of the array
+   */
+  default void putRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws HopTransformException {
+    for (int i = 0; i < nrRows; i++) {
+      putRow(rowMeta, rows[i]);
+    }
+  }
+
   default void putRowTo(IRowMeta rowMeta, Object[] row, IRowSet rowSet)
       throws HopTransformException {
     throw new UnsupportedOperationException(
@@ -30,6 +30,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 import java.util.*;
@@ -331,6 +332,16 @@ public interface ITransform<Meta extends ITransformMeta, Data extends ITransform
     return Collections.emptyList();
   }
 
+  /**
+   * Gets the metrics which are specific to this transform, for example the hits and misses of a
+   * lookup cache. They are reported next to the standard row counters in the engine metrics.
+   *
+   * @return the transform specific metrics and their current values, empty by default
+   */
+  default Map<IEngineMetric, Long> getCustomMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
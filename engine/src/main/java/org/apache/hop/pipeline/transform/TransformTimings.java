@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Keeps track of where the time of a running transform goes: waiting for rows from the previous
+ * transforms, handing rows over to the next transforms and processing. The processing time of
+ * every processRow() call, without the time spent getting and putting rows, goes into a histogram.
+ *
+ * <p>The timings are collected when variable HOP_TRANSFORM_TIMINGS is set to Y. Like the line
+ * counters, they are only updated by the thread running the transform.
+ */
+public class TransformTimings {
+
+  private static final AtomicLongFieldUpdater<TransformTimings> GET_ROW_NANOS =
+      AtomicLongFieldUpdater.newUpdater(TransformTimings.class, "getRowNanos");
+  private static final AtomicLongFieldUpdater<TransformTimings> PUT_ROW_NANOS =
+      AtomicLongFieldUpdater.newUpdater(TransformTimings.class, "putRowNanos");
+
+  private volatile long getRowNanos;
+  private volatile long putRowNanos;
+  private final LatencyHistogram processingLatency = new LatencyHistogram();
+
+  /** @param nanos The time spent in getRow() */
+  public void addGetRowNanos(long nanos) {
+    GET_ROW_NANOS.lazySet(this, getRowNanos + nanos);
+  }
+
+  /** @param nanos The time spent in putRow() */
+  public void addPutRowNanos(long nanos) {
+    PUT_ROW_NANOS.lazySet(this, putRowNanos + nanos);
+  }
+
+  /**
+   * Call processRow() on the transform and record the time it took, without the time spent getting
+   * and putting rows.
+   *
+   * @param transform The transform to call
+   * @return The result of processRow()
+   * @throws HopException In case processRow() fails
+   */
+  public boolean processRow(ITransform transform) throws HopException {
+    long waitedBefore = getRowNanos + putRowNanos;
+    long start = System.nanoTime();
+    try {
+      return transform.processRow();
+    } finally {
+      long elapsed = System.nanoTime() - start - (getRowNanos + putRowNanos - waitedBefore);
+      processingLatency.record(Math.max(0L, elapsed));
+    }
+  }
+
+  /** @return The total time in nanoseconds spent waiting for rows from the previous transforms */
+  public long getGetRowNanos() {
+    return getRowNanos;
+  }
+
+  /** @return The total time in nanoseconds spent handing rows over to the next transforms */
+  public long getPutRowNanos() {
+    return putRowNanos;
+  }
+
+  /** @return The processing time of the processRow() calls */
+  public LatencyHistogram getProcessingLatency() {
+    return processingLatency;
+  }
+}
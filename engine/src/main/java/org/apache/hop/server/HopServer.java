@@ -760,6 +760,44 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     return HopServerPipelineStatus.fromXml(xml);
   }
 
+  /**
+   * Get the changes in the status of a pipeline since the given sequence number.
+   *
+   * @param variables the variables to resolve the server details with
+   * @param pipelineName the name of the pipeline
+   * @param serverObjectId the ID of the pipeline on the server
+   * @param sequence the sequence number of the last delta received, 0 for the complete status
+   * @param startLogLineNr the number of the last log line received
+   * @param waitMillis the maximum time the server can wait for a change before answering
+   * @return the changes in the pipeline status
+   * @throws Exception in case the status couldn't be retrieved
+   */
+  public HopServerPipelineStatusDelta getPipelineStatusDelta(
+      IVariables variables,
+      String pipelineName,
+      String serverObjectId,
+      long sequence,
+      int startLogLineNr,
+      long waitMillis)
+      throws Exception {
+    String json =
+        execService(
+            variables,
+            GetPipelineStatusDeltaServlet.CONTEXT_PATH
+                + "/?name="
+                + URLEncoder.encode(pipelineName, "UTF-8")
+                + "&id="
+                + Const.NVL(serverObjectId, "")
+                + "&seq="
+                + sequence
+                + "&from="
+                + startLogLineNr
+                + "&wait="
+                + waitMillis,
+            true);
+    return HopServerPipelineStatusDelta.fromJson(json);
+  }
+
   public HopServerWorkflowStatus getWorkflowStatus(
       IVariables variables, String workflowName, String serverObjectId, int startLogLineNr)
       throws Exception {
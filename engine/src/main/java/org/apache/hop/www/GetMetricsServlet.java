@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.core.database.ConnectionPoolUtil;
+import org.apache.hop.core.metrics.LatencyHistogram;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.TransformTimings;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Exports the metrics of the pipelines on this server in the OpenMetrics text format so that they
+ * can be scraped by Prometheus or any other OpenMetrics compatible system. For every transform copy
+ * it exports the line counters and the buffer sizes. When variable HOP_TRANSFORM_TIMINGS is set to
+ * Y it also exports the time spent getting and putting rows and a histogram of the processing time.
+ * The database connection pools and the VFS file resolution times are exported as well.
+ */
+@HopServerServlet(id = "metrics", name = "Export metrics in the OpenMetrics text format")
+public class GetMetricsServlet extends BaseHttpServlet implements IHopServerPlugin {
+
+  private static final long serialVersionUID = 2862146711935211187L;
+
+  private static final Class<?> PKG = GetMetricsServlet.class; // For Translator
+
+  public static final String CONTEXT_PATH = "/hop/metrics";
+
+  private static final double NANOS_PER_SECOND = 1000000000.0;
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  private static final String[][] LINE_COUNTERS = {
+    {"hop_transform_rows_read", "The number of rows read from previous transforms"},
+    {"hop_transform_rows_written", "The number of rows written to next transforms"},
+    {"hop_transform_rows_input", "The number of rows read from a file or database"},
+    {"hop_transform_rows_output", "The number of rows written to a file or database"},
+    {"hop_transform_rows_updated", "The number of rows updated in a file or database"},
+    {"hop_transform_rows_rejected", "The number of rows sent to error handling"},
+    {"hop_transform_errors", "The number of errors"},
+  };
+
+  public GetMetricsServlet() {}
+
+  public GetMetricsServlet(PipelineMap pipelineMap) {
+    super(pipelineMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    if (log.isDebug()) {
+      logDebug(BaseMessages.getString(PKG, "GetMetricsServlet.Log.MetricsRequested"));
+    }
+
+    OpenMetricsWriter writer = new OpenMetricsWriter();
+    addPipelineMetrics(writer);
+    addConnectionPoolMetrics(writer);
+    addVfsMetrics(writer);
+
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(OpenMetricsWriter.CONTENT_TYPE);
+    response.setCharacterEncoding("UTF-8");
+    PrintWriter out = response.getWriter();
+    out.print(writer.getText());
+    out.flush();
+  }
+
+  private void addPipelineMetrics(OpenMetricsWriter writer) {
+    for (String[] counter : LINE_COUNTERS) {
+      writer.family(counter[0], OpenMetricsWriter.TYPE_COUNTER, counter[1]);
+    }
+    writer.family(
+        "hop_transform_running",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "1 if the transform copy is running, 0 otherwise");
+    writer.family(
+        "hop_transform_input_buffer_rows",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "The number of rows waiting in the input row sets");
+    writer.family(
+        "hop_transform_output_buffer_rows",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "The number of rows waiting in the output row sets");
+    writer.family(
+        "hop_transform_input_buffer_fill_ratio",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "The number of rows in the input row sets divided by their capacity");
+    writer.family(
+        "hop_transform_output_buffer_fill_ratio",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "The number of rows in the output row sets divided by their capacity");
+    writer.family(
+        "hop_transform_get_row_seconds",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The time spent waiting for rows from previous transforms");
+    writer.family(
+        "hop_transform_put_row_seconds",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The time spent handing rows over to next transforms");
+    writer.family(
+        "hop_transform_processing_seconds",
+        OpenMetricsWriter.TYPE_HISTOGRAM,
+        "The time spent in one call to process a row, without getting and putting rows");
+
+    for (HopServerObjectEntry entry : getPipelineMap().getPipelineObjects()) {
+      IPipelineEngine<PipelineMeta> pipeline = getPipelineMap().getPipeline(entry);
+      if (pipeline == null) {
+        continue;
+      }
+      int rowSetSize = pipeline instanceof Pipeline ? ((Pipeline) pipeline).getRowSetSize() : 0;
+
+      for (IEngineComponent component : pipeline.getComponents()) {
+        String[] labels = {
+          "pipeline", entry.getName(),
+          "id", entry.getId(),
+          "transform", component.getName(),
+          "copy", Integer.toString(component.getCopyNr()),
+        };
+        long[] lines = {
+          component.getLinesRead(),
+          component.getLinesWritten(),
+          component.getLinesInput(),
+          component.getLinesOutput(),
+          component.getLinesUpdated(),
+          component.getLinesRejected(),
+          component.getErrors(),
+        };
+        for (int i = 0; i < LINE_COUNTERS.length; i++) {
+          writer.sample(LINE_COUNTERS[i][0], "_total", labels, lines[i]);
+        }
+        writer.sample("hop_transform_running", "", labels, component.isRunning() ? 1L : 0L);
+
+        long inputBufferSize = component.getInputBufferSize();
+        long outputBufferSize = component.getOutputBufferSize();
+        writer.sample("hop_transform_input_buffer_rows", "", labels, inputBufferSize);
+        writer.sample("hop_transform_output_buffer_rows", "", labels, outputBufferSize);
+
+        if (component instanceof ITransform && rowSetSize > 0) {
+          ITransform transform = (ITransform) component;
+          addFillRatio(
+              writer,
+              "hop_transform_input_buffer_fill_ratio",
+              labels,
+              inputBufferSize,
+              transform.getInputRowSets(),
+              rowSetSize);
+          addFillRatio(
+              writer,
+              "hop_transform_output_buffer_fill_ratio",
+              labels,
+              outputBufferSize,
+              transform.getOutputRowSets(),
+              rowSetSize);
+        }
+
+        if (component instanceof BaseTransform) {
+          TransformTimings timings = ((BaseTransform) component).getTransformTimings();
+          if (timings != null) {
+            addTimings(writer, labels, timings);
+          }
+        }
+      }
+    }
+  }
+
+  private void addFillRatio(
+      OpenMetricsWriter writer,
+      String family,
+      String[] labels,
+      long bufferSize,
+      List<IRowSet> rowSets,
+      int rowSetSize) {
+    if (rowSets == null || rowSets.isEmpty()) {
+      return;
+    }
+    writer.sample(family, "", labels, (double) bufferSize / ((long) rowSetSize * rowSets.size()));
+  }
+
+  private void addTimings(OpenMetricsWriter writer, String[] labels, TransformTimings timings) {
+    writer.sample(
+        "hop_transform_get_row_seconds",
+        "_total",
+        labels,
+        timings.getGetRowNanos() / NANOS_PER_SECOND);
+    writer.sample(
+        "hop_transform_put_row_seconds",
+        "_total",
+        labels,
+        timings.getPutRowNanos() / NANOS_PER_SECOND);
+
+    LatencyHistogram histogram = timings.getProcessingLatency();
+    long[] upperBoundsNanos = LatencyHistogram.getUpperBoundsNanos();
+    double[] upperBounds = new double[upperBoundsNanos.length];
+    for (int i = 0; i < upperBounds.length; i++) {
+      upperBounds[i] = upperBoundsNanos[i] / NANOS_PER_SECOND;
+    }
+    writer.histogram(
+        "hop_transform_processing_seconds",
+        labels,
+        upperBounds,
+        histogram.getCounts(),
+        histogram.getSumNanos() / NANOS_PER_SECOND);
+  }
+
+  private void addConnectionPoolMetrics(OpenMetricsWriter writer) {
+    writer.family(
+        "hop_database_pool_connections",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "The number of borrowed and idle connections in a connection pool");
+    writer.family(
+        "hop_database_pool_max_connections",
+        OpenMetricsWriter.TYPE_GAUGE,
+        "The maximum number of connections in a connection pool");
+    writer.family(
+        "hop_database_pool_borrows",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The number of connections borrowed from a connection pool");
+    writer.family(
+        "hop_database_pool_borrow_wait_seconds",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The time spent waiting for connections from a connection pool");
+
+    for (ConnectionPoolUtil.PoolStatistics statistics : ConnectionPoolUtil.getPoolStatistics()) {
+      String[] labels = {
+        "database", statistics.getDatabaseName(), "partition", statistics.getPartitionId(),
+      };
+      writer.sample(
+          "hop_database_pool_connections",
+          "",
+          new String[] {labels[0], labels[1], labels[2], labels[3], "state", "borrowed"},
+          (long) statistics.getBorrowed());
+      writer.sample(
+          "hop_database_pool_connections",
+          "",
+          new String[] {labels[0], labels[1], labels[2], labels[3], "state", "idle"},
+          (long) statistics.getIdle());
+      writer.sample(
+          "hop_database_pool_max_connections", "", labels, (long) statistics.getMaximumSize());
+      writer.sample("hop_database_pool_borrows", "_total", labels, statistics.getBorrowCount());
+      writer.sample(
+          "hop_database_pool_borrow_wait_seconds",
+          "_total",
+          labels,
+          statistics.getTotalWaitMillis() / MILLIS_PER_SECOND);
+    }
+  }
+
+  private void addVfsMetrics(OpenMetricsWriter writer) {
+    writer.family(
+        "hop_vfs_resolves",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The number of files resolved by the VFS file system manager");
+    writer.family(
+        "hop_vfs_cache_hits",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The number of files found in the cache of resolved files");
+    writer.family(
+        "hop_vfs_resolve_failures",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The number of files which couldn't be resolved");
+    writer.family(
+        "hop_vfs_resolve_seconds",
+        OpenMetricsWriter.TYPE_COUNTER,
+        "The time spent resolving files");
+
+    for (HopVfs.SchemeStatistics statistics : HopVfs.getSchemeStatistics()) {
+      String[] labels = {"scheme", statistics.getScheme()};
+      writer.sample("hop_vfs_resolves", "_total", labels, statistics.getResolveCount());
+      writer.sample("hop_vfs_cache_hits", "_total", labels, statistics.getCacheHitCount());
+      writer.sample("hop_vfs_resolve_failures", "_total", labels, statistics.getFailureCount());
+      writer.sample(
+          "hop_vfs_resolve_seconds",
+          "_total",
+          labels,
+          statistics.getTotalResolveMillis() / MILLIS_PER_SECOND);
+    }
+  }
+
+  public String toString() {
+    return "Metrics IHandler";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gives back the compact status of a pipeline: the transforms that changed since the sequence
+ * number given by the client and the new log lines. When nothing changed the request can wait
+ * (long poll) until something does, up to the given number of milliseconds.
+ */
+@HopServerServlet(
+    id = "pipelineStatusDelta",
+    name = "Get the changes in the status of a pipeline since a sequence number")
+public class GetPipelineStatusDeltaServlet extends BaseHttpServlet implements IHopServerPlugin {
+
+  private static final Class<?> PKG = GetPipelineStatusDeltaServlet.class; // For Translator
+
+  private static final long serialVersionUID = -2874130549357206394L;
+
+  public static final String CONTEXT_PATH = "/hop/pipelineStatusDelta";
+
+  /** The maximum time a request waits for a change */
+  public static final long MAX_WAIT_MILLIS = 30000L;
+
+  /** How often the status is checked while waiting for a change */
+  private static final long CHECK_INTERVAL_MILLIS = 100L;
+
+  public GetPipelineStatusDeltaServlet() {}
+
+  public GetPipelineStatusDeltaServlet(PipelineMap pipelineMap) {
+    super(pipelineMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    if (log.isDebug()) {
+      logDebug(
+          BaseMessages.getString(PKG, "GetPipelineStatusDeltaServlet.Log.StatusDeltaRequested"));
+    }
+
+    String pipelineName = request.getParameter("name");
+    String id = request.getParameter("id");
+    long clientSequence = Const.toLong(request.getParameter("seq"), 0L);
+    int startLineNr = Const.toInt(request.getParameter("from"), 0);
+    long waitMillis =
+        Math.max(0L, Math.min(MAX_WAIT_MILLIS, Const.toLong(request.getParameter("wait"), 0L)));
+
+    HopServerObjectEntry entry;
+    if (Utils.isEmpty(id)) {
+      entry = getPipelineMap().getFirstServerObjectEntry(pipelineName);
+    } else {
+      entry = new HopServerObjectEntry(pipelineName, id);
+    }
+    IPipelineEngine<PipelineMeta> pipeline =
+        entry == null ? null : getPipelineMap().getPipeline(entry);
+    PipelineStatusTracker tracker =
+        pipeline == null ? null : getPipelineMap().getStatusTracker(entry);
+    if (pipeline == null || tracker == null) {
+      response.sendError(
+          HttpServletResponse.SC_NOT_FOUND,
+          BaseMessages.getString(
+              PKG, "PipelineStatusServlet.Log.CoundNotFindSpecPipeline", pipelineName));
+      return;
+    }
+
+    try {
+      HopServerPipelineStatusDelta delta =
+          getStatusDelta(pipeline, entry, tracker, clientSequence, startLineNr, waitMillis);
+
+      byte[] data = delta.toJson().getBytes(StandardCharsets.UTF_8);
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType("application/json");
+      response.setCharacterEncoding("UTF-8");
+      response.setContentLength(data.length);
+      OutputStream out = response.getOutputStream();
+      out.write(data);
+      out.flush();
+      response.flushBuffer();
+    } catch (HopException e) {
+      throw new ServletException("Unable to get the changes in the pipeline status", e);
+    }
+  }
+
+  private HopServerPipelineStatusDelta getStatusDelta(
+      IPipelineEngine<PipelineMeta> pipeline,
+      HopServerObjectEntry entry,
+      PipelineStatusTracker tracker,
+      long clientSequence,
+      int startLineNr,
+      long waitMillis)
+      throws HopException {
+    long deadline = System.currentTimeMillis() + waitMillis;
+    String logChannelId = pipeline.getLogChannel().getLogChannelId();
+
+    while (true) {
+      long sequence = tracker.update(pipeline);
+      int lastLineNr = HopLogStore.getLastBufferLineNr();
+      String logText = getLogText(logChannelId, startLineNr, lastLineNr);
+
+      boolean changed =
+          sequence != clientSequence || !logText.isEmpty() || pipeline.isFinished();
+      if (changed || System.currentTimeMillis() >= deadline) {
+        HopServerPipelineStatusDelta delta =
+            new HopServerPipelineStatusDelta(
+                entry.getName(), entry.getId(), pipeline.getStatusDescription());
+        delta.setSequence(sequence);
+        delta.setPipelineChanged(tracker.isPipelineChangedSince(clientSequence));
+        delta.setPaused(pipeline.isPaused());
+        delta.setExecutionStartDate(pipeline.getExecutionStartDate());
+        delta.setExecutionEndDate(pipeline.getExecutionEndDate());
+        delta.setFirstLoggingLineNr(startLineNr);
+        delta.setLastLoggingLineNr(Math.max(startLineNr, lastLineNr));
+        delta.setLoggingString(logText);
+        delta.setTransformStatusList(tracker.getChangesSince(clientSequence));
+        return delta;
+      }
+
+      try {
+        Thread.sleep(CHECK_INTERVAL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException("Interrupted while waiting for changes in the pipeline status", e);
+      }
+    }
+  }
+
+  private String getLogText(String logChannelId, int startLineNr, int lastLineNr)
+      throws HopException {
+    try {
+      return HopLogStore.getAppender()
+          .getBuffer(logChannelId, false, startLineNr, lastLineNr)
+          .toString();
+    } catch (OutOfMemoryError error) {
+      throw new HopException("Log string is too long", error);
+    }
+  }
+
+  public String toString() {
+    return "Pipeline Status Delta IHandler";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
@@ -119,6 +119,12 @@ public class HopServer implements Runnable, IHasHopMetadataProvider {
       description = "Specify the ID of the pipeline or workflow to query")
   private String id;
 
+  @CommandLine.Option(
+      names = {"-mc", "--metadata-cache"},
+      description =
+          "Keep the JSON metadata in memory until it's changed instead of reading it every time")
+  private boolean metadataCache;
+
   private WebServer webServer;
   private HopServerConfig config;
   private boolean allOK;
@@ -264,6 +270,13 @@ public class HopServer implements Runnable, IHasHopMetadataProvider {
       //
       addMetadataFolderProvider();
 
+      // Long running servers can keep the metadata in memory
+      //
+      if (metadataCache || config.isMetadataCacheEnabled()) {
+        config.setMetadataCacheEnabled(true);
+        metadataProvider.setCachingEnabled(true);
+      }
+
       // Only query?
       //
       if (handleQueryOptions()) {
@@ -49,6 +49,7 @@ public class HopServerConfig implements IXml {
   public static final String XML_TAG_ACCEPT_QUEUE_SIZE = "acceptQueueSize";
   public static final String XML_TAG_LOW_RES_MAX_IDLE_TIME = "lowResourcesMaxIdleTime";
   public static final String XML_METADATA_FOLDER = "metadata_folder";
+  public static final String XML_METADATA_CACHE = "metadata_cache";
 
   private HopServer hopServer;
 
@@ -73,6 +74,8 @@ public class HopServerConfig implements IXml {
 
   private String metadataFolder;
 
+  private boolean metadataCacheEnabled;
+
   private IVariables variables;
 
   /**
@@ -113,6 +116,7 @@ public class HopServerConfig implements IXml {
     XmlHandler.addTagValue("max_log_timeout_minutes", maxLogTimeoutMinutes);
     XmlHandler.addTagValue("object_timeout_minutes", objectTimeoutMinutes);
     XmlHandler.addTagValue(XML_METADATA_FOLDER, metadataFolder);
+    xml.append(XmlHandler.addTagValue(XML_METADATA_CACHE, metadataCacheEnabled));
 
     xml.append(XmlHandler.openTag(XML_TAG_SEQUENCES));
     for (HopServerSequence hopServerSequence : hopServerSequences) {
@@ -147,6 +151,7 @@ public class HopServerConfig implements IXml {
     maxLogTimeoutMinutes = Const.toInt(XmlHandler.getTagValue(node, "max_log_timeout_minutes"), 0);
     objectTimeoutMinutes = Const.toInt(XmlHandler.getTagValue(node, "object_timeout_minutes"), 0);
     metadataFolder = XmlHandler.getTagValue(node, XML_METADATA_FOLDER);
+    metadataCacheEnabled = XmlHandler.getTagBoolean(node, XML_METADATA_CACHE, false);
 
     // Read sequence information
     //
@@ -465,6 +470,20 @@ public class HopServerConfig implements IXml {
     this.metadataFolder = metadataFolder;
   }
 
+  /**
+   * Gets metadataCacheEnabled
+   *
+   * @return true if the JSON metadata is kept in memory until it's changed
+   */
+  public boolean isMetadataCacheEnabled() {
+    return metadataCacheEnabled;
+  }
+
+  /** @param metadataCacheEnabled The metadataCacheEnabled to set */
+  public void setMetadataCacheEnabled(boolean metadataCacheEnabled) {
+    this.metadataCacheEnabled = metadataCacheEnabled;
+  }
+
   /**
    * Gets metadataProvider
    *
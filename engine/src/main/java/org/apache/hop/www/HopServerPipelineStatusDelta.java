@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The compact status of a pipeline on a Hop server: only the transforms that changed since the
+ * sequence number the client saw last and the log lines that were added since the last line the
+ * client received.
+ */
+public class HopServerPipelineStatusDelta {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper()
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+          .addMixIn(TransformStatus.class, TransformStatusMixIn.class);
+
+  private String id;
+
+  private String pipelineName;
+
+  private String statusDescription;
+
+  private long sequence;
+
+  private boolean pipelineChanged;
+
+  private boolean paused;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+  private Date executionStartDate;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+  private Date executionEndDate;
+
+  private int firstLoggingLineNr;
+
+  private int lastLoggingLineNr;
+
+  private String loggingString;
+
+  private List<TransformStatus> transformStatusList;
+
+  public HopServerPipelineStatusDelta() {
+    transformStatusList = new ArrayList<>();
+  }
+
+  public HopServerPipelineStatusDelta(String pipelineName, String id, String statusDescription) {
+    this();
+    this.pipelineName = pipelineName;
+    this.id = id;
+    this.statusDescription = statusDescription;
+  }
+
+  public String toJson() throws HopException {
+    try {
+      return MAPPER.writeValueAsString(this);
+    } catch (Exception e) {
+      throw new HopException("Unable to convert the pipeline status delta to JSON", e);
+    }
+  }
+
+  public static HopServerPipelineStatusDelta fromJson(String json) throws HopException {
+    try {
+      return MAPPER.readValue(json, HopServerPipelineStatusDelta.class);
+    } catch (Exception e) {
+      throw new HopException("Unable to read the pipeline status delta from JSON", e);
+    }
+  }
+
+  /**
+   * Apply this delta to the complete status the client keeps: the changed transforms replace the
+   * ones with the same name and copy, the pipeline state and the new log lines are copied over.
+   *
+   * @param pipelineStatus the complete status to update
+   */
+  public void applyTo(HopServerPipelineStatus pipelineStatus) {
+    pipelineStatus.setId(id);
+    pipelineStatus.setPipelineName(pipelineName);
+    pipelineStatus.setStatusDescription(statusDescription);
+    pipelineStatus.setPaused(paused);
+    pipelineStatus.setExecutionStartDate(executionStartDate);
+    pipelineStatus.setExecutionEndDate(executionEndDate);
+    pipelineStatus.setFirstLoggingLineNr(firstLoggingLineNr);
+    pipelineStatus.setLastLoggingLineNr(lastLoggingLineNr);
+    pipelineStatus.setLoggingString(loggingString);
+    pipelineStatus.setLogDate(new Date());
+
+    List<TransformStatus> transformStatusList = pipelineStatus.getTransformStatusList();
+    for (TransformStatus changed : this.transformStatusList) {
+      boolean replaced = false;
+      for (int i = 0; i < transformStatusList.size() && !replaced; i++) {
+        TransformStatus transformStatus = transformStatusList.get(i);
+        if (transformStatus.getTransformName().equals(changed.getTransformName())
+            && transformStatus.getCopy() == changed.getCopy()) {
+          transformStatusList.set(i, changed);
+          replaced = true;
+        }
+      }
+      if (!replaced) {
+        transformStatusList.add(changed);
+      }
+    }
+  }
+
+  /** Leave out the derived and sampling information of the transform status */
+  @JsonIgnoreProperties({"xml", "pipelineLogFields", "peekFields", "sampleRowMeta", "sampleRows"})
+  private abstract static class TransformStatusMixIn {}
+
+  /**
+   * Gets id
+   *
+   * @return value of id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /** @param id The id to set */
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Gets pipelineName
+   *
+   * @return value of pipelineName
+   */
+  public String getPipelineName() {
+    return pipelineName;
+  }
+
+  /** @param pipelineName The pipelineName to set */
+  public void setPipelineName(String pipelineName) {
+    this.pipelineName = pipelineName;
+  }
+
+  /**
+   * Gets statusDescription
+   *
+   * @return value of statusDescription
+   */
+  public String getStatusDescription() {
+    return statusDescription;
+  }
+
+  /** @param statusDescription The statusDescription to set */
+  public void setStatusDescription(String statusDescription) {
+    this.statusDescription = statusDescription;
+  }
+
+  /**
+   * Gets sequence
+   *
+   * @return value of sequence
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /** @param sequence The sequence to set */
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  /**
+   * Gets pipelineChanged
+   *
+   * @return value of pipelineChanged
+   */
+  public boolean isPipelineChanged() {
+    return pipelineChanged;
+  }
+
+  /** @param pipelineChanged The pipelineChanged to set */
+  public void setPipelineChanged(boolean pipelineChanged) {
+    this.pipelineChanged = pipelineChanged;
+  }
+
+  /**
+   * Gets paused
+   *
+   * @return value of paused
+   */
+  public boolean isPaused() {
+    return paused;
+  }
+
+  /** @param paused The paused to set */
+  public void setPaused(boolean paused) {
+    this.paused = paused;
+  }
+
+  /**
+   * Gets executionStartDate
+   *
+   * @return value of executionStartDate
+   */
+  public Date getExecutionStartDate() {
+    return executionStartDate;
+  }
+
+  /** @param executionStartDate The executionStartDate to set */
+  public void setExecutionStartDate(Date executionStartDate) {
+    this.executionStartDate = executionStartDate;
+  }
+
+  /**
+   * Gets executionEndDate
+   *
+   * @return value of executionEndDate
+   */
+  public Date getExecutionEndDate() {
+    return executionEndDate;
+  }
+
+  /** @param executionEndDate The executionEndDate to set */
+  public void setExecutionEndDate(Date executionEndDate) {
+    this.executionEndDate = executionEndDate;
+  }
+
+  /**
+   * Gets firstLoggingLineNr
+   *
+   * @return value of firstLoggingLineNr
+   */
+  public int getFirstLoggingLineNr() {
+    return firstLoggingLineNr;
+  }
+
+  /** @param firstLoggingLineNr The firstLoggingLineNr to set */
+  public void setFirstLoggingLineNr(int firstLoggingLineNr) {
+    this.firstLoggingLineNr = firstLoggingLineNr;
+  }
+
+  /**
+   * Gets lastLoggingLineNr
+   *
+   * @return value of lastLoggingLineNr
+   */
+  public int getLastLoggingLineNr() {
+    return lastLoggingLineNr;
+  }
+
+  /** @param lastLoggingLineNr The lastLoggingLineNr to set */
+  public void setLastLoggingLineNr(int lastLoggingLineNr) {
+    this.lastLoggingLineNr = lastLoggingLineNr;
+  }
+
+  /**
+   * Gets loggingString
+   *
+   * @return value of loggingString
+   */
+  public String getLoggingString() {
+    return loggingString;
+  }
+
+  /** @param loggingString The loggingString to set */
+  public void setLoggingString(String loggingString) {
+    this.loggingString = loggingString;
+  }
+
+  /**
+   * Gets transformStatusList
+   *
+   * @return value of transformStatusList
+   */
+  public List<TransformStatus> getTransformStatusList() {
+    return transformStatusList;
+  }
+
+  /** @param transformStatusList The transformStatusList to set */
+  public void setTransformStatusList(List<TransformStatus> transformStatusList) {
+    this.transformStatusList = transformStatusList;
+  }
+}
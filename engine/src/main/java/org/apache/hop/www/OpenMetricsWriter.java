@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a text document in the OpenMetrics exposition format. The samples of a metric family can
+ * be added in any order, they are grouped per family when the document is written.
+ */
+public class OpenMetricsWriter {
+
+  public static final String CONTENT_TYPE =
+      "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+  public static final String TYPE_COUNTER = "counter";
+  public static final String TYPE_GAUGE = "gauge";
+  public static final String TYPE_HISTOGRAM = "histogram";
+
+  private final Map<String, Family> families = new LinkedHashMap<>();
+
+  /**
+   * Declare a metric family. Declaring the same family again is allowed.
+   *
+   * @param name The name of the family, without the _total suffix of counters
+   * @param type The type: counter, gauge or histogram
+   * @param help The description of the family
+   */
+  public void family(String name, String type, String help) {
+    families.computeIfAbsent(name, key -> new Family(name, type, help));
+  }
+
+  /**
+   * Add a sample to a family declared before.
+   *
+   * @param family The name of the family
+   * @param suffix The suffix of the sample name like _total, _bucket or an empty string
+   * @param labels The label names and values, alternating
+   * @param value The value of the sample
+   */
+  public void sample(String family, String suffix, String[] labels, double value) {
+    addSample(family, suffix, labels, formatValue(value));
+  }
+
+  /** Add a sample with a whole number as value. */
+  public void sample(String family, String suffix, String[] labels, long value) {
+    addSample(family, suffix, labels, Long.toString(value));
+  }
+
+  private void addSample(String family, String suffix, String[] labels, String value) {
+    Family metricFamily = families.get(family);
+    if (metricFamily == null) {
+      throw new IllegalArgumentException("Metric family '" + family + "' wasn't declared");
+    }
+    StringBuilder line = new StringBuilder(family).append(suffix);
+    if (labels != null && labels.length > 0) {
+      line.append('{');
+      for (int i = 0; i + 1 < labels.length; i += 2) {
+        if (i > 0) {
+          line.append(',');
+        }
+        line.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+      }
+      line.append('}');
+    }
+    line.append(' ').append(value);
+    metricFamily.samples.add(line.toString());
+  }
+
+  /**
+   * Add the samples of a histogram
+   *
+   * @param family The name of the histogram family
+   * @param labels The label names and values, alternating
+   * @param upperBounds The upper bounds of the buckets, without the last unbounded one
+   * @param counts The non-cumulative counts of all buckets, including the last unbounded one
+   * @param sum The sum of all observed values
+   */
+  public void histogram(
+      String family, String[] labels, double[] upperBounds, long[] counts, double sum) {
+    long cumulative = 0;
+    for (int i = 0; i < counts.length; i++) {
+      cumulative += counts[i];
+      String le = i < upperBounds.length ? formatValue(upperBounds[i]) : "+Inf";
+      sample(family, "_bucket", withLabel(labels, "le", le), cumulative);
+    }
+    sample(family, "_count", labels, cumulative);
+    sample(family, "_sum", labels, sum);
+  }
+
+  /** @return The OpenMetrics document, terminated with # EOF */
+  public String getText() {
+    StringBuilder text = new StringBuilder();
+    for (Family family : families.values()) {
+      if (family.samples.isEmpty()) {
+        continue;
+      }
+      text.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+      text.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+      for (String sample : family.samples) {
+        text.append(sample).append('\n');
+      }
+    }
+    text.append("# EOF\n");
+    return text.toString();
+  }
+
+  private static String[] withLabel(String[] labels, String name, String value) {
+    int length = labels == null ? 0 : labels.length;
+    String[] result = new String[length + 2];
+    if (labels != null) {
+      System.arraycopy(labels, 0, result, 0, length);
+    }
+    result[length] = name;
+    result[length + 1] = value;
+    return result;
+  }
+
+  static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  static String formatValue(double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    if (Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    return Double.toString(value);
+  }
+
+  private static class Family {
+    private final String name;
+    private final String type;
+    private final String help;
+    private final List<String> samples = new ArrayList<>();
+
+    Family(String name, String type, String help) {
+      this.name = name;
+      this.type = type;
+      this.help = help;
+    }
+  }
+}
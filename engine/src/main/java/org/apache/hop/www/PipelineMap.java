@@ -120,6 +120,18 @@ public class PipelineMap {
     pipelineMap.remove(entry);
   }
 
+  /**
+   * @param entry The HopServer pipeline object
+   * @return the tracker of the status changes of the pipeline or null if the pipeline isn't known
+   */
+  public PipelineStatusTracker getStatusTracker(HopServerObjectEntry entry) {
+    PipelineData pipelineData = pipelineMap.get(entry);
+    if (pipelineData != null) {
+      return pipelineData.getStatusTracker();
+    }
+    return null;
+  }
+
   public List<HopServerObjectEntry> getPipelineObjects() {
     return new ArrayList<>(pipelineMap.keySet());
   }
@@ -180,6 +192,8 @@ public class PipelineMap {
 
     private PipelineConfiguration configuration;
 
+    private PipelineStatusTracker statusTracker;
+
     PipelineData(IPipelineEngine<PipelineMeta> pipeline, PipelineConfiguration configuration) {
       this.pipeline = pipeline;
       this.configuration = configuration;
@@ -200,5 +214,12 @@ public class PipelineMap {
     public void setConfiguration(PipelineConfiguration configuration) {
       this.configuration = configuration;
     }
+
+    public synchronized PipelineStatusTracker getStatusTracker() {
+      if (statusTracker == null) {
+        statusTracker = new PipelineStatusTracker();
+      }
+      return statusTracker;
+    }
   }
 }
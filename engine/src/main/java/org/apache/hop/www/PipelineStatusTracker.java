@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps track of the changes in the status of a pipeline running on the server. Every time a
+ * change is detected the sequence number is increased and the changed transforms are stamped with
+ * it. This allows clients to only ask for the transforms that changed since the last sequence
+ * number they saw.
+ */
+public class PipelineStatusTracker {
+
+  private long sequence;
+
+  private String pipelineState;
+  private long pipelineSequence;
+
+  private final Map<String, TrackedTransform> transforms;
+
+  public PipelineStatusTracker() {
+    transforms = new LinkedHashMap<>();
+  }
+
+  /**
+   * Compare the current status of the pipeline with the status seen during the previous update.
+   *
+   * @param pipeline the pipeline to look at
+   * @return the sequence number after the update
+   */
+  public synchronized long update(IPipelineEngine<PipelineMeta> pipeline) {
+    long nextSequence = sequence + 1;
+    boolean changed = false;
+
+    String state =
+        pipeline.getStatusDescription() + "/" + pipeline.isPaused() + "/" + pipeline.isFinished();
+    if (!state.equals(pipelineState)) {
+      pipelineState = state;
+      pipelineSequence = nextSequence;
+      changed = true;
+    }
+
+    for (IEngineComponent component : pipeline.getComponents()) {
+      if (component.isRunning() || component.getStatus() != ComponentExecutionStatus.STATUS_EMPTY) {
+        TransformStatus transformStatus = new TransformStatus(component);
+        String key = component.getName() + "." + component.getCopyNr();
+        TrackedTransform tracked = transforms.get(key);
+        if (tracked == null || !hasSameMetrics(tracked.transformStatus, transformStatus)) {
+          transforms.put(key, new TrackedTransform(transformStatus, nextSequence));
+          changed = true;
+        } else {
+          tracked.transformStatus = transformStatus;
+        }
+      }
+    }
+
+    if (changed) {
+      sequence = nextSequence;
+    }
+    return sequence;
+  }
+
+  /**
+   * @param clientSequence the last sequence number the client saw, 0 if it saw nothing yet
+   * @return true if the state of the pipeline itself changed after the given sequence number
+   */
+  public synchronized boolean isPipelineChangedSince(long clientSequence) {
+    return pipelineSequence > getEffectiveSequence(clientSequence);
+  }
+
+  /**
+   * @param clientSequence the last sequence number the client saw, 0 if it saw nothing yet
+   * @return the status of the transforms that changed after the given sequence number
+   */
+  public synchronized List<TransformStatus> getChangesSince(long clientSequence) {
+    long since = getEffectiveSequence(clientSequence);
+    List<TransformStatus> changes = new ArrayList<>();
+    for (TrackedTransform tracked : transforms.values()) {
+      if (tracked.sequence > since) {
+        changes.add(tracked.transformStatus);
+      }
+    }
+    return changes;
+  }
+
+  /** @return the current sequence number */
+  public synchronized long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * A client can only know about a sequence number we handed out. If it's ahead of us it talked to
+   * a previous instance of the server or pipeline: give it everything.
+   */
+  private long getEffectiveSequence(long clientSequence) {
+    return clientSequence > sequence ? 0L : clientSequence;
+  }
+
+  private static boolean hasSameMetrics(TransformStatus one, TransformStatus two) {
+    return one.getLinesRead() == two.getLinesRead()
+        && one.getLinesWritten() == two.getLinesWritten()
+        && one.getLinesInput() == two.getLinesInput()
+        && one.getLinesOutput() == two.getLinesOutput()
+        && one.getLinesUpdated() == two.getLinesUpdated()
+        && one.getLinesRejected() == two.getLinesRejected()
+        && one.getErrors() == two.getErrors()
+        && one.getInputBufferSize() == two.getInputBufferSize()
+        && one.getOutputBufferSize() == two.getOutputBufferSize()
+        && one.isPaused() == two.isPaused()
+        && one.isStopped() == two.isStopped()
+        && Objects.equals(one.getStatusDescription(), two.getStatusDescription());
+  }
+
+  private static class TrackedTransform {
+    private TransformStatus transformStatus;
+    private final long sequence;
+
+    private TrackedTransform(TransformStatus transformStatus, long sequence) {
+      this.transformStatus = transformStatus;
+      this.sequence = sequence;
+    }
+  }
+}
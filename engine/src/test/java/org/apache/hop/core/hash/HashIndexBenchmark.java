@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the open addressing hash indexes with the chained hash indexes they replaced and with a
+ * plain HashMap: the insert benchmarks build an index of {@value #ENTRIES} entries, the lookup
+ * benchmarks look up every key of such an index once. The results are per entry, the GC profiler
+ * reports the bytes allocated per entry as gc.alloc.rate.norm.
+ *
+ * <p>Run it with: java -cp &lt;test classpath&gt; org.apache.hop.core.hash.HashIndexBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashIndexBenchmark {
+
+  private static final int ENTRIES = 100000;
+
+  private long[] longKeys;
+  private IRowMeta keyMeta;
+  private IRowMeta valueMeta;
+  private byte[][] byteKeys;
+  private byte[][] byteValues;
+  private RowMetaAndData[] rowKeys;
+  private Object[][] rowValues;
+
+  private LongHashIndex longHashIndex;
+  private ChainedLongHashIndex chainedLongHashIndex;
+  private Map<Long, Long> longHashMap;
+  private ByteArrayHashIndex byteArrayHashIndex;
+  private ChainedByteArrayHashIndex chainedByteArrayHashIndex;
+  private Map<RowMetaAndData, Object[]> rowHashMap;
+
+  @Setup(Level.Trial)
+  public void setUp() throws HopValueException {
+    keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+    valueMeta = new RowMeta();
+    valueMeta.addValueMeta(new ValueMetaString("description"));
+
+    Random random = new Random(1234);
+    longKeys = new long[ENTRIES];
+    byteKeys = new byte[ENTRIES][];
+    byteValues = new byte[ENTRIES][];
+    rowKeys = new RowMetaAndData[ENTRIES];
+    rowValues = new Object[ENTRIES][];
+    for (int i = 0; i < ENTRIES; i++) {
+      longKeys[i] = random.nextLong();
+      Object[] key = new Object[] {(long) i, "code-" + random.nextInt(1000)};
+      rowKeys[i] = new RowMetaAndData(keyMeta, key);
+      byteKeys[i] = RowMeta.extractData(keyMeta, key);
+      rowValues[i] = new Object[] {"description of entry " + i};
+      byteValues[i] = RowMeta.extractData(valueMeta, rowValues[i]);
+    }
+
+    longHashIndex = insertLongHashIndex();
+    chainedLongHashIndex = insertChainedLongHashIndex();
+    longHashMap = insertLongHashMap();
+    byteArrayHashIndex = insertByteArrayHashIndex();
+    chainedByteArrayHashIndex = insertChainedByteArrayHashIndex();
+    rowHashMap = insertRowHashMap();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public LongHashIndex insertLongHashIndex() throws HopValueException {
+    LongHashIndex index = new LongHashIndex();
+    for (long key : longKeys) {
+      index.put(key, key);
+    }
+    return index;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public ChainedLongHashIndex insertChainedLongHashIndex() {
+    ChainedLongHashIndex index = new ChainedLongHashIndex();
+    for (long key : longKeys) {
+      index.put(key, key);
+    }
+    return index;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public Map<Long, Long> insertLongHashMap() {
+    Map<Long, Long> map = new HashMap<>();
+    for (long key : longKeys) {
+      map.put(key, key);
+    }
+    return map;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public ByteArrayHashIndex insertByteArrayHashIndex() throws HopValueException {
+    ByteArrayHashIndex index = new ByteArrayHashIndex(keyMeta);
+    for (int i = 0; i < ENTRIES; i++) {
+      index.put(byteKeys[i], byteValues[i]);
+    }
+    return index;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public ChainedByteArrayHashIndex insertChainedByteArrayHashIndex() throws HopValueException {
+    ChainedByteArrayHashIndex index = new ChainedByteArrayHashIndex(keyMeta);
+    for (int i = 0; i < ENTRIES; i++) {
+      index.put(byteKeys[i], byteValues[i]);
+    }
+    return index;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public Map<RowMetaAndData, Object[]> insertRowHashMap() {
+    Map<RowMetaAndData, Object[]> map = new HashMap<>();
+    for (int i = 0; i < ENTRIES; i++) {
+      map.put(rowKeys[i], rowValues[i]);
+    }
+    return map;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public long lookupLongHashIndex() throws HopValueException {
+    long sum = 0;
+    for (long key : longKeys) {
+      sum += longHashIndex.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public long lookupChainedLongHashIndex() {
+    long sum = 0;
+    for (long key : longKeys) {
+      sum += chainedLongHashIndex.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public long lookupLongHashMap() {
+    long sum = 0;
+    for (long key : longKeys) {
+      sum += longHashMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public long lookupByteArrayHashIndex() throws HopValueException {
+    long sum = 0;
+    for (byte[] key : byteKeys) {
+      sum += byteArrayHashIndex.get(key).length;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public long lookupChainedByteArrayHashIndex() throws HopValueException {
+    long sum = 0;
+    for (byte[] key : byteKeys) {
+      sum += chainedByteArrayHashIndex.get(key).length;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public long lookupRowHashMap() {
+    long sum = 0;
+    for (RowMetaAndData key : rowKeys) {
+      sum += rowHashMap.get(key).length;
+    }
+    return sum;
+  }
+
+  /** The way LongHashIndex was implemented before: one entry object per key */
+  private static final class ChainedLongHashIndex {
+    private Entry[] index = new Entry[512];
+    private int size;
+
+    Long get(long key) {
+      for (Entry check = index[Long.hashCode(key) & (index.length - 1)];
+          check != null;
+          check = check.next) {
+        if (check.key == key) {
+          return check.value;
+        }
+      }
+      return null;
+    }
+
+    void put(long key, long value) {
+      int hashCode = Long.hashCode(key);
+      int indexPointer = hashCode & (index.length - 1);
+      for (Entry check = index[indexPointer]; check != null; check = check.next) {
+        if (check.key == key) {
+          check.value = value;
+          return;
+        }
+      }
+      index[indexPointer] = new Entry(hashCode, key, value, index[indexPointer]);
+      if (++size >= (int) (index.length * 0.78f)) {
+        Entry[] newIndex = new Entry[index.length * 2];
+        for (Entry entry : index) {
+          while (entry != null) {
+            Entry next = entry.next;
+            int newPointer = entry.hashCode & (newIndex.length - 1);
+            entry.next = newIndex[newPointer];
+            newIndex[newPointer] = entry;
+            entry = next;
+          }
+        }
+        index = newIndex;
+      }
+    }
+
+    private static final class Entry {
+      private final int hashCode;
+      private final long key;
+      private long value;
+      private Entry next;
+
+      Entry(int hashCode, long key, long value, Entry next) {
+        this.hashCode = hashCode;
+        this.key = key;
+        this.value = value;
+        this.next = next;
+      }
+    }
+  }
+
+  /**
+   * The way ByteArrayHashIndex was implemented before: one entry object per key, keys hashed on
+   * their deserialized values
+   */
+  private static final class ChainedByteArrayHashIndex {
+    private final IRowMeta keyMeta;
+    private Entry[] index = new Entry[512];
+    private int size;
+
+    ChainedByteArrayHashIndex(IRowMeta keyMeta) {
+      this.keyMeta = keyMeta;
+    }
+
+    byte[] get(byte[] key) throws HopValueException {
+      int hashCode = ByteArrayHashIndex.generateHashCode(key, keyMeta);
+      for (Entry check = index[hashCode & (index.length - 1)];
+          check != null;
+          check = check.next) {
+        if (check.hashCode == hashCode && Arrays.equals(check.key, key)) {
+          return check.value;
+        }
+      }
+      return null;
+    }
+
+    void put(byte[] key, byte[] value) throws HopValueException {
+      int hashCode = ByteArrayHashIndex.generateHashCode(key, keyMeta);
+      int indexPointer = hashCode & (index.length - 1);
+      for (Entry check = index[indexPointer]; check != null; check = check.next) {
+        if (check.hashCode == hashCode && Arrays.equals(check.key, key)) {
+          check.value = value;
+          return;
+        }
+      }
+      index[indexPointer] = new Entry(hashCode, key, value, index[indexPointer]);
+      if (++size >= (int) (index.length * 0.78f)) {
+        Entry[] newIndex = new Entry[index.length * 2];
+        for (Entry entry : index) {
+          while (entry != null) {
+            Entry next = entry.next;
+            int newPointer = entry.hashCode & (newIndex.length - 1);
+            entry.next = newIndex[newPointer];
+            newIndex[newPointer] = entry;
+            entry = next;
+          }
+        }
+        index = newIndex;
+      }
+    }
+
+    private static final class Entry {
+      private final int hashCode;
+      private final byte[] key;
+      private byte[] value;
+      private Entry next;
+
+      Entry(int hashCode, byte[] key, byte[] value, Entry next) {
+        this.hashCode = hashCode;
+        this.key = key;
+        this.value = value;
+        this.next = next;
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(HashIndexBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
@@ -21,13 +21,22 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -37,6 +46,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
 
@@ -376,4 +386,47 @@ public class PipelineTest {
         "Original value defined at run execution",
         pipelineTest.getVariable(Const.INTERNAL_VARIABLE_ENTRY_CURRENT_FOLDER));
   }
+
+  @Test(timeout = 60000)
+  public void testRunWithBoundedInitThreadsAndSmallStacks() throws Exception {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    InjectorMeta injectorMeta = new InjectorMeta();
+    String injectorId = registry.getPluginId(TransformPluginType.class, injectorMeta);
+    TransformMeta injector = new TransformMeta(injectorId, "injector", injectorMeta);
+    DummyMeta dummyMeta = new DummyMeta();
+    String dummyId = registry.getPluginId(TransformPluginType.class, dummyMeta);
+    TransformMeta dummy = new TransformMeta(dummyId, "dummy", dummyMeta);
+    dummy.setCopies(50);
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(dummy);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, dummy));
+
+    LocalPipelineRunConfiguration config = new LocalPipelineRunConfiguration();
+    config.setTransformThreadStackSize("256");
+    config.setMaxInitThreads("4");
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setPipelineRunConfiguration(
+        new PipelineRunConfiguration("local", "", new ArrayList<>(), config));
+    pipeline.prepareExecution();
+    assertEquals(256 * 1024L, pipeline.getTransformThreadStackSize());
+    assertEquals(4, pipeline.getMaxInitThreads());
+
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    for (long i = 0; i < 1000; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+
+    long linesWritten = 0;
+    for (int copy = 0; copy < 50; copy++) {
+      linesWritten += pipeline.getTransform("dummy", copy).getLinesWritten();
+    }
+    assertEquals(0, pipeline.getResult().getNrErrors());
+    assertEquals(1000L, linesWritten);
+  }
 }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.localscheduled.LocalScheduledPipelineEngine;
+import org.apache.hop.pipeline.engines.localscheduled.LocalScheduledPipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a pipeline with a transform that has thousands of copies: an injector, a dummy with many
+ * copies and a dummy at the end. It measures the time it takes to initialize the transforms, pass
+ * the rows and wait for the pipeline to finish with different thread stack sizes and numbers of
+ * initialization threads, and on the scheduled engine. When a trial ends the peak number of
+ * threads and, on Linux, the peak resident set size of the benchmark JVM are printed.
+ *
+ * <p>Run it with: java -cp &lt;test classpath&gt; org.apache.hop.pipeline.PipelineThreadsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineThreadsBenchmark {
+
+  private static final int NR_ROWS = 100000;
+
+  @Param({"1000"})
+  public int copies;
+
+  /** The stack size of the transform threads in KB, empty for the JVM default */
+  @Param({"", "256"})
+  public String stackSize;
+
+  /** The maximum number of init threads, empty for one thread per transform copy */
+  @Param({"", "8"})
+  public String maxInitThreads;
+
+  private PipelineMeta pipelineMeta;
+  private IRowMeta rowMeta;
+
+  @Setup(Level.Trial)
+  public void setUp() throws HopException {
+    HopEnvironment.init();
+
+    pipelineMeta = new PipelineMeta();
+    TransformMeta injector = createTransformMeta("injector", new InjectorMeta());
+    TransformMeta copied = createTransformMeta("copies", new DummyMeta());
+    copied.setCopies(copies);
+    TransformMeta output = createTransformMeta("output", new DummyMeta());
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(copied);
+    pipelineMeta.addTransform(output);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, copied));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(copied, output));
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  private TransformMeta createTransformMeta(String name, ITransformMeta meta) {
+    String pluginId = PluginRegistry.getInstance().getPluginId(TransformPluginType.class, meta);
+    return new TransformMeta(pluginId, name, meta);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    String peakRss = "unknown";
+    Path status = Paths.get("/proc/self/status");
+    if (Files.exists(status)) {
+      for (String line : Files.readAllLines(status)) {
+        if (line.startsWith("VmHWM:")) {
+          peakRss = line.substring(6).trim();
+        }
+      }
+    }
+    System.out.println(
+        "Peak threads: "
+            + ManagementFactory.getThreadMXBean().getPeakThreadCount()
+            + ", peak RSS: "
+            + peakRss);
+  }
+
+  @Benchmark
+  public long runPipeline() throws HopException {
+    LocalPipelineRunConfiguration config = new LocalPipelineRunConfiguration();
+    config.setTransformThreadStackSize(stackSize);
+    config.setMaxInitThreads(maxInitThreads);
+
+    return run(new LocalPipelineEngine(pipelineMeta), config);
+  }
+
+  /** The same pipeline on the scheduled engine, the stack size doesn't apply to its workers. */
+  @Benchmark
+  public long runScheduledPipeline() throws HopException {
+    LocalScheduledPipelineRunConfiguration config = new LocalScheduledPipelineRunConfiguration();
+    config.setMaxInitThreads(maxInitThreads);
+
+    return run(new LocalScheduledPipelineEngine(pipelineMeta), config);
+  }
+
+  private long run(LocalPipelineEngine pipeline, LocalPipelineRunConfiguration config)
+      throws HopException {
+    pipeline.setPipelineRunConfiguration(
+        new PipelineRunConfiguration("local", "", new ArrayList<>(), config));
+    pipeline.prepareExecution();
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+
+    for (long i = 0; i < NR_ROWS; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+
+    return pipeline.getTransform("output", 0).getLinesWritten();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(PipelineThreadsBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LocalScheduledPipelineEngineTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  private TransformMeta createTransformMeta(String name, ITransformMeta meta, int copies) {
+    String pluginId = PluginRegistry.getInstance().getPluginId(TransformPluginType.class, meta);
+    TransformMeta transformMeta = new TransformMeta(pluginId, name, meta);
+    transformMeta.setCopies(copies);
+    return transformMeta;
+  }
+
+  /** injector - dummy (4 copies) - merge - output */
+  private PipelineMeta createPipelineMeta() {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    TransformMeta injector = createTransformMeta("injector", new InjectorMeta(), 1);
+    TransformMeta copies = createTransformMeta("copies", new DummyMeta(), 4);
+    TransformMeta merge = createTransformMeta("merge", new DummyMeta(), 1);
+    TransformMeta output = createTransformMeta("output", new DummyMeta(), 1);
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(copies);
+    pipelineMeta.addTransform(merge);
+    pipelineMeta.addTransform(output);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, copies));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(copies, merge));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(merge, output));
+    return pipelineMeta;
+  }
+
+  private LocalScheduledPipelineEngine runPipeline(String workerThreads, int nrRows)
+      throws Exception {
+    LocalScheduledPipelineRunConfiguration config = new LocalScheduledPipelineRunConfiguration();
+    config.setRowSetSize("100");
+    config.setWorkerThreads(workerThreads);
+
+    LocalScheduledPipelineEngine pipeline = new LocalScheduledPipelineEngine(createPipelineMeta());
+    pipeline.setPipelineRunConfiguration(
+        new PipelineRunConfiguration("scheduled", "", new ArrayList<>(), config));
+    pipeline.prepareExecution();
+
+    RowProducer rowProducer = pipeline.addRowProducer("injector", 0);
+    pipeline.startThreads();
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    for (long i = 0; i < nrRows; i++) {
+      rowProducer.putRow(rowMeta, new Object[] {i});
+    }
+    rowProducer.finished();
+    pipeline.waitUntilFinished();
+    return pipeline;
+  }
+
+  @Test
+  public void testRunOnSingleWorker() throws Exception {
+    LocalScheduledPipelineEngine pipeline = runPipeline("1", 20000);
+
+    assertEquals(1, pipeline.getWorkerThreads());
+    assertEquals(0, pipeline.getResult().getNrErrors());
+    assertEquals(0, pipeline.getScheduler().getNrActive());
+    assertTrue(pipeline.getScheduler().getPool().isShutdown());
+    long linesWritten = 0;
+    for (int copy = 0; copy < 4; copy++) {
+      linesWritten += pipeline.getTransform("copies", copy).getLinesWritten();
+    }
+    assertEquals(20000L, linesWritten);
+    assertEquals(20000L, pipeline.getTransform("output", 0).getLinesWritten());
+  }
+
+  @Test
+  public void testRunOnDefaultWorkers() throws Exception {
+    LocalScheduledPipelineEngine pipeline = runPipeline("", 1000);
+
+    assertEquals(Runtime.getRuntime().availableProcessors(), pipeline.getWorkerThreads());
+    assertEquals(0, pipeline.getResult().getNrErrors());
+    assertEquals(1000L, pipeline.getTransform("output", 0).getLinesWritten());
+  }
+}
@@ -41,6 +41,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -229,6 +230,73 @@ public class BaseTransformTest {
     assertFalse(meta1 == meta2);
   }
 
+  @Test
+  public void putRowsAndGetRowsInBatch() throws Exception {
+    IRowSet rs1 = new BlockingRowSet(10);
+    IRowSet rs2 = new QueueRowSet();
+
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> writer =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    writer.setStopped(false);
+    writer.setRepartitioning(TransformPartitioningMeta.PARTITIONING_METHOD_NONE);
+    writer.setOutputRowSets(Arrays.asList(rs1, rs2));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    Object[][] rows = new Object[][] {{1L}, {2L}, {3L}, {4L}};
+
+    writer.putRows(rowMeta, rows, 3);
+    assertEquals(3, rs1.size());
+    assertEquals(3, rs2.size());
+    assertEquals(6, writer.getLinesWritten());
+
+    BaseTransform<ITransformMeta, ITransformData> reader =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    reader.setStopped(false);
+    reader.setInputRowSets(new ArrayList<>(Arrays.asList(rs1)));
+
+    Object[][] read = reader.getRows(2);
+    assertEquals(2, read.length);
+    assertEquals(1L, read[0][0]);
+    assertEquals(2L, read[1][0]);
+
+    rs1.setDone();
+    read = reader.getRows(10);
+    assertEquals(1, read.length);
+    assertEquals(3L, read[0][0]);
+    assertNull(reader.getRows(10));
+    assertEquals(3, reader.getLinesRead());
+  }
+
+  @Test
+  public void getRowsWithRowHandlerWithoutBatchSupport() throws HopException {
+    BaseTransform baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setRowHandler(rowHandlerWithDefaultMethods());
+
+    Object[][] rows = baseTransform.getRows(10);
+    assertEquals(1, rows.length);
+  }
+
   @Test
   public void getRowWithRowHandler() throws HopException {
     BaseTransform baseTransform =
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the per-row cost of the transform line counters: a transform thread increments the
+ * lines read and written counters for every row, optionally while another thread polls them the
+ * way the status and metrics collectors do. The synchronized variant is the way the counters used
+ * to be implemented and serves as the baseline.
+ *
+ * <p>Run it with: java -cp &lt;test classpath&gt; org.apache.hop.pipeline.transform.TransformCountersBenchmark
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformCountersBenchmark {
+
+  private TransformMockHelper<ITransformMeta, ITransformData> mockHelper;
+  private BaseTransform<ITransformMeta, ITransformData> transform;
+  private SynchronizedCounters synchronizedCounters;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    mockHelper =
+        new TransformMockHelper<>("BENCHMARK", ITransformMeta.class, ITransformData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    transform =
+        new BaseTransform<>(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    synchronizedCounters = new SynchronizedCounters();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  @Benchmark
+  @Group("uncontended")
+  public long transformCounters() {
+    transform.incrementLinesRead();
+    return transform.incrementLinesWritten();
+  }
+
+  @Benchmark
+  @Group("uncontendedSynchronized")
+  public long synchronizedCounters() {
+    synchronizedCounters.incrementLinesRead();
+    return synchronizedCounters.incrementLinesWritten();
+  }
+
+  @Benchmark
+  @Group("polled")
+  @GroupThreads(1)
+  public long polledTransformCounters() {
+    transform.incrementLinesRead();
+    return transform.incrementLinesWritten();
+  }
+
+  @Benchmark
+  @Group("polled")
+  @GroupThreads(1)
+  public long pollTransformCounters() {
+    return transform.getLinesRead() + transform.getLinesWritten();
+  }
+
+  @Benchmark
+  @Group("polledSynchronized")
+  @GroupThreads(1)
+  public long polledSynchronizedCounters() {
+    synchronizedCounters.incrementLinesRead();
+    return synchronizedCounters.incrementLinesWritten();
+  }
+
+  @Benchmark
+  @Group("polledSynchronized")
+  @GroupThreads(1)
+  public long pollSynchronizedCounters() {
+    return synchronizedCounters.getLinesRead() + synchronizedCounters.getLinesWritten();
+  }
+
+  /** The way the counters were kept in BaseTransform before */
+  private static class SynchronizedCounters {
+    private final Object statusCountersLock = new Object();
+    private long linesRead;
+    private long linesWritten;
+
+    long incrementLinesRead() {
+      synchronized (statusCountersLock) {
+        return ++linesRead;
+      }
+    }
+
+    long incrementLinesWritten() {
+      synchronized (statusCountersLock) {
+        return ++linesWritten;
+      }
+    }
+
+    long getLinesRead() {
+      synchronized (statusCountersLock) {
+        return linesRead;
+      }
+    }
+
+    long getLinesWritten() {
+      synchronized (statusCountersLock) {
+        return linesWritten;
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(TransformCountersBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.TransformTimings;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GetMetricsServletTest {
+  private PipelineMap mockPipelineMap;
+  private GetMetricsServlet getMetricsServlet;
+
+  @Before
+  public void setup() {
+    HopLogStore.init();
+    mockPipelineMap = mock(PipelineMap.class);
+    getMetricsServlet = new GetMetricsServlet(mockPipelineMap);
+  }
+
+  @Test
+  public void testTransformMetricsAreExported() throws Exception {
+    HopServerObjectEntry entry = new HopServerObjectEntry("sales \"daily\"", "id-1");
+    Pipeline pipeline = mock(Pipeline.class);
+    when(mockPipelineMap.getPipelineObjects()).thenReturn(Collections.singletonList(entry));
+    when(mockPipelineMap.getPipeline(entry)).thenReturn(pipeline);
+    when(pipeline.getRowSetSize()).thenReturn(10);
+
+    TransformTimings timings = new TransformTimings();
+    timings.addGetRowNanos(1500000000L);
+    timings.addPutRowNanos(500000000L);
+    ITransform sleepyTransform = mock(ITransform.class);
+    when(sleepyTransform.processRow()).thenReturn(true);
+    timings.processRow(sleepyTransform);
+
+    BaseTransform transform = mock(BaseTransform.class);
+    when(transform.getName()).thenReturn("Lookup");
+    when(transform.getCopyNr()).thenReturn(1);
+    when(transform.getLinesRead()).thenReturn(100L);
+    when(transform.getLinesWritten()).thenReturn(90L);
+    when(transform.isRunning()).thenReturn(true);
+    when(transform.getInputBufferSize()).thenReturn(5L);
+    when(transform.getInputRowSets()).thenReturn(Arrays.asList(mock(IRowSet.class)));
+    when(transform.getTransformTimings()).thenReturn(timings);
+
+    IEngineComponent component = mock(IEngineComponent.class);
+    when(component.getName()).thenReturn("Output");
+    when(pipeline.getComponents()).thenReturn(Arrays.asList(transform, component));
+
+    String text = doGet();
+
+    String labels = "{pipeline=\"sales \\\"daily\\\"\",id=\"id-1\",transform=\"Lookup\",copy=\"1\"";
+    assertTrue(text.contains("# TYPE hop_transform_rows_read counter\n"));
+    assertTrue(text.contains("hop_transform_rows_read_total" + labels + "} 100\n"));
+    assertTrue(text.contains("hop_transform_rows_written_total" + labels + "} 90\n"));
+    assertTrue(text.contains("hop_transform_running" + labels + "} 1\n"));
+    assertTrue(text.contains("hop_transform_input_buffer_rows" + labels + "} 5\n"));
+    assertTrue(text.contains("hop_transform_input_buffer_fill_ratio" + labels + "} 0.5\n"));
+    assertTrue(text.contains("hop_transform_get_row_seconds_total" + labels + "} 1.5\n"));
+    assertTrue(text.contains("hop_transform_put_row_seconds_total" + labels + "} 0.5\n"));
+    assertTrue(text.contains("# TYPE hop_transform_processing_seconds histogram\n"));
+    assertTrue(
+        text.contains("hop_transform_processing_seconds_bucket" + labels + ",le=\"+Inf\"} 1\n"));
+    assertTrue(text.contains("hop_transform_processing_seconds_count" + labels + "} 1\n"));
+    assertTrue(text.contains("transform=\"Output\",copy=\"0\"} 0\n"));
+    assertTrue(text.endsWith("# EOF\n"));
+  }
+
+  @Test
+  public void testEmptyServer() throws Exception {
+    when(mockPipelineMap.getPipelineObjects()).thenReturn(Collections.emptyList());
+
+    String text = doGet();
+
+    assertTrue(text.endsWith("# EOF\n"));
+    assertTrue(!text.contains("hop_transform_rows_read"));
+  }
+
+  private String doGet() throws Exception {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(request.getContextPath()).thenReturn(GetMetricsServlet.CONTEXT_PATH);
+    StringWriter out = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(out));
+
+    getMetricsServlet.doGet(request, response);
+
+    verify(response).setContentType(OpenMetricsWriter.CONTENT_TYPE);
+    return out.toString();
+  }
+}
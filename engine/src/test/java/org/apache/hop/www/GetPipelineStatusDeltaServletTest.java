@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GetPipelineStatusDeltaServletTest {
+  private PipelineMap mockPipelineMap;
+  private GetPipelineStatusDeltaServlet servlet;
+  private IPipelineEngine<PipelineMeta> pipeline;
+  private IEngineComponent input;
+  private IEngineComponent output;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    HopLogStore.init();
+    mockPipelineMap = mock(PipelineMap.class);
+    servlet = new GetPipelineStatusDeltaServlet(mockPipelineMap);
+
+    HopServerObjectEntry entry = new HopServerObjectEntry("sample", "id-1");
+    pipeline = mock(IPipelineEngine.class);
+    ILogChannel logChannel = mock(ILogChannel.class);
+    when(logChannel.getLogChannelId()).thenReturn("log-channel-id");
+    when(pipeline.getLogChannel()).thenReturn(logChannel);
+    when(pipeline.getStatusDescription()).thenReturn(Pipeline.STRING_RUNNING);
+    input = createComponent("Input");
+    output = createComponent("Output");
+    when(pipeline.getComponents()).thenReturn(Arrays.asList(input, output));
+    when(mockPipelineMap.getPipeline(entry)).thenReturn(pipeline);
+    when(mockPipelineMap.getStatusTracker(entry)).thenReturn(new PipelineStatusTracker());
+  }
+
+  @Test
+  public void testOnlyChangedTransformsAreSent() throws Exception {
+    HopServerPipelineStatusDelta delta = doGet(0L, 0L);
+    assertEquals(1L, delta.getSequence());
+    assertTrue(delta.isPipelineChanged());
+    assertEquals(2, delta.getTransformStatusList().size());
+
+    HopServerPipelineStatus pipelineStatus = new HopServerPipelineStatus();
+    delta.applyTo(pipelineStatus);
+    assertTrue(pipelineStatus.isRunning());
+    assertEquals(2, pipelineStatus.getTransformStatusList().size());
+
+    // Nothing changed
+    //
+    delta = doGet(1L, 0L);
+    assertEquals(1L, delta.getSequence());
+    assertFalse(delta.isPipelineChanged());
+    assertTrue(delta.getTransformStatusList().isEmpty());
+
+    // One transform wrote a few more rows
+    //
+    when(output.getLinesWritten()).thenReturn(50L);
+    delta = doGet(1L, 1000L);
+    assertEquals(2L, delta.getSequence());
+    assertFalse(delta.isPipelineChanged());
+    assertEquals(1, delta.getTransformStatusList().size());
+    assertEquals("Output", delta.getTransformStatusList().get(0).getTransformName());
+    assertEquals(50L, delta.getTransformStatusList().get(0).getLinesWritten());
+
+    delta.applyTo(pipelineStatus);
+    assertEquals(2, pipelineStatus.getTransformStatusList().size());
+    TransformStatus outputStatus = pipelineStatus.getTransformStatusList().get(1);
+    assertEquals("Output", outputStatus.getTransformName());
+    assertEquals(50L, outputStatus.getLinesWritten());
+  }
+
+  @Test
+  public void testWaitForChanges() throws Exception {
+    doGet(0L, 0L);
+
+    long start = System.currentTimeMillis();
+    HopServerPipelineStatusDelta delta = doGet(1L, 300L);
+    assertTrue(System.currentTimeMillis() - start >= 300L);
+    assertEquals(1L, delta.getSequence());
+    assertTrue(delta.getTransformStatusList().isEmpty());
+  }
+
+  @Test
+  public void testUnknownPipeline() throws Exception {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(request.getContextPath()).thenReturn(GetPipelineStatusDeltaServlet.CONTEXT_PATH);
+    when(request.getParameter("name")).thenReturn("unknown");
+    when(request.getParameter("id")).thenReturn("id-2");
+
+    servlet.doGet(request, response);
+
+    verify(response).sendError(anyInt(), anyString());
+  }
+
+  private HopServerPipelineStatusDelta doGet(long sequence, long wait) throws Exception {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    ServletOutputStream out = mock(ServletOutputStream.class);
+    when(request.getContextPath()).thenReturn(GetPipelineStatusDeltaServlet.CONTEXT_PATH);
+    when(request.getParameter("name")).thenReturn("sample");
+    when(request.getParameter("id")).thenReturn("id-1");
+    when(request.getParameter("seq")).thenReturn(Long.toString(sequence));
+    when(request.getParameter("wait")).thenReturn(Long.toString(wait));
+    when(response.getOutputStream()).thenReturn(out);
+
+    servlet.doGet(request, response);
+
+    ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+    verify(out).write(data.capture());
+    return HopServerPipelineStatusDelta.fromJson(
+        new String(data.getValue(), StandardCharsets.UTF_8));
+  }
+
+  private static IEngineComponent createComponent(String name) {
+    IEngineComponent component = mock(IEngineComponent.class);
+    when(component.getName()).thenReturn(name);
+    when(component.isRunning()).thenReturn(true);
+    when(component.getStatusDescription()).thenReturn("Running");
+    return component;
+  }
+}
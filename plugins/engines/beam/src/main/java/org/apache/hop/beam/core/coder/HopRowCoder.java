@@ -17,51 +17,106 @@
 
 package org.apache.hop.beam.core.coder;
 
-import org.apache.beam.sdk.coders.AtomicCoder;
 import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.util.VarInt;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.io.*;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
 
-public class HopRowCoder extends AtomicCoder<HopRow> {
+/**
+ * A compact binary coder for Hop rows.
+ *
+ * <p>When the coder is created with the row metadata of the collection it encodes, the layout of
+ * the rows is agreed upon when the pipeline is built. A row is then written as its length, a bitmap
+ * of the null values and the values themselves without any type information: integers, dates and
+ * the scale of big numbers as variable length longs, numbers as raw doubles, big numbers as their
+ * unscaled bytes and strings and binaries as a length followed by the bytes.
+ *
+ * <p>Values which don't match the agreed layout (binary string storage, extra fields, or a coder
+ * without row metadata) are preceded by their type so that every row still encodes correctly.
+ */
+public class HopRowCoder extends CustomCoder<HopRow> {
+
+  /** No type is known up front for this value, it's written with its type */
+  private static final int TYPE_UNKNOWN = IValueMeta.TYPE_NONE;
+
+  /** The data types of the values in the rows, agreed upon when the pipeline is built */
+  private final int[] types;
+
+  /** Creates a coder which writes the type of every value */
+  public HopRowCoder() {
+    this.types = new int[0];
+  }
+
+  /**
+   * Creates a coder for rows with the given layout.
+   *
+   * @param rowMeta The layout of the rows to encode
+   */
+  public HopRowCoder(IRowMeta rowMeta) {
+    this.types = new int[rowMeta == null ? 0 : rowMeta.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = getSchemaType(rowMeta.getValueMeta(i));
+    }
+  }
 
   @Override
   public void encode(HopRow value, OutputStream outStream) throws CoderException, IOException {
 
     Object[] row = value.getRow();
-    ObjectOutputStream out = new ObjectOutputStream(outStream);
 
-    // Length
+    // Length: 0 means a null row. The lowest bit tells if any value is written with its type.
     //
     if (row == null) {
-      out.writeInt(-1);
+      VarInt.encode(0, outStream);
       return; // all done
-    } else {
-      out.writeInt(row.length);
+    }
+
+    byte[] nulls = new byte[(row.length + 7) / 8];
+    byte[] tagged = null;
+    for (int i = 0; i < row.length; i++) {
+      Object object = row[i];
+      if (object == null) {
+        nulls[i >> 3] |= 1 << (i & 7);
+      } else if (!matchesSchema(i, object)) {
+        if (tagged == null) {
+          tagged = new byte[nulls.length];
+        }
+        tagged[i >> 3] |= 1 << (i & 7);
+      }
+    }
+    VarInt.encode(((row.length + 1) << 1) | (tagged == null ? 0 : 1), outStream);
+    outStream.write(nulls);
+    if (tagged != null) {
+      outStream.write(tagged);
     }
 
     // The values
     //
+    DataOutputStream out = new DataOutputStream(outStream);
     for (int i = 0; i < row.length; i++) {
       Object object = row[i];
-      // Null?
-      //
-      out.writeBoolean(object == null);
-
       if (object != null) {
-        // Type?
-        //
-        int objectType = getObjectType(object);
-        out.writeInt(objectType);
-
-        // The object itself
-        //
-        write(out, objectType, object);
+        if (tagged != null && (tagged[i >> 3] & (1 << (i & 7))) != 0) {
+          int objectType = getObjectType(object);
+          out.writeByte(objectType);
+          write(out, objectType, object);
+        } else {
+          write(out, types[i], object);
+        }
       }
     }
     out.flush();
@@ -70,21 +125,30 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
   @Override
   public HopRow decode(InputStream inStream) throws CoderException, IOException {
 
-    ObjectInputStream in = new ObjectInputStream(inStream);
+    int header = VarInt.decodeInt(inStream);
+    if (header == 0) {
+      return new HopRow(null);
+    }
+    int length = (header >>> 1) - 1;
 
-    Object[] row = null;
-    int length = in.readInt();
-    if (length < 0) {
-      return new HopRow(row);
+    DataInputStream in = new DataInputStream(inStream);
+    byte[] nulls = new byte[(length + 7) / 8];
+    in.readFully(nulls);
+    byte[] tagged = null;
+    if ((header & 1) != 0) {
+      tagged = new byte[nulls.length];
+      in.readFully(tagged);
     }
-    row = new Object[length];
+
+    Object[] row = new Object[length];
     for (int i = 0; i < length; i++) {
-      // Null?
-      boolean isNull = in.readBoolean();
-      if (!isNull) {
-        int objectType = in.readInt();
-        Object object = read(in, objectType);
-        row[i] = object;
+      int bit = 1 << (i & 7);
+      if ((nulls[i >> 3] & bit) == 0) {
+        if (tagged != null && (tagged[i >> 3] & bit) != 0) {
+          row[i] = read(in, in.readUnsignedByte());
+        } else {
+          row[i] = read(in, types[i]);
+        }
       }
     }
 
@@ -96,44 +160,71 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     // Sure
   }
 
-  private void write(ObjectOutputStream out, int objectType, Object object) throws IOException {
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return Arrays.equals(types, ((HopRowCoder) o).types);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(types);
+  }
+
+  @Override
+  public String toString() {
+    return "HopRowCoder" + Arrays.toString(types);
+  }
+
+  private void write(DataOutputStream out, int objectType, Object object) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
         {
-          String string = (String) object;
-          byte[] data = string.getBytes(StandardCharsets.UTF_8);
-          out.writeInt(data.length);
-          out.write(data);
+          writeBytes(out, ((String) object).getBytes(StandardCharsets.UTF_8));
         }
         break;
       case IValueMeta.TYPE_INTEGER:
         {
-          Long lng = (Long) object;
-          out.writeLong(lng);
+          writeLong(out, (Long) object);
         }
         break;
       case IValueMeta.TYPE_DATE:
         {
-          Long lng = ((Date) object).getTime();
-          out.writeLong(lng);
+          writeLong(out, ((Date) object).getTime());
+        }
+        break;
+      case IValueMeta.TYPE_TIMESTAMP:
+        {
+          Timestamp timestamp = (Timestamp) object;
+          writeLong(out, timestamp.getTime());
+          VarInt.encode(timestamp.getNanos(), out);
         }
         break;
       case IValueMeta.TYPE_BOOLEAN:
         {
-          boolean b = (Boolean) object;
-          out.writeBoolean(b);
+          out.writeBoolean((Boolean) object);
         }
         break;
       case IValueMeta.TYPE_NUMBER:
         {
-          Double dbl = (Double) object;
-          out.writeDouble(dbl);
+          out.writeDouble((Double) object);
         }
         break;
       case IValueMeta.TYPE_BIGNUMBER:
         {
           BigDecimal bd = (BigDecimal) object;
-          out.writeUTF(bd.toString());
+          writeLong(out, bd.scale());
+          writeBytes(out, bd.unscaledValue().toByteArray());
+        }
+        break;
+      case IValueMeta.TYPE_BINARY:
+        {
+          writeBytes(out, (byte[]) object);
         }
         break;
       default:
@@ -142,48 +233,99 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     }
   }
 
-  private Object read(ObjectInputStream in, int objectType) throws IOException {
+  private Object read(DataInputStream in, int objectType) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
-        {
-          int length = in.readInt();
-          byte[] data = new byte[length];
-          in.readFully(data);
-          String string = new String(data, StandardCharsets.UTF_8);
-          return string;
-        }
-
+        return new String(readBytes(in), StandardCharsets.UTF_8);
       case IValueMeta.TYPE_INTEGER:
-        {
-          Long lng = in.readLong();
-          return lng;
-        }
-
+        return readLong(in);
       case IValueMeta.TYPE_DATE:
+        return new Date(readLong(in));
+      case IValueMeta.TYPE_TIMESTAMP:
         {
-          Long lng = in.readLong();
-          return new Date(lng);
+          Timestamp timestamp = new Timestamp(readLong(in));
+          timestamp.setNanos(VarInt.decodeInt(in));
+          return timestamp;
         }
-
       case IValueMeta.TYPE_BOOLEAN:
+        return in.readBoolean();
+      case IValueMeta.TYPE_NUMBER:
+        return in.readDouble();
+      case IValueMeta.TYPE_BIGNUMBER:
         {
-          boolean b = in.readBoolean();
-          return b;
+          int scale = (int) readLong(in);
+          return new BigDecimal(new BigInteger(readBytes(in)), scale);
         }
+      case IValueMeta.TYPE_BINARY:
+        return readBytes(in);
+      default:
+        throw new CoderException("Data type not supported yet: " + objectType);
+    }
+  }
 
+  /** Zig-zag encoding keeps small negative values short as well */
+  private static void writeLong(OutputStream out, long value) throws IOException {
+    VarInt.encode((value << 1) ^ (value >> 63), out);
+  }
+
+  private static long readLong(InputStream in) throws IOException {
+    long value = VarInt.decodeLong(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeBytes(OutputStream out, byte[] data) throws IOException {
+    VarInt.encode(data.length, out);
+    out.write(data);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] data = new byte[VarInt.decodeInt(in)];
+    in.readFully(data);
+    return data;
+  }
+
+  private boolean matchesSchema(int index, Object object) {
+    if (index >= types.length) {
+      return false;
+    }
+    switch (types[index]) {
+      case IValueMeta.TYPE_STRING:
+        return object instanceof String;
+      case IValueMeta.TYPE_INTEGER:
+        return object instanceof Long;
+      case IValueMeta.TYPE_DATE:
+        return object instanceof Date && !(object instanceof Timestamp);
+      case IValueMeta.TYPE_TIMESTAMP:
+        return object instanceof Timestamp;
+      case IValueMeta.TYPE_BOOLEAN:
+        return object instanceof Boolean;
       case IValueMeta.TYPE_NUMBER:
-        {
-          Double dbl = in.readDouble();
-          return dbl;
-        }
+        return object instanceof Double;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return object instanceof BigDecimal;
+      case IValueMeta.TYPE_BINARY:
+        return object instanceof byte[];
+      default:
+        return false;
+    }
+  }
 
+  private static int getSchemaType(IValueMeta valueMeta) {
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return TYPE_UNKNOWN;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+      case IValueMeta.TYPE_INTEGER:
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+      case IValueMeta.TYPE_BOOLEAN:
+      case IValueMeta.TYPE_NUMBER:
       case IValueMeta.TYPE_BIGNUMBER:
-        {
-          String bd = in.readUTF();
-          return new BigDecimal(bd);
-        }
+      case IValueMeta.TYPE_BINARY:
+        return valueMeta.getType();
       default:
-        throw new IOException("Data type not supported yet: " + objectType);
+        return TYPE_UNKNOWN;
     }
   }
 
@@ -194,12 +336,12 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     if (object instanceof Long) {
       return IValueMeta.TYPE_INTEGER;
     }
-    if (object instanceof Date) {
-      return IValueMeta.TYPE_DATE;
-    }
     if (object instanceof Timestamp) {
       return IValueMeta.TYPE_TIMESTAMP;
     }
+    if (object instanceof Date) {
+      return IValueMeta.TYPE_DATE;
+    }
     if (object instanceof Boolean) {
       return IValueMeta.TYPE_BOOLEAN;
     }
@@ -209,6 +351,9 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     if (object instanceof BigDecimal) {
       return IValueMeta.TYPE_BIGNUMBER;
     }
+    if (object instanceof byte[]) {
+      return IValueMeta.TYPE_BINARY;
+    }
     throw new CoderException(
         "Data type for object class " + object.getClass().getName() + " isn't supported yet");
   }
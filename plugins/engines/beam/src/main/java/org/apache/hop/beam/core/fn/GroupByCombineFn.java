@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.beam.sdk.coders.CannotProvideCoderException;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CoderRegistry;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.util.VarInt;
+import org.apache.hop.beam.core.BeamHop;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.shared.AggregationType;
+import org.apache.hop.beam.core.util.JsonRowMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Aggregates the subject rows of a group with accumulators instead of a materialized list of rows.
+ * Since accumulators can be merged, a runner can aggregate the rows of a key on every worker before
+ * they're shuffled. Only aggregations which are {@link AggregationType#isCombinable() combinable}
+ * are supported.
+ */
+public class GroupByCombineFn
+    extends Combine.CombineFn<HopRow, GroupByCombineFn.Accumulator, HopRow> {
+
+  private String subjectRowMetaJson; // The data types of the subject fields
+  private String[] aggregations; // The aggregation types
+  private List<String> transformPluginClasses;
+  private List<String> xpPluginClasses;
+
+  private transient IRowMeta subjectRowMeta;
+  private transient AggregationType[] aggregationTypes;
+
+  public GroupByCombineFn() {}
+
+  public GroupByCombineFn(
+      List<String> transformPluginClasses,
+      List<String> xpPluginClasses,
+      String subjectRowMetaJson,
+      String[] aggregations) {
+    this.transformPluginClasses = transformPluginClasses;
+    this.xpPluginClasses = xpPluginClasses;
+    this.subjectRowMetaJson = subjectRowMetaJson;
+    this.aggregations = aggregations;
+  }
+
+  /**
+   * @param aggregations The aggregation type names
+   * @return true if all the aggregations can be calculated with this combine function
+   * @throws HopException In case an aggregation type isn't known
+   */
+  public static boolean isCombinable(String[] aggregations) throws HopException {
+    for (String aggregation : aggregations) {
+      if (!AggregationType.getTypeFromName(aggregation).isCombinable()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void init() {
+    if (aggregationTypes != null) {
+      return;
+    }
+    try {
+      BeamHop.init(transformPluginClasses, xpPluginClasses);
+      subjectRowMeta = JsonRowMeta.fromJson(subjectRowMetaJson);
+      AggregationType[] types = new AggregationType[aggregations.length];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = AggregationType.getTypeFromName(aggregations[i]);
+        if (!types[i].isCombinable()) {
+          throw new HopException("Aggregation type " + types[i].name() + " can't be combined");
+        }
+      }
+      aggregationTypes = types;
+    } catch (Exception e) {
+      throw new RuntimeException("Unable to set up the group by combine function", e);
+    }
+  }
+
+  @Override
+  public Accumulator createAccumulator() {
+    init();
+    Accumulator accumulator = new Accumulator(aggregationTypes.length);
+    for (int i = 0; i < aggregationTypes.length; i++) {
+      if (aggregationTypes[i] == AggregationType.COUNT_DISTINCT) {
+        accumulator.distinctValues[i] = new HashSet<>();
+      }
+    }
+    return accumulator;
+  }
+
+  @Override
+  public Accumulator addInput(Accumulator accumulator, HopRow input) {
+    init();
+    try {
+      Object[] subjectRow = input.getRow();
+      for (int i = 0; i < aggregationTypes.length; i++) {
+        IValueMeta subjectValueMeta = subjectRowMeta.getValueMeta(i);
+        Object subject = subjectRow[i];
+        if (subject == null) {
+          continue;
+        }
+        switch (aggregationTypes[i]) {
+          case COUNT_ALL:
+            accumulator.counts[i]++;
+            break;
+          case AVERAGE:
+            accumulator.counts[i]++;
+            accumulator.results[i] = add(subjectValueMeta, accumulator.results[i], subject);
+            break;
+          case SUM:
+            accumulator.results[i] = add(subjectValueMeta, accumulator.results[i], subject);
+            break;
+          case MIN:
+            accumulator.results[i] = min(subjectValueMeta, accumulator.results[i], subject);
+            break;
+          case MAX:
+            accumulator.results[i] = max(subjectValueMeta, accumulator.results[i], subject);
+            break;
+          case COUNT_DISTINCT:
+            accumulator.distinctValues[i].add(subject);
+            break;
+          default:
+            throw new HopException(
+                "Aggregation type " + aggregationTypes[i].name() + " can't be combined");
+        }
+      }
+      return accumulator;
+    } catch (HopException e) {
+      throw new RuntimeException("Unable to aggregate a row", e);
+    }
+  }
+
+  @Override
+  public Accumulator mergeAccumulators(Iterable<Accumulator> accumulators) {
+    init();
+    try {
+      Accumulator merged = null;
+      for (Accumulator accumulator : accumulators) {
+        if (merged == null) {
+          merged = accumulator;
+          continue;
+        }
+        for (int i = 0; i < aggregationTypes.length; i++) {
+          IValueMeta subjectValueMeta = subjectRowMeta.getValueMeta(i);
+          Object result = accumulator.results[i];
+          merged.counts[i] += accumulator.counts[i];
+          switch (aggregationTypes[i]) {
+            case SUM:
+            case AVERAGE:
+              merged.results[i] = add(subjectValueMeta, merged.results[i], result);
+              break;
+            case MIN:
+              merged.results[i] = min(subjectValueMeta, merged.results[i], result);
+              break;
+            case MAX:
+              merged.results[i] = max(subjectValueMeta, merged.results[i], result);
+              break;
+            case COUNT_DISTINCT:
+              merged.distinctValues[i].addAll(accumulator.distinctValues[i]);
+              break;
+            default:
+              break;
+          }
+        }
+      }
+      return merged == null ? createAccumulator() : merged;
+    } catch (HopException e) {
+      throw new RuntimeException("Unable to merge aggregation results", e);
+    }
+  }
+
+  @Override
+  public HopRow extractOutput(Accumulator accumulator) {
+    init();
+    Object[] results = new Object[aggregationTypes.length];
+    for (int i = 0; i < results.length; i++) {
+      long count = accumulator.counts[i];
+      switch (aggregationTypes[i]) {
+        case AVERAGE:
+          results[i] = average(subjectRowMeta.getValueMeta(i), accumulator.results[i], count);
+          break;
+        case COUNT_ALL:
+          results[i] = count == 0 ? null : count;
+          break;
+        case COUNT_DISTINCT:
+          results[i] = (long) accumulator.distinctValues[i].size();
+          break;
+        default:
+          results[i] = accumulator.results[i];
+          break;
+      }
+    }
+    return new HopRow(results);
+  }
+
+  @Override
+  public Coder<Accumulator> getAccumulatorCoder(
+      CoderRegistry registry, Coder<HopRow> inputCoder) throws CannotProvideCoderException {
+    return new AccumulatorCoder();
+  }
+
+  private static Object add(IValueMeta valueMeta, Object result, Object subject)
+      throws HopException {
+    if (result == null) {
+      return subject;
+    }
+    if (subject == null) {
+      return result;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return (Long) result + (Long) subject;
+      case IValueMeta.TYPE_NUMBER:
+        return (Double) result + (Double) subject;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return ((BigDecimal) result).add((BigDecimal) subject);
+      default:
+        throw new HopException(
+            "SUM aggregation not yet implemented for field and data type : "
+                + valueMeta.toString());
+    }
+  }
+
+  private static Object min(IValueMeta valueMeta, Object result, Object subject)
+      throws HopException {
+    if (result == null) {
+      return subject;
+    }
+    if (subject == null || valueMeta.compare(subject, result) >= 0) {
+      return result;
+    }
+    return subject;
+  }
+
+  private static Object max(IValueMeta valueMeta, Object result, Object subject)
+      throws HopException {
+    if (result == null) {
+      return subject;
+    }
+    if (subject == null || valueMeta.compare(subject, result) <= 0) {
+      return result;
+    }
+    return subject;
+  }
+
+  private static Object average(IValueMeta valueMeta, Object sum, long count) {
+    if (sum == null || count == 0) {
+      return sum;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return (Long) sum / count;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return ((BigDecimal) sum).divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+      default:
+        return (Double) sum / count;
+    }
+  }
+
+  /**
+   * Gets aggregations
+   *
+   * @return value of aggregations
+   */
+  public String[] getAggregations() {
+    return aggregations;
+  }
+
+  /** @param aggregations The aggregations to set */
+  public void setAggregations(String[] aggregations) {
+    this.aggregations = aggregations;
+  }
+
+  /**
+   * The partial aggregation results of a group: the sum, minimum or maximum per subject, the number
+   * of values counted and the distinct values seen.
+   */
+  public static class Accumulator {
+    private final Object[] results;
+    private final long[] counts;
+    private final Set<Object>[] distinctValues;
+
+    @SuppressWarnings("unchecked")
+    Accumulator(int size) {
+      this.results = new Object[size];
+      this.counts = new long[size];
+      this.distinctValues = new Set[size];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Accumulator that = (Accumulator) o;
+      return Arrays.equals(results, that.results)
+          && Arrays.equals(counts, that.counts)
+          && Arrays.equals(distinctValues, that.distinctValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(results) ^ Arrays.hashCode(counts);
+    }
+  }
+
+  /**
+   * Writes the results as a row, followed by the counts and a row with the distinct values of every
+   * subject.
+   */
+  public static class AccumulatorCoder extends CustomCoder<Accumulator> {
+
+    private final HopRowCoder rowCoder = new HopRowCoder();
+
+    @Override
+    public void encode(Accumulator accumulator, OutputStream outStream)
+        throws CoderException, IOException {
+      rowCoder.encode(new HopRow(accumulator.results), outStream);
+      for (int i = 0; i < accumulator.counts.length; i++) {
+        VarInt.encode(accumulator.counts[i], outStream);
+        Set<Object> distinct = accumulator.distinctValues[i];
+        rowCoder.encode(new HopRow(distinct == null ? null : distinct.toArray()), outStream);
+      }
+    }
+
+    @Override
+    public Accumulator decode(InputStream inStream) throws CoderException, IOException {
+      Object[] results = rowCoder.decode(inStream).getRow();
+      Accumulator accumulator = new Accumulator(results.length);
+      System.arraycopy(results, 0, accumulator.results, 0, results.length);
+      for (int i = 0; i < results.length; i++) {
+        accumulator.counts[i] = VarInt.decodeLong(inStream);
+        Object[] distinct = rowCoder.decode(inStream).getRow();
+        if (distinct != null) {
+          accumulator.distinctValues[i] = new HashSet<>(distinct.length);
+          Collections.addAll(accumulator.distinctValues[i], distinct);
+        }
+      }
+      return accumulator;
+    }
+
+    @Override
+    public void verifyDeterministic() throws NonDeterministicException {
+      throw new NonDeterministicException(
+          this, "The distinct values of an accumulator are written in no particular order");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+      return getClass().hashCode();
+    }
+  }
+}
@@ -34,7 +34,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class GroupByFn extends DoFn<KV<HopRow, Iterable<HopRow>>, HopRow> {
 
@@ -117,6 +119,8 @@ public class GroupByFn extends DoFn<KV<HopRow, Iterable<HopRow>>, HopRow> {
       //
       Object[] results = new Object[aggregationTypes.length];
       long[] counts = new long[aggregationTypes.length];
+      @SuppressWarnings("unchecked")
+      Set<Object>[] distinctValues = new Set[aggregationTypes.length];
       for (int i = 0; i < results.length; i++) {
         results[i] = null;
         counts[i] = 0L;
@@ -211,6 +215,15 @@ public class GroupByFn extends DoFn<KV<HopRow, Iterable<HopRow>>, HopRow> {
                 result = subject;
               }
               break;
+            case COUNT_DISTINCT:
+              if (distinctValues[i] == null) {
+                distinctValues[i] = new HashSet<>();
+              }
+              if (subject != null) {
+                distinctValues[i].add(subject);
+              }
+              result = (long) distinctValues[i].size();
+              break;
             default:
               throw new HopException(
                   "Sorry, aggregation type yet: "
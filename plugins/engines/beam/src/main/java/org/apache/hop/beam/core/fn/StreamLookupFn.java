@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.hop.beam.core.BeamHop;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.util.JsonRowMeta;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.pipeline.Pipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the key of every input row in a side input holding the lookup stream and adds the
+ * values found, or the default values, to the row. Since the lookup stream is broadcast to every
+ * worker the main stream doesn't need to be shuffled.
+ */
+public class StreamLookupFn extends DoFn<HopRow, HopRow> {
+
+  private String counterName;
+  private String inputRowMetaJson; // The main input row
+  private String lookupKeyRowMetaJson; // The data types of the key fields in the lookup stream
+  private String[] keyFields; // The key fields in the main input
+  private int valueCount; // The number of values to add
+  private HopRow defaultValues; // The values to add if a key isn't found
+  private List<String> transformPluginClasses;
+  private List<String> xpPluginClasses;
+  private PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView;
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreamLookupFn.class);
+
+  private transient IRowMeta inputRowMeta;
+  private transient IRowMeta lookupKeyRowMeta;
+  private transient int[] keyIndexes;
+  private transient boolean[] keyConversions;
+
+  private transient Counter readCounter;
+  private transient Counter writtenCounter;
+  private transient Counter errorCounter;
+
+  public StreamLookupFn() {}
+
+  public StreamLookupFn(
+      String counterName,
+      String inputRowMetaJson,
+      String lookupKeyRowMetaJson,
+      String[] keyFields,
+      int valueCount,
+      HopRow defaultValues,
+      List<String> transformPluginClasses,
+      List<String> xpPluginClasses,
+      PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView) {
+    this.counterName = counterName;
+    this.inputRowMetaJson = inputRowMetaJson;
+    this.lookupKeyRowMetaJson = lookupKeyRowMetaJson;
+    this.keyFields = keyFields;
+    this.valueCount = valueCount;
+    this.defaultValues = defaultValues;
+    this.transformPluginClasses = transformPluginClasses;
+    this.xpPluginClasses = xpPluginClasses;
+    this.lookupView = lookupView;
+  }
+
+  @Setup
+  public void setUp() {
+    try {
+      readCounter = Metrics.counter(Pipeline.METRIC_NAME_READ, counterName);
+      writtenCounter = Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, counterName);
+      errorCounter = Metrics.counter(Pipeline.METRIC_NAME_ERROR, counterName);
+
+      // Initialize Hop Beam
+      //
+      BeamHop.init(transformPluginClasses, xpPluginClasses);
+      inputRowMeta = JsonRowMeta.fromJson(inputRowMetaJson);
+      lookupKeyRowMeta = JsonRowMeta.fromJson(lookupKeyRowMetaJson);
+
+      // Keys of a different data type are converted to the type of the lookup key, like Stream
+      // Lookup does.
+      //
+      keyIndexes = new int[keyFields.length];
+      keyConversions = new boolean[keyFields.length];
+      for (int i = 0; i < keyFields.length; i++) {
+        keyIndexes[i] = inputRowMeta.indexOfValue(keyFields[i]);
+        if (keyIndexes[i] < 0) {
+          throw new RuntimeException(
+              "Unable to find key field " + keyFields[i] + " in the input row");
+        }
+        keyConversions[i] =
+            inputRowMeta.getValueMeta(keyIndexes[i]).getType()
+                != lookupKeyRowMeta.getValueMeta(i).getType();
+      }
+
+      Metrics.counter(Pipeline.METRIC_NAME_INIT, counterName).inc();
+    } catch (Exception e) {
+      errorCounter.inc();
+      LOG.error("Error in setup of stream lookup function", e);
+      throw new RuntimeException("Error in setup of stream lookup function", e);
+    }
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext processContext) {
+    try {
+      Object[] inputRow = processContext.element().getRow();
+      readCounter.inc();
+
+      // The key is allocated the same way as the keys of the lookup stream so that they match
+      //
+      Object[] keyRow = RowDataUtil.allocateRowData(keyIndexes.length);
+      for (int i = 0; i < keyIndexes.length; i++) {
+        Object key = inputRow[keyIndexes[i]];
+        if (keyConversions[i]) {
+          IValueMeta lookupKeyMeta = lookupKeyRowMeta.getValueMeta(i);
+          key = lookupKeyMeta.convertDataCompatible(inputRowMeta.getValueMeta(keyIndexes[i]), key);
+        }
+        keyRow[i] = key;
+      }
+
+      Object[] values = defaultValues.getRow();
+      Iterable<HopRow> found = processContext.sideInput(lookupView).get(new HopRow(keyRow));
+      if (found != null) {
+        Iterator<HopRow> iterator = found.iterator();
+        if (iterator.hasNext()) {
+          values = iterator.next().getRow();
+        }
+      }
+
+      int inputSize = inputRowMeta.size();
+      Object[] outputRow = RowDataUtil.allocateRowData(inputSize + valueCount);
+      System.arraycopy(inputRow, 0, outputRow, 0, inputSize);
+      System.arraycopy(values, 0, outputRow, inputSize, valueCount);
+
+      processContext.output(new HopRow(outputRow));
+      writtenCounter.inc();
+    } catch (Exception e) {
+      errorCounter.inc();
+      LOG.error("Error looking up row", e);
+      throw new RuntimeException("Unable to look up row", e);
+    }
+  }
+}
@@ -20,17 +20,32 @@ package org.apache.hop.beam.core.shared;
 import org.apache.hop.core.exception.HopException;
 
 public enum AggregationType {
-  SUM,
-  AVERAGE,
-  COUNT_ALL,
-  MIN,
-  MAX,
-  FIRST_INCL_NULL,
-  LAST_INCL_NULL,
-  FIRST,
-  LAST,
+  SUM(true),
+  AVERAGE(true),
+  COUNT_ALL(true),
+  MIN(true),
+  MAX(true),
+  FIRST_INCL_NULL(false),
+  LAST_INCL_NULL(false),
+  FIRST(false),
+  LAST(false),
+  COUNT_DISTINCT(true),
   ;
 
+  private final boolean combinable;
+
+  AggregationType(boolean combinable) {
+    this.combinable = combinable;
+  }
+
+  /**
+   * @return true if partial results of this aggregation can be merged in any order so that a runner
+   *     can aggregate before the shuffle
+   */
+  public boolean isCombinable() {
+    return combinable;
+  }
+
   public static final AggregationType getTypeFromName(String name) throws HopException {
     for (AggregationType type : values()) {
       if (name.equals(type.name())) {
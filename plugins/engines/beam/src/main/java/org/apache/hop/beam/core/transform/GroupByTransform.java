@@ -19,6 +19,7 @@ package org.apache.hop.beam.core.transform;
 
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.Combine;
 import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
@@ -26,7 +27,9 @@ import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.hop.beam.core.BeamHop;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.fn.GroupByCombineFn;
 import org.apache.hop.beam.core.fn.GroupByFn;
+import org.apache.hop.beam.core.fn.GroupByResultFn;
 import org.apache.hop.beam.core.fn.HopKeyValueFn;
 import org.apache.hop.beam.core.util.JsonRowMeta;
 import org.apache.hop.core.row.IRowMeta;
@@ -109,7 +112,26 @@ public class GroupByTransform extends PTransform<PCollection<HopRow>, PCollectio
                       subjects,
                       transformName)));
 
-      // Now we need to aggregate the groups with a Combine
+      String counterName = transformName + " AGG";
+
+      // If all the aggregations can be merged, aggregate with a Combine.
+      // That way runners can aggregate the rows of a key before they're shuffled.
+      //
+      if (GroupByCombineFn.isCombinable(aggregations)) {
+        PCollection<KV<HopRow, HopRow>> combined =
+            groupSubjects.apply(
+                Combine.<HopRow, HopRow, HopRow>perKey(
+                    new GroupByCombineFn(
+                        transformPluginClasses,
+                        xpPluginClasses,
+                        JsonRowMeta.toJson(subjectRowMeta),
+                        aggregations)));
+        return combined.apply(
+            ParDo.of(
+                new GroupByResultFn(counterName, groupRowMeta.size(), subjectRowMeta.size())));
+      }
+
+      // Otherwise group all the subject rows of a key together and aggregate those
       GroupByKey<HopRow, HopRow> byKey = GroupByKey.<HopRow, HopRow>create();
       PCollection<KV<HopRow, Iterable<HopRow>>> grouped = groupSubjects.apply(byKey);
 
@@ -120,7 +142,6 @@ public class GroupByTransform extends PTransform<PCollection<HopRow>, PCollectio
       //   We need to calculate the aggregation of these subject lists
       //   Then we output group values with result values behind it.
       //
-      String counterName = transformName + " AGG";
       PCollection<HopRow> output =
           grouped.apply(
               ParDo.of(
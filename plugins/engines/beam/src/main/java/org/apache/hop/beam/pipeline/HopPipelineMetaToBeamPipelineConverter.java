@@ -37,6 +37,7 @@ import org.apache.hop.beam.pipeline.handler.BeamGenericTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamGroupByTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamMergeJoinTransformHandler;
 import org.apache.hop.beam.pipeline.handler.BeamRowGeneratorTransformHandler;
+import org.apache.hop.beam.pipeline.handler.BeamStreamLookupTransformHandler;
 import org.apache.hop.beam.util.BeamConst;
 import org.apache.hop.core.annotations.Transform;
 import org.apache.hop.core.exception.HopException;
@@ -135,6 +136,8 @@ public class HopPipelineMetaToBeamPipelineConverter<T extends IBeamPipelineEngin
         BeamConst.STRING_MERGE_JOIN_PLUGIN_ID, new BeamMergeJoinTransformHandler());
     transformHandlers.put(
         BeamConst.STRING_MEMORY_GROUP_BY_PLUGIN_ID, new BeamGroupByTransformHandler());
+    transformHandlers.put(
+        BeamConst.STRING_STREAM_LOOKUP_PLUGIN_ID, new BeamStreamLookupTransformHandler());
     transformHandlers.put(
         BeamConst.STRING_BEAM_ROW_GENERATOR_PLUGIN_ID, new BeamRowGeneratorTransformHandler());
     genericTransformHandler = new BeamGenericTransformHandler();
@@ -296,6 +299,8 @@ public class HopPipelineMetaToBeamPipelineConverter<T extends IBeamPipelineEngin
           pipelineMeta.getTransformFields(variables, transformMeta),
           null,
           null);
+
+      setRowCoders(transformCollectionMap, transformMeta);
     }
   }
 
@@ -352,6 +357,8 @@ public class HopPipelineMetaToBeamPipelineConverter<T extends IBeamPipelineEngin
           rowMeta,
           previousTransforms,
           input);
+
+      setRowCoders(transformCollectionMap, transformMeta);
     }
   }
 
@@ -497,6 +504,32 @@ public class HopPipelineMetaToBeamPipelineConverter<T extends IBeamPipelineEngin
             rowMeta,
             previousTransforms,
             input);
+
+        setRowCoders(transformCollectionMap, transformMeta);
+      }
+    }
+  }
+
+  /**
+   * The collections a transform produced get a row coder which knows the layout of the rows. This
+   * way the data types don't have to be written for every value that is shuffled or persisted.
+   *
+   * @param transformCollectionMap The collections produced so far
+   * @param transformMeta The transform which was just handled
+   * @throws HopException In case the output fields of the transform can't be determined
+   */
+  private void setRowCoders(
+      Map<String, PCollection<HopRow>> transformCollectionMap, TransformMeta transformMeta)
+      throws HopException {
+    String targetPrefix = HopBeamUtil.createTargetTupleId(transformMeta.getName(), "");
+    HopRowCoder rowCoder = null;
+    for (Map.Entry<String, PCollection<HopRow>> entry : transformCollectionMap.entrySet()) {
+      String name = entry.getKey();
+      if (name.equals(transformMeta.getName()) || name.startsWith(targetPrefix)) {
+        if (rowCoder == null) {
+          rowCoder = new HopRowCoder(pipelineMeta.getTransformFields(variables, transformMeta));
+        }
+        entry.getValue().setCoder(rowCoder);
       }
     }
   }
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.pipeline.handler;
+
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.fn.HopKeyValueFn;
+import org.apache.hop.beam.core.fn.StreamLookupFn;
+import org.apache.hop.beam.core.util.JsonRowMeta;
+import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
+import org.apache.hop.beam.pipeline.IBeamPipelineTransformHandler;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookup;
+import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a Stream Lookup into a broadcast hash join: the lookup stream becomes a side input map
+ * of the lookup keys to the lookup values and every main input row is looked up in it. The main
+ * stream isn't shuffled, so this is meant for lookup streams which fit in the memory of a worker.
+ */
+public class BeamStreamLookupTransformHandler extends BeamBaseTransformHandler
+    implements IBeamPipelineTransformHandler {
+
+  @Override
+  public boolean isInput() {
+    return false;
+  }
+
+  @Override
+  public boolean isOutput() {
+    return false;
+  }
+
+  @Override
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      IBeamPipelineEngineRunConfiguration runConfiguration,
+      IHopMetadataProvider metadataProvider,
+      PipelineMeta pipelineMeta,
+      List<String> transformPluginClasses,
+      List<String> xpPluginClasses,
+      TransformMeta transformMeta,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      Pipeline pipeline,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      PCollection<HopRow> input)
+      throws HopException {
+
+    // Don't simply cast but serialize/de-serialize the metadata to prevent classloader exceptions
+    //
+    StreamLookupMeta meta = new StreamLookupMeta();
+    loadTransformMetadata(meta, transformMeta, metadataProvider, pipelineMeta);
+
+    if (input == null) {
+      throw new HopException(
+          "The Stream Lookup transform called '"
+              + transformMeta.getName()
+              + "' needs a main input stream");
+    }
+    if (meta.getKeystream().length == 0) {
+      throw new HopException(
+          "The Stream Lookup transform called '"
+              + transformMeta.getName()
+              + "' needs at least one key to look up");
+    }
+
+    TransformMeta lookupTransform =
+        meta.getTransformIOMeta().getInfoStreams().get(0).getTransformMeta();
+    if (lookupTransform == null) {
+      throw new HopException(
+          "The lookup transform isn't defined in the Stream Lookup transform called '"
+              + transformMeta.getName()
+              + "'");
+    }
+    PCollection<HopRow> lookupPCollection = transformCollectionMap.get(lookupTransform.getName());
+    if (lookupPCollection == null) {
+      throw new HopException(
+          "The lookup collection in the pipeline couldn't be found (probably a programming error)");
+    }
+    IRowMeta lookupRowMeta = pipelineMeta.getTransformFields(variables, lookupTransform);
+
+    IRowMeta lookupKeyRowMeta = new RowMeta();
+    for (String keyField : meta.getKeylookup()) {
+      lookupKeyRowMeta.addValueMeta(getValueMeta(lookupRowMeta, keyField, transformMeta).clone());
+    }
+    for (String valueField : meta.getValue()) {
+      getValueMeta(lookupRowMeta, valueField, transformMeta);
+    }
+    for (String keyField : meta.getKeystream()) {
+      getValueMeta(rowMeta, keyField, transformMeta);
+    }
+
+    // Turn the lookup stream into a side input map of the keys to the values
+    //
+    HopKeyValueFn lookupKVFn =
+        new HopKeyValueFn(
+            JsonRowMeta.toJson(lookupRowMeta),
+            transformPluginClasses,
+            xpPluginClasses,
+            meta.getKeylookup(),
+            meta.getValue(),
+            transformMeta.getName());
+    PCollection<KV<HopRow, HopRow>> lookupKVPCollection =
+        lookupPCollection.apply(transformMeta.getName() + " KV", ParDo.of(lookupKVFn));
+    PCollectionView<Map<HopRow, Iterable<HopRow>>> lookupView =
+        lookupKVPCollection.apply(
+            transformMeta.getName() + " View", View.<HopRow, HopRow>asMultimap());
+
+    // Look up every main input row in the side input
+    //
+    StreamLookupFn streamLookupFn =
+        new StreamLookupFn(
+            transformMeta.getName(),
+            JsonRowMeta.toJson(rowMeta),
+            JsonRowMeta.toJson(lookupKeyRowMeta),
+            meta.getKeystream(),
+            meta.getValue().length,
+            new HopRow(StreamLookup.getDefaultValues(meta)),
+            transformPluginClasses,
+            xpPluginClasses,
+            lookupView);
+
+    PCollection<HopRow> transformPCollection =
+        input.apply(
+            transformMeta.getName(), ParDo.of(streamLookupFn).withSideInputs(lookupView));
+
+    // Save this in the map
+    //
+    transformCollectionMap.put(transformMeta.getName(), transformPCollection);
+
+    log.logBasic(
+        "Handled Stream Lookup (TRANSFORM) : "
+            + transformMeta.getName()
+            + ", looking up in "
+            + lookupTransform.getName());
+  }
+
+  private IValueMeta getValueMeta(IRowMeta rowMeta, String fieldName, TransformMeta transformMeta)
+      throws HopException {
+    IValueMeta valueMeta = rowMeta.searchValueMeta(fieldName);
+    if (valueMeta == null) {
+      throw new HopException(
+          "Unable to find field '"
+              + fieldName
+              + "' used in the Stream Lookup transform called '"
+              + transformMeta.getName()
+              + "'");
+    }
+    return valueMeta;
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.coder;
+
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to encode and decode a typical row with the row coder, with and
+ * without the layout of the rows, and with the object stream based coder that was used before as
+ * the baseline. The number of bytes per row of every variant is printed when the benchmark starts.
+ *
+ * <p>Run it with: java -cp &lt;test classpath&gt; org.apache.hop.beam.core.coder.HopRowCoderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HopRowCoderBenchmark {
+
+  private HopRow row;
+  private HopRowCoder schemaCoder;
+  private HopRowCoder coder;
+  private LegacyHopRowCoder legacyCoder;
+  private byte[] schemaBytes;
+  private byte[] bytes;
+  private byte[] legacyBytes;
+  private ByteArrayOutputStream outputStream;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaString("city"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("created"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("active"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("balance"));
+    rowMeta.addValueMeta(new ValueMetaString("comment"));
+    row =
+        new HopRow(
+            new Object[] {
+              123456L,
+              "John Doe",
+              "Brussels",
+              1234.56,
+              new Date(1600000000000L),
+              Boolean.TRUE,
+              new BigDecimal("98765.4321"),
+              null
+            });
+
+    schemaCoder = new HopRowCoder(rowMeta);
+    coder = new HopRowCoder();
+    legacyCoder = new LegacyHopRowCoder();
+    outputStream = new ByteArrayOutputStream(1024);
+
+    schemaBytes = encode(schemaCoder);
+    bytes = encode(coder);
+    legacyBytes = encode(legacyCoder);
+    System.out.println(
+        "Bytes per row: with row layout="
+            + schemaBytes.length
+            + ", without row layout="
+            + bytes.length
+            + ", object streams="
+            + legacyBytes.length);
+  }
+
+  private byte[] encode(Object rowCoder) throws IOException {
+    outputStream.reset();
+    if (rowCoder instanceof HopRowCoder) {
+      ((HopRowCoder) rowCoder).encode(row, outputStream);
+    } else {
+      ((LegacyHopRowCoder) rowCoder).encode(row, outputStream);
+    }
+    return outputStream.toByteArray();
+  }
+
+  @Benchmark
+  public int encodeWithRowLayout() throws IOException {
+    outputStream.reset();
+    schemaCoder.encode(row, outputStream);
+    return outputStream.size();
+  }
+
+  @Benchmark
+  public int encodeWithoutRowLayout() throws IOException {
+    outputStream.reset();
+    coder.encode(row, outputStream);
+    return outputStream.size();
+  }
+
+  @Benchmark
+  public int encodeObjectStreams() throws IOException {
+    outputStream.reset();
+    legacyCoder.encode(row, outputStream);
+    return outputStream.size();
+  }
+
+  @Benchmark
+  public HopRow decodeWithRowLayout() throws IOException {
+    return schemaCoder.decode(new ByteArrayInputStream(schemaBytes));
+  }
+
+  @Benchmark
+  public HopRow decodeWithoutRowLayout() throws IOException {
+    return coder.decode(new ByteArrayInputStream(bytes));
+  }
+
+  @Benchmark
+  public HopRow decodeObjectStreams() throws IOException {
+    return legacyCoder.decode(new ByteArrayInputStream(legacyBytes));
+  }
+
+  /** The way rows were encoded before: a fresh object stream and a type for every value */
+  private static class LegacyHopRowCoder {
+
+    void encode(HopRow value, OutputStream outStream) throws IOException {
+      Object[] row = value.getRow();
+      ObjectOutputStream out = new ObjectOutputStream(outStream);
+      out.writeInt(row.length);
+      for (Object object : row) {
+        out.writeBoolean(object == null);
+        if (object instanceof String) {
+          byte[] data = ((String) object).getBytes(StandardCharsets.UTF_8);
+          out.writeInt(2);
+          out.writeInt(data.length);
+          out.write(data);
+        } else if (object instanceof Long) {
+          out.writeInt(5);
+          out.writeLong((Long) object);
+        } else if (object instanceof Date) {
+          out.writeInt(3);
+          out.writeLong(((Date) object).getTime());
+        } else if (object instanceof Boolean) {
+          out.writeInt(4);
+          out.writeBoolean((Boolean) object);
+        } else if (object instanceof Double) {
+          out.writeInt(1);
+          out.writeDouble((Double) object);
+        } else if (object instanceof BigDecimal) {
+          out.writeInt(6);
+          out.writeUTF(object.toString());
+        }
+      }
+      out.flush();
+    }
+
+    HopRow decode(InputStream inStream) throws IOException {
+      ObjectInputStream in = new ObjectInputStream(inStream);
+      Object[] row = new Object[in.readInt()];
+      for (int i = 0; i < row.length; i++) {
+        if (!in.readBoolean()) {
+          switch (in.readInt()) {
+            case 2:
+              byte[] data = new byte[in.readInt()];
+              in.readFully(data);
+              row[i] = new String(data, StandardCharsets.UTF_8);
+              break;
+            case 5:
+              row[i] = in.readLong();
+              break;
+            case 3:
+              row[i] = new Date(in.readLong());
+              break;
+            case 4:
+              row[i] = in.readBoolean();
+              break;
+            case 1:
+              row[i] = in.readDouble();
+              break;
+            default:
+              row[i] = new BigDecimal(in.readUTF());
+              break;
+          }
+        }
+      }
+      return new HopRow(row);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(HopRowCoderBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -19,11 +19,22 @@ package org.apache.hop.beam.core.coder;
 
 import junit.framework.TestCase;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.util.Date;
 
 public class HopRowCoderTest extends TestCase {
@@ -59,5 +70,111 @@ public class HopRowCoderTest extends TestCase {
   }
 
   @Test
-  public void decode() {}
+  public void testEncodeWithRowMeta() throws IOException {
+    HopRowCoder coder = new HopRowCoder(createRowMeta());
+
+    Timestamp timestamp = new Timestamp(876876868L);
+    timestamp.setNanos(123456789);
+    HopRow row1 =
+        new HopRow(
+            new Object[] {
+              "AAA",
+              Long.valueOf(-100),
+              Double.valueOf(1.234),
+              new Date(876876868L),
+              timestamp,
+              Boolean.TRUE,
+              new BigDecimal("-12345678901234567890.0123")
+            });
+    HopRow row2 = new HopRow(new Object[] {null, Long.MIN_VALUE, null, null, null, null, null});
+
+    assertEquals(row1, roundTrip(coder, row1));
+    assertEquals(row2, roundTrip(coder, row2));
+
+    // The layout is known up front so no type information is written
+    //
+    assertTrue(encode(coder, row1).length < encode(hopRowCoder, row1).length);
+  }
+
+  @Test
+  public void testEncodeOutsideRowMeta() throws IOException {
+    HopRowCoder coder = new HopRowCoder(createRowMeta());
+
+    // Binary string storage, a value of another type and extra fields are still encoded
+    //
+    HopRow row =
+        new HopRow(
+            new Object[] {
+              new byte[] {65, 66},
+              "100",
+              Double.valueOf(1.234),
+              new Timestamp(876876868L),
+              null,
+              Boolean.FALSE,
+              null,
+              "extra",
+              Long.valueOf(5)
+            });
+
+    Object[] decoded = roundTrip(coder, row).getRow();
+    assertEquals(row.getRow().length, decoded.length);
+    assertTrue(decoded[0] instanceof byte[]);
+    assertEquals("AB", new String((byte[]) decoded[0]));
+    assertEquals("100", decoded[1]);
+    assertEquals(new Timestamp(876876868L), decoded[3]);
+    assertNull(decoded[4]);
+    assertEquals("extra", decoded[7]);
+    assertEquals(Long.valueOf(5), decoded[8]);
+  }
+
+  @Test
+  public void testEncodeNullRow() throws IOException {
+    assertNull(roundTrip(hopRowCoder, new HopRow(null)).getRow());
+    assertEquals(0, roundTrip(hopRowCoder, new HopRow(new Object[0])).getRow().length);
+  }
+
+  @Test
+  public void testSeveralRowsInOneStream() throws IOException {
+    HopRowCoder coder = new HopRowCoder(createRowMeta());
+    HopRow row1 = new HopRow(new Object[] {"A", 1L, 1.0, null, null, true, BigDecimal.ONE});
+    HopRow row2 = new HopRow(new Object[] {"B", 2L});
+
+    coder.encode(row1, outputStream);
+    coder.encode(row2, outputStream);
+    coder.encode(row1, outputStream);
+
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+    assertEquals(row1, coder.decode(inputStream));
+    assertEquals(row2, coder.decode(inputStream));
+    assertEquals(row1, coder.decode(inputStream));
+    assertEquals(0, inputStream.available());
+  }
+
+  @Test
+  public void testEquals() {
+    assertEquals(new HopRowCoder(createRowMeta()), new HopRowCoder(createRowMeta()));
+    assertFalse(hopRowCoder.equals(new HopRowCoder(createRowMeta())));
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber"));
+    return rowMeta;
+  }
+
+  private byte[] encode(HopRowCoder coder, HopRow row) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(row, out);
+    return out.toByteArray();
+  }
+
+  private HopRow roundTrip(HopRowCoder coder, HopRow row) throws IOException {
+    return coder.decode(new ByteArrayInputStream(encode(coder, row)));
+  }
 }
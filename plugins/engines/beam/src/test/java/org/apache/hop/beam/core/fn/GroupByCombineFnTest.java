@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.fn;
+
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.util.JsonRowMeta;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GroupByCombineFnTest {
+
+  private static final String[] AGGREGATIONS = {
+    "SUM", "AVERAGE", "COUNT_ALL", "MIN", "MAX", "COUNT_DISTINCT"
+  };
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
+  private GroupByCombineFn createCombineFn() throws Exception {
+    IRowMeta subjectRowMeta = new RowMeta();
+    subjectRowMeta.addValueMeta(new ValueMetaInteger("sum"));
+    subjectRowMeta.addValueMeta(new ValueMetaNumber("average"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("count"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("min"));
+    subjectRowMeta.addValueMeta(new ValueMetaInteger("max"));
+    subjectRowMeta.addValueMeta(new ValueMetaString("distinct"));
+    return new GroupByCombineFn(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        JsonRowMeta.toJson(subjectRowMeta),
+        AGGREGATIONS);
+  }
+
+  private static HopRow row(Object... values) {
+    return new HopRow(values);
+  }
+
+  @Test
+  public void testIsCombinable() throws Exception {
+    assertTrue(GroupByCombineFn.isCombinable(AGGREGATIONS));
+    assertFalse(GroupByCombineFn.isCombinable(new String[] {"SUM", "FIRST"}));
+  }
+
+  @Test
+  public void testCombineWithMergedAccumulators() throws Exception {
+    GroupByCombineFn combineFn = createCombineFn();
+
+    GroupByCombineFn.Accumulator first = combineFn.createAccumulator();
+    combineFn.addInput(first, row(1L, 1.0, "a", "k", 3L, "x"));
+    combineFn.addInput(first, row(2L, null, "b", "c", 7L, "y"));
+
+    GroupByCombineFn.Accumulator second = combineFn.createAccumulator();
+    combineFn.addInput(second, row(null, 4.0, null, null, null, "x"));
+    combineFn.addInput(second, row(4L, 7.0, "c", "m", 1L, null));
+
+    // Send one accumulator through the coder the way a runner would before the shuffle
+    //
+    GroupByCombineFn.AccumulatorCoder coder = new GroupByCombineFn.AccumulatorCoder();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    coder.encode(second, outputStream);
+    second = coder.decode(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    GroupByCombineFn.Accumulator merged =
+        combineFn.mergeAccumulators(
+            Arrays.asList(first, second, combineFn.createAccumulator()));
+
+    assertArrayEquals(
+        new Object[] {7L, 4.0, 3L, "c", 7L, 2L}, combineFn.extractOutput(merged).getRow());
+  }
+
+  @Test
+  public void testEmptyGroup() throws Exception {
+    GroupByCombineFn combineFn = createCombineFn();
+    GroupByCombineFn.Accumulator accumulator = combineFn.createAccumulator();
+    combineFn.addInput(accumulator, row(null, null, null, null, null, null));
+
+    assertArrayEquals(
+        new Object[] {null, null, null, null, null, 0L},
+        combineFn.extractOutput(accumulator).getRow());
+  }
+}
@@ -68,8 +68,9 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData>
   @Override
   public boolean processRow() throws HopException {
 
-    Object[] r = getRow(); // get row, set busy!
-    if (r == null) { // no more input to be expected...
+    long previousLinesRead = getLinesRead();
+    Object[][] rows = getRows(ROW_BATCH_SIZE); // get rows, set busy!
+    if (rows == null) { // no more input to be expected...
       setOutputDone();
       data.clearValuesMetaMapping();
       return false;
@@ -170,38 +171,52 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData>
       }
     }
 
-    if (log.isRowLevel()) {
-      logRowlevel(
-          BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
-              + getLinesRead()
-              + " : "
-              + getInputRowMeta().getString(r));
-    }
-
-    try {
-      Object[] row = calcFields(getInputRowMeta(), r);
-      putRow(data.getOutputRowMeta(), row); // copy row to possible alternate rowset(s).
-
+    Object[][] outputRows = new Object[rows.length][];
+    int nrOutputRows = 0;
+    for (Object[] r : rows) {
       if (log.isRowLevel()) {
-        logRowlevel("Wrote row #" + getLinesWritten() + " : " + getInputRowMeta().getString(r));
+        logRowlevel(
+            BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
+                + getLinesRead()
+                + " : "
+                + getInputRowMeta().getString(r));
       }
-      if (checkFeedback(getLinesRead())) {
-        if (log.isBasic()) {
-          logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
+
+      try {
+        Object[] row = calcFields(getInputRowMeta(), r);
+        outputRows[nrOutputRows++] = row;
+
+        if (log.isRowLevel()) {
+          logRowlevel(
+              "Wrote row #"
+                  + (getLinesWritten() + nrOutputRows)
+                  + " : "
+                  + getInputRowMeta().getString(r));
         }
+      } catch (HopFileNotFoundException e) {
+        if (meta.isFailIfNoFile()) {
+          putRows(data.getOutputRowMeta(), outputRows, nrOutputRows);
+          logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
+          setErrors(getErrors() + 1);
+          return false;
+        }
+      } catch (HopException e) {
+        logError(
+            BaseMessages.getString(
+                PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
       }
-    } catch (HopFileNotFoundException e) {
-      if (meta.isFailIfNoFile()) {
-        logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
-        setErrors(getErrors() + 1);
-        return false;
+    }
+
+    // copy the rows to possible alternate rowset(s).
+    //
+    putRows(data.getOutputRowMeta(), outputRows, nrOutputRows);
+
+    if (checkFeedback(previousLinesRead, getLinesRead())) {
+      if (log.isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
       }
-    } catch (HopException e) {
-      logError(
-          BaseMessages.getString(
-              PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
-      throw new HopTransformException(
-          BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
     }
     return true;
   }
@@ -25,6 +25,7 @@ import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.hash.LruByteArrayCache;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -36,13 +37,16 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
+import org.apache.hop.pipeline.transforms.databaselookup.readallcache.SortedRangeCache;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Looks up values in a database using keys from input streams.
@@ -55,6 +59,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static final Class<?> PKG = DatabaseLookupMeta.class; // For Translator
 
+  // Kept after dispose() to report the cache metrics of a finished transform
+  private LruByteArrayCache<Object[]> lookupCache;
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -429,7 +436,14 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        if (meta.isLoadingAllDataInCache()) {
+          // Everything is kept when all data is loaded in the cache
+          data.cache = DefaultCache.newCache(data, 0, 0L);
+        } else {
+          data.cache =
+              DefaultCache.newCache(data, Math.max(0, meta.getCacheSize()), getCacheMemoryLimit());
+        }
+        lookupCache = ((DefaultCache) data.cache).getCache();
       }
 
       determineFieldsTypesQueryingDb();
@@ -606,7 +620,12 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       cacheBuilder.add(keyData, valueData);
       incrementLinesInput();
     }
-    data.cache = cacheBuilder.build();
+    lookupCache = null;
+    if (SortedRangeCache.isApplicable(data.conditions)) {
+      data.cache = cacheBuilder.buildSortedRangeCache();
+    } else {
+      data.cache = cacheBuilder.build();
+    }
   }
 
   /** Stop the running query */
@@ -681,10 +700,18 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
+    if (lookupCache != null) {
+      lookupCache.clear();
+    }
 
     super.dispose();
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getCustomMetrics() {
+    return getCacheMetrics(lookupCache);
+  }
+
   /*
    * this method is required in order to
    * provide ability for unit tests to
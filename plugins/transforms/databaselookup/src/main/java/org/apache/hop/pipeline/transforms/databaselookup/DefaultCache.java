@@ -17,36 +17,45 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
-import org.apache.hop.core.RowMetaAndData;
-import org.apache.hop.core.TimedRow;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.hash.LruByteArrayCache;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
 
-import java.util.*;
+import java.math.BigDecimal;
 
 /**
- * Old code, copied from {@linkplain DatabaseLookup}
+ * The cache used by {@linkplain DatabaseLookup} unless all data is loaded with non-equality
+ * conditions. The keys are kept in serialized form. When a maximum number of rows or amount of
+ * memory is set the least recently used rows are evicted first.
  *
  * @author Andrey Khayrutdinov
  */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
-  public static DefaultCache newCache(DatabaseLookupData data, int cacheSize) {
-    if (cacheSize > 0) {
-      cacheSize = (int) (cacheSize * 1.5);
-    } else {
-      cacheSize = 16;
-    }
-    return new DefaultCache(data, cacheSize);
+  /**
+   * Create a new cache
+   *
+   * @param data the transform data
+   * @param maxRows the maximum number of rows to keep, 0 means no limit
+   * @param maxMemory the maximum estimated amount of memory in bytes to use, 0 means no limit
+   * @return the new cache
+   */
+  public static DefaultCache newCache(DatabaseLookupData data, int maxRows, long maxMemory) {
+    return new DefaultCache(data, maxRows, maxMemory);
   }
 
   private final DatabaseLookupData data;
-  private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final LruByteArrayCache<Object[]> cache;
+
+  // the metadata of the stored keys, needed to decode them when scanning the cache
+  private IRowMeta keyMeta;
 
-  DefaultCache(DatabaseLookupData data, int capacity) {
+  DefaultCache(DatabaseLookupData data, int maxRows, long maxMemory) {
     this.data = data;
-    map = new LinkedHashMap<>(capacity);
+    cache = new LruByteArrayCache<>(maxRows, maxMemory, LruByteArrayCache::estimateRowSize);
   }
 
   @Override
@@ -54,88 +63,86 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     if (data.allEquals) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
       // results
-      TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
-      if (timedRow != null) {
-        return timedRow.getRow();
-      }
+      return cache.get(serializeKey(data.lookupMeta, lookupRow));
     } else { // special handling of conditions <,>, <> etc.
-      if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
-        // TODO: find an alternative way to look up the data based on the condition.
-        // Not all conditions are "=" so we are going to have to evaluate row by row
-        // A sorted list or index might be a good solution here...
+      if (!data.hasDBCondition && keyMeta != null) { // e.g. LIKE not handled by this routine, yet
+        // Not all conditions are "=" so we are going to have to evaluate row by row.
+        // When all data is loaded in the cache, range lookups are served by SortedRangeCache
         //
-        for (RowMetaAndData key : map.keySet()) {
-          // Now verify that the key is matching our conditions...
-          //
-          boolean match = true;
-          int lookupIndex = 0;
-          for (int i = 0; i < data.conditions.length && match; i++) {
-            IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
-            Object cmpData = lookupRow[lookupIndex];
-            IValueMeta keyMeta = key.getValueMeta(i);
-            Object keyData = key.getData()[i];
+        return cache.findFirst(keyBytes -> matches(keyBytes, lookupMeta, lookupRow));
+      }
+    }
+    return null;
+  }
 
-            switch (data.conditions[i]) {
-              case DatabaseLookupMeta.CONDITION_EQ:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) == 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_NE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) != 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) > 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) >= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) < 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) <= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NULL:
-                match = keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
-                match = !keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_BETWEEN:
-                // Between key >= cmp && key <= cmp2
-                IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
-                Object cmpData2 = lookupRow[lookupIndex + 1];
-                match = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
-                if (match) {
-                  match = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
-                }
-                lookupIndex++;
-                break;
-                // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
-              default:
-                match = false;
-                data.hasDBCondition =
-                    true; // avoid looping in here the next time, also safety when a new condition
-                // will be introduced
-                break;
-            }
-            lookupIndex++;
-          }
+  private boolean matches(byte[] keyBytes, IRowMeta lookupMeta, Object[] lookupRow)
+      throws HopValueException {
+    Object[] key = RowMeta.getRow(keyMeta, keyBytes);
+
+    // Now verify that the key is matching our conditions...
+    //
+    boolean match = true;
+    int lookupIndex = 0;
+    for (int i = 0; i < data.conditions.length && match; i++) {
+      IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
+      Object cmpData = lookupRow[lookupIndex];
+      IValueMeta keyValueMeta = keyMeta.getValueMeta(i);
+      Object keyData = key[i];
+
+      switch (data.conditions[i]) {
+        case DatabaseLookupMeta.CONDITION_EQ:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) == 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_NE:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) != 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) > 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LE:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) >= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GT:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) < 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GE:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) <= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+          match = keyValueMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          match = !keyValueMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          // Between key >= cmp && key <= cmp2
+          IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
+          Object cmpData2 = lookupRow[lookupIndex + 1];
+          match = (keyValueMeta.compare(keyData, cmpMeta, cmpData) >= 0);
           if (match) {
-            TimedRow timedRow = map.get(key);
-            if (timedRow != null) {
-              return timedRow.getRow();
-            }
+            match = (keyValueMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
           }
-        }
+          lookupIndex++;
+          break;
+          // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
+        default:
+          match = false;
+          data.hasDBCondition =
+              true; // avoid looping in here the next time, also safety when a new condition
+          // will be introduced
+          break;
       }
+      lookupIndex++;
     }
-    return null;
+    return match;
   }
 
   @Override
   public void storeRowInCache(
       DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
-    RowMetaAndData rowMetaAndData = new RowMetaAndData(lookupMeta, lookupRow);
+    if (keyMeta == null) {
+      keyMeta = lookupMeta.clone();
+    }
     // DEinspanjer 2009-02-01 XXX: I want to write a test case to prove this point before checking
     // in.
     // /* Don't insert a row with a duplicate key into the cache. It doesn't seem
@@ -144,49 +151,32 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     // * Additionally, if using the load all data feature, re-inserting would reverse the order
     // * specified in the transform.
     // */
-    // if (!data.look.containsKey(rowMetaAndData)) {
-    // data.look.put(rowMetaAndData, new TimedRow(add));
-    // }
-    map.put(rowMetaAndData, new TimedRow(add));
-
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
-    // DEinspanjer 2009-02-01: If you had previously set a cache size and then turned on load all,
-    // this
-    // method would throw out entries if the previous cache size wasn't big enough.
-    if (!meta.isLoadingAllDataInCache()
-        && meta.getCacheSize() > 0
-        && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
-      }
-
-      Collections.sort(samples);
-
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
-
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
+    //
+    // The size of the cache is limited by evicting the least recently used rows.
+    // When loading all data in the cache there is no limit.
+    //
+    cache.put(serializeKey(lookupMeta, lookupRow), add);
+  }
 
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
-          }
+  /**
+   * Serializes a key. Numbers with the same value but a different scale (1.0 and 1.00) should be
+   * the same key, like they were when the keys were compared using their metadata.
+   */
+  private static byte[] serializeKey(IRowMeta meta, Object[] row) {
+    Object[] key = row;
+    for (int i = 0; i < row.length; i++) {
+      if (row[i] instanceof BigDecimal) {
+        if (key == row) {
+          key = row.clone();
         }
+        key[i] = ((BigDecimal) row[i]).stripTrailingZeros();
       }
     }
+    return RowMeta.extractData(meta, key);
+  }
+
+  /** @return the underlying cache, giving access to its size and hit, miss and eviction counters */
+  public LruByteArrayCache<Object[]> getCache() {
+    return cache;
   }
 }
@@ -226,5 +226,9 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
     public ReadAllCache build() {
       return new ReadAllCache(transformData, keys, keysMeta, data);
     }
+
+    public SortedRangeCache buildSortedRangeCache() {
+      return new SortedRangeCache(transformData, keys, keysMeta, data);
+    }
   }
 }
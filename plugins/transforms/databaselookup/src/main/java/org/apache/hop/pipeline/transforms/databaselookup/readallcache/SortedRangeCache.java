@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupData;
+import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This is a read-only cache to be used in {@linkplain
+ * org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookup DatabaseLookup} when "Load All
+ * Data In ICache" checkbox is selected and the lookup has a range condition (&lt;, &lt;=, &gt;,
+ * &gt;= or BETWEEN), e.g. a "valid_from &lt;= date AND valid_to &gt; date" lookup.
+ *
+ * <p>The rows are sorted by the columns of all "=" conditions, followed by the column of the range
+ * condition. A lookup first narrows the rows down to the ones with the same equality key and then
+ * to the requested range using binary searches. A segment tree over the sorted rows keeps the
+ * smallest row number of every range, which gives us the first matching row in the order the rows
+ * were loaded in O(log n) as well. The remaining conditions (&lt;&gt;, IS (NOT) NULL and any
+ * additional range conditions) are evaluated on the candidates in that order.
+ */
+public class SortedRangeCache implements DatabaseLookupData.ICache {
+
+  private final Object[][] keys;
+  private final IRowMeta keysMeta;
+
+  private final Object[][] data;
+
+  private final int[] eqColumns;
+  private final int rangeColumn;
+  private final int rangeCondition;
+
+  // this is an array of pairs (column; condition), just like in ReadAllCache
+  private final int[][] otherConditions;
+
+  // the position of the lookup value of every condition in the lookup row
+  private final int[] lookupIndexes;
+
+  // row numbers, sorted by the equality columns and the range column
+  private final int[] sorted;
+
+  // segment tree holding, for every node, the position in sorted with the smallest row number
+  private final int[] tree;
+
+  SortedRangeCache(
+      DatabaseLookupData transformData, Object[][] keys, IRowMeta keysMeta, Object[][] data) {
+    this.keys = keys;
+    this.keysMeta = keysMeta;
+    this.data = data;
+
+    final int[] conditions = transformData.conditions;
+    lookupIndexes = new int[conditions.length];
+    List<Integer> eqList = new ArrayList<>();
+    List<int[]> otherList = new ArrayList<>();
+    int range = -1;
+    int lookupIndex = 0;
+    for (int i = 0; i < conditions.length; i++) {
+      lookupIndexes[i] = lookupIndex++;
+      int condition = conditions[i];
+      if (condition == DatabaseLookupMeta.CONDITION_BETWEEN) {
+        lookupIndex++;
+      }
+      if (condition == DatabaseLookupMeta.CONDITION_EQ) {
+        eqList.add(i);
+      } else if (isRangeCondition(condition)
+          && (range == -1
+              || (condition == DatabaseLookupMeta.CONDITION_BETWEEN
+                  && conditions[range] != DatabaseLookupMeta.CONDITION_BETWEEN))) {
+        // BETWEEN is bounded on both sides, so it is preferred as the range column
+        if (range != -1) {
+          otherList.add(new int[] {range, conditions[range]});
+        }
+        range = i;
+      } else {
+        otherList.add(new int[] {i, condition});
+      }
+    }
+    eqColumns = new int[eqList.size()];
+    for (int i = 0; i < eqColumns.length; i++) {
+      eqColumns[i] = eqList.get(i);
+    }
+    rangeColumn = range;
+    rangeCondition = range == -1 ? -1 : conditions[range];
+    otherConditions = otherList.toArray(new int[otherList.size()][]);
+
+    sorted = sortRows();
+    tree = buildTree();
+  }
+
+  /**
+   * Checks whether the conditions can be served by this cache: there should be at least one range
+   * condition and no conditions which have to be evaluated by the database (LIKE).
+   *
+   * @param conditions the conditions of the lookup
+   * @return true if a {@linkplain SortedRangeCache} can be used
+   */
+  public static boolean isApplicable(int[] conditions) {
+    boolean hasRange = false;
+    for (int condition : conditions) {
+      switch (condition) {
+        case DatabaseLookupMeta.CONDITION_EQ:
+        case DatabaseLookupMeta.CONDITION_NE:
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+        case DatabaseLookupMeta.CONDITION_LE:
+        case DatabaseLookupMeta.CONDITION_GT:
+        case DatabaseLookupMeta.CONDITION_GE:
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          hasRange = true;
+          break;
+        default:
+          return false;
+      }
+    }
+    return hasRange;
+  }
+
+  private static boolean isRangeCondition(int condition) {
+    return condition == DatabaseLookupMeta.CONDITION_LT
+        || condition == DatabaseLookupMeta.CONDITION_LE
+        || condition == DatabaseLookupMeta.CONDITION_GT
+        || condition == DatabaseLookupMeta.CONDITION_GE
+        || condition == DatabaseLookupMeta.CONDITION_BETWEEN;
+  }
+
+  private int[] sortRows() {
+    Integer[] rows = new Integer[keys.length];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = i;
+    }
+    Arrays.sort(
+        rows,
+        (o1, o2) -> {
+          try {
+            for (int column : eqColumns) {
+              int c = compareKeys(column, o1, o2);
+              if (c != 0) {
+                return c;
+              }
+            }
+            if (rangeColumn != -1) {
+              int c = compareKeys(rangeColumn, o1, o2);
+              if (c != 0) {
+                return c;
+              }
+            }
+          } catch (HopValueException e) {
+            throw new RuntimeException(e);
+          }
+          return Integer.compare(o1, o2);
+        });
+
+    int[] result = new int[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      result[i] = rows[i];
+    }
+    return result;
+  }
+
+  private int compareKeys(int column, int row1, int row2) throws HopValueException {
+    return keysMeta.getValueMeta(column).compare(keys[row1][column], keys[row2][column]);
+  }
+
+  private int[] buildTree() {
+    final int n = sorted.length;
+    int[] result = new int[2 * n];
+    for (int i = 0; i < n; i++) {
+      result[n + i] = i;
+    }
+    for (int i = n - 1; i > 0; i--) {
+      result[i] = minPosition(result[2 * i], result[2 * i + 1]);
+    }
+    return result;
+  }
+
+  private int minPosition(int position1, int position2) {
+    if (position1 == -1) {
+      return position2;
+    }
+    if (position2 == -1) {
+      return position1;
+    }
+    return sorted[position1] <= sorted[position2] ? position1 : position2;
+  }
+
+  /**
+   * Looks for the position in {@code sorted} having the smallest row number in the range [from,
+   * to)
+   */
+  private int findFirstRow(int from, int to) {
+    int result = -1;
+    for (int l = from + sorted.length, r = to + sorted.length; l < r; l >>= 1, r >>= 1) {
+      if ((l & 1) == 1) {
+        result = minPosition(result, tree[l++]);
+      }
+      if ((r & 1) == 1) {
+        result = minPosition(result, tree[--r]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds the first position in [from, to) where the key in the column is greater than (or equal
+   * to, if {@code inclusive}) the value. The keys in the range are expected to be sorted on this
+   * column.
+   */
+  private int search(int from, int to, int column, Object value, boolean inclusive)
+      throws HopValueException {
+    IValueMeta keyMeta = keysMeta.getValueMeta(column);
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int c = keyMeta.compare(keys[sorted[middle]][column], value);
+      if (c < 0 || (c == 0 && !inclusive)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Object getLookupValue(int column, int shift, IRowMeta lookupMeta, Object[] lookupRow)
+      throws HopValueException {
+    int lookupIndex = lookupIndexes[column] + shift;
+    Object value = lookupRow[lookupIndex];
+    IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
+    IValueMeta keyMeta = keysMeta.getValueMeta(column);
+    if (value != null && cmpMeta.getType() != keyMeta.getType()) {
+      value = keyMeta.convertData(cmpMeta, value);
+    }
+    return value;
+  }
+
+  @Override
+  public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
+    int from = 0;
+    int to = sorted.length;
+    for (int column : eqColumns) {
+      Object value = getLookupValue(column, 0, lookupMeta, lookupRow);
+      from = search(from, to, column, value, true);
+      to = search(from, to, column, value, false);
+      if (from >= to) {
+        return null;
+      }
+    }
+
+    Object value = getLookupValue(rangeColumn, 0, lookupMeta, lookupRow);
+    switch (rangeCondition) {
+      case DatabaseLookupMeta.CONDITION_LT:
+        to = search(from, to, rangeColumn, value, true);
+        break;
+      case DatabaseLookupMeta.CONDITION_LE:
+        to = search(from, to, rangeColumn, value, false);
+        break;
+      case DatabaseLookupMeta.CONDITION_GT:
+        from = search(from, to, rangeColumn, value, false);
+        break;
+      case DatabaseLookupMeta.CONDITION_GE:
+        from = search(from, to, rangeColumn, value, true);
+        break;
+      default:
+        // BETWEEN: key >= cmp && key <= cmp2
+        from = search(from, to, rangeColumn, value, true);
+        Object value2 = getLookupValue(rangeColumn, 1, lookupMeta, lookupRow);
+        to = Math.max(from, search(from, to, rangeColumn, value2, false));
+        break;
+    }
+    if (from >= to) {
+      return null;
+    }
+
+    int position = findFirstRow(from, to);
+    if (otherConditions.length == 0) {
+      return data[sorted[position]];
+    }
+
+    // visit the candidates in the order of their row numbers by splitting the range
+    // around the first row each time it doesn't match the other conditions
+    PriorityQueue<int[]> ranges =
+        new PriorityQueue<>((o1, o2) -> Integer.compare(sorted[o1[2]], sorted[o2[2]]));
+    ranges.add(new int[] {from, to, position});
+    while (!ranges.isEmpty()) {
+      int[] range = ranges.poll();
+      int row = sorted[range[2]];
+      if (matchesOtherConditions(keys[row], lookupMeta, lookupRow)) {
+        return data[row];
+      }
+      if (range[0] < range[2]) {
+        ranges.add(new int[] {range[0], range[2], findFirstRow(range[0], range[2])});
+      }
+      if (range[2] + 1 < range[1]) {
+        ranges.add(new int[] {range[2] + 1, range[1], findFirstRow(range[2] + 1, range[1])});
+      }
+    }
+    return null;
+  }
+
+  private boolean matchesOtherConditions(Object[] rowKeys, IRowMeta lookupMeta, Object[] lookupRow)
+      throws HopValueException {
+    for (int[] columnConditionPair : otherConditions) {
+      final int column = columnConditionPair[0];
+      Object keyData = rowKeys[column];
+      IValueMeta keyMeta = keysMeta.getValueMeta(column);
+
+      int condition = columnConditionPair[1];
+      if (condition == DatabaseLookupMeta.CONDITION_IS_NULL) {
+        if (!keyMeta.isNull(keyData)) {
+          return false;
+        }
+        continue;
+      }
+      if (condition == DatabaseLookupMeta.CONDITION_IS_NOT_NULL) {
+        if (keyMeta.isNull(keyData)) {
+          return false;
+        }
+        continue;
+      }
+
+      int lookupIndex = lookupIndexes[column];
+      IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
+      int c = keyMeta.compare(keyData, cmpMeta, lookupRow[lookupIndex]);
+      boolean matches;
+      switch (condition) {
+        case DatabaseLookupMeta.CONDITION_NE:
+          matches = c != 0;
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+          matches = c < 0;
+          break;
+        case DatabaseLookupMeta.CONDITION_LE:
+          matches = c <= 0;
+          break;
+        case DatabaseLookupMeta.CONDITION_GT:
+          matches = c > 0;
+          break;
+        case DatabaseLookupMeta.CONDITION_GE:
+          matches = c >= 0;
+          break;
+        default:
+          // BETWEEN
+          matches =
+              c >= 0
+                  && keyMeta.compare(
+                          keyData,
+                          lookupMeta.getValueMeta(lookupIndex + 1),
+                          lookupRow[lookupIndex + 1])
+                      <= 0;
+          break;
+      }
+      if (!matches) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void storeRowInCache(
+      DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
+    throw new UnsupportedOperationException("This cache is read-only");
+  }
+}
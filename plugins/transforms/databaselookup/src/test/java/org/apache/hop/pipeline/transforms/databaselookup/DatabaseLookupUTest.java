@@ -38,6 +38,7 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
+import org.apache.hop.pipeline.transforms.databaselookup.readallcache.SortedRangeCache;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.*;
 import org.mockito.Matchers;
@@ -220,7 +221,7 @@ public class DatabaseLookupUTest {
         .thenReturn(mockHelper.iLogChannel);
 
     DatabaseLookupData data = new DatabaseLookupData();
-    data.cache = DefaultCache.newCache(data, 0);
+    data.cache = DefaultCache.newCache(data, 0, 0L);
     data.lookupMeta = new RowMeta();
 
     NoneDatabaseMeta genericMeta = new NoneDatabaseMeta();
@@ -288,7 +289,7 @@ public class DatabaseLookupUTest {
         .thenReturn(mockHelper.iLogChannel);
 
     DatabaseLookupData data = new DatabaseLookupData();
-    data.cache = DefaultCache.newCache(data, 0);
+    data.cache = DefaultCache.newCache(data, 0, 0L);
     data.lookupMeta = new RowMeta();
 
     DatabaseLookup look =
@@ -327,17 +328,23 @@ public class DatabaseLookupUTest {
 
   @Test
   public void createsReadOnlyCache_WhenReadAll_AndNotAllEquals() throws Exception {
-    DatabaseLookupData data = getCreatedData(false);
+    DatabaseLookupData data = getCreatedData(false, DatabaseLookupMeta.CONDITION_NE);
     assertThat(data.cache, is(instanceOf(ReadAllCache.class)));
   }
 
+  @Test
+  public void createsSortedRangeCache_WhenReadAll_AndRangeCondition() throws Exception {
+    DatabaseLookupData data = getCreatedData(false, DatabaseLookupMeta.CONDITION_LT);
+    assertThat(data.cache, is(instanceOf(SortedRangeCache.class)));
+  }
+
   @Test
   public void createsReadDefaultCache_WhenReadAll_AndAllEquals() throws Exception {
-    DatabaseLookupData data = getCreatedData(true);
+    DatabaseLookupData data = getCreatedData(true, DatabaseLookupMeta.CONDITION_EQ);
     assertThat(data.cache, is(instanceOf(DefaultCache.class)));
   }
 
-  private DatabaseLookupData getCreatedData(boolean allEquals) throws Exception {
+  private DatabaseLookupData getCreatedData(boolean allEquals, int condition) throws Exception {
     Database db = mock(Database.class);
     when(db.getRows(anyString(), anyInt()))
         .thenReturn(Collections.singletonList(new Object[] {1L}));
@@ -354,13 +361,8 @@ public class DatabaseLookupUTest {
 
     data.db = db;
     data.keytypes = new int[] {IValueMeta.TYPE_INTEGER};
-    if (allEquals) {
-      data.allEquals = true;
-      data.conditions = new int[] {DatabaseLookupMeta.CONDITION_EQ};
-    } else {
-      data.allEquals = false;
-      data.conditions = new int[] {DatabaseLookupMeta.CONDITION_LT};
-    }
+    data.allEquals = allEquals;
+    data.conditions = new int[] {condition};
     transform.processRow();
 
     return data;
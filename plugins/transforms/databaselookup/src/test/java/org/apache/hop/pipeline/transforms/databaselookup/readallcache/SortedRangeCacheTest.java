@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupData;
+import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupMeta;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SortedRangeCacheTest {
+
+  private DatabaseLookupData transformData;
+  private RowMeta keysMeta;
+  private Object[][] keys;
+  private Object[][] data;
+
+  @Before
+  public void setUp() {
+    transformData = new DatabaseLookupData();
+
+    // a slowly changing dimension: natural key, valid from, valid to
+    keysMeta = new RowMeta();
+    keysMeta.addValueMeta(new ValueMetaString());
+    keysMeta.addValueMeta(new ValueMetaDate());
+    keysMeta.addValueMeta(new ValueMetaDate());
+
+    keys =
+        new Object[][] {
+          new Object[] {"b", new Date(0), new Date(100)},
+          new Object[] {"a", new Date(100), new Date(200)},
+          new Object[] {"a", new Date(0), new Date(100)},
+          new Object[] {"b", new Date(100), new Date(300)},
+          new Object[] {"a", new Date(200), new Date(300)},
+          new Object[] {"a", new Date(0), new Date(300)}
+        };
+
+    data =
+        new Object[][] {
+          new Object[] {0},
+          new Object[] {1},
+          new Object[] {2},
+          new Object[] {3},
+          new Object[] {4},
+          new Object[] {5}
+        };
+  }
+
+  @Test
+  public void isApplicable() {
+    assertTrue(SortedRangeCache.isApplicable(conditions("=,<=,>")));
+    assertTrue(SortedRangeCache.isApplicable(conditions("IS NULL,BETWEEN")));
+    assertFalse(SortedRangeCache.isApplicable(conditions("=,IS NOT NULL")));
+    assertFalse(SortedRangeCache.isApplicable(conditions("LIKE,<")));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void storeRowInCache_ThrowsException() throws Exception {
+    buildCache("=,<=,>")
+        .storeRowInCache(new DatabaseLookupMeta(), keysMeta.clone(), keys[0], data[0]);
+  }
+
+  @Test
+  public void lookup_Finds_ValidVersion() throws Exception {
+    SortedRangeCache cache = buildCache("=,<=,>");
+    assertArrayEquals(
+        data[1], cache.getRowFromCache(lookupMeta(3), lookupRow("a", 150, 150)));
+    assertArrayEquals(
+        data[3], cache.getRowFromCache(lookupMeta(3), lookupRow("b", 100, 100)));
+    assertArrayEquals(data[0], cache.getRowFromCache(lookupMeta(3), lookupRow("b", 99, 99)));
+  }
+
+  @Test
+  public void lookup_Finds_FirstMatching() throws Exception {
+    SortedRangeCache cache = buildCache("=,<=,>");
+    // rows 2 and 5 are both valid, row 2 has been loaded first
+    assertArrayEquals(data[2], cache.getRowFromCache(lookupMeta(3), lookupRow("a", 50, 50)));
+    // rows 4 and 5 are both valid, but row 5 has an earlier valid from
+    assertArrayEquals(
+        data[4], cache.getRowFromCache(lookupMeta(3), lookupRow("a", 250, 250)));
+  }
+
+  @Test
+  public void lookup_DoesNotFind() throws Exception {
+    SortedRangeCache cache = buildCache("=,<=,>");
+    assertNull(cache.getRowFromCache(lookupMeta(3), lookupRow("a", 300, 300)));
+    assertNull(cache.getRowFromCache(lookupMeta(3), lookupRow("c", 50, 50)));
+    assertNull(cache.getRowFromCache(lookupMeta(3), lookupRow("b", -1, -1)));
+  }
+
+  @Test
+  public void lookup_Finds_WithBetweenOperator() throws Exception {
+    SortedRangeCache cache = buildCache("=,BETWEEN,IS NOT NULL");
+    RowMeta meta = lookupMeta(4);
+    assertArrayEquals(data[1], cache.getRowFromCache(meta, lookupRow("a", 50, 150, 0)));
+    assertArrayEquals(data[4], cache.getRowFromCache(meta, lookupRow("a", 150, 250, 0)));
+    assertNull(cache.getRowFromCache(meta, lookupRow("b", 150, 250, 0)));
+    assertNull(cache.getRowFromCache(meta, lookupRow("a", 150, 50, 0)));
+  }
+
+  @Test
+  public void lookup_MatchesReadAllCache() throws Exception {
+    Random random = new Random(42);
+    keys = new Object[1000][];
+    data = new Object[keys.length][];
+    for (int i = 0; i < keys.length; i++) {
+      long from = random.nextInt(1000);
+      keys[i] =
+          new Object[] {
+            String.valueOf(random.nextInt(10)), new Date(from), new Date(from + random.nextInt(100))
+          };
+      data[i] = new Object[] {i};
+    }
+
+    for (String conditions : new String[] {"=,<=,>", "=,>=,<", "<>,>,BETWEEN", "=,<,IS NOT NULL"}) {
+      SortedRangeCache cache = buildCache(conditions);
+      ReadAllCache expected = buildReadAllCache();
+      RowMeta meta = lookupMeta(conditions.contains("BETWEEN") ? 4 : 3);
+      for (int i = 0; i < 500; i++) {
+        long date = random.nextInt(1100);
+        Object[] lookupRow =
+            conditions.contains("BETWEEN")
+                ? lookupRow(String.valueOf(random.nextInt(10)), date, date, date + 100)
+                : lookupRow(String.valueOf(random.nextInt(11)), date, date);
+        assertArrayEquals(
+            conditions + " " + Arrays.toString(lookupRow),
+            expected.getRowFromCache(meta, lookupRow),
+            cache.getRowFromCache(meta, lookupRow));
+      }
+    }
+  }
+
+  private RowMeta lookupMeta(int size) {
+    RowMeta meta = new RowMeta();
+    meta.addValueMeta(new ValueMetaString());
+    for (int i = 1; i < size; i++) {
+      meta.addValueMeta(new ValueMetaDate());
+    }
+    return meta;
+  }
+
+  private Object[] lookupRow(String key, long... dates) {
+    Object[] row = new Object[dates.length + 1];
+    row[0] = key;
+    for (int i = 0; i < dates.length; i++) {
+      row[i + 1] = new Date(dates[i]);
+    }
+    return row;
+  }
+
+  private int[] conditions(String conditions) {
+    StringTokenizer tokenizer = new StringTokenizer(conditions, ",");
+    List<String> operators = Arrays.asList(DatabaseLookupMeta.conditionStrings);
+    int[] result = new int[tokenizer.countTokens()];
+    for (int i = 0; i < result.length; i++) {
+      String operator = tokenizer.nextToken();
+      result[i] = operators.indexOf(operator);
+      if (result[i] == -1) {
+        throw new RuntimeException(conditions + " -- " + operator);
+      }
+    }
+    return result;
+  }
+
+  private SortedRangeCache buildCache(String conditions) {
+    transformData.conditions = conditions(conditions);
+    return newBuilder().buildSortedRangeCache();
+  }
+
+  private ReadAllCache buildReadAllCache() {
+    return newBuilder().build();
+  }
+
+  private ReadAllCache.Builder newBuilder() {
+    ReadAllCache.Builder builder = new ReadAllCache.Builder(transformData, keys.length);
+    builder.setKeysMeta(keysMeta);
+    for (int i = 0; i < keys.length; i++) {
+      builder.add(keys[i], data[i]);
+    }
+    return builder;
+  }
+}
@@ -25,7 +25,7 @@ import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
-import org.apache.hop.core.hash.ByteArrayHashMap;
+import org.apache.hop.core.hash.LruByteArrayCache;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
@@ -37,6 +37,7 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
@@ -178,9 +179,10 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
             data.cacheKeyRowMeta.addValueMeta(key.clone());
           }
 
+          // The least recently used rows are evicted to stay within the limits
           data.cache =
-              new ByteArrayHashMap(
-                  meta.getCacheSize() > 0 ? meta.getCacheSize() : 5000, data.cacheKeyRowMeta);
+              new LruByteArrayCache<>(
+                  Math.max(0, meta.getCacheSize()), getCacheMemoryLimit(), value -> value.length);
         }
       }
 
@@ -1567,78 +1569,6 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     byte[] valuePart = RowMeta.extractData(data.cacheValueRowMeta, returnValues);
     data.cache.put(keyPart, valuePart);
 
-    // check if the size is not too big...
-    // Allow for a buffer overrun of 20% and then remove those 20% in one go.
-    // Just to keep performance in track.
-    //
-    int tenPercent = meta.getCacheSize() / 10;
-    if (meta.getCacheSize() > 0 && data.cache.size() > meta.getCacheSize() + tenPercent) {
-      // Which cache entries do we delete here?
-      // We delete those with the lowest technical key...
-      // Those would arguably be the "oldest" dimension entries.
-      // Oh well... Nothing is going to be perfect here...
-      //
-      // Getting the lowest 20% requires some kind of sorting algorithm and I'm not sure we want to
-      // do that.
-      // Sorting is slow and even in the best case situation we need to do 2 passes over the cache
-      // entries...
-      //
-      // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
-      //
-      List<byte[]> keys = data.cache.getKeys();
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<>();
-
-      // Take 10 sample technical keys....
-      int transformsize = keys.size() / 5;
-      if (transformsize < 1) {
-        transformsize = 1; // make shure we have no endless loop
-      }
-      for (int i = 0; i < keys.size(); i += transformsize) {
-        byte[] key = keys.get(i);
-        byte[] value = data.cache.get(key);
-        if (value != null) {
-          Object[] values = RowMeta.getRow(data.cacheValueRowMeta, value);
-          Long tk = data.cacheValueRowMeta.getInteger(values, 0);
-          samples.add(tk);
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort(samples);
-
-      // What is the smallest?
-      // Take the second, not the fist in the list, otherwise we would be removing a single entry =
-      // not good.
-      if (samples.size() > 1) {
-        data.smallestCacheKey = samples.get(1);
-      } else if (!samples.isEmpty()) { // except when there is only one sample
-        data.smallestCacheKey = samples.get(0);
-      } else {
-        // If no samples found nothing to remove, we're done
-        return;
-      }
-
-      // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
-      // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the
-      // time.
-      //
-      for (int i = 0; i < keys.size(); i++) {
-        byte[] key = keys.get(i);
-        byte[] value = data.cache.get(key);
-        if (value != null) {
-          Object[] values = RowMeta.getRow(data.cacheValueRowMeta, value);
-          long tk = data.cacheValueRowMeta.getInteger(values, 0).longValue();
-          if (tk <= data.smallestCacheKey) {
-            data.cache.remove(key); // this one has to go.
-          }
-        }
-      }
-
-      int sizeAfter = data.cache.size();
-      logDetailed("Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows.");
-    }
-
     if (isRowLevel()) {
       logRowlevel(
           "Cache store: key="
@@ -1799,6 +1729,11 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     return false;
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getCustomMetrics() {
+    return getCacheMetrics(data.cache);
+  }
+
   @Override
   public void dispose() {
     if (data.db != null) {
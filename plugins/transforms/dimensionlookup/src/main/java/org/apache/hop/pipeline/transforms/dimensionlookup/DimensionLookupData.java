@@ -18,7 +18,7 @@
 package org.apache.hop.pipeline.transforms.dimensionlookup;
 
 import org.apache.hop.core.database.Database;
-import org.apache.hop.core.hash.ByteArrayHashMap;
+import org.apache.hop.core.hash.LruByteArrayCache;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -43,9 +43,7 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
   public int[] fieldnrs; // nrs in row of the fields
   public int datefieldnr; // Nr of datefield field in row
 
-  public ByteArrayHashMap cache;
-
-  public long smallestCacheKey;
+  public LruByteArrayCache<byte[]> cache;
 
   public Long notFoundTk;
 
@@ -96,7 +94,6 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
 
     db = null;
     valueDateNow = null;
-    smallestCacheKey = -1;
     realTableName = null;
     realSchemaName = null;
   }
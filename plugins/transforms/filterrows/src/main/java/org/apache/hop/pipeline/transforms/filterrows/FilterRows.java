@@ -53,9 +53,15 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData>
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private synchronized boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
+  private boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
     try {
-      return meta.getCondition().evaluate(rowMeta, row);
+      // Every transform copy has its own compiled condition, bound to the input row layout
+      //
+      if (data.conditionRowMeta != rowMeta) {
+        data.condition = meta.getCondition().compile(rowMeta);
+        data.conditionRowMeta = rowMeta;
+      }
+      return data.condition.evaluate(row);
     } catch (Exception e) {
       String message =
           BaseMessages.getString(
@@ -74,8 +80,9 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData>
 
     boolean keep;
 
-    Object[] r = getRow(); // Get next usable row from input rowset(s)!
-    if (r == null) { // no more input to be expected...
+    long previousLinesRead = getLinesRead();
+    Object[][] rows = getRows(ROW_BATCH_SIZE); // Get next usable rows from input rowset(s)!
+    if (rows == null) { // no more input to be expected...
 
       setOutputDone();
       return false;
@@ -127,38 +134,45 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData>
       }
     }
 
-    keep = keepRow(getInputRowMeta(), r); // Keep this row?
-    if (!data.chosesTargetTransforms) {
-      if (keep) {
-        putRow(data.outputRowMeta, r); // copy row to output rowset(s);
-      }
-    } else {
-      if (keep) {
-        if (data.trueRowSet != null) {
-          if (log.isRowLevel()) {
-            logRowlevel(
-                "Sending row to true  :"
-                    + data.trueTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
-          }
-          putRowTo(data.outputRowMeta, r, data.trueRowSet);
+    Object[][] keptRows = data.chosesTargetTransforms ? null : new Object[rows.length][];
+    int nrKeptRows = 0;
+    for (Object[] r : rows) {
+      keep = keepRow(getInputRowMeta(), r); // Keep this row?
+      if (!data.chosesTargetTransforms) {
+        if (keep) {
+          keptRows[nrKeptRows++] = r;
         }
       } else {
-        if (data.falseRowSet != null) {
-          if (log.isRowLevel()) {
-            logRowlevel(
-                "Sending row to false :"
-                    + data.falseTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
+        if (keep) {
+          if (data.trueRowSet != null) {
+            if (log.isRowLevel()) {
+              logRowlevel(
+                  "Sending row to true  :"
+                      + data.trueTransformName
+                      + " : "
+                      + getInputRowMeta().getString(r));
+            }
+            putRowTo(data.outputRowMeta, r, data.trueRowSet);
+          }
+        } else {
+          if (data.falseRowSet != null) {
+            if (log.isRowLevel()) {
+              logRowlevel(
+                  "Sending row to false :"
+                      + data.falseTransformName
+                      + " : "
+                      + getInputRowMeta().getString(r));
+            }
+            putRowTo(data.outputRowMeta, r, data.falseRowSet);
           }
-          putRowTo(data.outputRowMeta, r, data.falseRowSet);
         }
       }
     }
+    if (nrKeptRows > 0) {
+      putRows(data.outputRowMeta, keptRows, nrKeptRows); // copy rows to output rowset(s);
+    }
 
-    if (checkFeedback(getLinesRead())) {
+    if (checkFeedback(previousLinesRead, getLinesRead())) {
       if (log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
       }
@@ -171,9 +185,9 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData>
   public boolean init() {
 
     if (super.init()) {
-      // could it be a better idea to have a clone on the condition in data and do this on the first
-      // row?
       meta.getCondition().clearFieldPositions();
+      data.condition = null;
+      data.conditionRowMeta = null;
 
       List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
       data.trueTransformName = targetStreams.get(0).getTransformName();
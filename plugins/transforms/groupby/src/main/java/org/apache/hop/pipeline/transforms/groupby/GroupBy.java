@@ -18,7 +18,6 @@
 package org.apache.hop.pipeline.transforms.groupby;
 
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
-import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
@@ -26,8 +25,8 @@ import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.*;
 import org.apache.hop.core.row.value.*;
+import org.apache.hop.core.spill.SpillManager;
 import org.apache.hop.core.util.Utils;
-import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -35,8 +34,6 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-import java.io.*;
-import java.net.SocketTimeoutException;
 import java.util.*;
 
 /**
@@ -782,48 +779,41 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData>
   }
 
   // Method is defined as package-protected in order to be accessible by unit tests
-  void addToBuffer(Object[] row) throws HopFileException {
+  void addToBuffer(Object[] row) throws HopException {
     data.bufferList.add(row);
     if (data.bufferList.size() > 5000 && data.rowsOnFile == 0) {
-      String pathToTmp = resolve(getMeta().getDirectory());
       try {
-        File ioFile = new File(pathToTmp);
-        if (!ioFile.exists()) {
-          // try to resolve as Apache VFS file
-          pathToTmp = retrieveVfsPath(pathToTmp);
+        if (data.spillManager == null) {
+          data.spillManager =
+              new SpillManager(
+                  this, resolve(getMeta().getDirectory()), getMeta().getPrefix(), false);
         }
-        data.tempFile = File.createTempFile(getMeta().getPrefix(), ".tmp", new File(pathToTmp));
-        data.fosToTempFile = new FileOutputStream(data.tempFile);
-        data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
+        // A previous group might have left its (fully read) file behind
+        //
+        deleteSpillFile();
+        data.spillFile = data.spillManager.createSpillFile();
+        data.spillWriter = data.spillFile.createWriter(data.inputRowMeta);
         data.firstRead = true;
-      } catch (IOException e) {
+      } catch (HopException e) {
         throw new HopFileException(
             BaseMessages.getString(PKG, "GroupBy.Exception.UnableToCreateTemporaryFile"), e);
       }
       // OK, save the oldest rows to disk!
       Object[] oldest = data.bufferList.get(0);
-      data.inputRowMeta.writeData(data.dosToTempFile, oldest);
+      data.spillWriter.writeRow(oldest);
       data.bufferList.remove(0);
       data.rowsOnFile++;
     }
   }
 
-  // Method is defined as public in order to be accessible by unit tests
-  public String retrieveVfsPath(String pathToTmp) throws HopFileException {
-    FileObject vfsFile = HopVfs.getFileObject(pathToTmp);
-    String path = vfsFile.getName().getPath();
-    return path;
-  }
-
-  private Object[] getRowFromBuffer() throws HopFileException {
+  private Object[] getRowFromBuffer() throws HopException {
     if (data.rowsOnFile > 0) {
       if (data.firstRead) {
-        // Open the inputstream first...
+        // Open the reader first...
         try {
-          data.fisToTmpFile = new FileInputStream(data.tempFile);
-          data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
+          data.spillReader = data.spillFile.createReader(data.inputRowMeta);
           data.firstRead = false;
-        } catch (IOException e) {
+        } catch (HopException e) {
           throw new HopFileException(
               BaseMessages.getString(PKG, "GroupBy.Exception.UnableToReadBackRowFromTemporaryFile"),
               e);
@@ -831,12 +821,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData>
       }
 
       // Read one row from the file!
-      Object[] row;
-      try {
-        row = data.inputRowMeta.readData(data.disToTmpFile);
-      } catch (SocketTimeoutException e) {
-        throw new HopFileException(e); // Shouldn't happen on files
-      }
+      Object[] row = data.spillReader.readRow();
       data.rowsOnFile--;
 
       return row;
@@ -852,39 +837,36 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData>
   }
 
   private void closeOutput() throws HopFileException {
-    try {
-      if (data.dosToTempFile != null) {
-        data.dosToTempFile.close();
-        data.dosToTempFile = null;
-      }
-      if (data.fosToTempFile != null) {
-        data.fosToTempFile.close();
-        data.fosToTempFile = null;
+    if (data.spillWriter != null) {
+      try {
+        data.spillWriter.close();
+      } catch (HopFileException e) {
+        throw new HopFileException(
+            BaseMessages.getString(
+                PKG, "GroupBy.Exception.UnableToCloseInputStream", data.spillFile.toString()),
+            e);
+      } finally {
+        data.spillWriter = null;
       }
-      data.firstRead = true;
-    } catch (IOException e) {
-      throw new HopFileException(
-          BaseMessages.getString(
-              PKG, "GroupBy.Exception.UnableToCloseInputStream", data.tempFile.getPath()),
-          e);
     }
+    data.firstRead = true;
   }
 
-  private void closeInput() throws HopFileException {
-    try {
-      if (data.fisToTmpFile != null) {
-        data.fisToTmpFile.close();
-        data.fisToTmpFile = null;
-      }
-      if (data.disToTmpFile != null) {
-        data.disToTmpFile.close();
-        data.disToTmpFile = null;
+  private void closeInput() {
+    if (data.spillReader != null) {
+      data.spillReader.close();
+      data.spillReader = null;
+    }
+  }
+
+  private void deleteSpillFile() {
+    if (data.spillFile != null) {
+      if (!data.spillFile.delete() && log.isDetailed()) {
+        log.logDetailed(
+            BaseMessages.getString(
+                PKG, "GroupBy.Exception.UnableToDeleteTemporaryFile", data.spillFile.toString()));
       }
-    } catch (IOException e) {
-      throw new HopFileException(
-          BaseMessages.getString(
-              PKG, "GroupBy.Exception.UnableToCloseInputStream", data.tempFile.getPath()),
-          e);
+      data.spillFile = null;
     }
   }
 
@@ -904,21 +886,14 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData>
   @Override
   public void dispose() {
 
-    if (data.tempFile != null) {
+    if (data.spillFile != null) {
+      closeInput();
       try {
-        closeInput();
         closeOutput();
       } catch (HopFileException e) {
         log.logError(e.getLocalizedMessage());
       }
-
-      boolean tempFileDeleted = data.tempFile.delete();
-
-      if (!tempFileDeleted && log.isDetailed()) {
-        log.logDetailed(
-            BaseMessages.getString(
-                PKG, "GroupBy.Exception.UnableToDeleteTemporaryFile", data.tempFile.getPath()));
-      }
+      deleteSpillFile();
     }
 
     super.dispose();
@@ -19,10 +19,13 @@ package org.apache.hop.pipeline.transforms.groupby;
 
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillManager;
+import org.apache.hop.core.spill.SpillReader;
+import org.apache.hop.core.spill.SpillWriter;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -53,18 +56,17 @@ public class GroupByData extends BaseTransformData implements ITransformData {
 
   public ArrayList<Object[]> bufferList;
 
-  public File tempFile;
+  public SpillManager spillManager;
 
-  public FileOutputStream fosToTempFile;
+  public SpillFile spillFile;
 
-  public DataOutputStream dosToTempFile;
+  public SpillWriter spillWriter;
 
   public int rowsOnFile;
 
   public boolean firstRead;
 
-  public FileInputStream fisToTmpFile;
-  public DataInputStream disToTmpFile;
+  public SpillReader spillReader;
 
   public Object[] groupResult;
 
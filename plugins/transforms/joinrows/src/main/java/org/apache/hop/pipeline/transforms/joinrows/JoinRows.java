@@ -22,6 +22,10 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillManager;
+import org.apache.hop.core.spill.SpillReader;
+import org.apache.hop.core.spill.SpillWriter;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -29,8 +33,6 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-import java.io.*;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -79,26 +81,21 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
       int rowSetsSize = inputRowSets.size();
 
       // ** INPUT SIDE **
-      data.file = new File[rowSetsSize];
-      data.fileInputStream = new FileInputStream[rowSetsSize];
-      data.dataInputStream = new DataInputStream[rowSetsSize];
+      data.file = new SpillFile[rowSetsSize];
+      data.reader = new SpillReader[rowSetsSize];
       data.size = new int[rowSetsSize];
       data.fileRowMeta = new IRowMeta[rowSetsSize];
       data.joinrow = new Object[rowSetsSize][];
       data.rs = new IRowSet[rowSetsSize];
       data.cache = new List[rowSetsSize];
       data.position = new int[rowSetsSize];
-      data.fileOutputStream = new FileOutputStream[rowSetsSize];
-      data.dataOutputStream = new DataOutputStream[rowSetsSize];
+      data.writer = new SpillWriter[rowSetsSize];
       data.restart = new boolean[rowSetsSize];
 
+      SpillManager spillManager =
+          new SpillManager(this, resolve(meta.getDirectory()), meta.getPrefix(), false);
       for (int i = 1; i < rowSetsSize; i++) {
-        String directoryName = resolve(meta.getDirectory());
-        File file = null;
-        if (directoryName != null) {
-          file = new File(directoryName);
-        }
-        data.file[i] = File.createTempFile(meta.getPrefix(), ".tmp", file);
+        data.file[i] = spillManager.createSpillFile();
 
         data.size[i] = 0;
         data.rs[i] = inputRowSets.get(i);
@@ -106,8 +103,8 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
         // data.row[i] = null;
         data.position[i] = 0;
 
-        data.dataInputStream[i] = null;
-        data.dataOutputStream[i] = null;
+        data.reader[i] = null;
+        data.writer[i] = null;
 
         data.joinrow[i] = null;
         data.restart[i] = false;
@@ -146,12 +143,21 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
       }
     } else {
       if (data.cache[filenr] == null) {
+        if (data.size[filenr] == 0) {
+          if (log.isBasic()) {
+            logBasic(
+                BaseMessages.getString(PKG, "JoinRows.Log.NoRowsComingFromTransform")
+                    + data.rs[filenr].getOriginTransformName()
+                    + "]");
+          }
+          return null;
+        }
+
         // See if we need to open the file?
-        if (data.dataInputStream[filenr] == null) {
+        if (data.reader[filenr] == null) {
           try {
-            data.fileInputStream[filenr] = new FileInputStream(data.file[filenr]);
-            data.dataInputStream[filenr] = new DataInputStream(data.fileInputStream[filenr]);
-          } catch (FileNotFoundException fnfe) {
+            data.reader[filenr] = data.file[filenr].createReader(data.fileRowMeta[filenr]);
+          } catch (HopFileException fnfe) {
             logError(
                 BaseMessages.getString(PKG, "JoinRows.Log.UnableToFindOrOpenTemporaryFile")
                     + data.file[filenr]
@@ -165,18 +171,8 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
 
         // Read a row from the temporary file
 
-        if (data.size[filenr] == 0) {
-          if (log.isBasic()) {
-            logBasic(
-                BaseMessages.getString(PKG, "JoinRows.Log.NoRowsComingFromTransform")
-                    + data.rs[filenr].getOriginTransformName()
-                    + "]");
-          }
-          return null;
-        }
-
         try {
-          rowData = data.fileRowMeta[filenr].readData(data.dataInputStream[filenr]);
+          rowData = data.reader[filenr].readRow();
         } catch (HopFileException e) {
           logError(
               BaseMessages.getString(PKG, "JoinRows.Log.UnableToReadDataFromTempFile")
@@ -187,16 +183,6 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
           setErrors(1);
           stopAll();
           return null;
-        } catch (SocketTimeoutException e) {
-          logError(
-              BaseMessages.getString(PKG, "JoinRows.Log.UnableToReadDataFromTempFile")
-                  + filenr
-                  + " ["
-                  + data.file[filenr]
-                  + "]");
-          setErrors(1);
-          stopAll();
-          return null;
         }
         if (log.isRowLevel()) {
           logRowlevel(
@@ -208,19 +194,15 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
 
         data.position[filenr]++;
 
-        // If the file is at the end, close it.
-        // The file will then be re-opened if needed later on.
+        // If the file is at the end, rewind it.
+        // The file will then be read again from the start if needed later on.
         if (data.position[filenr] >= data.size[filenr]) {
           try {
-            data.dataInputStream[filenr].close();
-            data.fileInputStream[filenr].close();
-
-            data.dataInputStream[filenr] = null;
-            data.fileInputStream[filenr] = null;
+            data.reader[filenr].rewind();
 
             data.position[filenr] = 0;
             data.restart[filenr] = true; // indicate that we restarted.
-          } catch (IOException ioe) {
+          } catch (HopFileException ioe) {
             logError(
                 BaseMessages.getString(PKG, "JoinRows.Log.UnableToCloseInputStream")
                     + data.file[filenr]
@@ -313,6 +295,9 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
     if (data.filenr >= data.file.length - 1) {
       if (data.outputRowMeta == null) {
         data.outputRowMeta = createOutputRowMeta(data.fileRowMeta);
+        if (meta.getCondition() != null && !meta.getCondition().isEmpty()) {
+          data.condition = meta.getCondition().compile(data.outputRowMeta);
+        }
       }
 
       // Stich the output row together
@@ -325,9 +310,9 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
         }
       }
 
-      if (meta.getCondition() != null && !meta.getCondition().isEmpty()) {
+      if (data.condition != null) {
         // Test the specified condition...
-        if (meta.getCondition().evaluate(data.outputRowMeta, sum)) {
+        if (data.condition.evaluate(sum)) {
           putRow(data.outputRowMeta, sum);
         }
       } else {
@@ -364,16 +349,21 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
       return true;
     }
 
-    // We need to open a new outputstream
-    if (data.dataOutputStream[data.filenr] == null) {
+    // Read a line from the appropriate rowset...
+    IRowSet rowSet = data.rs[data.filenr];
+    Object[] rowData = getRowFrom(rowSet);
+
+    // We need to open a new writer
+    if (rowData != null && data.writer[data.filenr] == null) {
+      if (data.fileRowMeta[data.filenr] == null) {
+        // The first row is used as meta-data, clone it for safety
+        data.fileRowMeta[data.filenr] = rowSet.getRowMeta().clone();
+      }
       try {
         // Open the temp file
-        data.fileOutputStream[data.filenr] = new FileOutputStream(data.file[data.filenr]);
-
-        // Open the data output stream...
-        data.dataOutputStream[data.filenr] =
-            new DataOutputStream(data.fileOutputStream[data.filenr]);
-      } catch (FileNotFoundException fnfe) {
+        data.writer[data.filenr] =
+            data.file[data.filenr].createWriter(data.fileRowMeta[data.filenr]);
+      } catch (HopFileException fnfe) {
         logError(
             BaseMessages.getString(PKG, "JoinRows.Log.UnableToOpenOutputstream")
                 + data.file[data.filenr].toString()
@@ -385,18 +375,10 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
       }
     }
 
-    // Read a line from the appropriate rowset...
-    IRowSet rowSet = data.rs[data.filenr];
-    Object[] rowData = getRowFrom(rowSet);
     if (rowData != null) {
       // We read a row from one of the input streams...
 
-      if (data.fileRowMeta[data.filenr] == null) {
-        // The first row is used as meta-data, clone it for safety
-        data.fileRowMeta[data.filenr] = rowSet.getRowMeta().clone();
-      }
-
-      data.fileRowMeta[data.filenr].writeData(data.dataOutputStream[data.filenr], rowData);
+      data.writer[data.filenr].writeRow(rowData);
       data.size[data.filenr]++;
 
       if (log.isRowLevel()) {
@@ -434,13 +416,13 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
     } else {
       // No more rows found on rowset!!
 
-      // Close outputstream.
+      // Close the writer.
       try {
-        data.dataOutputStream[data.filenr].close();
-        data.fileOutputStream[data.filenr].close();
-        data.dataOutputStream[data.filenr] = null;
-        data.fileOutputStream[data.filenr] = null;
-      } catch (IOException ioe) {
+        if (data.writer[data.filenr] != null) {
+          data.writer[data.filenr].close();
+          data.writer[data.filenr] = null;
+        }
+      } catch (HopFileException ioe) {
         logError(
             BaseMessages.getString(PKG, "JoinRows.Log.ErrorInClosingOutputStream")
                 + data.filenr
@@ -471,6 +453,9 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData>
     // Remove the temporary files...
     if (data.file != null) {
       for (int i = 1; i < data.file.length; i++) {
+        if (data.reader != null && data.reader[i] != null) {
+          data.reader[i].close();
+        }
         if (data.file[i] != null) {
           data.file[i].delete();
         }
@@ -17,18 +17,20 @@
 
 package org.apache.hop.pipeline.transforms.joinrows;
 
+import org.apache.hop.core.CompiledCondition;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillReader;
+import org.apache.hop.core.spill.SpillWriter;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.io.*;
 import java.util.List;
 
 public class JoinRowsData extends BaseTransformData implements ITransformData {
-  public File[] file;
-  public FileInputStream[] fileInputStream;
-  public DataInputStream[] dataInputStream;
+  public SpillFile[] file;
+  public SpillReader[] reader;
   public IRowMeta[] fileRowMeta;
 
   public int[] size;
@@ -39,8 +41,7 @@ public class JoinRowsData extends BaseTransformData implements ITransformData {
 
   public boolean caching;
 
-  public FileOutputStream[] fileOutputStream;
-  public DataOutputStream[] dataOutputStream;
+  public SpillWriter[] writer;
 
   public Object[][] joinrow;
 
@@ -49,6 +50,9 @@ public class JoinRowsData extends BaseTransformData implements ITransformData {
 
   public IRowMeta outputRowMeta;
 
+  /** The join condition bound to the layout of the output rows */
+  public CompiledCondition condition;
+
   public JoinRowsData() {
     super();
   }
@@ -24,6 +24,7 @@ import org.apache.hop.core.logging.*;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.spill.SpillFile;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
@@ -33,7 +34,6 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -78,9 +78,9 @@ public class JoinRowsTest {
   @Test
   @Ignore
   public void disposeDataFiles() throws Exception {
-    File mockFile1 = mock(File.class);
-    File mockFile2 = mock(File.class);
-    data.file = new File[] {null, mockFile1, mockFile2};
+    SpillFile mockFile1 = mock(SpillFile.class);
+    SpillFile mockFile2 = mock(SpillFile.class);
+    data.file = new SpillFile[] {null, mockFile1, mockFile2};
     getJoinRows().dispose();
     verify(mockFile1, times(1)).delete();
     verify(mockFile2, times(1)).delete();
@@ -41,10 +41,11 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 import org.apache.poi.util.IOUtils;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.Closeable;
 import java.io.InputStream;
 import java.util.BitSet;
 
@@ -260,16 +261,30 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   private void parseNextInputToRowSet(InputStream input) throws HopException {
     try {
       data.readerRowSet = data.reader.parse(input);
-      input.close();
+      // a streaming reader keeps reading the input until its row set is done
+      if (data.readerRowSet.isDone()) {
+        input.close();
+      }
     } catch (HopException ke) {
+      IOUtils.closeQuietly(input);
       logInputError(ke);
       throw new JsonInputException(ke);
     } catch (Exception e) {
+      IOUtils.closeQuietly(input);
       logInputError(e);
       throw new JsonInputException(e);
     }
   }
 
+  private Object[] getReaderRow() throws HopException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      logInputError(e.getCause());
+      throw e.getCause();
+    }
+  }
+
   private void logInputError(HopException e) {
     logError(e.getLocalizedMessage(), e);
     inputError(e.getLocalizedMessage());
@@ -330,19 +345,13 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       return null;
     }
     Object[] rawReaderRow = null;
-    while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+    while ((rawReaderRow = getReaderRow()) == null) {
       if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-        try (InputStream nextIn = data.inputs.next()) {
-
-          if (nextIn != null) {
-            parseNextInputToRowSet(nextIn);
-          } else {
-            parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
-          }
-
-        } catch (IOException e) {
-          logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-          incrementErrors();
+        InputStream nextIn = data.inputs.next();
+        if (nextIn != null) {
+          parseNextInputToRowSet(nextIn);
+        } else {
+          parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
         }
       } else {
         if (isDetailed()) {
@@ -456,12 +465,20 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    if (meta.isStreaming()) {
+      data.reader = new StreamingJsonReader(inputFields, log);
+    } else {
+      data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
   @Override
   public void dispose() {
+    if (data.readerRowSet instanceof Closeable) {
+      // stopped before a streaming reader got to the end of its input
+      IOUtils.closeQuietly((Closeable) data.readerRowSet);
+    }
     if (data.file != null) {
       IOUtils.closeQuietly(data.file);
     }
@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the input token by token instead of parsing the whole document. The paths are compiled
+ * into a record path, the part all paths share up to their last wildcard, and a fixed field path
+ * below it for every field. Only the containers on the record path are entered, everything else is
+ * skipped, and a row is returned as soon as a record is complete so only one record is kept in
+ * memory at any time.
+ *
+ * <p>The supported paths are a subset of JsonPath: fields ($.a or $['a']), array indexes ($[0])
+ * and wildcards ($[*] or $.*). Deep scans, filters, slices and unions are rejected.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class; // For Translator
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(JSON_FACTORY);
+
+  private boolean ignoreMissingPath;
+
+  private JsonInputField[] fields;
+  private PathSegment[] recordPath;
+  private PathSegment[][] fieldPaths;
+  private ILogChannel log;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.ignoreMissingPath = false;
+    this.log = log;
+    setFields(fields);
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    PathSegment[][] paths = new PathSegment[fields.length][];
+    int recordPathLength = -1;
+    for (int i = 0; i < fields.length; i++) {
+      paths[i] = compilePath(fields[i].getPath());
+      int length = lastWildcard(paths[i]) + 1;
+      if (i > 0
+          && (length != recordPathLength
+              || !Arrays.equals(
+                  Arrays.copyOf(paths[i], length), Arrays.copyOf(paths[0], recordPathLength)))) {
+        throw new JsonInputException(
+            BaseMessages.getString(
+                PKG,
+                "JsonReader.Error.StreamingRecordPath",
+                fields[i].getPath(),
+                fields[0].getPath()));
+      }
+      recordPathLength = length;
+    }
+    this.fields = fields;
+    this.recordPath =
+        recordPathLength < 0 ? new PathSegment[0] : Arrays.copyOf(paths[0], recordPathLength);
+    this.fieldPaths = new PathSegment[fields.length][];
+    for (int i = 0; i < fields.length; i++) {
+      fieldPaths[i] = Arrays.copyOfRange(paths[i], recordPath.length, paths[i].length);
+    }
+  }
+
+  @Override
+  public IRowSet parse(InputStream in) throws HopException {
+    try {
+      return new StreamingRowSet(JSON_FACTORY.createParser(in));
+    } catch (IOException e) {
+      throw new JsonInputException(e);
+    }
+  }
+
+  private static int lastWildcard(PathSegment[] path) {
+    for (int i = path.length - 1; i >= 0; i--) {
+      if (path[i].isWildcard()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compiles a path into its segments.
+   *
+   * @param path the JsonPath expression, the leading $ is optional
+   * @return the segments of the path
+   * @throws JsonInputException when the path uses something that can't be matched on the tokens
+   */
+  static PathSegment[] compilePath(String path) throws JsonInputException {
+    String expression = path == null ? "" : path.trim();
+    if (expression.startsWith("$")) {
+      expression = expression.substring(1);
+    } else if (!expression.isEmpty() && !expression.startsWith("[")) {
+      expression = "." + expression;
+    }
+    List<PathSegment> segments = new ArrayList<>();
+    int pos = 0;
+    while (pos < expression.length()) {
+      char c = expression.charAt(pos);
+      if (c == '.') {
+        int end = pos + 1;
+        while (end < expression.length()
+            && expression.charAt(end) != '.'
+            && expression.charAt(end) != '[') {
+          end++;
+        }
+        String name = expression.substring(pos + 1, end);
+        if (name.isEmpty() || name.contains("(")) {
+          throw unsupported(path, expression.substring(pos));
+        }
+        segments.add("*".equals(name) ? PathSegment.WILDCARD : PathSegment.field(name));
+        pos = end;
+      } else if (c == '[') {
+        int end = expression.indexOf(']', pos);
+        if (end < 0) {
+          throw unsupported(path, expression.substring(pos));
+        }
+        String selector = expression.substring(pos + 1, end).trim();
+        if ("*".equals(selector)) {
+          segments.add(PathSegment.WILDCARD);
+        } else if (selector.length() >= 2
+            && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+            && selector.charAt(selector.length() - 1) == selector.charAt(0)
+            && selector.indexOf(',') < 0) {
+          segments.add(PathSegment.field(selector.substring(1, selector.length() - 1)));
+        } else if (selector.matches("\\d+")) {
+          segments.add(PathSegment.index(Integer.parseInt(selector)));
+        } else {
+          throw unsupported(path, expression.substring(pos, end + 1));
+        }
+        pos = end + 1;
+      } else {
+        throw unsupported(path, expression.substring(pos));
+      }
+    }
+    return segments.toArray(new PathSegment[0]);
+  }
+
+  private static JsonInputException unsupported(String path, String part) {
+    return new JsonInputException(
+        BaseMessages.getString(PKG, "JsonReader.Error.StreamingPath", path, part));
+  }
+
+  /** One step of a compiled path: a field name, an array index or a wildcard */
+  static final class PathSegment {
+    static final PathSegment WILDCARD = new PathSegment(null, -1);
+
+    private final String name;
+    private final int index;
+
+    private PathSegment(String name, int index) {
+      this.name = name;
+      this.index = index;
+    }
+
+    static PathSegment field(String name) {
+      return new PathSegment(name, -1);
+    }
+
+    static PathSegment index(int index) {
+      return new PathSegment(null, index);
+    }
+
+    boolean isWildcard() {
+      return name == null && index < 0;
+    }
+
+    /** @return true if the value found under the given field name or array index matches */
+    boolean matches(String fieldName, int arrayIndex) {
+      if (isWildcard()) {
+        return true;
+      }
+      return name != null ? name.equals(fieldName) : fieldName == null && index == arrayIndex;
+    }
+
+    JsonNode select(JsonNode node) {
+      return name != null ? node.path(name) : node.path(index);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof PathSegment)) {
+        return false;
+      }
+      PathSegment other = (PathSegment) obj;
+      return index == other.index && (name == null ? other.name == null : name.equals(other.name));
+    }
+
+    @Override
+    public int hashCode() {
+      return name == null ? index : name.hashCode();
+    }
+  }
+
+  /** A container on the record path the parser is currently in */
+  private static final class Container {
+    private final boolean array;
+    private String fieldName;
+    private int arrayIndex = -1;
+
+    private Container(boolean array) {
+      this.array = array;
+    }
+  }
+
+  /**
+   * Thrown from {@link IRowSet#getRow()} when the input can't be read any further, the cause is
+   * the {@link JsonInputException} describing the problem.
+   */
+  public static class StreamingReadException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StreamingReadException(JsonInputException cause) {
+      super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized JsonInputException getCause() {
+      return (JsonInputException) super.getCause();
+    }
+  }
+
+  /**
+   * Reads the next record from the parser every time a row is requested. The parser, and the
+   * stream it reads, is closed as soon as the last record was read.
+   */
+  private class StreamingRowSet extends SingleRowRowSet implements Closeable {
+    private final JsonParser parser;
+    private final List<Container> containers = new ArrayList<>();
+    private final boolean[] found = new boolean[fields.length];
+    private long nrRecords;
+    private long nrRows;
+    private boolean done;
+
+    StreamingRowSet(JsonParser parser) {
+      super();
+      this.parser = parser;
+    }
+
+    @Override
+    public Object[] getRow() {
+      if (done) {
+        return null;
+      }
+      try {
+        JsonNode record;
+        while ((record = nextRecord()) != null) {
+          nrRecords++;
+          Object[] rowData = new Object[fieldPaths.length];
+          boolean allNulls = true;
+          for (int i = 0; i < fieldPaths.length; i++) {
+            rowData[i] = getValue(record, fieldPaths[i]);
+            if (rowData[i] != null) {
+              found[i] = true;
+              allNulls = false;
+            }
+          }
+          // like the other reader, null-only rows are skipped unless it's the only record
+          if (!allNulls || fieldPaths.length == 0) {
+            nrRows++;
+            return rowData;
+          }
+        }
+        finish();
+        if (nrRows == 0 && nrRecords <= 1) {
+          nrRows++;
+          return new Object[fieldPaths.length];
+        }
+        return null;
+      } catch (IOException e) {
+        close();
+        throw new StreamingReadException(new JsonInputException(e));
+      } catch (JsonInputException e) {
+        throw new StreamingReadException(e);
+      }
+    }
+
+    /** @return the next value on the record path or null at the end of the input */
+    private JsonNode nextRecord() throws IOException {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+          containers.remove(containers.size() - 1);
+          continue;
+        }
+        int depth = containers.size();
+        boolean matches = true;
+        if (depth > 0) {
+          Container container = containers.get(depth - 1);
+          if (token == JsonToken.FIELD_NAME) {
+            container.fieldName = parser.getCurrentName();
+            continue;
+          }
+          if (container.array) {
+            container.arrayIndex++;
+          }
+          matches =
+              recordPath[depth - 1].matches(
+                  container.array ? null : container.fieldName, container.arrayIndex);
+        }
+        if (matches && depth == recordPath.length) {
+          return OBJECT_MAPPER.readTree(parser);
+        }
+        if (matches && token == JsonToken.START_ARRAY) {
+          containers.add(new Container(true));
+        } else if (matches && token == JsonToken.START_OBJECT) {
+          containers.add(new Container(false));
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return null;
+    }
+
+    private Object getValue(JsonNode record, PathSegment[] fieldPath) {
+      JsonNode node = record;
+      for (PathSegment segment : fieldPath) {
+        node = segment.select(node);
+      }
+      if (node.isMissingNode() || node.isNull()) {
+        return null;
+      }
+      if (node.isTextual()) {
+        return node.textValue();
+      }
+      if (node.isNumber()) {
+        return node.numberValue();
+      }
+      if (node.isBoolean()) {
+        return node.booleanValue();
+      }
+      // objects and arrays are passed on as JSON
+      return node.toString();
+    }
+
+    private void finish() throws JsonInputException {
+      close();
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", nrRecords));
+      }
+      if (!isIgnoreMissingPath()) {
+        for (int i = 0; i < fields.length; i++) {
+          if (!found[i]) {
+            throw new JsonInputException(
+                BaseMessages.getString(
+                    PKG, "JsonReader.Error.CanNotFindPath", fields[i].getPath()));
+          }
+        }
+      }
+    }
+
+    @Override
+    public int size() {
+      return done ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public void clear() {
+      close();
+    }
+
+    @Override
+    public void close() {
+      if (!done) {
+        done = true;
+        try {
+          parser.close();
+        } catch (IOException e) {
+          log.logError(e.getLocalizedMessage(), e);
+        }
+      }
+    }
+  }
+}
@@ -280,6 +280,33 @@ public class JsonInputTest {
     Assert.assertEquals("lines written", 2, jsonInput.getLinesWritten());
   }
 
+  @Test
+  public void testStreamingDualExp() throws Exception {
+    JsonInputField isbn = new JsonInputField("isbn");
+    isbn.setPath("$.store.book[*].isbn");
+    isbn.setType(IValueMeta.TYPE_STRING);
+    JsonInputField price = new JsonInputField("price");
+    price.setPath("$.store.book[*]['price']");
+    price.setType(IValueMeta.TYPE_NUMBER);
+
+    JsonInputMeta meta = createSimpleMeta("json", isbn, price);
+    meta.setStreaming(true);
+    JsonInput jsonInput =
+        createJsonInput("json", meta, new Object[] {getBasicTestJson()}, new Object[] {"[]"});
+    RowComparatorListener rowComparator =
+        new RowComparatorListener(
+            new Object[] {null, null, 8.95},
+            new Object[] {null, null, 12.99},
+            new Object[] {null, "0-553-21311-3", 8.99},
+            new Object[] {null, "0-395-19395-8", 22.99},
+            new Object[] {null, null, null});
+    rowComparator.setComparator(0, null);
+    jsonInput.addRowListener(rowComparator);
+    processRows(jsonInput, 6);
+    Assert.assertEquals("error", 0, jsonInput.getErrors());
+    Assert.assertEquals("lines written", 5, jsonInput.getLinesWritten());
+  }
+
   @Test
   public void testDualExp() throws Exception {
     JsonInputField isbn = new JsonInputField("isbn");
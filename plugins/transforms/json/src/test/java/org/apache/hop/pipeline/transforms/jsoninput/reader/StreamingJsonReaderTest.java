@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class StreamingJsonReaderTest {
+  private ILogChannel logMock = mock(ILogChannel.class);
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private List<Object[]> readAll(String json, String... paths) throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields(paths), logMock);
+    reader.setIgnoreMissingPath(true);
+    IRowSet rowSet =
+        reader.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      rows.add(row);
+    }
+    assertTrue(rowSet.isDone());
+    return rows;
+  }
+
+  @Test
+  public void testRootArray() throws Exception {
+    List<Object[]> rows =
+        readAll(
+            "[{\"id\":1,\"name\":\"a\",\"tags\":[\"x\"]},{\"id\":2,\"extra\":{}},{\"name\":\"c\"}]",
+            "$[*].id",
+            "$[*].name",
+            "$[*].tags");
+    assertEquals(3, rows.size());
+    assertArrayEquals(new Object[] {1, "a", "[\"x\"]"}, rows.get(0));
+    assertArrayEquals(new Object[] {2, null, null}, rows.get(1));
+    assertArrayEquals(new Object[] {null, "c", null}, rows.get(2));
+  }
+
+  @Test
+  public void testNestedRecordPath() throws Exception {
+    String json =
+        "{\"meta\":{\"count\":[1,2]},\"data\":{\"items\":["
+            + "{\"values\":[{\"v\":1.5},{\"v\":true}]},{\"values\":[]},"
+            + "{\"values\":[{\"v\":null,\"w\":\"w\"}]}"
+            + "]}}";
+    List<Object[]> rows = readAll(json, "$.data.items[*].values[*].v", "data.items[*].values[*].w");
+    assertEquals(3, rows.size());
+    assertArrayEquals(new Object[] {1.5, null}, rows.get(0));
+    assertArrayEquals(new Object[] {true, null}, rows.get(1));
+    assertArrayEquals(new Object[] {null, "w"}, rows.get(2));
+  }
+
+  @Test
+  public void testObjectWildcardAndIndex() throws Exception {
+    String json = "{\"a\":{\"p\":[10,11]},\"b\":{\"p\":[20]},\"c\":5}";
+    List<Object[]> rows = readAll(json, "$.*.p[0]", "$.*['p'][1]");
+    assertEquals(2, rows.size());
+    assertArrayEquals(new Object[] {10, 11}, rows.get(0));
+    assertArrayEquals(new Object[] {20, null}, rows.get(1));
+  }
+
+  @Test
+  public void testWithoutWildcardReadsTheDocument() throws Exception {
+    List<Object[]> rows = readAll("{\"a\":{\"b\":\"x\"},\"c\":[1,2]}", "$.a.b", "$.c[1]", "$.d");
+    assertEquals(1, rows.size());
+    assertArrayEquals(new Object[] {"x", 2, null}, rows.get(0));
+  }
+
+  @Test
+  public void testNullOnlyRows() throws Exception {
+    // like the other reader a single null row is returned when nothing is found
+    List<Object[]> rows = readAll("{\"data\":[]}", "$.data[*].id");
+    assertEquals(1, rows.size());
+    assertArrayEquals(new Object[] {null}, rows.get(0));
+
+    rows = readAll("[{\"id\":1},{},{\"id\":3}]", "$[*].id");
+    assertEquals(2, rows.size());
+    assertArrayEquals(new Object[] {3}, rows.get(1));
+  }
+
+  @Test
+  public void testUnsupportedPaths() throws Exception {
+    String[] paths = {
+      "$..id", "$[?(@.id)].id", "$[0:2].id", "$[0,1].id", "$['a','b']", "$.a.length()", "$[*"
+    };
+    for (String path : paths) {
+      try {
+        new StreamingJsonReader(fields(path), logMock);
+        fail("path " + path + " should not be supported");
+      } catch (JsonInputException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test(expected = JsonInputException.class)
+  public void testDifferentRecordPaths() throws Exception {
+    new StreamingJsonReader(fields("$.a[*].id", "$.b[*].id"), logMock);
+  }
+
+  @Test
+  public void testMissingPath() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$[*].id", "$[*].x"), logMock);
+    IRowSet rowSet = reader.parse(new ByteArrayInputStream("[{\"id\":1}]".getBytes()));
+    assertArrayEquals(new Object[] {1, null}, rowSet.getRow());
+    try {
+      rowSet.getRow();
+      fail("missing path should fail");
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      assertTrue(e.getCause().getMessage().contains("$[*].x"));
+    }
+  }
+
+  @Test
+  public void testMalformedInput() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$[*].id"), logMock);
+    IRowSet rowSet = reader.parse(new ByteArrayInputStream("[{\"id\":1},{\"id\":".getBytes()));
+    assertArrayEquals(new Object[] {1}, rowSet.getRow());
+    try {
+      rowSet.getRow();
+      fail("malformed input should fail");
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      assertTrue(rowSet.isDone());
+    }
+  }
+
+  @Test
+  public void testReadsLazilyAndClosesTheInput() throws Exception {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 100000; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append('}');
+    }
+    json.append(']');
+    TrackingInputStream in = new TrackingInputStream(json.toString().getBytes());
+
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$[*].id"), logMock);
+    IRowSet rowSet = reader.parse(in);
+    assertArrayEquals(new Object[] {0}, rowSet.getRow());
+    assertFalse(rowSet.isDone());
+    assertTrue("only the first buffer is read", in.bytesRead < json.length() / 10);
+
+    int rows = 1;
+    while (rowSet.getRow() != null) {
+      rows++;
+    }
+    assertEquals(100000, rows);
+    assertTrue(rowSet.isDone());
+    assertTrue(in.closed);
+    assertNull(rowSet.getRow());
+  }
+
+  private static class TrackingInputStream extends ByteArrayInputStream {
+    private int bytesRead;
+    private boolean closed;
+
+    TrackingInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      int read = super.read(b, off, len);
+      bytesRead += Math.max(read, 0);
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,759 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillManager;
+import org.apache.hop.core.spill.SpillReader;
+import org.apache.hop.core.spill.SpillWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * A hash table for the Memory Group By transform which keeps the group keys serialized in a single
+ * byte array and the aggregates in primitive arrays. Compared to a HashMap with an Object[] key and
+ * an Aggregate value per group it doesn't create any objects per group, which keeps the garbage
+ * collector quiet when there are millions of groups. It can only be used for SUM, AVERAGE, COUNT,
+ * MIN and MAX aggregates over Integer and Number fields (see {@link #isSupported}).
+ *
+ * <p>The groups are divided over partitions by the top bits of their hash code. When the estimated
+ * memory use goes over the limit, the largest partition is written to a temporary file and all
+ * later rows of that partition are appended to that file. When the groups are retrieved, each of
+ * these partitions is read back into a new table which can split it up again using the next bits
+ * of the hash code if it still doesn't fit in memory.
+ */
+public class AggregationTable {
+
+  /** Receives the groups of the table */
+  public interface IGroupHandler {
+    void handleGroup(Object[] groupData, Aggregate aggregate) throws HopException;
+  }
+
+  private static final int PARTITION_BITS = 4;
+  private static final int NR_PARTITIONS = 1 << PARTITION_BITS;
+
+  /**
+   * The maximum recursion depth of the spill partitioning. A spilled partition is aggregated again
+   * by a table one level deeper which partitions on the next PARTITION_BITS of the hash. A table at
+   * this level no longer spills and keeps all its groups in memory, whatever the memory limit.
+   */
+  private static final int MAX_LEVEL = 6;
+
+  /** We don't spill tables with less groups than this, it would only create a lot of tiny files */
+  private static final int MIN_GROUPS_TO_SPILL = 1024;
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int MAX_KEYS_LENGTH = Integer.MAX_VALUE - 8;
+
+  private final IValueMeta[] groupMetas;
+  private final int[] groupnrs;
+  private final IValueMeta[] subjectMetas;
+  private final int[] subjectnrs;
+  private final int[] aggregateTypes;
+  private final boolean[] doubleValues;
+  private final boolean minNullIsValued;
+  private final long memoryLimit;
+  private final SpillManager spillManager;
+  private final int level;
+  private final int nrAggregates;
+
+  /** The layout of the rows in the temporary files: the key followed by value and count pairs */
+  private final IRowMeta stateMeta;
+
+  private int capacity;
+  private int mask;
+  private int size;
+  private int[] hashes;
+  private int[] keyOffsets;
+  private int[] keyLengths;
+  private long[] values;
+  private long[] counts;
+  private byte[] keys;
+  private int keysLength;
+  private final int[] partitionSizes = new int[NR_PARTITIONS];
+
+  private final SpillFile[] spillFiles = new SpillFile[NR_PARTITIONS];
+  private final SpillWriter[] spillWriters = new SpillWriter[NR_PARTITIONS];
+
+  // The key and aggregates of the row being added
+  private byte[] key = new byte[64];
+  private int keyLength;
+  private final long[] rowValues;
+  private final long[] rowCounts;
+
+  /**
+   * @param inputRowMeta the layout of the input rows
+   * @param groupnrs the indexes of the group fields
+   * @param subjectnrs the indexes of the subject fields
+   * @param aggregateTypes the aggregate types, one of the MemoryGroupByMeta.TYPE_GROUP_ constants
+   * @param aggMeta the layout of the aggregates
+   * @param minNullIsValued true if a null value is the minimum of a group with nulls
+   * @param memoryLimit the number of bytes the table can use before it starts to spill
+   * @param spillManager creates the temporary files
+   */
+  public AggregationTable(
+      IRowMeta inputRowMeta,
+      int[] groupnrs,
+      int[] subjectnrs,
+      int[] aggregateTypes,
+      IRowMeta aggMeta,
+      boolean minNullIsValued,
+      long memoryLimit,
+      SpillManager spillManager) {
+    this.groupnrs = groupnrs;
+    this.subjectnrs = subjectnrs;
+    this.aggregateTypes = aggregateTypes;
+    this.minNullIsValued = minNullIsValued;
+    this.memoryLimit = memoryLimit;
+    this.spillManager = spillManager;
+    this.level = 0;
+    this.nrAggregates = subjectnrs.length;
+
+    groupMetas = new IValueMeta[groupnrs.length];
+    for (int i = 0; i < groupnrs.length; i++) {
+      groupMetas[i] = inputRowMeta.getValueMeta(groupnrs[i]);
+    }
+    subjectMetas = new IValueMeta[nrAggregates];
+    doubleValues = new boolean[nrAggregates];
+    for (int i = 0; i < nrAggregates; i++) {
+      subjectMetas[i] = inputRowMeta.getValueMeta(subjectnrs[i]);
+      doubleValues[i] = aggMeta.getValueMeta(i).getType() == IValueMeta.TYPE_NUMBER;
+    }
+
+    stateMeta = new RowMeta();
+    stateMeta.addValueMeta(new ValueMetaBinary("key"));
+    for (int i = 0; i < nrAggregates; i++) {
+      stateMeta.addValueMeta(new ValueMetaInteger("value" + i));
+      stateMeta.addValueMeta(new ValueMetaInteger("count" + i));
+    }
+
+    rowValues = new long[nrAggregates];
+    rowCounts = new long[nrAggregates];
+    allocate(INITIAL_CAPACITY, 64 * INITIAL_CAPACITY);
+  }
+
+  /** Create a table for a spilled partition of the given table */
+  private AggregationTable(AggregationTable parent) {
+    groupMetas = parent.groupMetas;
+    groupnrs = parent.groupnrs;
+    subjectMetas = parent.subjectMetas;
+    subjectnrs = parent.subjectnrs;
+    aggregateTypes = parent.aggregateTypes;
+    doubleValues = parent.doubleValues;
+    minNullIsValued = parent.minNullIsValued;
+    memoryLimit = parent.memoryLimit;
+    spillManager = parent.spillManager;
+    level = parent.level + 1;
+    nrAggregates = parent.nrAggregates;
+    stateMeta = parent.stateMeta;
+
+    rowValues = new long[nrAggregates];
+    rowCounts = new long[nrAggregates];
+    allocate(INITIAL_CAPACITY, 64 * INITIAL_CAPACITY);
+  }
+
+  /**
+   * See if the given grouping can be done by this table.
+   *
+   * @return true if all group fields can be compared by their serialized form and all aggregates
+   *     can be kept in a primitive long or double.
+   */
+  public static boolean isSupported(
+      IRowMeta inputRowMeta,
+      int[] groupnrs,
+      int[] subjectnrs,
+      int[] aggregateTypes,
+      IRowMeta aggMeta) {
+    for (int groupnr : groupnrs) {
+      IValueMeta valueMeta = inputRowMeta.getValueMeta(groupnr);
+      if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+        return false;
+      }
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING:
+          if (valueMeta.isCaseInsensitive()
+              || valueMeta.isIgnoreWhitespace()
+              || !valueMeta.isCollatorDisabled()) {
+            return false;
+          }
+          break;
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_BOOLEAN:
+          break;
+        default:
+          return false;
+      }
+    }
+
+    for (int i = 0; i < subjectnrs.length; i++) {
+      IValueMeta subjMeta = inputRowMeta.getValueMeta(subjectnrs[i]);
+      switch (aggregateTypes[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          int aggType = aggMeta.getValueMeta(i).getType();
+          if (!isPrimitive(subjMeta)
+              || subjMeta.isSortedDescending()
+              || (aggType != IValueMeta.TYPE_INTEGER && aggType != IValueMeta.TYPE_NUMBER)) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isPrimitive(IValueMeta valueMeta) {
+    return valueMeta.getStorageType() == IValueMeta.STORAGE_TYPE_NORMAL
+        && (valueMeta.getType() == IValueMeta.TYPE_INTEGER
+            || valueMeta.getType() == IValueMeta.TYPE_NUMBER);
+  }
+
+  /**
+   * Add an input row to its group.
+   *
+   * @param row the input row
+   * @throws HopException in case of a conversion error or an error writing a temporary file
+   */
+  public void addRow(Object[] row) throws HopException {
+    encodeKey(row);
+    for (int i = 0; i < nrAggregates; i++) {
+      IValueMeta subjMeta = subjectMetas[i];
+      Object subj = row[subjectnrs[i]];
+      boolean isNull = subjMeta.isNull(subj);
+      rowValues[i] = 0L;
+      switch (aggregateTypes[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          rowCounts[i] = 1L;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+          rowCounts[i] = isNull ? 0L : 1L;
+          break;
+        default:
+          // SUM, AVERAGE, MIN and MAX: the count tells us whether or not there is a value
+          //
+          rowCounts[i] = isNull ? 0L : 1L;
+          if (!isNull) {
+            rowValues[i] =
+                doubleValues[i]
+                    ? Double.doubleToRawLongBits(subjMeta.getNumber(subj))
+                    : subjMeta.getInteger(subj);
+          }
+          break;
+      }
+    }
+    add(hash());
+  }
+
+  /** Add a row read back from a temporary file */
+  private void addState(Object[] state) throws HopException {
+    byte[] stateKey = (byte[]) state[0];
+    ensureKeyCapacity(stateKey.length);
+    System.arraycopy(stateKey, 0, key, 0, stateKey.length);
+    keyLength = stateKey.length;
+    for (int i = 0; i < nrAggregates; i++) {
+      rowValues[i] = (Long) state[1 + i * 2];
+      rowCounts[i] = (Long) state[2 + i * 2];
+    }
+    add(hash());
+  }
+
+  private void add(int hash) throws HopException {
+    int partition = partitionOf(hash);
+    if (spillWriters[partition] != null) {
+      spillWriters[partition].writeRow(getState());
+      return;
+    }
+
+    int slot = hash & mask;
+    while (keyOffsets[slot] >= 0) {
+      if (hashes[slot] == hash && keyEquals(slot)) {
+        merge(slot * nrAggregates);
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    // A new group
+    //
+    if (keysLength + keyLength > keys.length) {
+      if ((long) keysLength + keyLength > MAX_KEYS_LENGTH) {
+        throw new HopException("Too many groups to keep in memory, lower the memory limit");
+      }
+      keys = Arrays.copyOf(keys, (int) Math.min(MAX_KEYS_LENGTH, 2L * (keysLength + keyLength)));
+    }
+    System.arraycopy(key, 0, keys, keysLength, keyLength);
+    hashes[slot] = hash;
+    keyOffsets[slot] = keysLength;
+    keyLengths[slot] = keyLength;
+    keysLength += keyLength;
+    System.arraycopy(rowValues, 0, values, slot * nrAggregates, nrAggregates);
+    System.arraycopy(rowCounts, 0, counts, slot * nrAggregates, nrAggregates);
+    size++;
+    partitionSizes[partition]++;
+
+    if (size * 2 > capacity) {
+      rehash(capacity * 2, keys.length);
+    }
+
+    while (level < MAX_LEVEL && size >= MIN_GROUPS_TO_SPILL && getMemoryUsage() > memoryLimit) {
+      spillLargestPartition();
+    }
+  }
+
+  /** Merge the aggregates of the row being added into the ones at the given offset */
+  private void merge(int offset) {
+    for (int i = 0; i < nrAggregates; i++) {
+      int index = offset + i;
+      long count = counts[index];
+      long rowCount = rowCounts[i];
+      switch (aggregateTypes[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+          counts[index] = count + rowCount;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          if (rowCount > 0) {
+            if (count == 0) {
+              values[index] = rowValues[i];
+            } else if (doubleValues[i]) {
+              values[index] =
+                  Double.doubleToRawLongBits(
+                      Double.longBitsToDouble(values[index])
+                          + Double.longBitsToDouble(rowValues[i]));
+            } else {
+              values[index] += rowValues[i];
+            }
+            counts[index] = count + rowCount;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          if (rowCount == 0) {
+            if (minNullIsValued) {
+              counts[index] = 0;
+            }
+          } else if (count == 0) {
+            // Only take the value if we didn't keep a null on purpose
+            //
+            if (!minNullIsValued) {
+              values[index] = rowValues[i];
+              counts[index] = 1;
+            }
+          } else if (compare(i, rowValues[i], values[index]) < 0) {
+            values[index] = rowValues[i];
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if (rowCount > 0 && (count == 0 || compare(i, rowValues[i], values[index]) > 0)) {
+            values[index] = rowValues[i];
+            counts[index] = 1;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private int compare(int aggregate, long value1, long value2) {
+    if (doubleValues[aggregate]) {
+      return Double.compare(Double.longBitsToDouble(value1), Double.longBitsToDouble(value2));
+    }
+    return Long.compare(value1, value2);
+  }
+
+  /**
+   * Pass all groups to the given handler, including the ones in temporary files. The table is
+   * empty afterwards.
+   *
+   * @param handler receives the groups
+   * @return the number of groups
+   * @throws HopException in case of an error reading a temporary file or handling a group
+   */
+  public long retrieveGroups(IGroupHandler handler) throws HopException {
+    long nrGroups = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      if (keyOffsets[slot] >= 0) {
+        handler.handleGroup(decodeKey(slot), getAggregate(slot * nrAggregates));
+        nrGroups++;
+      }
+    }
+    allocate(INITIAL_CAPACITY, 64 * INITIAL_CAPACITY);
+
+    // Now process the spilled partitions one by one
+    //
+    for (int partition = 0; partition < NR_PARTITIONS; partition++) {
+      if (spillWriters[partition] == null) {
+        continue;
+      }
+      spillWriters[partition].close();
+      spillWriters[partition] = null;
+
+      AggregationTable table = new AggregationTable(this);
+      try {
+        try (SpillReader reader = spillFiles[partition].createReader(stateMeta)) {
+          Object[] state;
+          while ((state = reader.readRow()) != null) {
+            table.addState(state);
+          }
+        }
+        spillFiles[partition].delete();
+        spillFiles[partition] = null;
+
+        nrGroups += table.retrieveGroups(handler);
+      } finally {
+        table.clear();
+      }
+    }
+    return nrGroups;
+  }
+
+  /** Remove all groups and temporary files */
+  public void clear() {
+    for (int partition = 0; partition < NR_PARTITIONS; partition++) {
+      if (spillWriters[partition] != null) {
+        try {
+          spillWriters[partition].close();
+        } catch (HopException e) {
+          // Ignore, we're removing the file anyway
+        }
+        spillWriters[partition] = null;
+      }
+      if (spillFiles[partition] != null) {
+        spillFiles[partition].delete();
+        spillFiles[partition] = null;
+      }
+    }
+    allocate(INITIAL_CAPACITY, 64 * INITIAL_CAPACITY);
+  }
+
+  /** @return the number of groups kept in memory */
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of partitions written to temporary files */
+  public int getNrSpilledPartitions() {
+    int nr = 0;
+    for (SpillWriter writer : spillWriters) {
+      if (writer != null) {
+        nr++;
+      }
+    }
+    return nr;
+  }
+
+  /** @return an estimate of the memory used by the table in bytes */
+  public long getMemoryUsage() {
+    return keys.length + (long) capacity * (12L + 16L * nrAggregates);
+  }
+
+  private void spillLargestPartition() throws HopException {
+    int largest = 0;
+    for (int partition = 1; partition < NR_PARTITIONS; partition++) {
+      if (partitionSizes[partition] > partitionSizes[largest]) {
+        largest = partition;
+      }
+    }
+
+    SpillFile spillFile = spillManager.createSpillFile();
+    spillFiles[largest] = spillFile;
+    SpillWriter writer = spillFile.createWriter(stateMeta);
+    spillWriters[largest] = writer;
+
+    for (int slot = 0; slot < capacity; slot++) {
+      if (keyOffsets[slot] >= 0 && partitionOf(hashes[slot]) == largest) {
+        writer.writeRow(getState(slot));
+      }
+    }
+
+    // Rebuild the table without the spilled groups
+    //
+    int remaining = size - partitionSizes[largest];
+    int newCapacity = INITIAL_CAPACITY;
+    while (remaining * 2 > newCapacity) {
+      newCapacity *= 2;
+    }
+    partitionSizes[largest] = 0;
+    rehash(newCapacity, Math.max(64 * INITIAL_CAPACITY, keysLength));
+  }
+
+  /** Move all groups in partitions that are not spilled to newly allocated arrays */
+  private void rehash(int newCapacity, int newKeysSize) {
+    int oldCapacity = capacity;
+    int[] oldHashes = hashes;
+    int[] oldKeyOffsets = keyOffsets;
+    int[] oldKeyLengths = keyLengths;
+    long[] oldValues = values;
+    long[] oldCounts = counts;
+    byte[] oldKeys = keys;
+    int[] oldPartitionSizes = partitionSizes.clone();
+
+    allocate(newCapacity, newKeysSize);
+
+    for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+      int hash = oldHashes[oldSlot];
+      if (oldKeyOffsets[oldSlot] < 0 || spillWriters[partitionOf(hash)] != null) {
+        continue;
+      }
+      int slot = hash & mask;
+      while (keyOffsets[slot] >= 0) {
+        slot = (slot + 1) & mask;
+      }
+      int length = oldKeyLengths[oldSlot];
+      System.arraycopy(oldKeys, oldKeyOffsets[oldSlot], keys, keysLength, length);
+      hashes[slot] = hash;
+      keyOffsets[slot] = keysLength;
+      keyLengths[slot] = length;
+      keysLength += length;
+      System.arraycopy(
+          oldValues, oldSlot * nrAggregates, values, slot * nrAggregates, nrAggregates);
+      System.arraycopy(
+          oldCounts, oldSlot * nrAggregates, counts, slot * nrAggregates, nrAggregates);
+      size++;
+    }
+    for (int partition = 0; partition < NR_PARTITIONS; partition++) {
+      if (spillWriters[partition] == null) {
+        partitionSizes[partition] = oldPartitionSizes[partition];
+      }
+    }
+  }
+
+  private void allocate(int newCapacity, int newKeysSize) {
+    capacity = newCapacity;
+    mask = newCapacity - 1;
+    size = 0;
+    hashes = new int[newCapacity];
+    keyOffsets = new int[newCapacity];
+    Arrays.fill(keyOffsets, -1);
+    keyLengths = new int[newCapacity];
+    values = new long[newCapacity * nrAggregates];
+    counts = new long[newCapacity * nrAggregates];
+    keys = new byte[newKeysSize];
+    keysLength = 0;
+    Arrays.fill(partitionSizes, 0);
+  }
+
+  private int partitionOf(int hash) {
+    return (hash >>> (32 - PARTITION_BITS * (level + 1))) & (NR_PARTITIONS - 1);
+  }
+
+  private boolean keyEquals(int slot) {
+    if (keyLengths[slot] != keyLength) {
+      return false;
+    }
+    int offset = keyOffsets[slot];
+    for (int i = 0; i < keyLength; i++) {
+      if (keys[offset + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int hash() {
+    // FNV-1a followed by the MurmurHash3 finalizer to spread the bits
+    //
+    int h = 0x811c9dc5;
+    for (int i = 0; i < keyLength; i++) {
+      h = (h ^ key[i]) * 0x01000193;
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /** The state of the row being added, in the layout of the temporary files */
+  private Object[] getState() {
+    Object[] state = new Object[1 + nrAggregates * 2];
+    state[0] = Arrays.copyOf(key, keyLength);
+    for (int i = 0; i < nrAggregates; i++) {
+      state[1 + i * 2] = rowValues[i];
+      state[2 + i * 2] = rowCounts[i];
+    }
+    return state;
+  }
+
+  private Object[] getState(int slot) {
+    Object[] state = new Object[1 + nrAggregates * 2];
+    int offset = keyOffsets[slot];
+    state[0] = Arrays.copyOfRange(keys, offset, offset + keyLengths[slot]);
+    for (int i = 0; i < nrAggregates; i++) {
+      state[1 + i * 2] = values[slot * nrAggregates + i];
+      state[2 + i * 2] = counts[slot * nrAggregates + i];
+    }
+    return state;
+  }
+
+  /** Convert the aggregates at the given offset into what MemoryGroupBy expects */
+  private Aggregate getAggregate(int offset) {
+    Aggregate aggregate = new Aggregate();
+    aggregate.agg = new Object[nrAggregates];
+    aggregate.counts = new long[nrAggregates];
+    aggregate.mean = new double[nrAggregates];
+    for (int i = 0; i < nrAggregates; i++) {
+      long count = counts[offset + i];
+      switch (aggregateTypes[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          aggregate.counts[i] = count;
+          break;
+        default:
+          break;
+      }
+      if (count > 0
+          && aggregateTypes[i] != MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY
+          && aggregateTypes[i] != MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL) {
+        long value = values[offset + i];
+        if (doubleValues[i]) {
+          aggregate.agg[i] = Double.longBitsToDouble(value);
+        } else {
+          aggregate.agg[i] = value;
+        }
+      }
+    }
+    return aggregate;
+  }
+
+  private void encodeKey(Object[] row) throws HopValueException {
+    keyLength = 0;
+    for (int i = 0; i < groupMetas.length; i++) {
+      IValueMeta valueMeta = groupMetas[i];
+      Object value = row[groupnrs[i]];
+      ensureKeyCapacity(10);
+      if (valueMeta.isNull(value)) {
+        key[keyLength++] = 0;
+        continue;
+      }
+      key[keyLength++] = 1;
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING:
+          byte[] bytes = valueMeta.getString(value).getBytes(StandardCharsets.UTF_8);
+          ensureKeyCapacity(5 + bytes.length);
+          int length = bytes.length;
+          while ((length & ~0x7F) != 0) {
+            key[keyLength++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+          }
+          key[keyLength++] = (byte) length;
+          System.arraycopy(bytes, 0, key, keyLength, bytes.length);
+          keyLength += bytes.length;
+          break;
+        case IValueMeta.TYPE_INTEGER:
+          putLong(valueMeta.getInteger(value));
+          break;
+        case IValueMeta.TYPE_NUMBER:
+          putLong(Double.doubleToLongBits(valueMeta.getNumber(value)));
+          break;
+        case IValueMeta.TYPE_DATE:
+          putLong(valueMeta.getDate(value).getTime());
+          break;
+        case IValueMeta.TYPE_BOOLEAN:
+          key[keyLength++] = (byte) (valueMeta.getBoolean(value) ? 1 : 0);
+          break;
+        default:
+          throw new HopValueException("Unsupported group field type: " + valueMeta.toStringMeta());
+      }
+    }
+  }
+
+  private Object[] decodeKey(int slot) {
+    Object[] groupData = new Object[groupMetas.length];
+    int position = keyOffsets[slot];
+    for (int i = 0; i < groupMetas.length; i++) {
+      if (keys[position++] == 0) {
+        continue;
+      }
+      switch (groupMetas[i].getType()) {
+        case IValueMeta.TYPE_STRING:
+          int length = 0;
+          int shift = 0;
+          byte b;
+          do {
+            b = keys[position++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+          } while ((b & 0x80) != 0);
+          groupData[i] = new String(keys, position, length, StandardCharsets.UTF_8);
+          position += length;
+          break;
+        case IValueMeta.TYPE_INTEGER:
+          groupData[i] = getLong(position);
+          position += 8;
+          break;
+        case IValueMeta.TYPE_NUMBER:
+          groupData[i] = Double.longBitsToDouble(getLong(position));
+          position += 8;
+          break;
+        case IValueMeta.TYPE_DATE:
+          groupData[i] = new Date(getLong(position));
+          position += 8;
+          break;
+        case IValueMeta.TYPE_BOOLEAN:
+          groupData[i] = keys[position++] != 0;
+          break;
+        default:
+          break;
+      }
+    }
+    return groupData;
+  }
+
+  private void putLong(long value) {
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      key[keyLength++] = (byte) (value >>> shift);
+    }
+  }
+
+  private long getLong(int position) {
+    long value = 0L;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (keys[position + i] & 0xFFL);
+    }
+    return value;
+  }
+
+  private void ensureKeyCapacity(int extra) {
+    if (keyLength + extra > key.length) {
+      key = Arrays.copyOf(key, Math.max(key.length * 2, keyLength + extra));
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.spill.SpillManager;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -152,6 +153,30 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.groupAggMeta = new RowMeta();
       data.groupAggMeta.addRowMeta(data.groupMeta);
       data.groupAggMeta.addRowMeta(data.aggMeta);
+
+      // If possible keep the groups in a table without objects per group which can spill to disk
+      //
+      if (r != null
+          && AggregationTable.isSupported(
+              data.inputRowMeta,
+              data.groupnrs,
+              data.subjectnrs,
+              meta.getAggregateType(),
+              data.aggMeta)) {
+        data.table =
+            new AggregationTable(
+                data.inputRowMeta,
+                data.groupnrs,
+                data.subjectnrs,
+                meta.getAggregateType(),
+                data.aggMeta,
+                minNullIsValued,
+                getMemoryLimit(),
+                new SpillManager(this, null, "memgroupby", false));
+        if (log.isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "MemoryGroupBy.Log.UsingAggregationTable"));
+        }
+      }
     }
 
     // Here is where we start to do the real work...
@@ -182,27 +207,21 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   private void handleLastOfGroup() throws HopException {
     // Dump the content of the map...
     //
+    long nrGroups = data.map.size();
     for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
+      putGroupRow(entry.getGroupData(), data.map.get(entry));
+    }
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
-      }
-      putRow(data.outputRowMeta, outputRowData);
+    // ... or the table
+    //
+    if (data.table != null) {
+      nrGroups += data.table.retrieveGroups(this::putGroupRow);
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (nrGroups == 0 && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -221,6 +240,34 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private void putGroupRow(Object[] groupData, Aggregate aggregate) throws HopException {
+    Object[] aggregateResult = getAggregateResult(aggregate);
+
+    Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+    int index = 0;
+    for (int i = 0; i < data.groupMeta.size(); i++) {
+      outputRowData[index++] =
+          data.groupMeta.getValueMeta(i).convertToNormalStorageType(groupData[i]);
+    }
+    for (int i = 0; i < data.aggMeta.size(); i++) {
+      outputRowData[index++] =
+          data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+    }
+    putRow(data.outputRowMeta, outputRowData);
+  }
+
+  /**
+   * @return the memory limit in bytes of the aggregation table, from variable
+   *     HOP_MEMORY_GROUP_BY_MEMORY_LIMIT or a quarter of the maximum heap size
+   */
+  private long getMemoryLimit() {
+    long limitMb = Const.toLong(getVariable(Const.HOP_MEMORY_GROUP_BY_MEMORY_LIMIT), -1L);
+    if (limitMb > 0) {
+      return limitMb * 1024L * 1024L;
+    }
+    return Runtime.getRuntime().maxMemory() / 4;
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -229,6 +276,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
    */
   @SuppressWarnings("unchecked")
   void addToAggregate(Object[] r) throws HopException {
+    if (data.table != null) {
+      data.table.addRow(r);
+      return;
+    }
 
     Object[] groupData = new Object[data.groupMeta.size()];
     for (int i = 0; i < data.groupnrs.length; i++) {
@@ -559,6 +610,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
   @Override
   public void dispose() {
+    if (data.table != null) {
+      data.table.clear();
+    }
     super.dispose();
     ((MemoryGroupByData) data).clear();
   }
@@ -71,6 +71,9 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public HashMap<HashEntry, Aggregate> map;
 
+  /** Used instead of the map when all aggregates can be kept in primitives */
+  public AggregationTable table;
+
   public IRowMeta aggMeta;
   public IRowMeta groupMeta;
   public IRowMeta entryMeta;
@@ -104,5 +107,6 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
   /** Method responsible for clearing out memory hogs */
   public void clear() {
     map = new HashMap<>();
+    table = null;
   }
 }
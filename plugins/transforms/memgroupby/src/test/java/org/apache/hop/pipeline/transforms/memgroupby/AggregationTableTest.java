@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.spill.SpillManager;
+import org.apache.hop.core.variables.Variables;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AggregationTableTest {
+
+  private static final int[] AGGREGATE_TYPES = {
+    MemoryGroupByMeta.TYPE_GROUP_SUM,
+    MemoryGroupByMeta.TYPE_GROUP_AVERAGE,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY,
+    MemoryGroupByMeta.TYPE_GROUP_MIN,
+    MemoryGroupByMeta.TYPE_GROUP_MAX,
+  };
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private IRowMeta inputRowMeta;
+  private IRowMeta aggMeta;
+  private int[] groupnrs = {0, 1};
+  private int[] subjectnrs = {2, 3, 2, 3, 2, 3};
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  private void createMetadata() {
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("quantity"));
+    inputRowMeta.addValueMeta(new ValueMetaNumber("price"));
+
+    aggMeta = new RowMeta();
+    aggMeta.addValueMeta(new ValueMetaInteger("sum"));
+    aggMeta.addValueMeta(new ValueMetaNumber("average"));
+    aggMeta.addValueMeta(new ValueMetaInteger("count"));
+    aggMeta.addValueMeta(new ValueMetaInteger("count_any"));
+    aggMeta.addValueMeta(new ValueMetaInteger("min"));
+    aggMeta.addValueMeta(new ValueMetaNumber("max"));
+  }
+
+  @Test
+  public void testIsSupported() {
+    createMetadata();
+    assertTrue(
+        AggregationTable.isSupported(
+            inputRowMeta, groupnrs, subjectnrs, AGGREGATE_TYPES, aggMeta));
+
+    int[] aggregateTypes = AGGREGATE_TYPES.clone();
+    aggregateTypes[0] = MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT;
+    assertFalse(
+        AggregationTable.isSupported(inputRowMeta, groupnrs, subjectnrs, aggregateTypes, aggMeta));
+
+    inputRowMeta.getValueMeta(0).setCaseInsensitive(true);
+    assertFalse(
+        AggregationTable.isSupported(
+            inputRowMeta, groupnrs, subjectnrs, AGGREGATE_TYPES, aggMeta));
+  }
+
+  @Test
+  public void testInMemory() throws Exception {
+    aggregate(1000, 20000, Long.MAX_VALUE, false);
+  }
+
+  @Test
+  public void testSpillToDisk() throws Exception {
+    aggregate(20000, 100000, 256 * 1024, true);
+  }
+
+  private void aggregate(int nrGroups, int nrRows, long memoryLimit, boolean expectSpill)
+      throws Exception {
+    createMetadata();
+    SpillManager spillManager =
+        new SpillManager(new Variables(), folder.getRoot().getAbsolutePath(), "test", false);
+    AggregationTable table =
+        new AggregationTable(
+            inputRowMeta,
+            groupnrs,
+            subjectnrs,
+            AGGREGATE_TYPES,
+            aggMeta,
+            false,
+            memoryLimit,
+            spillManager);
+
+    // Calculate the expected results the simple way: sum, sum, count, count any, min, max
+    //
+    Map<String, Object[]> expected = new HashMap<>();
+    for (int i = 0; i < nrRows; i++) {
+      int group = i % nrGroups;
+      Long quantity = i % 7 == 0 ? null : Long.valueOf(i % 100);
+      Double price = i % 5 == 0 ? null : Double.valueOf((i % 20) * 0.5);
+      Object[] row = {"group-" + group, Long.valueOf(group % 3), quantity, price};
+      table.addRow(row);
+
+      String key = row[0] + "/" + row[1];
+      Object[] result = expected.get(key);
+      if (result == null) {
+        result = new Object[] {null, null, 0L, 0L, null, null, 0L};
+        expected.put(key, result);
+      }
+      if (quantity != null) {
+        result[0] = result[0] == null ? quantity : (Long) result[0] + quantity;
+        result[4] = result[4] == null ? quantity : Math.min((Long) result[4], quantity);
+        result[2] = (Long) result[2] + 1;
+      }
+      if (price != null) {
+        result[1] = result[1] == null ? price : (Double) result[1] + price;
+        result[3] = (Long) result[3] + 1;
+        result[5] = result[5] == null ? price : Math.max((Double) result[5], price);
+      }
+      result[6] = (Long) result[6] + 1;
+    }
+    assertEquals(expectSpill, table.getNrSpilledPartitions() > 0);
+
+    Map<String, Aggregate> actual = new HashMap<>();
+    long count =
+        table.retrieveGroups(
+            (groupData, aggregate) -> actual.put(groupData[0] + "/" + groupData[1], aggregate));
+    assertEquals(nrGroups, count);
+    assertEquals(nrGroups, actual.size());
+    assertEquals(0, table.size());
+    assertEquals(0, folder.getRoot().list().length);
+
+    for (Map.Entry<String, Object[]> entry : expected.entrySet()) {
+      Object[] result = entry.getValue();
+      Aggregate aggregate = actual.get(entry.getKey());
+      assertEquals(result[0], aggregate.agg[0]);
+      assertEquals(result[1], aggregate.agg[1]);
+      assertEquals(result[3], aggregate.counts[1]);
+      assertEquals(result[2], aggregate.counts[2]);
+      assertEquals(result[6], aggregate.counts[3]);
+      assertEquals(result[4], aggregate.agg[4]);
+      assertEquals(result[5], aggregate.agg[5]);
+      assertNull(aggregate.agg[2]);
+    }
+  }
+}
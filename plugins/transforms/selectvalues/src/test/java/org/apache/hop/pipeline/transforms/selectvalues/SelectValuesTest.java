@@ -542,6 +542,13 @@ public class SelectValuesTest {
       rowMeta = rm;
     }
 
+    @Override
+    public void putRows(IRowMeta rm, Object[][] rows, int nrRows) throws HopTransformException {
+      for (int i = 0; i < nrRows; i++) {
+        putRow(rm, rows[i]);
+      }
+    }
+
     /**
      * Find input row set.
      *
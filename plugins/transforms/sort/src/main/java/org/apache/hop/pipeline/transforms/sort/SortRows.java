@@ -18,7 +18,6 @@
 package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
@@ -26,7 +25,10 @@ import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
-import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillManager;
+import org.apache.hop.core.spill.SpillReader;
+import org.apache.hop.core.spill.SpillWriter;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -37,11 +39,13 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.io.*;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 /**
  * Sort the rows in the input-streams based on certain criteria
@@ -123,155 +127,214 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     // First sort the rows in buffer[]
     quickSort(data.buffer);
 
+    if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
+      data.minSortSize = data.buffer.size(); // if we did it once, we can do
+      // it again.
+
+      // Memory usage goes up over time, even with garbage collection
+      // We need pointers, file handles, etc.
+      // As such, we're going to lower the min sort size a bit
+      //
+      data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
+    }
+
+    // We only write one temp-file at a time
+    //
+    waitForSpill();
+
     // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
+    SpillFile spillFile = data.spillManager.createSpillFile();
+    data.files.add(spillFile); // Remember the files!
 
-    try {
-      FileObject fileObject =
-          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
-
-      data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
-      } else {
-        dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
-      }
+    final List<Object[]> rows = data.buffer;
+    if (data.spillExecutor != null) {
+      // Keep collecting rows in the spare buffer while these are written in the background
+      //
+      data.buffer = data.spareBuffer;
+      data.spareBuffer = rows;
+      data.spill = data.spillExecutor.submit(() -> writeTempFile(spillFile, rows));
+    } else {
+      writeTempFile(spillFile, rows);
+    }
+
+    // How much memory do we have left?
+    //
+    data.freeMemoryPct = Const.getPercentageFreeMemory();
+    data.freeCounter = 0;
+    if (data.sortSize <= 0 && log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
+    }
 
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<>();
+    data.getBufferIndex = 0;
+  }
+
+  /** Write the sorted rows to the given temp-file and clear the list afterwards. */
+  private Void writeTempFile(SpillFile spillFile, List<Object[]> rows) throws HopException {
+    try (SpillWriter writer = spillFile.createWriter(data.outputRowMeta)) {
       Object[] previousRow = null;
-      if (meta.isOnlyPassingUniqueRows()) {
-        int index = 0;
-        while (index < data.buffer.size()) {
-          Object[] row = data.buffer.get(index);
-          if (previousRow != null) {
-            int result = data.outputRowMeta.compare(row, previousRow, data.fieldnrs);
-            if (result == 0) {
-              duplicates.add(index);
-              if (log.isRowLevel()) {
-                logRowlevel(
-                    BaseMessages.getString(
-                        PKG,
-                        "SortRows.RowLevel.DuplicateRowRemoved",
-                        data.outputRowMeta.getString(row)));
-              }
-            }
+      for (Object[] row : rows) {
+        // Just write the data, nothing else
+        if (meta.isOnlyPassingUniqueRows()
+            && previousRow != null
+            && data.outputRowMeta.compare(row, previousRow, data.fieldnrs) == 0) {
+          if (log.isRowLevel()) {
+            logRowlevel(
+                BaseMessages.getString(
+                    PKG,
+                    "SortRows.RowLevel.DuplicateRowRemoved",
+                    data.outputRowMeta.getString(row)));
           }
-          index++;
-          previousRow = row;
+        } else {
+          writer.writeRow(row);
         }
+        previousRow = row;
       }
+    } catch (Exception e) {
+      throw new HopException("Error processing temp-file!", e);
+    }
 
-      // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
+    // Clear the list
+    rows.clear();
+    return null;
+  }
 
-      int duplicatesIndex = 0;
-      for (p = 0; p < data.buffer.size(); p++) {
-        boolean skip = false;
-        if (duplicatesIndex < duplicates.size() && p == duplicates.get(duplicatesIndex)) {
-          skip = true;
-          duplicatesIndex++;
-        }
-        if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
-        }
-      }
+  /** Wait until the temp-file being written in the background (if any) is complete. */
+  void waitForSpill() throws HopException {
+    if (data.spill == null) {
+      return;
+    }
+    try {
+      data.spill.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while writing temp-file!", e);
+    } catch (ExecutionException e) {
+      throw new HopException(e.getCause());
+    } finally {
+      data.spill = null;
+    }
+  }
 
-      if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
-        data.minSortSize = data.buffer.size(); // if we did it once, we can do
-        // it again.
+  private SpillReader openTempFileForReading(SpillFile spillFile) throws HopException {
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "SortRows.Detailed.FromFileExpectingRows",
+              spillFile.toString(),
+              spillFile.getRowCount()));
+    }
+    return spillFile.createReader(data.outputRowMeta);
+  }
 
-        // Memory usage goes up over time, even with garbage collection
-        // We need pointers, file handles, etc.
-        // As such, we're going to lower the min sort size a bit
-        //
-        data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
+  /**
+   * As long as there are more temporary files than we want to read at the same time, merge
+   * consecutive groups of them into larger files. Merging consecutive files keeps the rows with
+   * equal keys in the order in which they arrived.
+   */
+  void mergeTempFilesToFanIn() throws HopException {
+    while (data.files.size() > data.mergeFanIn && !isStopped()) {
+      int index = 0;
+      while (index < data.files.size() && !isStopped()) {
+        int end = Math.min(index + data.mergeFanIn, data.files.size());
+        if (end - index > 1) {
+          List<SpillFile> files = data.files.subList(index, end);
+          SpillFile merged = mergeTempFiles(files);
+
+          // The merged files are deleted, replace them with the result
+          //
+          files.clear();
+          data.files.add(index, merged);
+        }
+        index++;
       }
+    }
+  }
 
-      // Clear the list
-      data.buffer.clear();
+  /**
+   * Merge the given sorted temporary files into a single new one. The given files are deleted
+   * afterwards.
+   *
+   * @param files the files to merge
+   * @return the new temporary file
+   */
+  private SpillFile mergeTempFiles(List<SpillFile> files) throws HopException {
+    if (log.isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG, "SortRows.Basic.MergingTempFiles", files.size(), data.mergeFanIn));
+    }
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
+    SpillReader[] readers = new SpillReader[files.size()];
+    PriorityQueue<RowTempFile> queue = new PriorityQueue<>(files.size(), data.comparator);
+    SpillFile spillFile = data.spillManager.createSpillFile();
+    try (SpillWriter writer = spillFile.createWriter(data.outputRowMeta)) {
+      for (int f = 0; f < files.size(); f++) {
+        readers[f] = openTempFileForReading(files.get(f));
+        Object[] row = readers[f].readRow();
+        if (row != null) {
+          queue.add(new RowTempFile(row, f));
+        }
       }
-      outputStream.close(); // close file stream
 
-      // How much memory do we have left?
-      //
-      data.freeMemoryPct = Const.getPercentageFreeMemory();
-      data.freeCounter = 0;
-      if (data.sortSize <= 0 && log.isDetailed()) {
-        logDetailed(
-            BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
-      }
+      RowTempFile smallest;
+      while ((smallest = queue.poll()) != null) {
+        writer.writeRow(smallest.row);
 
+        // Re-use the holder for the next row of the same file
+        //
+        smallest.row = readers[smallest.fileNumber].readRow();
+        if (smallest.row != null) {
+          queue.add(smallest);
+        }
+      }
     } catch (Exception e) {
-      throw new HopException("Error processing temp-file!", e);
+      spillFile.delete();
+      throw new HopException("Error merging temp-files!", e);
+    } finally {
+      for (SpillReader reader : readers) {
+        if (reader != null) {
+          reader.close();
+        }
+      }
     }
 
-    data.getBufferIndex = 0;
-  }
-
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
+    for (SpillFile file : files) {
+      file.delete();
+    }
+    return spillFile;
   }
 
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
+  Object[] getBuffer() throws HopException {
     Object[] retval;
 
     // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
+    if (CollectionUtils.isNotEmpty(data.files) && data.readers.isEmpty()) {
+      waitForSpill();
+
+      // Never read from more files at once than the configured fan-in
+      //
+      mergeTempFilesToFanIn();
+
       if (log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
       }
 
+      data.tempRows = new PriorityQueue<>(data.files.size(), data.comparator);
       try {
         for (int f = 0; f < data.files.size() && !isStopped(); f++) {
-          FileObject fileObject = data.files.get(f);
-          String filename = HopVfs.getFilename(fileObject);
-          if (log.isDetailed()) {
-            logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
-          }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
-          data.dis.add(di);
+          SpillReader reader = openTempFileForReading(data.files.get(f));
+          data.readers.add(reader);
 
-          // How long is the buffer?
-          int buffersize = data.bufferSizes.get(f);
-
-          if (log.isDetailed()) {
-            logDetailed(
-                BaseMessages.getString(
-                    PKG, "SortRows.Detailed.FromFileExpectingRows", filename, buffersize));
-          }
-
-          if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
+          Object[] row = reader.readRow();
+          if (row != null) {
             data.tempRows.add(new RowTempFile(row, f));
           }
         }
-
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
       } catch (Exception e) {
         logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
       }
@@ -289,50 +352,40 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     } else {
       // read from disk processing
 
-      if (data.rowbuffer.isEmpty()) {
+      if (data.tempRows == null || data.tempRows.isEmpty()) {
         retval = null;
       } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
+        // We now have a row waiting for every file: the head of the queue is the smallest
         //
         if (log.isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
+          int i = 0;
+          for (RowTempFile rowTempFile : data.tempRows) {
             logRowlevel(
                 BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
+                    PKG,
+                    "SortRows.RowLevel.PrintRow",
+                    i++,
+                    data.outputRowMeta.getString(rowTempFile.row)));
           }
         }
 
-        RowTempFile rowTempFile = data.tempRows.remove(0);
+        RowTempFile rowTempFile = data.tempRows.poll();
         retval = rowTempFile.row;
         int smallest = rowTempFile.fileNumber;
 
         // now get another Row for position smallest
-
-        FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
-
-        try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
-          try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
-            file.delete();
-          } catch (IOException e) {
+        //
+        SpillReader reader = data.readers.get(smallest);
+        rowTempFile.row = reader.readRow();
+        if (rowTempFile.row != null) {
+          data.tempRows.add(rowTempFile);
+        } else {
+          // This file is exhausted: close and remove it.
+          // The other files keep their number so there is nothing to renumber.
+          //
+          SpillFile file = data.files.get(smallest);
+          reader.close();
+          if (!file.delete()) {
             logError(
                 BaseMessages.getString(
                     PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString()));
@@ -340,25 +393,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
             stopAll();
             return null;
           }
-
-          data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
-
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
-
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for (RowTempFile rtf : data.tempRows) {
-            if (rtf.fileNumber > smallest) {
-              rtf.fileNumber--;
-            }
-          }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
+          data.readers.set(smallest, null);
+          data.files.set(smallest, null);
         }
       }
     }
@@ -562,14 +598,34 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
     //
     data.buffer = new ArrayList<>(5000);
 
-    // Buffer for reading from disk
-    //
-    data.rowbuffer = new ArrayList<>(5000);
-
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.getCompressFiles());
+    try {
+      data.spillManager =
+          new SpillManager(
+              this, resolve(meta.getDirectory()), meta.getPrefix(), data.compressFiles);
+    } catch (HopException e) {
+      logError(e.getMessage(), e);
+      return false;
+    }
 
-    data.tempRows = new ArrayList<>();
+    // Sort with all cores and write temp-files on a separate thread
+    //
+    data.parallelSort = meta.isParallelSort();
+    if (data.parallelSort) {
+      data.spareBuffer = new ArrayList<>(5000);
+      data.spillExecutor =
+          Executors.newSingleThreadExecutor(
+              r -> {
+                Thread thread = new Thread(r, getTransformName() + " temp-file writer");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    data.mergeFanIn =
+        Math.max(
+            2, Const.toInt(resolve(meta.getMergeFanIn()), SortRowsMeta.DEFAULT_MERGE_FAN_IN));
 
     data.minSortSize = 5000;
 
@@ -579,45 +635,63 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
   @Override
   public void dispose() {
     clearBuffers();
+    if (data.spillExecutor != null) {
+      data.spillExecutor.shutdownNow();
+      data.spillExecutor = null;
+    }
     super.dispose();
   }
 
   private void clearBuffers() {
 
+    // Make sure we're not writing a temp-file anymore
+    if (data.spill != null) {
+      try {
+        waitForSpill();
+      } catch (HopException e) {
+        logError(e.getLocalizedMessage(), e);
+      }
+    }
+
     // Clean out the sort buffer
     data.buffer.clear();
+    if (data.spareBuffer != null) {
+      data.spareBuffer.clear();
+    }
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
+    data.tempRows = null;
 
-    // close any open DataInputStream objects
-    if (CollectionUtils.isNotEmpty(data.dis)) {
-      for (DataInputStream dis : data.dis) {
-        BaseTransform.closeQuietly(dis);
-      }
-    }
-    // close any open InputStream objects
-    if (CollectionUtils.isNotEmpty(data.fis)) {
-      for (InputStream is : data.fis) {
-        BaseTransform.closeQuietly(is);
+    // close any open temp-files
+    for (SpillReader reader : data.readers) {
+      if (reader != null) {
+        reader.close();
       }
     }
+    data.readers.clear();
+
     // remove temp files
-    for (int f = 0; f < data.files.size(); f++) {
-      FileObject fileToDelete = data.files.get(f);
-      try {
-        if (fileToDelete != null && fileToDelete.exists()) {
-          fileToDelete.delete();
-        }
-      } catch (FileSystemException e) {
-        logError(e.getLocalizedMessage(), e);
+    for (SpillFile spillFile : data.files) {
+      if (spillFile != null) {
+        spillFile.delete();
       }
     }
+    data.files.clear();
   }
 
   /** Sort the entire vector, if it is not empty. */
   void quickSort(List<Object[]> elements) {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (data.parallelSort) {
+        // Stable like Collections.sort() but sorts the parts of the array with all cores
+        //
+        Object[][] rows = elements.toArray(new Object[elements.size()][]);
+        Arrays.parallelSort(rows, data.rowComparator);
+        for (int i = 0; i < rows.length; i++) {
+          elements.set(i, rows[i]);
+        }
+      } else {
+        Collections.sort(elements, data.rowComparator);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -687,10 +761,15 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData>
       super(rowMeta, fieldNrs);
     }
 
+    /** Rows with equal keys are ordered by file so that the merge keeps the original order */
     @Override
     public int compare(RowTempFile o1, RowTempFile o2) {
       try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
+        int result = rowMeta.compare(o1.row, o2.row, fieldNrs);
+        if (result == 0) {
+          result = Integer.compare(o1.fileNumber, o2.fileNumber);
+        }
+        return result;
       } catch (HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
@@ -19,33 +19,47 @@ package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillManager;
+import org.apache.hop.core.spill.SpillReader;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author Matt
  * @since 24-jan-2005
  */
 public class SortRowsData extends BaseTransformData implements ITransformData {
-  public List<FileObject> files;
+  public List<SpillFile> files;
   public List<Object[]> buffer;
   public int getBufferIndex;
 
-  public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
-  public List<Object[]> rowbuffer;
-  public List<Integer> bufferSizes;
+  // Sort with several threads and write temp-files in the background
+  public boolean parallelSort;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  // The buffer to collect rows in while the other one is written to a temp-file
+  public List<Object[]> spareBuffer;
+
+  public ExecutorService spillExecutor;
+  public Future<Void> spill;
+
+  // Creates the temp-files in the configured directories with the configured codec
+  public SpillManager spillManager;
+
+  public List<SpillReader> readers;
+
+  // To store rows and file references, the smallest row is at the head
+  public PriorityQueue<RowTempFile> tempRows;
+
+  // The maximum number of temporary files to read from at the same time
+  public int mergeFanIn;
 
   public int[] fieldnrs; // the corresponding field numbers;
   public FileObject fil;
@@ -75,10 +89,7 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
     super();
 
     files = new ArrayList<>();
-    fis = new ArrayList<>();
-    gzis = new ArrayList<>();
-    dis = new ArrayList<>();
-    bufferSizes = new ArrayList<>();
+    readers = new ArrayList<>();
 
     previous = null; // Heroic
   }
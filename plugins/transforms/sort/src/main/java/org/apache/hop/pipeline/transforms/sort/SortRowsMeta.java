@@ -64,6 +64,9 @@ public class SortRowsMeta extends BaseTransformMeta
   private static final long serialVersionUID = -9075883720765645655L;
   private static final Class<?> PKG = SortRowsMeta.class; // For Translator
 
+  /** The default maximum number of temporary files merged at once */
+  public static final int DEFAULT_MERGE_FAN_IN = 256;
+
   /** order by which fields? */
   @Injection(name = "NAME", group = "FIELDS")
   private String[] fieldName;
@@ -106,6 +109,13 @@ public class SortRowsMeta extends BaseTransformMeta
   @Injection(name = "FREE_MEMORY_TRESHOLD")
   private String freeMemoryLimit;
 
+  /**
+   * The maximum number of temporary files merged at once. If more files were written, they are
+   * first merged into fewer, larger files.
+   */
+  @Injection(name = "MERGE_FAN_IN")
+  private String mergeFanIn;
+
   /** only pass unique rows to the output stream(s) */
   @Injection(name = "ONLY_PASS_UNIQUE_ROWS")
   private boolean onlyPassingUniqueRows;
@@ -120,6 +130,13 @@ public class SortRowsMeta extends BaseTransformMeta
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /**
+   * Sort the rows in memory using all available cores and write temporary files in the background
+   * while the next batch of rows is collected.
+   */
+  @Injection(name = "PARALLEL_SORT")
+  private boolean parallelSort;
+
   public SortRowsMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -213,10 +230,12 @@ public class SortRowsMeta extends BaseTransformMeta
       prefix = XmlHandler.getTagValue(transformNode, "prefix");
       sortSize = XmlHandler.getTagValue(transformNode, "sort_size");
       freeMemoryLimit = XmlHandler.getTagValue(transformNode, "free_memory");
+      mergeFanIn = XmlHandler.getTagValue(transformNode, "merge_fan_in");
       compressFiles = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "compress"));
       compressFilesVariable = XmlHandler.getTagValue(transformNode, "compress_variable");
       onlyPassingUniqueRows =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "unique_rows"));
+      parallelSort = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "parallel_sort"));
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
       int nrFields = XmlHandler.countNodes(fields, "field");
@@ -251,9 +270,11 @@ public class SortRowsMeta extends BaseTransformMeta
     prefix = "out";
     sortSize = "1000000";
     freeMemoryLimit = null;
+    mergeFanIn = Integer.toString(DEFAULT_MERGE_FAN_IN);
     compressFiles = false;
     compressFilesVariable = null;
     onlyPassingUniqueRows = false;
+    parallelSort = true;
 
     int nrFields = 0;
 
@@ -275,11 +296,13 @@ public class SortRowsMeta extends BaseTransformMeta
     retval.append("      ").append(XmlHandler.addTagValue("prefix", prefix));
     retval.append("      ").append(XmlHandler.addTagValue("sort_size", sortSize));
     retval.append("      ").append(XmlHandler.addTagValue("free_memory", freeMemoryLimit));
+    retval.append("      ").append(XmlHandler.addTagValue("merge_fan_in", mergeFanIn));
     retval.append("      ").append(XmlHandler.addTagValue("compress", compressFiles));
     retval
         .append("      ")
         .append(XmlHandler.addTagValue("compress_variable", compressFilesVariable));
     retval.append("      ").append(XmlHandler.addTagValue("unique_rows", onlyPassingUniqueRows));
+    retval.append("      ").append(XmlHandler.addTagValue("parallel_sort", parallelSort));
 
     retval.append("    <fields>").append(Const.CR);
     for (int i = 0; i < fieldName.length; i++) {
@@ -493,6 +516,16 @@ public class SortRowsMeta extends BaseTransformMeta
     this.sortSize = sortSize;
   }
 
+  /** @return the maximum number of temporary files merged at once */
+  public String getMergeFanIn() {
+    return mergeFanIn;
+  }
+
+  /** @param mergeFanIn the maximum number of temporary files merged at once */
+  public void setMergeFanIn(String mergeFanIn) {
+    this.mergeFanIn = mergeFanIn;
+  }
+
   /** @return Returns whether temporary files should be compressed */
   public boolean getCompressFiles() {
     return compressFiles;
@@ -513,6 +546,16 @@ public class SortRowsMeta extends BaseTransformMeta
     this.onlyPassingUniqueRows = onlyPassingUniqueRows;
   }
 
+  /** @return true if rows are sorted by several threads and spilled in the background */
+  public boolean isParallelSort() {
+    return parallelSort;
+  }
+
+  /** @param parallelSort true to sort rows with several threads and spill in the background */
+  public void setParallelSort(boolean parallelSort) {
+    this.parallelSort = parallelSort;
+  }
+
   /** @return the compressFilesVariable */
   public String getCompressFilesVariable() {
     return compressFilesVariable;
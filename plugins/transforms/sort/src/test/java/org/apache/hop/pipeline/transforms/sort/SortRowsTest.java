@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+public class SortRowsTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<SortRowsMeta, SortRowsData> transformMockHelper;
+
+  @Before
+  public void setup() {
+    transformMockHelper =
+        new TransformMockHelper<>("Test SortRows", SortRowsMeta.class, SortRowsData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void tearDown() {
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testInMemorySort() throws Exception {
+    assertSortedAndStable(sort(1000, "100", 200, false), 200);
+    assertSortedAndStable(sort(100000, "100", 50000, true), 50000);
+  }
+
+  @Test
+  public void testExternalSortWithSingleMergePass() throws Exception {
+    assertSortedAndStable(sort(5, "100", 200, false), 200);
+    assertSortedAndStable(sort(5, "100", 200, true), 200);
+  }
+
+  @Test
+  public void testExternalSortWithIntermediateMergePasses() throws Exception {
+    // 200 rows in files of 5 rows makes 40 files, merged 3 at a time
+    //
+    assertSortedAndStable(sort(5, "3", 200, false), 200);
+    assertSortedAndStable(sort(5, "3", 200, true), 200);
+  }
+
+  @Test
+  public void testTempFilesAreRemoved() throws Exception {
+    sort(5, "2", 50, false);
+    sort(5, "2", 50, true);
+    File[] files = tempFolder.getRoot().listFiles();
+    assertEquals(0, files == null ? 0 : files.length);
+  }
+
+  private List<Object[]> sort(int sortSize, String mergeFanIn, int nrRows, boolean parallelSort)
+      throws Exception {
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.allocate(1);
+    meta.getFieldName()[0] = "key";
+    meta.getAscending()[0] = true;
+    meta.getCaseSensitive()[0] = true;
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setSortSize(Integer.toString(sortSize));
+    meta.setMergeFanIn(mergeFanIn);
+    meta.setParallelSort(parallelSort);
+
+    SortRows transform =
+        new SortRows(
+            transformMockHelper.transformMeta,
+            meta,
+            new SortRowsData(),
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+    transform.init();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("seq"));
+
+    IRowSet input = new QueueRowSet();
+    for (long i = 0; i < nrRows; i++) {
+      input.putRow(rowMeta, new Object[] {(i * 7) % 10, i});
+    }
+    input.setDone();
+    IRowSet output = new QueueRowSet();
+    transform.setInputRowSets(new ArrayList<>(Collections.singletonList(input)));
+    transform.setOutputRowSets(new ArrayList<>(Collections.singletonList(output)));
+
+    while (transform.processRow()) {
+      // Keep going until all rows are sorted
+    }
+    transform.dispose();
+
+    List<Object[]> result = new ArrayList<>();
+    Object[] row;
+    while ((row = output.getRowImmediate()) != null) {
+      result.add(row);
+    }
+    assertNull(output.getRowImmediate());
+    return result;
+  }
+
+  private void assertSortedAndStable(List<Object[]> rows, int nrRows) {
+    assertEquals(nrRows, rows.size());
+    for (int i = 1; i < rows.size(); i++) {
+      long previousKey = (Long) rows.get(i - 1)[0];
+      long key = (Long) rows.get(i)[0];
+      if (previousKey == key) {
+        // Rows with the same key keep their original order
+        //
+        assertEquals(
+            "Row " + i + " is out of order",
+            -1,
+            Long.compare((Long) rows.get(i - 1)[1], (Long) rows.get(i)[1]));
+      } else {
+        assertEquals("Row " + i + " is not sorted", -1, Long.compare(previousKey, key));
+      }
+    }
+  }
+}
@@ -38,7 +38,9 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 
 import java.math.BigDecimal;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Looks up information by first reading data into a hash table (in memory)
@@ -64,72 +66,90 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
   }
 
   private void handleNullIf() {
-    data.nullIf = new Object[meta.getValue().length];
-
     for (int i = 0; i < meta.getValue().length; i++) {
       if (meta.getValueDefaultType()[i] < 0) {
         // CHECKSTYLE:Indentation:OFF
         meta.getValueDefaultType()[i] = IValueMeta.TYPE_STRING;
       }
-      data.nullIf[i] = null;
-      switch (meta.getValueDefaultType()[i]) {
+    }
+    data.nullIf = getDefaultValues(meta);
+  }
+
+  /**
+   * Converts the default values of the lookup values to their data types. These are returned for
+   * rows which aren't found in the lookup stream.
+   *
+   * @param meta the transform metadata
+   * @return the default values, null for values without a default
+   */
+  public static Object[] getDefaultValues(StreamLookupMeta meta) {
+    Object[] nullIf = new Object[meta.getValue().length];
+
+    for (int i = 0; i < meta.getValue().length; i++) {
+      String valueDefault = meta.getValueDefault()[i];
+      int valueDefaultType = meta.getValueDefaultType()[i];
+      if (valueDefaultType < 0) {
+        valueDefaultType = IValueMeta.TYPE_STRING;
+      }
+      nullIf[i] = null;
+      switch (valueDefaultType) {
         case IValueMeta.TYPE_STRING:
-          if (Utils.isEmpty(meta.getValueDefault()[i])) {
-            data.nullIf[i] = null;
+          if (Utils.isEmpty(valueDefault)) {
+            nullIf[i] = null;
           } else {
-            data.nullIf[i] = meta.getValueDefault()[i];
+            nullIf[i] = valueDefault;
           }
           break;
         case IValueMeta.TYPE_DATE:
           try {
-            data.nullIf[i] = DateFormat.getInstance().parse(meta.getValueDefault()[i]);
+            nullIf[i] = DateFormat.getInstance().parse(valueDefault);
           } catch (Exception e) {
             // Ignore errors
           }
           break;
         case IValueMeta.TYPE_NUMBER:
           try {
-            data.nullIf[i] = Double.parseDouble(meta.getValueDefault()[i]);
+            nullIf[i] = Double.parseDouble(valueDefault);
           } catch (Exception e) {
             // Ignore errors
           }
           break;
         case IValueMeta.TYPE_INTEGER:
           try {
-            data.nullIf[i] = Long.parseLong(meta.getValueDefault()[i]);
+            nullIf[i] = Long.parseLong(valueDefault);
           } catch (Exception e) {
             // Ignore errors
           }
           break;
         case IValueMeta.TYPE_BOOLEAN:
-          if ("TRUE".equalsIgnoreCase(meta.getValueDefault()[i])
-              || "Y".equalsIgnoreCase(meta.getValueDefault()[i])) {
-            data.nullIf[i] = Boolean.TRUE;
+          if ("TRUE".equalsIgnoreCase(valueDefault) || "Y".equalsIgnoreCase(valueDefault)) {
+            nullIf[i] = Boolean.TRUE;
           } else {
-            data.nullIf[i] = Boolean.FALSE;
+            nullIf[i] = Boolean.FALSE;
           }
           break;
         case IValueMeta.TYPE_BIGNUMBER:
           try {
-            data.nullIf[i] = new BigDecimal(meta.getValueDefault()[i]);
+            nullIf[i] = new BigDecimal(valueDefault);
           } catch (Exception e) {
             // Ignore errors
           }
           break;
         default:
           // if a default value is given and no conversion is implemented throw an error
-          if (meta.getValueDefault()[i] != null && meta.getValueDefault()[i].trim().length() > 0) {
+          if (valueDefault != null && valueDefault.trim().length() > 0) {
             throw new RuntimeException(
                 BaseMessages.getString(PKG, "StreamLookup.Exception.ConversionNotImplemented")
                     + " "
-                    + ValueMetaFactory.getValueMetaName(meta.getValueDefaultType()[i]));
+                    + ValueMetaFactory.getValueMetaName(valueDefaultType));
           } else {
             // no default value given: just set it to null
-            data.nullIf[i] = null;
+            nullIf[i] = null;
             break;
           }
       }
     }
+    return nullIf;
   }
 
   private boolean readLookupValues() throws HopException {
@@ -220,9 +240,40 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       rowData = getRowFrom(rowSet);
     }
 
+    if (meta.isMemoryPreservationActive() && meta.isUsingSortedList()) {
+      sortCache();
+    }
+
     return true;
   }
 
+  /**
+   * While reading the lookup rows the key-values are simply appended to the list. Sort the list
+   * once all rows are read and keep only the last key-value for every key, the way a hashtable
+   * would.
+   */
+  private void sortCache() {
+    List<KeyValue> list = data.list;
+
+    // The sort is stable: rows with the same key stay in the order they were read in
+    //
+    list.sort(data.comparator);
+
+    int last = -1;
+    for (KeyValue keyValue : list) {
+      if (last >= 0 && data.comparator.compare(list.get(last), keyValue) == 0) {
+        list.set(last, keyValue);
+      } else {
+        list.set(++last, keyValue);
+      }
+    }
+    list.subList(last + 1, list.size()).clear();
+
+    if (list instanceof ArrayList) {
+      ((ArrayList<KeyValue>) list).trimToSize();
+    }
+  }
+
   private Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
     // See if we need to stop.
     if (isStopped()) {
@@ -304,14 +355,9 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       throws HopValueException {
     if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
-        KeyValue keyValue = new KeyValue(keyData, valueData);
-        int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
-        if (idx < 0) {
-          int index = -idx - 1; // this is the insertion point
-          data.list.add(index, keyValue); // insert to keep sorted.
-        } else {
-          data.list.set(idx, keyValue); // Overwrite to simulate Hashtable behaviour
-        }
+        // Sorted and de-duplicated in one go once all lookup rows are read, see sortCache()
+        //
+        data.list.add(new KeyValue(keyData, valueData));
       } else {
         if (meta.isUsingIntegerPair()) {
           if (!data.metadataVerifiedIntegerPair) {
@@ -329,7 +375,11 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
           Long key = keyMeta.getInteger(keyData, 0);
           Long value = valueMeta.getInteger(valueData, 0);
-          data.longIndex.put(key, value);
+          // A missing key gives the same result as a null value: the default is used
+          //
+          if (value != null) {
+            data.longIndex.put(key, value);
+          }
         } else {
           if (data.hashIndex == null) {
             data.hashIndex = new ByteArrayHashIndex(keyMeta);
@@ -26,6 +26,7 @@ import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
@@ -40,6 +41,10 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -74,10 +79,14 @@ public class StreamLookupTest {
     }
   }
 
-  private IRowSet mockLookupRowSet(boolean binary) {
+  private IRowSet mockLookupRowSet(boolean binary, boolean unsortedWithDuplicates) {
     final int storageType =
         binary ? IValueMeta.STORAGE_TYPE_BINARY_STRING : IValueMeta.STORAGE_TYPE_NORMAL;
     Object[][] data = {{"Value1", "1"}, {"Value2", "2"}};
+    if (unsortedWithDuplicates) {
+      // The last row with the same key wins
+      data = new Object[][] {{"Old2", "2"}, {"Value2", "2"}, {"Old1", "1"}, {"Value1", "1"}};
+    }
 
     if (binary) {
       convertDataToBinary(data);
@@ -128,8 +137,8 @@ public class StreamLookupTest {
     return dataRowSet;
   }
 
-  private StreamLookupMeta mockProcessRowMeta(boolean memoryPreservationActive)
-      throws HopTransformException {
+  private StreamLookupMeta mockProcessRowMeta(
+      boolean memoryPreservationActive, boolean usingSortedList) throws HopTransformException {
     StreamLookupMeta meta = smh.iTransformMeta;
 
     TransformMeta lookupTransformMeta =
@@ -145,7 +154,7 @@ public class StreamLookupTest {
     doReturn(new String[] {"Id"}).when(meta).getKeystream();
     doReturn(new String[] {"Value"}).when(meta).getValue();
     doReturn(memoryPreservationActive).when(meta).isMemoryPreservationActive();
-    doReturn(false).when(meta).isUsingSortedList();
+    doReturn(usingSortedList).when(meta).isUsingSortedList();
     doReturn(false).when(meta).isUsingIntegerPair();
     doReturn(new int[] {-1}).when(meta).getValueDefaultType();
     doReturn(new String[] {""}).when(meta).getValueDefault();
@@ -167,23 +176,29 @@ public class StreamLookupTest {
   private void doTest(
       boolean memoryPreservationActive, boolean binaryLookupStream, boolean binaryDataStream)
       throws HopException {
+    doTest(memoryPreservationActive, binaryLookupStream, binaryDataStream, false);
+  }
+
+  private void doTest(
+      boolean memoryPreservationActive,
+      boolean binaryLookupStream,
+      boolean binaryDataStream,
+      boolean usingSortedList)
+      throws HopException {
     StreamLookup transform =
         new StreamLookup(
             smh.transformMeta,
             smh.iTransformMeta,
-            smh.iTransformData,
+            new StreamLookupData(),
             0,
             smh.pipelineMeta,
             smh.pipeline);
     transform.init();
-    transform.addRowSetToInputRowSets(mockLookupRowSet(binaryLookupStream));
+    transform.addRowSetToInputRowSets(mockLookupRowSet(binaryLookupStream, usingSortedList));
     transform.addRowSetToInputRowSets(mockDataRowSet(binaryDataStream));
     transform.addRowSetToOutputRowSets(new QueueRowSet());
 
-    StreamLookupMeta meta = mockProcessRowMeta(memoryPreservationActive);
-    StreamLookupData data = new StreamLookupData();
-    data.readLookupValues = true;
-
+    StreamLookupMeta meta = mockProcessRowMeta(memoryPreservationActive, usingSortedList);
     IRowSet outputRowSet = transform.getOutputRowSets().get(0);
 
     // Process rows and collect output
@@ -254,4 +269,62 @@ public class StreamLookupTest {
   public void testMemoryPreservationWithBinaryStreams() throws HopException {
     doTest(true, false, true);
   }
+
+  @Test
+  public void testSortedListWithUnsortedDuplicateLookupRows() throws HopException {
+    doTest(true, false, false, true);
+  }
+
+  @Test
+  public void testSortedListWithBinaryStreams() throws HopException {
+    doTest(true, true, true, true);
+  }
+
+  @Test
+  public void testIntegerPairWithNullLookupValue() throws HopException {
+    StreamLookup transform =
+        new StreamLookup(
+            smh.transformMeta,
+            smh.iTransformMeta,
+            new StreamLookupData(),
+            0,
+            smh.pipelineMeta,
+            smh.pipeline);
+    transform.init();
+
+    RowMeta lookupRowMeta = new RowMeta();
+    lookupRowMeta.addValueMeta(new ValueMetaInteger("Value"));
+    lookupRowMeta.addValueMeta(new ValueMetaInteger("Id"));
+    IRowSet lookupRowSet = smh.getMockInputRowSet(new Object[][] {{10L, 1L}, {null, 2L}});
+    doReturn("Lookup").when(lookupRowSet).getOriginTransformName();
+    doReturn("StreamLookup").when(lookupRowSet).getDestinationTransformName();
+    doReturn(lookupRowMeta).when(lookupRowSet).getRowMeta();
+    transform.addRowSetToInputRowSets(lookupRowSet);
+
+    RowMeta dataRowMeta = new RowMeta();
+    dataRowMeta.addValueMeta(new ValueMetaString("Name"));
+    dataRowMeta.addValueMeta(new ValueMetaInteger("Id"));
+    IRowSet dataRowSet = smh.getMockInputRowSet(new Object[][] {{"Name1", 1L}, {"Name2", 2L}});
+    doReturn(dataRowMeta).when(dataRowSet).getRowMeta();
+    transform.addRowSetToInputRowSets(dataRowSet);
+    transform.addRowSetToOutputRowSets(new QueueRowSet());
+
+    StreamLookupMeta meta = mockProcessRowMeta(true, false);
+    doReturn(true).when(meta).isUsingIntegerPair();
+    doReturn(new int[] {IValueMeta.TYPE_INTEGER}).when(meta).getValueDefaultType();
+    doReturn(new String[] {"-1"}).when(meta).getValueDefault();
+    IRowSet outputRowSet = transform.getOutputRowSets().get(0);
+
+    // The row with a null lookup value gets the default value
+    //
+    List<Object> values = new ArrayList<>();
+    while (transform.processRow()) {
+      Object[] rowData = outputRowSet.getRow();
+      if (rowData != null) {
+        values.add(rowData[2]);
+      }
+    }
+
+    Assert.assertEquals(Arrays.asList(10L, -1L), values);
+  }
 }
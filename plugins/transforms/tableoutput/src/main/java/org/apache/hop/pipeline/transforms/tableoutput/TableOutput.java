@@ -25,6 +25,7 @@ import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -42,6 +43,9 @@ import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /** Writes rows to a database table. */
 public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
@@ -232,17 +236,15 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       throw new HopTransformException("The tablename is not defined (empty)");
     }
 
-    insertStatement = data.preparedStatements.get(tableName);
-    if (insertStatement == null) {
-      String sql =
-          data.db.getInsertStatement(resolve(meta.getSchemaName()), tableName, data.insertRowMeta);
-      if (log.isDetailed()) {
-        logDetailed("Prepared statement : " + sql);
-      }
-      insertStatement = data.db.prepareSql(sql, meta.isReturningGeneratedKeys());
-      data.preparedStatements.put(tableName, insertStatement);
+    if (data.asyncWrites) {
+      // The row is written and passed on when its batch is written
+      //
+      addToBatch(tableName, insertRowData, outputRowData);
+      return null;
     }
 
+    insertStatement = getInsertStatement(tableName);
+
     try {
       // For PG & GP, we add a savepoint before the row.
       // Then revert to the savepoint afterwards... (not a transaction, so hopefully still fast)
@@ -330,17 +332,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       } else {
         data.db.clearBatch(insertStatement);
         data.db.rollback();
-        StringBuilder msg =
-            new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
-        msg.append(Const.CR);
-        msg.append("Errors encountered (first 10):").append(Const.CR);
-        for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
-          Exception exception = be.getExceptionsList().get(x);
-          if (exception.getMessage() != null) {
-            msg.append(exception.getMessage()).append(Const.CR);
-          }
-        }
-        throw new HopException(msg.toString(), be);
+        throw new HopException(getBatchErrorMessage(tableName, be), be);
       }
     } catch (HopDatabaseException dbe) {
       if (getTransformMeta().isDoingErrorHandling()) {
@@ -360,22 +352,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         errorMessage = dbe.toString();
       } else {
         if (meta.isIgnoreErrors()) {
-          if (data.warnings < 20) {
-            if (log.isBasic()) {
-              logBasic(
-                  "WARNING: Couldn't insert row into table: "
-                      + rowMeta.getString(r)
-                      + Const.CR
-                      + dbe.getMessage());
-            }
-          } else if (data.warnings == 20 && log.isBasic()) {
-            logBasic(
-                "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
-                    + rowMeta.getString(r)
-                    + Const.CR
-                    + dbe.getMessage());
-          }
-          data.warnings++;
+          logIgnoredError(rowMeta, r, dbe);
         } else {
           setErrors(getErrors() + 1);
           data.db.rollback();
@@ -400,7 +377,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.batchBuffer.add(outputRowData);
           outputRowData = null;
 
-          processBatchException(errorMessage, updateCounts, exceptionsList);
+          processBatchException(data.batchBuffer, errorMessage, updateCounts, exceptionsList);
         } else {
           // Simply add this row to the error row
           putError(rowMeta, r, 1L, errorMessage, null, "TOP001");
@@ -435,15 +412,255 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return log.isRowLevel();
   }
 
+  private PreparedStatement getInsertStatement(String tableName) throws HopDatabaseException {
+    PreparedStatement insertStatement = data.preparedStatements.get(tableName);
+    if (insertStatement == null) {
+      String sql =
+          data.db.getInsertStatement(resolve(meta.getSchemaName()), tableName, data.insertRowMeta);
+      if (log.isDetailed()) {
+        logDetailed("Prepared statement : " + sql);
+      }
+      insertStatement = data.db.prepareSql(sql, meta.isReturningGeneratedKeys());
+      data.preparedStatements.put(tableName, insertStatement);
+    }
+    return insertStatement;
+  }
+
+  private String getBatchErrorMessage(String tableName, HopDatabaseBatchException be) {
+    StringBuilder msg =
+        new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
+    msg.append(Const.CR);
+    msg.append("Errors encountered (first 10):").append(Const.CR);
+    for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
+      Exception exception = be.getExceptionsList().get(x);
+      if (exception.getMessage() != null) {
+        msg.append(exception.getMessage()).append(Const.CR);
+      }
+    }
+    return msg.toString();
+  }
+
+  private void logIgnoredError(IRowMeta rowMeta, Object[] r, HopDatabaseException dbe)
+      throws HopValueException {
+    if (data.warnings < 20) {
+      if (log.isBasic()) {
+        logBasic(
+            "WARNING: Couldn't insert row into table: "
+                + rowMeta.getString(r)
+                + Const.CR
+                + dbe.getMessage());
+      }
+    } else if (data.warnings == 20 && log.isBasic()) {
+      logBasic(
+          "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
+              + rowMeta.getString(r)
+              + Const.CR
+              + dbe.getMessage());
+    }
+    data.warnings++;
+  }
+
+  /**
+   * Add a row to the batch of its table. A full batch is handed to the batch writer thread so that
+   * the next batch can be filled while it's being written. The rows are passed on once their batch
+   * is committed.
+   */
+  private void addToBatch(String tableName, Object[] insertRowData, Object[] outputRowData)
+      throws HopException {
+    TableOutputBatch batch = data.pendingBatches.get(tableName);
+    if (batch == null) {
+      batch = new TableOutputBatch(tableName);
+      data.pendingBatches.put(tableName, batch);
+    }
+    batch.addRow(insertRowData, outputRowData);
+    if (batch.size() >= data.commitSize) {
+      data.pendingBatches.remove(tableName);
+      submitBatch(batch);
+    }
+
+    // Pass on the rows of the batches which were written in the meantime
+    //
+    while (!data.inFlightBatches.isEmpty() && data.inFlightBatches.peek().isDone()) {
+      processWrittenBatch(data.inFlightBatches.poll());
+    }
+  }
+
+  private void submitBatch(TableOutputBatch batch) throws HopException {
+    // Wait for the oldest batch when too many batches are in flight
+    //
+    while (data.inFlightBatches.size() >= data.maxInFlightBatches) {
+      processWrittenBatch(data.inFlightBatches.poll());
+    }
+    data.inFlightBatches.add(data.batchWriter.submit(() -> writeBatch(batch)));
+  }
+
+  /** Write the partially filled batches and wait until all the batches are written. */
+  private void flushBatches() throws HopException {
+    try {
+      for (TableOutputBatch batch : data.pendingBatches.values()) {
+        submitBatch(batch);
+      }
+      data.pendingBatches.clear();
+      while (!data.inFlightBatches.isEmpty()) {
+        processWrittenBatch(data.inFlightBatches.poll());
+      }
+    } finally {
+      // Make sure the batch writer is idle before we use the database connection again
+      //
+      for (Future<TableOutputBatch> future : data.inFlightBatches) {
+        try {
+          future.get();
+        } catch (Exception e) {
+          // The first error was already reported
+        }
+      }
+      data.inFlightBatches.clear();
+      data.pendingBatches.clear();
+    }
+  }
+
+  /**
+   * Wait until a batch is written and pass on its rows or send them to error handling. Failures
+   * are raised here, on the transform thread.
+   */
+  private void processWrittenBatch(Future<TableOutputBatch> future) throws HopException {
+    TableOutputBatch batch;
+    try {
+      batch = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a batch to be written", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Unexpected error writing a batch", e.getCause());
+    }
+
+    if (batch.isSkipped()) {
+      return;
+    }
+    if (batch.getFailure() != null) {
+      throw batch.getFailure();
+    }
+
+    for (int i = 0; i < batch.getErrorRows().size(); i++) {
+      putError(
+          data.outputRowMeta,
+          batch.getErrorRows().get(i),
+          1L,
+          batch.getErrorMessages().get(i),
+          null,
+          "TOP001");
+    }
+    HopDatabaseBatchException be = batch.getBatchException();
+    if (be != null) {
+      processBatchException(
+          batch.getBatchedRows(), be.toString(), be.getUpdateCounts(), be.getExceptionsList());
+    } else {
+      for (Object[] row : batch.getBatchedRows()) {
+        putRow(data.outputRowMeta, row);
+        incrementLinesOutput();
+      }
+    }
+  }
+
+  /**
+   * Write and commit a batch. This runs on the batch writer thread which is the only thread using
+   * the database connection while asynchronous writes are enabled. Once a batch failed, the batches
+   * after it are skipped.
+   */
+  TableOutputBatch writeBatch(TableOutputBatch batch) {
+    if (data.batchWriteFailed.get()) {
+      batch.setSkipped(true);
+      return batch;
+    }
+
+    String tableName = batch.getTableName();
+    PreparedStatement insertStatement = null;
+    try {
+      insertStatement = getInsertStatement(tableName);
+
+      for (int i = 0; i < batch.size(); i++) {
+        Object[] insertRowData = batch.getInsertRows().get(i);
+        Object[] outputRowData = batch.getOutputRows().get(i);
+        try {
+          data.db.setValues(data.insertRowMeta, insertRowData, insertStatement);
+          data.db.insertRow(insertStatement, data.batchMode, false);
+          batch.getBatchedRows().add(outputRowData);
+        } catch (HopDatabaseBatchException be) {
+          throw be;
+        } catch (HopDatabaseException dbe) {
+          if (getTransformMeta().isDoingErrorHandling()) {
+            batch.addErrorRow(outputRowData, dbe.toString());
+          } else if (meta.isIgnoreErrors()) {
+            logIgnoredError(data.outputRowMeta, outputRowData, dbe);
+            batch.getBatchedRows().add(outputRowData);
+          } else {
+            throw new HopException(
+                "Error inserting row into table ["
+                    + tableName
+                    + "] with values: "
+                    + data.insertRowMeta.getString(insertRowData),
+                dbe);
+          }
+        }
+      }
+
+      if (data.db.getUseBatchInsert(data.batchMode)) {
+        try {
+          insertStatement.executeBatch();
+          data.db.commit();
+          insertStatement.clearBatch();
+        } catch (SQLException ex) {
+          throw Database.createHopDatabaseBatchException("Error updating batch", ex);
+        }
+      } else {
+        data.db.commit();
+      }
+      if (log.isDetailed()) {
+        logDetailed("Committed a batch of " + batch.size() + " rows into table " + tableName);
+      }
+    } catch (HopDatabaseBatchException be) {
+      try {
+        data.db.clearBatch(insertStatement);
+        if (getTransformMeta().isDoingErrorHandling()) {
+          data.db.commit(true);
+          batch.setBatchException(be);
+        } else {
+          data.db.rollback();
+          failBatch(batch, new HopException(getBatchErrorMessage(tableName, be), be));
+        }
+      } catch (HopException e) {
+        failBatch(batch, e);
+      }
+    } catch (Exception e) {
+      try {
+        data.db.rollback();
+      } catch (HopDatabaseException re) {
+        logError("Unexpected error rolling back the database connection.", re);
+      }
+      failBatch(
+          batch,
+          e instanceof HopException
+              ? (HopException) e
+              : new HopException("Unexpected error writing a batch", e));
+    }
+    return batch;
+  }
+
+  private void failBatch(TableOutputBatch batch, HopException failure) {
+    data.batchWriteFailed.set(true);
+    batch.setFailure(failure);
+  }
+
   private void processBatchException(
-      String errorMessage, int[] updateCounts, List<Exception> exceptionsList) throws HopException {
+      List<Object[]> rows, String errorMessage, int[] updateCounts, List<Exception> exceptionsList)
+      throws HopException {
     // There was an error with the commit
     // We should put all the failing rows out there...
     //
     if (updateCounts != null) {
       int errNr = 0;
       for (int i = 0; i < updateCounts.length; i++) {
-        Object[] row = data.batchBuffer.get(i);
+        Object[] row = rows.get(i);
         if (updateCounts[i] > 0) {
           // send the error foward
           putRow(data.outputRowMeta, row);
@@ -462,14 +679,14 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       // If we don't have update counts, it probably means the DB doesn't support it.
       // In this case we don't have a choice but to consider all inserted rows to be error rows.
       //
-      for (int i = 0; i < data.batchBuffer.size(); i++) {
-        Object[] row = data.batchBuffer.get(i);
+      for (int i = 0; i < rows.size(); i++) {
+        Object[] row = rows.get(i);
         putError(data.outputRowMeta, row, 1L, errorMessage, null, "TOP0003");
       }
     }
 
     // Clear the buffer afterwards...
-    data.batchBuffer.clear();
+    rows.clear();
   }
 
   @Override
@@ -510,6 +727,12 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
                 && !meta.isReturningGeneratedKeys()
                 && !data.useSafePoints;
 
+        // Write the batches on a separate thread while the next one is being filled
+        //
+        data.asyncWrites = meta.isAsyncWrites() && data.batchMode;
+        data.maxInFlightBatches =
+            Math.max(1, Const.toInt(resolve(meta.getMaxInFlightBatches()), 2));
+
         // give a warning that batch mode operation in combination with transform error handling can
         // lead to
         // incorrectly processed rows.
@@ -528,6 +751,22 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         data.db = new Database(this, this, data.databaseMeta);
         data.db.connect();
 
+        // The batch writer needs a connection of its own, it can't share it with other transforms
+        //
+        if (data.asyncWrites && !Utils.isEmpty(data.db.getConnectionGroup())) {
+          logBasic(BaseMessages.getString(PKG, "TableOutput.Log.AsyncWritesDisabled"));
+          data.asyncWrites = false;
+        }
+        if (data.asyncWrites) {
+          data.batchWriter =
+              Executors.newSingleThreadExecutor(
+                  runnable -> {
+                    Thread thread = new Thread(runnable, getTransformName() + " batch writer");
+                    thread.setDaemon(true);
+                    return thread;
+                  });
+        }
+
         if (log.isBasic()) {
           logBasic(
               "Connected to database ["
@@ -575,6 +814,9 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       try {
         emptyAndCommitBatchBuffers(true);
       } finally {
+        if (data.batchWriter != null) {
+          data.batchWriter.shutdownNow();
+        }
         data.db.disconnect();
       }
       super.dispose();
@@ -591,6 +833,9 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private void emptyAndCommitBatchBuffers(boolean dispose) {
     try {
+      if (data.asyncWrites) {
+        flushBatches();
+      }
       for (String schemaTable : data.preparedStatements.keySet()) {
         // Get a commit counter per prepared statement to keep track of separate tables, etc.
         //
@@ -615,7 +860,8 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         // Right at the back we are experiencing a batch commit problem...
         // OK, we have the numbers...
         try {
-          processBatchException(be.toString(), be.getUpdateCounts(), be.getExceptionsList());
+          processBatchException(
+              data.batchBuffer, be.toString(), be.getUpdateCounts(), be.getExceptionsList());
         } catch (HopException e) {
           logError("Unexpected error processing batch error", e);
           setErrors(1);
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of rows for a single table. It is filled by the transform and written to the database
+ * by the batch writer thread when asynchronous writes are enabled. The writer keeps track of the
+ * outcome so that the transform can pass the rows on once the batch was committed.
+ */
+public class TableOutputBatch {
+  private final String tableName;
+
+  /** The values to insert */
+  private final List<Object[]> insertRows = new ArrayList<>();
+
+  /** The rows to pass on to the next transforms once they are safely written */
+  private final List<Object[]> outputRows = new ArrayList<>();
+
+  /** The output rows which were added to the database batch */
+  private final List<Object[]> batchedRows = new ArrayList<>();
+
+  /** The output rows which couldn't be inserted and their error message */
+  private final List<Object[]> errorRows = new ArrayList<>();
+
+  private final List<String> errorMessages = new ArrayList<>();
+
+  /** The batch error to handle with error handling */
+  private HopDatabaseBatchException batchException;
+
+  /** The error which should stop the transform */
+  private HopException failure;
+
+  /** True if the batch was not written because an earlier batch failed */
+  private boolean skipped;
+
+  public TableOutputBatch(String tableName) {
+    this.tableName = tableName;
+  }
+
+  public void addRow(Object[] insertRow, Object[] outputRow) {
+    insertRows.add(insertRow);
+    outputRows.add(outputRow);
+  }
+
+  public int size() {
+    return insertRows.size();
+  }
+
+  public void addErrorRow(Object[] outputRow, String errorMessage) {
+    errorRows.add(outputRow);
+    errorMessages.add(errorMessage);
+  }
+
+  /** @return The name of the table to insert into */
+  public String getTableName() {
+    return tableName;
+  }
+
+  /** @return The values to insert */
+  public List<Object[]> getInsertRows() {
+    return insertRows;
+  }
+
+  /** @return The rows to pass on to the next transforms */
+  public List<Object[]> getOutputRows() {
+    return outputRows;
+  }
+
+  /** @return The output rows which were added to the database batch */
+  public List<Object[]> getBatchedRows() {
+    return batchedRows;
+  }
+
+  /** @return The output rows which couldn't be inserted */
+  public List<Object[]> getErrorRows() {
+    return errorRows;
+  }
+
+  /** @return The error messages of the rows which couldn't be inserted */
+  public List<String> getErrorMessages() {
+    return errorMessages;
+  }
+
+  /** @return The batch error to handle with error handling or null if there was none */
+  public HopDatabaseBatchException getBatchException() {
+    return batchException;
+  }
+
+  /** @param batchException The batch error to handle with error handling */
+  public void setBatchException(HopDatabaseBatchException batchException) {
+    this.batchException = batchException;
+  }
+
+  /** @return The error which should stop the transform or null if there was none */
+  public HopException getFailure() {
+    return failure;
+  }
+
+  /** @param failure The error which should stop the transform */
+  public void setFailure(HopException failure) {
+    this.failure = failure;
+  }
+
+  /** @return true if the batch was not written because an earlier batch failed */
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+  /** @param skipped true if the batch was not written because an earlier batch failed */
+  public void setSkipped(boolean skipped) {
+    this.skipped = skipped;
+  }
+}
@@ -27,6 +27,9 @@ import java.sql.PreparedStatement;
 import java.sql.Savepoint;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /** Storage class for table output transform. */
 public class TableOutputData extends BaseTransformData implements ITransformData {
@@ -65,6 +68,23 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** Write the batches on a separate thread while the next batch is being filled? */
+  public boolean asyncWrites;
+
+  public int maxInFlightBatches;
+
+  /** The batches being filled, per table name */
+  public Map<String, TableOutputBatch> pendingBatches;
+
+  /** The batches handed to the batch writer, in the order in which they are written */
+  public Deque<Future<TableOutputBatch>> inFlightBatches;
+
+  /** The single thread writing the batches, it's the only one using the database connection */
+  public ExecutorService batchWriter;
+
+  /** Set by the batch writer when a batch failed, the batches after it are not written */
+  public AtomicBoolean batchWriteFailed;
+
   public TableOutputData() {
     super();
 
@@ -80,6 +100,10 @@ public class TableOutputData extends BaseTransformData implements ITransformData
     batchBuffer = new ArrayList<>();
     commitCounterMap = new HashMap<>();
 
+    pendingBatches = new LinkedHashMap<>();
+    inFlightBatches = new ArrayDeque<>();
+    batchWriteFailed = new AtomicBoolean(false);
+
     releaseSavepoint = true;
   }
 }
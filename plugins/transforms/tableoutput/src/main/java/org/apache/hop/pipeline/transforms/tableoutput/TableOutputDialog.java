@@ -79,6 +79,12 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlAsyncWrites;
+  private Button wAsyncWrites;
+
+  private Label wlMaxInFlightBatches;
+  private TextVar wMaxInFlightBatches;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -496,13 +502,64 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
           }
         });
 
+    // Asynchronous batch writes
+    wlAsyncWrites = new Label(wMainComp, SWT.RIGHT);
+    wlAsyncWrites.setText(BaseMessages.getString(PKG, "TableOutputDialog.AsyncWrites.Label"));
+    wlAsyncWrites.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AsyncWrites.Tooltip"));
+    props.setLook(wlAsyncWrites);
+    FormData fdlAsyncWrites = new FormData();
+    fdlAsyncWrites.left = new FormAttachment(0, 0);
+    fdlAsyncWrites.top = new FormAttachment(wBatch, margin);
+    fdlAsyncWrites.right = new FormAttachment(middle, -margin);
+    wlAsyncWrites.setLayoutData(fdlAsyncWrites);
+    wAsyncWrites = new Button(wMainComp, SWT.CHECK);
+    wAsyncWrites.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AsyncWrites.Tooltip"));
+    props.setLook(wAsyncWrites);
+    FormData fdAsyncWrites = new FormData();
+    fdAsyncWrites.left = new FormAttachment(middle, 0);
+    fdAsyncWrites.top = new FormAttachment(wlAsyncWrites, 0, SWT.CENTER);
+    fdAsyncWrites.right = new FormAttachment(100, 0);
+    wAsyncWrites.setLayoutData(fdAsyncWrites);
+    wAsyncWrites.addSelectionListener(lsSelMod);
+    wAsyncWrites.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent arg0) {
+            setFlags();
+          }
+        });
+
+    // Maximum number of batches in flight
+    wlMaxInFlightBatches = new Label(wMainComp, SWT.RIGHT);
+    wlMaxInFlightBatches.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.MaxInFlightBatches.Label"));
+    wlMaxInFlightBatches.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.MaxInFlightBatches.Tooltip"));
+    props.setLook(wlMaxInFlightBatches);
+    FormData fdlMaxInFlightBatches = new FormData();
+    fdlMaxInFlightBatches.left = new FormAttachment(0, 0);
+    fdlMaxInFlightBatches.top = new FormAttachment(wAsyncWrites, margin);
+    fdlMaxInFlightBatches.right = new FormAttachment(middle, -margin);
+    wlMaxInFlightBatches.setLayoutData(fdlMaxInFlightBatches);
+    wMaxInFlightBatches =
+        new TextVar(variables, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wMaxInFlightBatches);
+    FormData fdMaxInFlightBatches = new FormData();
+    fdMaxInFlightBatches.left = new FormAttachment(middle, 0);
+    fdMaxInFlightBatches.top = new FormAttachment(wlMaxInFlightBatches, 0, SWT.CENTER);
+    fdMaxInFlightBatches.right = new FormAttachment(100, 0);
+    wMaxInFlightBatches.setLayoutData(fdMaxInFlightBatches);
+    wMaxInFlightBatches.addModifyListener(lsMod);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     props.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wMaxInFlightBatches, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1170,6 +1227,13 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wlBatch.setEnabled(enableBatch);
     wBatch.setEnabled(enableBatch);
 
+    // Asynchronous writes only apply to batch updates
+    wlAsyncWrites.setEnabled(useBatch);
+    wAsyncWrites.setEnabled(useBatch);
+    boolean useAsyncWrites = useBatch && wAsyncWrites.getSelection();
+    wlMaxInFlightBatches.setEnabled(useAsyncWrites);
+    wMaxInFlightBatches.setEnabled(useAsyncWrites);
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled(specifyFields);
     wGetFields.setEnabled(specifyFields);
@@ -1213,6 +1277,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wTruncate.setSelection(input.isTruncateTable());
     wIgnore.setSelection(input.isIgnoreErrors());
     wBatch.setSelection(input.isUseBatchUpdate());
+    wAsyncWrites.setSelection(input.isAsyncWrites());
+    wMaxInFlightBatches.setText(Const.NVL(input.getMaxInFlightBatches(), ""));
 
     wCommit.setText(input.getCommitSize());
 
@@ -1268,6 +1334,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     info.setTruncateTable(wTruncate.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setAsyncWrites(wAsyncWrites.getSelection());
+    info.setMaxInFlightBatches(wMaxInFlightBatches.getText());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
@@ -99,6 +99,18 @@ public class TableOutputMeta extends BaseTransformMeta
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  @HopMetadataProperty(
+      key = "async_writes",
+      injectionKey = "ASYNC_WRITES",
+      injectionKeyDescription = "TableOutputMeta.Injection.AsyncWrites.Field")
+  private boolean asyncWrites;
+
+  @HopMetadataProperty(
+      key = "max_in_flight_batches",
+      injectionKey = "MAX_IN_FLIGHT_BATCHES",
+      injectionKeyDescription = "TableOutputMeta.Injection.MaxInFlightBatches.Field")
+  private String maxInFlightBatches;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -283,6 +295,7 @@ public class TableOutputMeta extends BaseTransformMeta
     super(); // allocate BaseTransformMeta
     useBatchUpdate = true;
     commitSize = "1000";
+    maxInFlightBatches = "2";
 
     fields = new ArrayList<>();
   }
@@ -370,10 +383,35 @@ public class TableOutputMeta extends BaseTransformMeta
     return useBatchUpdate;
   }
 
+  /**
+   * @return true if the batches are written to the database on a separate thread while the next
+   *     batch is being filled
+   */
+  public boolean isAsyncWrites() {
+    return asyncWrites;
+  }
+
+  /** @param asyncWrites true if the batches should be written on a separate thread */
+  public void setAsyncWrites(boolean asyncWrites) {
+    this.asyncWrites = asyncWrites;
+  }
+
+  /** @return The maximum number of batches waiting to be written or being written */
+  public String getMaxInFlightBatches() {
+    return maxInFlightBatches;
+  }
+
+  /** @param maxInFlightBatches The maximum number of batches waiting or being written */
+  public void setMaxInFlightBatches(String maxInFlightBatches) {
+    this.maxInFlightBatches = maxInFlightBatches;
+  }
+
   @Override
   public void setDefault() {
     tableName = "";
     commitSize = "1000";
+    asyncWrites = false;
+    maxInFlightBatches = "2";
 
     partitioningEnabled = false;
     partitioningDaily = false;
@@ -20,8 +20,11 @@ package org.apache.hop.pipeline.transforms.tableoutput;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
@@ -29,12 +32,23 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -203,4 +217,141 @@ public class TableOutputTest {
     verify(tableOutputSpy, times(1))
         .logError("An error occurred initializing this transform: " + ke.getMessage());
   }
+
+  private TableOutput createAsyncTableOutput(
+      TableOutputData data, PreparedStatement insertStatement, List<Object[]> written)
+      throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    data.db = db;
+    data.tableName = "sas";
+    data.insertRowMeta = rowMeta;
+    data.outputRowMeta = rowMeta;
+    data.batchMode = true;
+    data.asyncWrites = true;
+    data.commitSize = 2;
+    data.maxInFlightBatches = 1;
+    data.batchWriter = Executors.newSingleThreadExecutor();
+
+    doReturn("INSERT").when(db).getInsertStatement(anyString(), anyString(), any(IRowMeta.class));
+    doReturn(insertStatement).when(db).prepareSql(anyString(), anyBoolean());
+    doReturn(true).when(db).getUseBatchInsert(true);
+
+    TableOutput transform =
+        spy(
+            new TableOutput(
+                transformMeta,
+                tableOutputMeta,
+                data,
+                0,
+                pipelineMeta,
+                spy(new LocalPipelineEngine())));
+    doReturn(transformMeta).when(transform).getTransformMeta();
+    doReturn(false).when(transform).isRowLevel();
+    doNothing().when(transform).logError(anyString());
+    doNothing().when(transform).logError(anyString(), any(Throwable.class));
+    doAnswer(invocation -> written.add((Object[]) invocation.getArguments()[1]))
+        .when(transform)
+        .putRow(any(IRowMeta.class), any(Object[].class));
+    return transform;
+  }
+
+  @Test
+  public void testAsyncWritesPassOnRowsInCommitOrder() throws Exception {
+    TableOutputData data = new TableOutputData();
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    List<Object[]> written = new ArrayList<>();
+    TableOutput transform = createAsyncTableOutput(data, insertStatement, written);
+
+    for (long i = 0; i < 5; i++) {
+      assertEquals(null, transform.writeToTable(data.insertRowMeta, new Object[] {i}));
+    }
+    transform.batchComplete();
+    data.batchWriter.shutdown();
+
+    assertEquals(5, written.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals((long) i, written.get(i)[0]);
+    }
+    verify(db, times(5)).insertRow(insertStatement, true, false);
+    verify(insertStatement, times(3)).executeBatch();
+    verify(db, times(3)).commit();
+    verify(db, never()).rollback();
+  }
+
+  @Test
+  public void testAsyncWritesSendFailedRowsToErrorHandling() throws Exception {
+    TableOutputData data = new TableOutputData();
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    doThrow(new BatchUpdateException(new int[] {1, Statement.EXECUTE_FAILED}))
+        .when(insertStatement)
+        .executeBatch();
+    doReturn(true).when(transformMeta).isDoingErrorHandling();
+    List<Object[]> written = new ArrayList<>();
+    TableOutput transform = createAsyncTableOutput(data, insertStatement, written);
+    List<Object[]> errors = new ArrayList<>();
+    doAnswer(invocation -> errors.add((Object[]) invocation.getArguments()[1]))
+        .when(transform)
+        .putError(
+            any(IRowMeta.class),
+            any(Object[].class),
+            anyLong(),
+            anyString(),
+            anyString(),
+            anyString());
+
+    transform.writeToTable(data.insertRowMeta, new Object[] {1L});
+    transform.writeToTable(data.insertRowMeta, new Object[] {2L});
+    transform.batchComplete();
+    data.batchWriter.shutdown();
+
+    assertEquals(1, written.size());
+    assertEquals(1L, written.get(0)[0]);
+    assertEquals(1, errors.size());
+    assertEquals(2L, errors.get(0)[0]);
+    verify(db).commit(true);
+  }
+
+  @Test
+  public void testAsyncWriteFailureStopsLaterBatches() throws Exception {
+    TableOutputData data = new TableOutputData();
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    // Hold the first batch until all the rows are queued so that it fails in batchComplete()
+    //
+    CountDownLatch rowsQueued = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              rowsQueued.await();
+              throw new BatchUpdateException(new int[0]);
+            })
+        .when(insertStatement)
+        .executeBatch();
+    List<Object[]> written = new ArrayList<>();
+    TableOutput transform = createAsyncTableOutput(data, insertStatement, written);
+    data.maxInFlightBatches = 3;
+
+    for (long i = 0; i < 6; i++) {
+      transform.writeToTable(data.insertRowMeta, new Object[] {i});
+    }
+    rowsQueued.countDown();
+    transform.batchComplete();
+    data.batchWriter.shutdown();
+
+    // The first batch fails, the ones after it are never written
+    //
+    assertTrue(written.isEmpty());
+    verify(insertStatement, times(1)).executeBatch();
+    verify(db, never()).commit();
+    verify(db, atLeastOnce()).rollback();
+
+    // The batch exception is reported on the transform thread
+    //
+    ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+    verify(transform)
+        .logError(eq("Unexpected error committing the database connection."), failure.capture());
+    assertTrue(failure.getValue().getCause() instanceof HopDatabaseBatchException);
+    assertTrue(failure.getValue().getCause().getCause() instanceof BatchUpdateException);
+    assertEquals(1, transform.getErrors());
+  }
 }
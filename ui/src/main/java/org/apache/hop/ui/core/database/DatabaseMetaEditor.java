@@ -86,6 +86,11 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
 
   private TableView wOptions;
 
+  private Button wUsePool;
+  private TextVar wInitialPoolSize;
+  private TextVar wMaximumPoolSize;
+  private TableView wPoolParameters;
+
   private PropsUi props;
   private int middle;
   private int margin;
@@ -174,6 +179,7 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     addGeneralTab();
     addAdvancedTab();
     addOptionsTab();
+    addPoolingTab();
 
     // Select the general tab
     //
@@ -211,6 +217,11 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wPreferredSchema.addListener(SWT.Modify, modifyListener);
     wSqlStatements.addListener(SWT.Modify, modifyListener);
     wOptions.addListener(SWT.Modify, modifyListener);
+    wUsePool.addListener(SWT.Selection, modifyListener);
+    wUsePool.addListener(SWT.Selection, event -> enableFields());
+    wInitialPoolSize.addListener(SWT.Modify, modifyListener);
+    wMaximumPoolSize.addListener(SWT.Modify, modifyListener);
+    wPoolParameters.addListener(SWT.Modify, modifyListener);
   }
 
   private void addGeneralTab() {
@@ -688,6 +699,132 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptionsTab.setControl(wOptionsComp);
   }
 
+  private void addPoolingTab() {
+
+    CTabItem wPoolingTab = new CTabItem(wTabFolder, SWT.NONE);
+    wPoolingTab.setText(
+        "   " + BaseMessages.getString(PKG, "DatabaseDialog.PoolingTab.title") + "   ");
+
+    Composite wPoolingComp = new Composite(wTabFolder, SWT.NONE);
+    props.setLook(wPoolingComp);
+
+    FormLayout poolingLayout = new FormLayout();
+    poolingLayout.marginWidth = Const.FORM_MARGIN * 2;
+    poolingLayout.marginHeight = Const.FORM_MARGIN * 2;
+    wPoolingComp.setLayout(poolingLayout);
+
+    // Use a connection pool?
+    //
+    Label wlUsePool = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlUsePool);
+    wlUsePool.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.UseConnectionPool"));
+    FormData fdlUsePool = new FormData();
+    fdlUsePool.top = new FormAttachment(0, 0);
+    fdlUsePool.left = new FormAttachment(0, 0); // First one in the left top corner
+    fdlUsePool.right = new FormAttachment(middle, 0);
+    wlUsePool.setLayoutData(fdlUsePool);
+    wUsePool = new Button(wPoolingComp, SWT.CHECK | SWT.LEFT);
+    props.setLook(wUsePool);
+    FormData fdUsePool = new FormData();
+    fdUsePool.top = new FormAttachment(wlUsePool, 0, SWT.CENTER);
+    fdUsePool.left = new FormAttachment(middle, margin); // To the right of the label
+    fdUsePool.right = new FormAttachment(100, 0);
+    wUsePool.setLayoutData(fdUsePool);
+    Control lastControl = wUsePool;
+
+    // The initial pool size
+    //
+    Label wlInitialPoolSize = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlInitialPoolSize);
+    wlInitialPoolSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.InitialPoolSize"));
+    FormData fdlInitialPoolSize = new FormData();
+    fdlInitialPoolSize.top = new FormAttachment(lastControl, margin);
+    fdlInitialPoolSize.left = new FormAttachment(0, 0);
+    fdlInitialPoolSize.right = new FormAttachment(middle, 0);
+    wlInitialPoolSize.setLayoutData(fdlInitialPoolSize);
+    wInitialPoolSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wInitialPoolSize);
+    FormData fdInitialPoolSize = new FormData();
+    fdInitialPoolSize.top = new FormAttachment(wlInitialPoolSize, 0, SWT.CENTER);
+    fdInitialPoolSize.left = new FormAttachment(middle, margin);
+    fdInitialPoolSize.right = new FormAttachment(100, 0);
+    wInitialPoolSize.setLayoutData(fdInitialPoolSize);
+    lastControl = wInitialPoolSize;
+
+    // The maximum pool size
+    //
+    Label wlMaximumPoolSize = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlMaximumPoolSize);
+    wlMaximumPoolSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.MaximumPoolSize"));
+    FormData fdlMaximumPoolSize = new FormData();
+    fdlMaximumPoolSize.top = new FormAttachment(lastControl, margin);
+    fdlMaximumPoolSize.left = new FormAttachment(0, 0);
+    fdlMaximumPoolSize.right = new FormAttachment(middle, 0);
+    wlMaximumPoolSize.setLayoutData(fdlMaximumPoolSize);
+    wMaximumPoolSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wMaximumPoolSize);
+    FormData fdMaximumPoolSize = new FormData();
+    fdMaximumPoolSize.top = new FormAttachment(wlMaximumPoolSize, 0, SWT.CENTER);
+    fdMaximumPoolSize.left = new FormAttachment(middle, margin);
+    fdMaximumPoolSize.right = new FormAttachment(100, 0);
+    wMaximumPoolSize.setLayoutData(fdMaximumPoolSize);
+    lastControl = wMaximumPoolSize;
+
+    ColumnInfo[] poolColumns =
+        new ColumnInfo[] {
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.PoolParameter"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              DatabaseConnectionPoolParameter.getParameterNames(
+                  BaseDatabaseMeta.poolingParameters),
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.PoolValue"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false),
+        };
+    poolColumns[1].setUsingVariables(true);
+
+    // The pool parameters
+    //
+    Label wlPoolParameters = new Label(wPoolingComp, SWT.LEFT);
+    props.setLook(wlPoolParameters);
+    wlPoolParameters.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolParameters"));
+    FormData fdlPoolParameters = new FormData();
+    fdlPoolParameters.top = new FormAttachment(lastControl, margin * 2);
+    fdlPoolParameters.left = new FormAttachment(0, 0);
+    fdlPoolParameters.right = new FormAttachment(100, 0);
+    wlPoolParameters.setLayoutData(fdlPoolParameters);
+    wPoolParameters =
+        new TableView(
+            manager.getVariables(),
+            wPoolingComp,
+            SWT.BORDER,
+            poolColumns,
+            getMetadata().getConnectionPoolingProperties().size(),
+            event -> setChanged(),
+            props);
+    props.setLook(wPoolParameters);
+    FormData fdPoolParameters = new FormData();
+    fdPoolParameters.top = new FormAttachment(wlPoolParameters, margin * 2);
+    fdPoolParameters.bottom = new FormAttachment(100, 0);
+    fdPoolParameters.left = new FormAttachment(0, 0);
+    fdPoolParameters.right = new FormAttachment(100, 0);
+    wPoolParameters.setLayoutData(fdPoolParameters);
+
+    FormData fdPoolingComp = new FormData();
+    fdPoolingComp.left = new FormAttachment(0, 0);
+    fdPoolingComp.top = new FormAttachment(0, 0);
+    fdPoolingComp.right = new FormAttachment(100, 0);
+    fdPoolingComp.bottom = new FormAttachment(100, 0);
+    wPoolingComp.setLayoutData(fdPoolingComp);
+
+    wPoolingComp.layout();
+    wPoolingTab.setControl(wPoolingComp);
+  }
+
   private void enableFields() {
     boolean manualUrl =
         StringUtils.isNotEmpty(wManualUrl.getText())
@@ -697,6 +834,11 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     //
     guiCompositeWidgets.enableWidgets(
         getMetadata().getIDatabase(), DatabaseMeta.GUI_PLUGIN_ELEMENT_PARENT_ID, !manualUrl);
+
+    boolean usePool = wUsePool.getSelection();
+    wInitialPoolSize.setEnabled(usePool);
+    wMaximumPoolSize.setEnabled(usePool);
+    wPoolParameters.setEnabled(usePool);
   }
 
   private void test() {
@@ -764,6 +906,22 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptions.setRowNums();
     wOptions.optWidth(true);
 
+    wUsePool.setSelection(databaseMeta.isUsingConnectionPool());
+    wInitialPoolSize.setText(Const.NVL(databaseMeta.getInitialPoolSizeString(), ""));
+    wMaximumPoolSize.setText(Const.NVL(databaseMeta.getMaximumPoolSizeString(), ""));
+    wPoolParameters.clearAll(false);
+    Properties poolingProperties = databaseMeta.getConnectionPoolingProperties();
+    List<String> parameters = new ArrayList<>(poolingProperties.stringPropertyNames());
+    Collections.sort(parameters);
+    for (String parameter : parameters) {
+      TableItem item = new TableItem(wPoolParameters.table, SWT.NONE);
+      item.setText(1, parameter);
+      item.setText(2, Const.NVL(poolingProperties.getProperty(parameter), ""));
+    }
+    wPoolParameters.removeEmptyRows();
+    wPoolParameters.setRowNums();
+    wPoolParameters.optWidth(true);
+
     enableFields();
   }
 
@@ -798,6 +956,16 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
       String value = item.getText(2);
       meta.addExtraOption(meta.getPluginId(), option, value);
     }
+
+    meta.setUsingConnectionPool(wUsePool.getSelection());
+    meta.setInitialPoolSizeString(wInitialPoolSize.getText());
+    meta.setMaximumPoolSizeString(wMaximumPoolSize.getText());
+    Properties poolingProperties = new Properties();
+    for (int i = 0; i < wPoolParameters.nrNonEmpty(); i++) {
+      TableItem item = wPoolParameters.getNonEmpty(i);
+      poolingProperties.setProperty(item.getText(1), item.getText(2));
+    }
+    meta.setConnectionPoolingProperties(poolingProperties);
   }
 
   /** Test the database connection */